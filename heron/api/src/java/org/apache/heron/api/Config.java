@@ -206,6 +206,12 @@ public class Config extends HashMap<String, Object> {
    * spout0:12434,spout1:345353,bolt1:545356.
    */
   public static final String TOPOLOGY_COMPONENT_DISKMAP = "topology.component.diskmap";
+  /**
+   * Per component emit rate, in tuples per second, e.g. as observed in the metrics cache.
+   * Traffic aware packing weighs the streams of the topology with it. The format of this flag
+   * is something like spout0:1000,bolt1:250.
+   */
+  public static final String TOPOLOGY_COMPONENT_EMIT_RATEMAP = "topology.component.emit.ratemap";
   /**
    * What's the checkpoint interval for stateful topologies in seconds
    */
@@ -217,6 +223,22 @@ public class Config extends HashMap<String, Object> {
    */
   public static final String TOPOLOGY_STATEFUL_START_CLEAN =
                              "topology.stateful.start.clean";
+  /**
+   * The number of checkpoints between two full snapshots of a stateful component's state.
+   * The checkpoints in between only hold the keys put or removed since the previous one,
+   * and are chained back to the last full snapshot on restore. The default, 1, makes every
+   * checkpoint a full snapshot. Changes are only tracked when values are replaced through
+   * the State itself, so values must not be modified in place. The interval can be at most
+   * MAX_STATEFUL_FULL_CHECKPOINT_INTERVAL, so that the snapshot a checkpoint depends on is not
+   * disposed before it; topologies with a larger interval are rejected at submission.
+   */
+  public static final String TOPOLOGY_STATEFUL_FULL_CHECKPOINT_INTERVAL =
+                             "topology.stateful.full.checkpoint.interval";
+  /**
+   * The largest TOPOLOGY_STATEFUL_FULL_CHECKPOINT_INTERVAL, the number of consistent
+   * checkpoints the topology master retains before disposing the older ones.
+   */
+  public static final int MAX_STATEFUL_FULL_CHECKPOINT_INTERVAL = 5;
   /**
    * Checkpoint Manager RAM requirement.
    */
@@ -304,6 +326,15 @@ public class Config extends HashMap<String, Object> {
    */
   public static final String TOPOLOGY_COMPONENT_OUTPUT_BPS = "topology.component.output.bps";
 
+  /**
+   * Whether bolts deserialize the values of incoming tuples lazily, each field on its first
+   * access, rather than all of them before execute(). Only enable it for bolts that read tuple
+   * values from the thread calling execute(). Defaults to false.
+   * Can be used as a component-specific configuration.
+   */
+  public static final String TOPOLOGY_LAZY_TUPLE_DESERIALIZATION =
+      "topology.lazy.tuple.deserialization";
+
   private static final long serialVersionUID = 2550967708478837032L;
   // We maintain a list of all user exposed vars
   private static Set<String> apiVars = new HashSet<>();
@@ -330,8 +361,10 @@ public class Config extends HashMap<String, Object> {
     apiVars.add(TOPOLOGY_COMPONENT_CPUMAP);
     apiVars.add(TOPOLOGY_COMPONENT_RAMMAP);
     apiVars.add(TOPOLOGY_COMPONENT_DISKMAP);
+    apiVars.add(TOPOLOGY_COMPONENT_EMIT_RATEMAP);
     apiVars.add(TOPOLOGY_STATEFUL_START_CLEAN);
     apiVars.add(TOPOLOGY_STATEFUL_CHECKPOINT_INTERVAL_SECONDS);
+    apiVars.add(TOPOLOGY_STATEFUL_FULL_CHECKPOINT_INTERVAL);
     apiVars.add(TOPOLOGY_STATEFUL_CKPTMGR_RAM);
     apiVars.add(TOPOLOGY_STMGR_RAM);
     apiVars.add(TOPOLOGY_METRICSMGR_RAM);
@@ -347,6 +380,7 @@ public class Config extends HashMap<String, Object> {
     apiVars.add(TOPOLOGY_REMOTE_DEBUGGING_ENABLE);
     apiVars.add(TOPOLOGY_DROPTUPLES_UPON_BACKPRESSURE);
     apiVars.add(TOPOLOGY_COMPONENT_OUTPUT_BPS);
+    apiVars.add(TOPOLOGY_LAZY_TUPLE_DESERIALIZATION);
   }
 
   public Config() {
@@ -495,6 +529,11 @@ public class Config extends HashMap<String, Object> {
     conf.put(Config.TOPOLOGY_COMPONENT_OUTPUT_BPS, String.valueOf(bps));
   }
 
+  public static void setTopologyLazyTupleDeserialization(Map<String, Object> conf,
+                                                         boolean isLazy) {
+    conf.put(Config.TOPOLOGY_LAZY_TUPLE_DESERIALIZATION, String.valueOf(isLazy));
+  }
+
   @SuppressWarnings("unchecked")
   public static List<String> getAutoTaskHooks(Map<String, Object> conf) {
     return (List<String>) conf.get(Config.TOPOLOGY_AUTO_TASK_HOOKS);
@@ -550,6 +589,19 @@ public class Config extends HashMap<String, Object> {
     }
   }
 
+  public static void setComponentEmitRate(Map<String, Object> conf,
+                                          String component, double tuplesPerSecond) {
+    String key = Config.TOPOLOGY_COMPONENT_EMIT_RATEMAP;
+    if (conf.containsKey(key)) {
+      String oldEntry = (String) conf.get(key);
+      String newEntry = String.format("%s,%s:%f", oldEntry, component, tuplesPerSecond);
+      conf.put(key, newEntry);
+    } else {
+      String newEntry = String.format("%s:%f", component, tuplesPerSecond);
+      conf.put(key, newEntry);
+    }
+  }
+
   public static void setComponentJvmOptions(
       Map<String, Object> conf,
       String component,
@@ -588,6 +640,11 @@ public class Config extends HashMap<String, Object> {
     conf.put(Config.TOPOLOGY_STATEFUL_START_CLEAN, String.valueOf(clean));
   }
 
+  public static void setTopologyStatefulFullCheckpointInterval(Map<String, Object> conf,
+                                                               int checkpoints) {
+    conf.put(Config.TOPOLOGY_STATEFUL_FULL_CHECKPOINT_INTERVAL, Integer.toString(checkpoints));
+  }
+
   public static void setCheckpointManagerRam(Map<String, Object> conf,
                                              ByteAmount ramInBytes) {
     conf.put(Config.TOPOLOGY_STATEFUL_CKPTMGR_RAM, ramInBytes.asBytes());
@@ -723,6 +780,10 @@ public class Config extends HashMap<String, Object> {
     setComponentDisk(this, component, diskInBytes);
   }
 
+  public void setComponentEmitRate(String component, double tuplesPerSecond) {
+    setComponentEmitRate(this, component, tuplesPerSecond);
+  }
+
   public void setUpdateDeactivateWaitDuration(int seconds) {
     put(Config.TOPOLOGY_UPDATE_DEACTIVATE_WAIT_SECS, Integer.toString(seconds));
   }
@@ -769,6 +830,10 @@ public class Config extends HashMap<String, Object> {
     setTopologyStatefulStartClean(this, clean);
   }
 
+  public void setTopologyStatefulFullCheckpointInterval(int checkpoints) {
+    setTopologyStatefulFullCheckpointInterval(this, checkpoints);
+  }
+
   public void setCheckpointManagerRam(ByteAmount ramInBytes) {
     setCheckpointManagerRam(this, ramInBytes);
   }
@@ -819,4 +884,8 @@ public class Config extends HashMap<String, Object> {
   public void setTopologyComponentOutputBPS(long bps) {
     this.put(Config.TOPOLOGY_COMPONENT_OUTPUT_BPS, String.valueOf(bps));
   }
+
+  public void setTopologyLazyTupleDeserialization(boolean isLazy) {
+    this.put(Config.TOPOLOGY_LAZY_TUPLE_DESERIALIZATION, String.valueOf(isLazy));
+  }
 }
@@ -19,6 +19,7 @@
 
 package org.apache.heron.api.bolt;
 
+import java.io.File;
 import java.io.Serializable;
 import java.util.Collection;
 import java.util.HashSet;
@@ -31,6 +32,7 @@ import java.util.logging.Logger;
 
 import org.apache.heron.api.Config;
 import org.apache.heron.api.generated.TopologyAPI;
+import org.apache.heron.api.serializer.JavaSerializer;
 import org.apache.heron.api.state.HashMapState;
 import org.apache.heron.api.state.State;
 import org.apache.heron.api.topology.IStatefulComponent;
@@ -41,6 +43,7 @@ import org.apache.heron.api.tuple.Tuple;
 import org.apache.heron.api.tuple.Values;
 import org.apache.heron.api.windowing.Event;
 import org.apache.heron.api.windowing.EvictionPolicy;
+import org.apache.heron.api.windowing.SpillableEventQueue;
 import org.apache.heron.api.windowing.TimestampExtractor;
 import org.apache.heron.api.windowing.TriggerPolicy;
 import org.apache.heron.api.windowing.TupleWindowImpl;
@@ -70,6 +73,8 @@ public class WindowedBoltExecutor implements IRichBolt,
   private static final Logger LOG = Logger.getLogger(WindowedBoltExecutor.class.getName());
   private static final int DEFAULT_WATERMARK_EVENT_INTERVAL_MS = 1000; // 1s
   private static final int DEFAULT_MAX_LAG_MS = 0; // no lag
+  private static final int DEFAULT_OFFHEAP_SEGMENT_BYTES = 1024 * 1024; // 1MB
+  private static final long DEFAULT_OFFHEAP_MEMORY_BYTES = 64L * 1024 * 1024; // 64MB
   public static final String LATE_TUPLE_FIELD = "late_tuple";
   private final IWindowedBolt bolt;
   private transient WindowedOutputCollector windowedOutputCollector;
@@ -81,6 +86,7 @@ public class WindowedBoltExecutor implements IRichBolt,
   private transient TriggerPolicy<Tuple, ?> triggerPolicy;
   private transient EvictionPolicy<Tuple, ?> evictionPolicy;
   private transient Long windowLengthDurationMs;
+  private transient SpillableEventQueue<Tuple> spillableQueue;
   private State<Serializable, Serializable> state;
   private static final String WINDOWING_INTERNAL_STATE = "windowing.internal.state";
   // package level for unit tests
@@ -328,7 +334,36 @@ public class WindowedBoltExecutor implements IRichBolt,
   @Override
   public void prepare(Map<String, Object> topoConf, TopologyContext context, OutputCollector
       collector) {
-    doPrepare(topoConf, context, collector, new ConcurrentLinkedQueue<>());
+    Collection<Event<Tuple>> queue;
+    if (topoConf.containsKey(WindowingConfigs.TOPOLOGY_BOLTS_WINDOW_OFFHEAP_ENABLED)
+        && TypeUtils.getBoolean(
+            topoConf.get(WindowingConfigs.TOPOLOGY_BOLTS_WINDOW_OFFHEAP_ENABLED))) {
+      spillableQueue = newSpillableQueue(topoConf);
+      queue = spillableQueue;
+    } else {
+      queue = new ConcurrentLinkedQueue<>();
+    }
+    doPrepare(topoConf, context, collector, queue);
+  }
+
+  private SpillableEventQueue<Tuple> newSpillableQueue(Map<String, Object> topoConf) {
+    int segmentBytes = DEFAULT_OFFHEAP_SEGMENT_BYTES;
+    if (topoConf.containsKey(WindowingConfigs.TOPOLOGY_BOLTS_WINDOW_OFFHEAP_SEGMENT_BYTES)) {
+      segmentBytes = TypeUtils.getInteger(
+          topoConf.get(WindowingConfigs.TOPOLOGY_BOLTS_WINDOW_OFFHEAP_SEGMENT_BYTES));
+    }
+    long memoryBytes = DEFAULT_OFFHEAP_MEMORY_BYTES;
+    if (topoConf.containsKey(WindowingConfigs.TOPOLOGY_BOLTS_WINDOW_OFFHEAP_MEMORY_BYTES)) {
+      memoryBytes = TypeUtils.getLong(
+          topoConf.get(WindowingConfigs.TOPOLOGY_BOLTS_WINDOW_OFFHEAP_MEMORY_BYTES));
+    }
+    String spillDirectory = System.getProperty("java.io.tmpdir");
+    if (topoConf.containsKey(WindowingConfigs.TOPOLOGY_BOLTS_WINDOW_SPILL_DIRECTORY)) {
+      spillDirectory =
+          (String) topoConf.get(WindowingConfigs.TOPOLOGY_BOLTS_WINDOW_SPILL_DIRECTORY);
+    }
+    return new SpillableEventQueue<>(new JavaSerializer(), segmentBytes, memoryBytes,
+        new File(spillDirectory));
   }
 
   // NOTE: the queue has to be thread safe.
@@ -372,6 +407,9 @@ public class WindowedBoltExecutor implements IRichBolt,
     if (windowManager != null) {
       windowManager.shutdown();
     }
+    if (spillableQueue != null) {
+      spillableQueue.close();
+    }
     bolt.cleanup();
   }
 
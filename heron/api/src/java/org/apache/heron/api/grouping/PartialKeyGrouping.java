@@ -0,0 +1,224 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.heron.api.grouping;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.heron.api.topology.TopologyContext;
+import org.apache.heron.api.tuple.Fields;
+import org.apache.heron.api.utils.Utils;
+
+/**
+ * PartialKeyGrouping is a fields grouping which splits the tuples of a key between two tasks,
+ * so that a hot key does not overload a single task. Each key is hashed to two candidate tasks,
+ * and every tuple goes to the candidate this task has sent fewer tuples to so far. The loads
+ * are estimated locally by each emitting task, without any coordination. Since a key is
+ * processed by up to two tasks, the downstream bolt has to be able to merge their results,
+ * e.g. word counts aggregated once more further down.
+ * <p>
+ * By default the candidates are the hashes of the key modulo the # of tasks, like fields
+ * grouping. With consistent hashing, the candidates are the owners of the two hashes on a ring
+ * of tasks instead, so that only a small share of the keys move when the parallelism changes.
+ * <p>
+ * The emitting tasks run in different JVMs, so the key is hashed in a way that does not depend
+ * on the JVM: enums by name, arrays and lists by their elements, and objects keeping the
+ * identity hashCode of Object by their serialized bytes. Other objects are hashed with their
+ * own hashCode, which has to be computed from such values as well.
+ */
+public class PartialKeyGrouping implements CustomStreamGrouping {
+  private static final long serialVersionUID = 2460536437924627262L;
+  // # of points of each task on the consistent hashing ring
+  private static final int VIRTUAL_NODES_PER_TASK = 64;
+  // Whether a class keeps the identity hashCode of Object
+  private static final ClassValue<Boolean> IDENTITY_HASH_CODE = new ClassValue<Boolean>() {
+    @Override
+    protected Boolean computeValue(Class<?> type) {
+      try {
+        return type.getMethod("hashCode").getDeclaringClass() == Object.class;
+      } catch (NoSuchMethodException e) {
+        return true;
+      }
+    }
+  };
+
+  private final Fields fields;
+  private final boolean consistentHashing;
+
+  private Fields outputFields;
+  private List<Integer> targetTasks;
+  // # of tuples sent to each target task by this task
+  private long[] loads;
+  // The consistent hashing ring, sorted positions and the index of the task at each position
+  private int[] ringPositions;
+  private int[] ringTasks;
+
+  /**
+   * Group on all the fields of the tuples
+   */
+  public PartialKeyGrouping() {
+    this(null, false);
+  }
+
+  public PartialKeyGrouping(Fields fields) {
+    this(fields, false);
+  }
+
+  /**
+   * @param fields The fields to group on, or null to group on all the fields
+   * @param consistentHashing Whether to choose the candidate tasks on a consistent hashing ring
+   */
+  public PartialKeyGrouping(Fields fields, boolean consistentHashing) {
+    this.fields = fields;
+    this.consistentHashing = consistentHashing;
+  }
+
+  @Override
+  public void prepare(TopologyContext context, String component, String streamId,
+                      List<Integer> tasks) {
+    targetTasks = new ArrayList<>(tasks);
+    // All the emitting tasks have to agree on the candidates of a key
+    Collections.sort(targetTasks);
+    loads = new long[targetTasks.size()];
+    if (fields != null) {
+      outputFields = context.getComponentOutputFields(component, streamId);
+    }
+    if (consistentHashing) {
+      buildRing();
+    }
+  }
+
+  @Override
+  public List<Integer> chooseTasks(List<Object> values) {
+    int hash = hash(getKey(values));
+    int first;
+    int second;
+    if (consistentHashing) {
+      int firstPosition = findRingPosition(mix(hash));
+      first = ringTasks[firstPosition];
+      second = ringTasks[findRingPosition(mix(hash ^ 0x9e3779b9))];
+      // Make sure a key has two distinct candidates, walking the ring if needed
+      for (int i = 1; second == first && i < ringTasks.length; i++) {
+        second = ringTasks[(firstPosition + i) % ringTasks.length];
+      }
+    } else {
+      first = index(mix(hash));
+      second = index(mix(hash ^ 0x9e3779b9));
+    }
+    int chosen = loads[second] < loads[first] ? second : first;
+    loads[chosen]++;
+    return Collections.singletonList(targetTasks.get(chosen));
+  }
+
+  /**
+   * The key of the tuple to hash, the values of the grouping fields
+   */
+  protected Object getKey(List<Object> values) {
+    if (fields == null) {
+      return values;
+    }
+    return outputFields.select(fields, values);
+  }
+
+  /**
+   * A hash of the value which is the same in every JVM
+   */
+  static int hash(Object value) {
+    if (value == null) {
+      return 0;
+    } else if (value instanceof Enum) {
+      return ((Enum<?>) value).name().hashCode();
+    } else if (value instanceof List) {
+      int hash = 1;
+      for (Object element : (List<?>) value) {
+        hash = 31 * hash + hash(element);
+      }
+      return hash;
+    } else if (value instanceof Object[]) {
+      return hash(Arrays.asList((Object[]) value));
+    } else if (value instanceof byte[]) {
+      return Arrays.hashCode((byte[]) value);
+    } else if (value instanceof char[]) {
+      return Arrays.hashCode((char[]) value);
+    } else if (value instanceof short[]) {
+      return Arrays.hashCode((short[]) value);
+    } else if (value instanceof int[]) {
+      return Arrays.hashCode((int[]) value);
+    } else if (value instanceof long[]) {
+      return Arrays.hashCode((long[]) value);
+    } else if (value instanceof float[]) {
+      return Arrays.hashCode((float[]) value);
+    } else if (value instanceof double[]) {
+      return Arrays.hashCode((double[]) value);
+    } else if (value instanceof boolean[]) {
+      return Arrays.hashCode((boolean[]) value);
+    } else if (IDENTITY_HASH_CODE.get(value.getClass())) {
+      return Arrays.hashCode(Utils.serialize(value));
+    }
+    return value.hashCode();
+  }
+
+  private int index(int hash) {
+    int index = hash % targetTasks.size();
+    return index >= 0 ? index : index + targetTasks.size();
+  }
+
+  private void buildRing() {
+    int points = targetTasks.size() * VIRTUAL_NODES_PER_TASK;
+    long[] ring = new long[points];
+    for (int i = 0; i < targetTasks.size(); i++) {
+      // The points of a task only depend on its id, so they stay put when tasks come and go
+      int taskId = targetTasks.get(i);
+      for (int j = 0; j < VIRTUAL_NODES_PER_TASK; j++) {
+        long position = mix(taskId * 0x61c88647 + j * 0x85ebca6b);
+        ring[i * VIRTUAL_NODES_PER_TASK + j] = (position << 32) | i;
+      }
+    }
+    Arrays.sort(ring);
+    ringPositions = new int[points];
+    ringTasks = new int[points];
+    for (int i = 0; i < points; i++) {
+      ringPositions[i] = (int) (ring[i] >> 32);
+      ringTasks[i] = (int) ring[i];
+    }
+  }
+
+  // The index of the first point of the ring at or after the hash, wrapping around
+  private int findRingPosition(int hash) {
+    int position = Arrays.binarySearch(ringPositions, hash);
+    if (position < 0) {
+      position = -position - 1;
+    }
+    return position == ringPositions.length ? 0 : position;
+  }
+
+  // Finalizer of murmur3, to spread weak hashCodes over all the bits
+  private static int mix(int hash) {
+    int h = hash;
+    h ^= h >>> 16;
+    h *= 0x85ebca6b;
+    h ^= h >>> 13;
+    h *= 0xc2b2ae35;
+    h ^= h >>> 16;
+    return h;
+  }
+}
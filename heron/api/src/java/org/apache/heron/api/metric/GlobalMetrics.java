@@ -21,6 +21,7 @@ package org.apache.heron.api.metric;
 
 import java.io.Serializable;
 import java.time.Duration;
+import java.util.Map;
 
 /**
  * Singleton class which exposes a simple globally available counter for heron jobs.
@@ -30,74 +31,104 @@ import java.time.Duration;
  * The creation is lazy which means, unless the counter not being available, it is counted as 0
  * CounterFactory.init() should be called in prepare and open methods of bolt and spout respectively.
  * The counters will be named __auto__/mycounter (note the __auto__ prefix)
+ * <p>
+ * A process may host several tasks, each on its own thread. init() binds a set of counters to the
+ * calling task thread, so the increments made on that thread are reported by that task only.
+ * The increments made on any other thread, e.g. a thread started by the user, go to a shared set
+ * of counters, which is thread safe and is reported by the first task to init.
  */
 public enum GlobalMetrics implements Serializable {
   INSTANCE;
   public static final String ROOT_NAME = "__auto__";
+  // Counters of the threads which are not bound to a task
   private MultiCountMetric metricsContainer;
-  private boolean registered;
+  // The task thread reporting metricsContainer, if any
+  private Thread sharedOwner;
+  private final ThreadLocal<TaskMetrics> taskMetrics = new ThreadLocal<>();
 
   GlobalMetrics() {
     metricsContainer = new MultiCountMetric();
-    registered = false;
+    sharedOwner = null;
   }
 
   /**
-   * Not thread safe increment of counterName. Counter doesn't exist unless incremented once
+   * Increment of counterName. Counter doesn't exist unless incremented once.
+   * Fast on a task thread, synchronized on any other thread.
    */
   public static void incr(String counterName) {
-    INSTANCE.metricsContainer.scope(counterName).incr();
+    incrBy(counterName, 1);
   }
 
   /**
-   * Not thread safe 'incrementing by' of counterName. Counter doesn't exist unless incremented once
+   * 'incrementing by' of counterName. Counter doesn't exist unless incremented once.
+   * Fast on a task thread, synchronized on any other thread.
    */
   public static void incrBy(String counterName, int incrValue) {
-    INSTANCE.metricsContainer.scope(counterName).incrBy(incrValue);
+    TaskMetrics metrics = INSTANCE.taskMetrics.get();
+    if (metrics != null) {
+      metrics.counters.scope(counterName).incrBy(incrValue);
+    } else {
+      synchronized (INSTANCE) {
+        INSTANCE.metricsContainer.scope(counterName).incrBy(incrValue);
+      }
+    }
   }
 
   /**
    * Thread safe created increment of counterName. (Slow)
    */
   public static void safeIncr(String counterName) {
-    synchronized (INSTANCE) {
-      if (INSTANCE.registered) {
-        INSTANCE.metricsContainer.scope(counterName).incr();
-      }
-    }
+    safeIncrBy(counterName, 1);
   }
 
   /**
    * Thread safe created increment of counterName. (Slow)
    */
   public static void safeIncrBy(String counterName, int incrValue) {
-    synchronized (INSTANCE) {
-      if (INSTANCE.registered) {
-        INSTANCE.metricsContainer.scope(counterName).incrBy(incrValue);
+    TaskMetrics metrics = INSTANCE.taskMetrics.get();
+    if (metrics != null) {
+      metrics.counters.scope(counterName).incrBy(incrValue);
+    } else {
+      synchronized (INSTANCE) {
+        if (INSTANCE.sharedOwner != null) {
+          INSTANCE.metricsContainer.scope(counterName).incrBy(incrValue);
+        }
       }
     }
   }
 
   /**
-   * Initialize the counter by registering the metricContainer. Should be done in open/prepare call.
+   * Initialize the counters of the calling task thread by registering them.
+   * Should be done in open/prepare call, and again after the task is restarted with a new
+   * metricsRegister.
    * TODO: Investigate if it is possible to do this part in ctor. One thing to note is how this will
    * affect the serialization of CounterFactory.
    */
   public static void init(IMetricsRegister metricsRegister, Duration metricsBucket) {
+    TaskMetrics current = INSTANCE.taskMetrics.get();
+    if (current != null && current.register == metricsRegister) {
+      return;
+    }
+
+    boolean reportsShared;
     synchronized (INSTANCE) {
-      if (!INSTANCE.registered) {
-        metricsRegister.registerMetric(
-            ROOT_NAME, INSTANCE.metricsContainer, (int) metricsBucket.getSeconds());
-        INSTANCE.registered = true;
+      if (INSTANCE.sharedOwner == null) {
+        INSTANCE.sharedOwner = Thread.currentThread();
       }
+      reportsShared = INSTANCE.sharedOwner == Thread.currentThread();
     }
+
+    TaskMetrics metrics = new TaskMetrics(metricsRegister, reportsShared);
+    metricsRegister.registerMetric(ROOT_NAME, metrics, (int) metricsBucket.getSeconds());
+    INSTANCE.taskMetrics.set(metrics);
   }
 
   /**
    * test-only
    */
   public static MultiCountMetric getUnderlyingCounter() {
-    return INSTANCE.metricsContainer;
+    TaskMetrics metrics = INSTANCE.taskMetrics.get();
+    return metrics != null ? metrics.counters : INSTANCE.metricsContainer;
   }
 
   /**
@@ -107,4 +138,33 @@ public enum GlobalMetrics implements Serializable {
   protected Object readResolve() {
     return INSTANCE;
   }
+
+  /**
+   * The counters of a task, reported along with the shared counters by the first task to init
+   */
+  private static final class TaskMetrics implements IMetric<Map<String, Long>> {
+    private final IMetricsRegister register;
+    private final boolean reportsShared;
+    private final MultiCountMetric counters = new MultiCountMetric();
+
+    private TaskMetrics(IMetricsRegister register, boolean reportsShared) {
+      this.register = register;
+      this.reportsShared = reportsShared;
+    }
+
+    @Override
+    public Map<String, Long> getValueAndReset() {
+      Map<String, Long> ret = counters.getValueAndReset();
+      if (reportsShared) {
+        Map<String, Long> shared;
+        synchronized (INSTANCE) {
+          shared = INSTANCE.metricsContainer.getValueAndReset();
+        }
+        for (Map.Entry<String, Long> entry : shared.entrySet()) {
+          ret.merge(entry.getKey(), entry.getValue(), Long::sum);
+        }
+      }
+      return ret;
+    }
+  }
 }
@@ -0,0 +1,149 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.apache.heron.api.metric;
+
+/**
+ * A fixed-memory histogram of non-negative long values, e.g. latencies in nanoseconds, with
+ * log-linear buckets like HdrHistogram: every power of 2 is split into 2^precisionBits linear
+ * sub-buckets, so the values below 2^precisionBits are counted exactly and larger values
+ * within a relative error of 2^-precisionBits. Recording a value only increments a counter,
+ * it does not allocate. It is not thread-safe, like CountMetric.
+ * <p>
+ * The histogram is reset every time it is gathered, and the snapshot only keeps the
+ * non-empty buckets. No snapshot is returned when nothing was recorded.
+ */
+public class HistogramMetric implements IMetric<HistogramSnapshot> {
+  // 1 / 16 = 6.25% relative error, 960 buckets to cover all the longs
+  public static final int DEFAULT_PRECISION_BITS = 4;
+
+  private final int precisionBits;
+  private final long[] counts;
+
+  private long count;
+  private long sum;
+  private long min;
+  private long max;
+  // The range of the buckets touched since the last reset, so that
+  // gathering the histogram does not have to walk all the buckets
+  private int minIndex;
+  private int maxIndex;
+
+  public HistogramMetric() {
+    this(DEFAULT_PRECISION_BITS);
+  }
+
+  /**
+   * @param precisionBits the # of bits of each value kept exactly, between 1 and 10
+   */
+  public HistogramMetric(int precisionBits) {
+    if (precisionBits < 1 || precisionBits > 10) {
+      throw new IllegalArgumentException(
+          "Histogram precision bits must be between 1 and 10, got " + precisionBits);
+    }
+    this.precisionBits = precisionBits;
+    this.counts = new long[(Long.SIZE - precisionBits) << precisionBits];
+    reset();
+  }
+
+  /**
+   * Record a value, negative values are recorded as 0
+   */
+  public void record(long value) {
+    long v = Math.max(0, value);
+    int index = bucketIndex(v);
+    counts[index]++;
+    count++;
+    sum += v;
+    if (v < min) {
+      min = v;
+    }
+    if (v > max) {
+      max = v;
+    }
+    if (index < minIndex) {
+      minIndex = index;
+    }
+    if (index > maxIndex) {
+      maxIndex = index;
+    }
+  }
+
+  public long getCount() {
+    return count;
+  }
+
+  @Override
+  public HistogramSnapshot getValueAndReset() {
+    if (count == 0) {
+      return null;
+    }
+    int buckets = 0;
+    for (int i = minIndex; i <= maxIndex; i++) {
+      if (counts[i] != 0) {
+        buckets++;
+      }
+    }
+    long[] bucketBounds = new long[buckets];
+    long[] bucketCounts = new long[buckets];
+    int j = 0;
+    for (int i = minIndex; i <= maxIndex; i++) {
+      if (counts[i] != 0) {
+        bucketBounds[j] = bucketUpperBound(i);
+        bucketCounts[j++] = counts[i];
+        counts[i] = 0;
+      }
+    }
+    HistogramSnapshot snapshot =
+        new HistogramSnapshot(bucketBounds, bucketCounts, count, sum, min, max);
+    reset();
+    return snapshot;
+  }
+
+  int bucketIndex(long value) {
+    if (value < (1L << precisionBits)) {
+      return (int) value;
+    }
+    // The values in [2^exponent, 2^(exponent + 1)) are split into 2^precisionBits buckets
+    int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+    int shift = exponent - precisionBits;
+    int subBucket = (int) (value >>> shift) - (1 << precisionBits);
+    return ((shift + 1) << precisionBits) + subBucket;
+  }
+
+  // The largest value counted in the bucket
+  long bucketUpperBound(int index) {
+    if (index < (1 << precisionBits)) {
+      return index;
+    }
+    int shift = (index >>> precisionBits) - 1;
+    long subBucket = (index & ((1 << precisionBits) - 1)) + (1L << precisionBits);
+    return ((subBucket + 1) << shift) - 1;
+  }
+
+  private void reset() {
+    count = 0;
+    sum = 0;
+    min = Long.MAX_VALUE;
+    max = 0;
+    minIndex = counts.length;
+    maxIndex = -1;
+  }
+}
@@ -0,0 +1,100 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.apache.heron.api.metric;
+
+import java.util.Arrays;
+
+/**
+ * The values recorded by a HistogramMetric over one interval, as its non-empty buckets in
+ * increasing order. Each bucket is its inclusive upper bound and the # of values in it.
+ */
+public final class HistogramSnapshot {
+  private final long[] bucketBounds;
+  private final long[] bucketCounts;
+  private final long count;
+  private final long sum;
+  private final long min;
+  private final long max;
+
+  HistogramSnapshot(long[] bucketBounds, long[] bucketCounts,
+                    long count, long sum, long min, long max) {
+    this.bucketBounds = bucketBounds;
+    this.bucketCounts = bucketCounts;
+    this.count = count;
+    this.sum = sum;
+    this.min = min;
+    this.max = max;
+  }
+
+  public int getBucketCount() {
+    return bucketBounds.length;
+  }
+
+  public long getBucketBound(int index) {
+    return bucketBounds[index];
+  }
+
+  public long getBucketCount(int index) {
+    return bucketCounts[index];
+  }
+
+  public long getCount() {
+    return count;
+  }
+
+  public long getSum() {
+    return sum;
+  }
+
+  public long getMin() {
+    return min;
+  }
+
+  public long getMax() {
+    return max;
+  }
+
+  /**
+   * Estimate the value at the given quantile, the upper bound of the bucket it falls in,
+   * capped by the largest value
+   *
+   * @param quantile the quantile, between 0 and 1
+   */
+  public long getQuantile(double quantile) {
+    // The rank of the value at the quantile, from 1 to count
+    long rank = Math.max(1, (long) Math.ceil(quantile * count));
+    long seen = 0;
+    for (int i = 0; i < bucketCounts.length; i++) {
+      seen += bucketCounts[i];
+      if (seen >= rank) {
+        return Math.min(bucketBounds[i], max);
+      }
+    }
+    return max;
+  }
+
+  @Override
+  public String toString() {
+    return "{count=" + count + ", sum=" + sum + ", min=" + min + ", max=" + max
+        + ", buckets=" + Arrays.toString(bucketBounds) + ":" + Arrays.toString(bucketCounts)
+        + "}";
+  }
+}
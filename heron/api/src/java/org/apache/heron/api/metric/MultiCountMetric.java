@@ -19,7 +19,9 @@
 
 package org.apache.heron.api.metric;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 public class MultiCountMetric implements IMetric<Map<String, Long>> {
@@ -36,6 +38,21 @@ public class MultiCountMetric implements IMetric<Map<String, Long>> {
     return val;
   }
 
+  /**
+   * Resolve several scopes at once, e.g. in prepare() or open(). The returned counters stay bound
+   * to their scopes, so the hot path could update them by index without any lookup.
+   *
+   * @param keys the scopes to resolve
+   * @return the counter of each scope, in the same order as keys
+   */
+  public List<CountMetric> scopes(List<String> keys) {
+    List<CountMetric> ret = new ArrayList<>(keys.size());
+    for (String key : keys) {
+      ret.add(scope(key));
+    }
+    return ret;
+  }
+
   @Override
   public Map<String, Long> getValueAndReset() {
     Map<String, Long> ret = new HashMap<>();
@@ -0,0 +1,74 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.apache.heron.api.metric;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class MultiHistogramMetric implements IMetric<Map<String, HistogramSnapshot>> {
+  private Map<String, HistogramMetric> value = new HashMap<>();
+  private final int precisionBits;
+
+  public MultiHistogramMetric() {
+    this(HistogramMetric.DEFAULT_PRECISION_BITS);
+  }
+
+  public MultiHistogramMetric(int precisionBits) {
+    this.precisionBits = precisionBits;
+  }
+
+  public HistogramMetric scope(String key) {
+    HistogramMetric val = value.get(key);
+    if (val == null) {
+      value.put(key, val = new HistogramMetric(precisionBits));
+    }
+    return val;
+  }
+
+  /**
+   * Resolve several scopes at once, e.g. in prepare() or open(). The returned histograms stay
+   * bound to their scopes, so the hot path could record values by index without any lookup.
+   *
+   * @param keys the scopes to resolve
+   * @return the histogram of each scope, in the same order as keys
+   */
+  public List<HistogramMetric> scopes(List<String> keys) {
+    List<HistogramMetric> ret = new ArrayList<>(keys.size());
+    for (String key : keys) {
+      ret.add(scope(key));
+    }
+    return ret;
+  }
+
+  @Override
+  public Map<String, HistogramSnapshot> getValueAndReset() {
+    Map<String, HistogramSnapshot> ret = new HashMap<>();
+    for (String key : value.keySet()) {
+      HistogramSnapshot val = value.get(key).getValueAndReset();
+      if (val != null) {
+        ret.put(key, val);
+      }
+    }
+    return ret;
+  }
+}
@@ -19,7 +19,9 @@
 
 package org.apache.heron.api.metric;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /*
@@ -43,6 +45,21 @@ public class MultiReducedMetric<T, U, V> implements IMetric<Map<String, V>> {
     return value.get(key);
   }
 
+  /**
+   * Resolve several scopes at once, e.g. in prepare() or open(). The returned metrics stay bound
+   * to their scopes, so the hot path could update them by index without any lookup.
+   *
+   * @param keys the scopes to resolve
+   * @return the metric of each scope, in the same order as keys
+   */
+  public List<ReducedMetric<T, U, V>> scopes(List<String> keys) {
+    List<ReducedMetric<T, U, V>> ret = new ArrayList<>(keys.size());
+    for (String key : keys) {
+      ret.add(scope(key));
+    }
+    return ret;
+  }
+
   @Override
   public Map<String, V> getValueAndReset() {
     Map<String, V> ret = new HashMap<>();
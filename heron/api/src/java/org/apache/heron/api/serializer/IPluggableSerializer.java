@@ -19,6 +19,8 @@
 
 package org.apache.heron.api.serializer;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.Map;
 
 public interface IPluggableSerializer {
@@ -26,5 +28,17 @@ public interface IPluggableSerializer {
 
   byte[] serialize(Object object);
 
+  /**
+   * Serialize the object straight into the given stream, so callers holding a reusable
+   * buffer avoid the intermediate byte array. Serializers are encouraged to override it;
+   * the default falls back to {@link #serialize(Object)}.
+   *
+   * @param object the object to serialize
+   * @param output the stream the serialized bytes are appended to
+   */
+  default void serialize(Object object, OutputStream output) throws IOException {
+    output.write(serialize(object));
+  }
+
   Object deserialize(byte[] input);
 }
@@ -24,6 +24,7 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.io.OutputStream;
 import java.util.Map;
 
 public class JavaSerializer implements IPluggableSerializer {
@@ -36,15 +37,20 @@ public class JavaSerializer implements IPluggableSerializer {
   public byte[] serialize(Object object) {
     ByteArrayOutputStream bos = new ByteArrayOutputStream();
     try {
-      ObjectOutputStream oos = new ObjectOutputStream(bos);
-      oos.writeObject(object);
-      oos.flush();
+      serialize(object, bos);
     } catch (IOException e) {
       throw new RuntimeException("Failed to serialize object: " + object.toString(), e);
     }
     return bos.toByteArray();
   }
 
+  @Override
+  public void serialize(Object object, OutputStream output) throws IOException {
+    ObjectOutputStream oos = new ObjectOutputStream(output);
+    oos.writeObject(object);
+    oos.flush();
+  }
+
   @Override
   public Object deserialize(byte[] input) {
     ByteArrayInputStream bis = new ByteArrayInputStream(input);
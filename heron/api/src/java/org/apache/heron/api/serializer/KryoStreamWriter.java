@@ -0,0 +1,50 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.apache.heron.api.serializer;
+
+import java.io.OutputStream;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Output;
+
+/**
+ * Writes objects with Kryo straight to an OutputStream, for the Kryo based
+ * IPluggableSerializer implementations. The Output buffering the writes is reused
+ * from one object to the next, and it is detached from the stream after each object.
+ */
+public final class KryoStreamWriter {
+  private static final int BUFFER_SIZE = 2000;
+
+  private final Output output = new Output(BUFFER_SIZE);
+
+  /**
+   * Write the class and the content of the object to the stream
+   */
+  public void writeClassAndObject(Kryo kryo, Object object, OutputStream stream) {
+    output.setOutputStream(stream);
+    try {
+      kryo.writeClassAndObject(output, object);
+      output.flush();
+    } finally {
+      output.setOutputStream(null);
+    }
+  }
+}
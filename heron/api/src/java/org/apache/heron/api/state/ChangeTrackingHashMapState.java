@@ -0,0 +1,464 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.heron.api.state;
+
+import java.io.Serializable;
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * A HashMapState that can record the keys put or removed since the last checkpoint, so that
+ * a checkpoint only needs to hold a Delta of the state instead of all of it.
+ * <p>
+ * Changes made through the map, its views and their iterators are recorded. Changes made to
+ * a value in place are not, so values of a tracked state must be replaced rather than
+ * modified. Tracking is off until startTracking() is called; the recorded changes and the
+ * checkpoint bookkeeping are transient and are not part of a full snapshot.
+ */
+public class ChangeTrackingHashMapState<K extends Serializable, V extends Serializable>
+    extends HashMapState<K, V> {
+  private static final long serialVersionUID = 2851739467826436185L;
+
+  // The keys put or removed since the last checkpoint; null while not tracking
+  private transient Set<K> changedKeys;
+  // The last checkpoint of this state, the base of the next delta; null if none
+  private transient String lastCheckpointId;
+  // Whether the last checkpoint is known to be saved, so that it can be the base of a delta
+  private transient boolean lastCheckpointSaved;
+  private transient int fullCheckpointInterval;
+  private transient int deltasSinceFullCheckpoint;
+
+  public ChangeTrackingHashMapState() {
+    super();
+  }
+
+  public ChangeTrackingHashMapState(Map<? extends K, ? extends V> m) {
+    super();
+    super.putAll(m);
+  }
+
+  /**
+   * Start recording changes to this state
+   *
+   * @param checkpointId the checkpoint this state was restored from, or null or empty if it
+   * does not come from a checkpoint; the first checkpoint is then a full snapshot
+   * @param deltasInCheckpoint the number of deltas in the chain of the restored checkpoint,
+   * 0 if it is a full snapshot, so that the chains continued from it stay within the interval
+   * @param interval the number of checkpoints between two full snapshots
+   */
+  public void startTracking(String checkpointId, int deltasInCheckpoint, int interval) {
+    if (interval < 1) {
+      throw new IllegalArgumentException("Full checkpoint interval must be positive: " + interval);
+    }
+    if (deltasInCheckpoint < 0) {
+      throw new IllegalArgumentException("Number of deltas must not be negative: "
+          + deltasInCheckpoint);
+    }
+    this.changedKeys = new HashSet<>();
+    this.lastCheckpointId = checkpointId == null || checkpointId.isEmpty() ? null : checkpointId;
+    this.lastCheckpointSaved = true;
+    this.fullCheckpointInterval = interval;
+    this.deltasSinceFullCheckpoint = deltasInCheckpoint;
+  }
+
+  public boolean isTracking() {
+    return changedKeys != null;
+  }
+
+  /**
+   * Get the checkpoint the next checkpoint should be a delta of. A checkpoint is only the base
+   * of a delta once it is saved, so a checkpoint that failed to be saved is never one.
+   *
+   * @return the base checkpoint id, or null if the next checkpoint must be a full snapshot
+   */
+  public String getDeltaBaseCheckpointId() {
+    if (!isTracking() || !lastCheckpointSaved
+        || deltasSinceFullCheckpoint + 1 >= fullCheckpointInterval) {
+      return null;
+    }
+    return lastCheckpointId;
+  }
+
+  /**
+   * Get the changes since the last checkpoint
+   */
+  public Delta<K, V> getDelta() {
+    Delta<K, V> delta = new Delta<>();
+    if (changedKeys != null) {
+      for (K key : changedKeys) {
+        if (containsKey(key)) {
+          delta.updated.put(key, get(key));
+        } else {
+          delta.removed.add(key);
+        }
+      }
+    }
+    return delta;
+  }
+
+  /**
+   * Record that this state was sent to be checkpointed and forget the changes recorded so far.
+   * The next checkpoint is a full snapshot unless checkpointSaved() is called for this one.
+   *
+   * @param checkpointId the id of the checkpoint
+   * @param asDelta whether the checkpoint holds a delta rather than a full snapshot
+   */
+  public void checkpointed(String checkpointId, boolean asDelta) {
+    if (!isTracking()) {
+      return;
+    }
+    changedKeys.clear();
+    lastCheckpointId = checkpointId;
+    lastCheckpointSaved = false;
+    deltasSinceFullCheckpoint = asDelta ? deltasSinceFullCheckpoint + 1 : 0;
+  }
+
+  /**
+   * Record that a checkpoint of this state was saved. Only the last checkpoint matters, the
+   * others are not a possible base any more.
+   *
+   * @param checkpointId the id of the saved checkpoint
+   */
+  public void checkpointSaved(String checkpointId) {
+    if (isTracking() && checkpointId.equals(lastCheckpointId)) {
+      lastCheckpointSaved = true;
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private void changed(Object key) {
+    if (changedKeys != null) {
+      changedKeys.add((K) key);
+    }
+  }
+
+  private void allChanged() {
+    if (changedKeys != null) {
+      changedKeys.addAll(super.keySet());
+    }
+  }
+
+  @Override
+  public V put(K key, V value) {
+    changed(key);
+    return super.put(key, value);
+  }
+
+  @Override
+  public void putAll(Map<? extends K, ? extends V> m) {
+    if (changedKeys != null) {
+      changedKeys.addAll(m.keySet());
+    }
+    super.putAll(m);
+  }
+
+  @Override
+  public V remove(Object key) {
+    if (containsKey(key)) {
+      changed(key);
+    }
+    return super.remove(key);
+  }
+
+  @Override
+  public boolean remove(Object key, Object value) {
+    boolean removed = super.remove(key, value);
+    if (removed) {
+      changed(key);
+    }
+    return removed;
+  }
+
+  @Override
+  public void clear() {
+    allChanged();
+    super.clear();
+  }
+
+  @Override
+  public V putIfAbsent(K key, V value) {
+    V existing = super.putIfAbsent(key, value);
+    if (existing == null) {
+      changed(key);
+    }
+    return existing;
+  }
+
+  @Override
+  public boolean replace(K key, V oldValue, V newValue) {
+    boolean replaced = super.replace(key, oldValue, newValue);
+    if (replaced) {
+      changed(key);
+    }
+    return replaced;
+  }
+
+  @Override
+  public V replace(K key, V value) {
+    if (containsKey(key)) {
+      changed(key);
+    }
+    return super.replace(key, value);
+  }
+
+  @Override
+  public void replaceAll(BiFunction<? super K, ? super V, ? extends V> function) {
+    allChanged();
+    super.replaceAll(function);
+  }
+
+  @Override
+  public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+    changed(key);
+    return super.computeIfAbsent(key, mappingFunction);
+  }
+
+  @Override
+  public V computeIfPresent(K key,
+                            BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+    changed(key);
+    return super.computeIfPresent(key, remappingFunction);
+  }
+
+  @Override
+  public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+    changed(key);
+    return super.compute(key, remappingFunction);
+  }
+
+  @Override
+  public V merge(K key, V value,
+                 BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+    changed(key);
+    return super.merge(key, value, remappingFunction);
+  }
+
+  @Override
+  public Set<Map.Entry<K, V>> entrySet() {
+    return new AbstractSet<Map.Entry<K, V>>() {
+      @Override
+      public Iterator<Map.Entry<K, V>> iterator() {
+        return new TrackingIterator<Map.Entry<K, V>>() {
+          @Override
+          public Map.Entry<K, V> next() {
+            return new TrackingEntry(nextEntry());
+          }
+        };
+      }
+
+      @Override
+      public int size() {
+        return ChangeTrackingHashMapState.this.size();
+      }
+
+      @Override
+      public boolean contains(Object o) {
+        return ChangeTrackingHashMapState.super.entrySet().contains(o);
+      }
+
+      @Override
+      public boolean remove(Object o) {
+        boolean removed = ChangeTrackingHashMapState.super.entrySet().remove(o);
+        if (removed) {
+          changed(((Map.Entry<?, ?>) o).getKey());
+        }
+        return removed;
+      }
+
+      @Override
+      public void clear() {
+        ChangeTrackingHashMapState.this.clear();
+      }
+    };
+  }
+
+  @Override
+  public Set<K> keySet() {
+    return new AbstractSet<K>() {
+      @Override
+      public Iterator<K> iterator() {
+        return new TrackingIterator<K>() {
+          @Override
+          public K next() {
+            return nextEntry().getKey();
+          }
+        };
+      }
+
+      @Override
+      public int size() {
+        return ChangeTrackingHashMapState.this.size();
+      }
+
+      @Override
+      public boolean contains(Object o) {
+        return containsKey(o);
+      }
+
+      @Override
+      public boolean remove(Object o) {
+        boolean present = containsKey(o);
+        ChangeTrackingHashMapState.this.remove(o);
+        return present;
+      }
+
+      @Override
+      public void clear() {
+        ChangeTrackingHashMapState.this.clear();
+      }
+    };
+  }
+
+  @Override
+  public Collection<V> values() {
+    return new AbstractCollection<V>() {
+      @Override
+      public Iterator<V> iterator() {
+        return new TrackingIterator<V>() {
+          @Override
+          public V next() {
+            return nextEntry().getValue();
+          }
+        };
+      }
+
+      @Override
+      public int size() {
+        return ChangeTrackingHashMapState.this.size();
+      }
+
+      @Override
+      public boolean contains(Object o) {
+        return containsValue(o);
+      }
+
+      @Override
+      public void clear() {
+        ChangeTrackingHashMapState.this.clear();
+      }
+    };
+  }
+
+  // Iterates over the entries of the underlying map, recording the keys removed through it
+  private abstract class TrackingIterator<E> implements Iterator<E> {
+    private final Iterator<Map.Entry<K, V>> entries = ChangeTrackingHashMapState.super.entrySet()
+        .iterator();
+    private K lastKey;
+
+    protected Map.Entry<K, V> nextEntry() {
+      Map.Entry<K, V> entry = entries.next();
+      lastKey = entry.getKey();
+      return entry;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return entries.hasNext();
+    }
+
+    @Override
+    public void remove() {
+      entries.remove();
+      changed(lastKey);
+    }
+  }
+
+  // An entry of the underlying map, recording the key when its value is set
+  private final class TrackingEntry implements Map.Entry<K, V> {
+    private final Map.Entry<K, V> entry;
+
+    private TrackingEntry(Map.Entry<K, V> entry) {
+      this.entry = entry;
+    }
+
+    @Override
+    public K getKey() {
+      return entry.getKey();
+    }
+
+    @Override
+    public V getValue() {
+      return entry.getValue();
+    }
+
+    @Override
+    public V setValue(V value) {
+      changed(entry.getKey());
+      return entry.setValue(value);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return entry.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+      return entry.hashCode();
+    }
+
+    @Override
+    public String toString() {
+      return entry.toString();
+    }
+  }
+
+  /**
+   * The keys put or removed between two checkpoints of a ChangeTrackingHashMapState
+   */
+  public static final class Delta<K extends Serializable, V extends Serializable>
+      implements Serializable {
+    private static final long serialVersionUID = -3604217530436126981L;
+
+    private final HashMap<K, V> updated;
+    private final HashSet<K> removed;
+
+    private Delta() {
+      this.updated = new HashMap<>();
+      this.removed = new HashSet<>();
+    }
+
+    public Map<K, V> getUpdated() {
+      return updated;
+    }
+
+    public Set<K> getRemoved() {
+      return removed;
+    }
+
+    /**
+     * Apply the changes to the state as of the delta's base checkpoint
+     */
+    public void applyTo(Map<K, V> state) {
+      for (K key : removed) {
+        state.remove(key);
+      }
+      state.putAll(updated);
+    }
+  }
+}
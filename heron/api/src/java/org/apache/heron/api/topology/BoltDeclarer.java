@@ -28,6 +28,7 @@ import com.google.protobuf.ByteString;
 import org.apache.heron.api.bolt.IRichBolt;
 import org.apache.heron.api.generated.TopologyAPI;
 import org.apache.heron.api.grouping.CustomStreamGrouping;
+import org.apache.heron.api.grouping.PartialKeyGrouping;
 import org.apache.heron.api.tuple.Fields;
 import org.apache.heron.api.utils.Utils;
 
@@ -93,6 +94,32 @@ public class BoltDeclarer extends BaseComponentDeclarer<BoltDeclarer> {
     return grouping(bldr);
   }
 
+  /**
+   * Like fieldsGrouping, but the tuples of a key are split between two tasks, whichever
+   * got fewer tuples from the emitting task, so that hot keys are spread out.
+   * See {@link PartialKeyGrouping}.
+   */
+  public BoltDeclarer partialKeyGrouping(String componentName, Fields fields) {
+    return partialKeyGrouping(componentName, Utils.DEFAULT_STREAM_ID, fields);
+  }
+
+  public BoltDeclarer partialKeyGrouping(String componentName, String streamId, Fields fields) {
+    return customGrouping(componentName, streamId, new PartialKeyGrouping(fields));
+  }
+
+  /**
+   * Partial key grouping whose candidate tasks are chosen by consistent hashing, so that
+   * few keys move to other tasks when the parallelism of the bolt changes.
+   */
+  public BoltDeclarer consistentPartialKeyGrouping(String componentName, Fields fields) {
+    return consistentPartialKeyGrouping(componentName, Utils.DEFAULT_STREAM_ID, fields);
+  }
+
+  public BoltDeclarer consistentPartialKeyGrouping(String componentName, String streamId,
+                                                   Fields fields) {
+    return customGrouping(componentName, streamId, new PartialKeyGrouping(fields, true));
+  }
+
   public BoltDeclarer globalGrouping(String componentName) {
     return globalGrouping(componentName, Utils.DEFAULT_STREAM_ID);
   }
@@ -190,6 +190,16 @@ public final class TopologyUtils {
 
     // Only verify RAM map string well-formed.
     getComponentRamMapConfig(topology);
+    // The checkpoints a delta checkpoint depends on must not be disposed before it
+    int fullCheckpointInterval = getConfigWithDefault(topology.getTopologyConfig().getKvsList(),
+        Config.TOPOLOGY_STATEFUL_FULL_CHECKPOINT_INTERVAL, 1);
+    if (fullCheckpointInterval > Config.MAX_STATEFUL_FULL_CHECKPOINT_INTERVAL) {
+      LOG.severe("Invalid " + Config.TOPOLOGY_STATEFUL_FULL_CHECKPOINT_INTERVAL + " "
+          + fullCheckpointInterval + ". It can be at most "
+          + Config.MAX_STATEFUL_FULL_CHECKPOINT_INTERVAL
+          + ", the number of checkpoints retained by the topology master");
+      return false;
+    }
     // Verify all bolts input streams exist. First get all output streams.
     Set<String> outputStreams = new HashSet<>();
     for (TopologyAPI.Spout spout : topology.getSpoutsList()) {
@@ -287,6 +297,26 @@ public final class TopologyUtils {
     return diskMap;
   }
 
+  /**
+   * Parses the value in Config.TOPOLOGY_COMPONENT_EMIT_RATEMAP,
+   * and returns a map containing only component specified.
+   * Returns a empty map if the Config is not set
+   *
+   * @param topology the topology def
+   * @return a map (componentName -&gt; tuples emitted per second)
+   */
+  public static Map<String, Double> getComponentEmitRateMapConfig(TopologyAPI.Topology topology)
+      throws RuntimeException {
+    Map<String, String> configMap =
+        getComponentConfigMap(topology, Config.TOPOLOGY_COMPONENT_EMIT_RATEMAP);
+    Map<String, Double> emitRateMap = new HashMap<>();
+
+    for (Map.Entry<String, String> entry : configMap.entrySet()) {
+      emitRateMap.put(entry.getKey(), Double.parseDouble(entry.getValue()));
+    }
+    return emitRateMap;
+  }
+
   /**
    * This is a util function to parse cpumap, rammap and diskmap. A config example:
    * "spout1:1,spout2:1,bolt1:5". The function validates component name and throws exception
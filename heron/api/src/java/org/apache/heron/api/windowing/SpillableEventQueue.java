@@ -0,0 +1,471 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.heron.api.windowing;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.AbstractCollection;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.logging.Logger;
+
+import org.apache.heron.api.serializer.IPluggableSerializer;
+
+/**
+ * A thread-safe queue of window events which keeps the events serialized outside of the
+ * java heap, so that long windows are not bounded by the heap size and do not add to the
+ * GC pauses of the bolt.
+ * <p>
+ * Events are appended to fixed size segments. Segments are allocated as direct buffers until
+ * the memory threshold is reached, after which new segments are memory mapped files in the
+ * spill directory. Only an int offset per event stays on the heap. The sequence number and the
+ * timestamp of an event are stored in front of its serialized value, so the eviction policies
+ * can scan the window without deserializing the events. The value is deserialized on
+ * {@link Event#get()}.
+ * <p>
+ * Removed events are only marked in their segment. A segment is released as a whole once all
+ * of its events are removed, which is the common case as windows expire oldest first.
+ * <p>
+ * The events returned by the iterator are equal if they refer to the same queued event, so
+ * they can be tracked across window activations. The queue is checkpointed as a list of
+ * deserialized events which keep their identity when added back to a queue.
+ *
+ * @param <T> the type of the objects wrapped by the events
+ */
+public class SpillableEventQueue<T extends Serializable> extends AbstractCollection<Event<T>>
+    implements Serializable, Closeable {
+  private static final long serialVersionUID = 3650231542787416212L;
+  private static final Logger LOG = Logger.getLogger(SpillableEventQueue.class.getName());
+
+  // The number of released in-memory segments kept for reuse
+  private static final int MAX_FREE_BUFFERS = 4;
+
+  private final IPluggableSerializer serializer;
+  private final int segmentBytes;
+  private final long memoryThresholdBytes;
+  private final File spillDirectory;
+
+  private final ArrayDeque<ByteBuffer> freeBuffers = new ArrayDeque<>();
+  private Segment head;
+  private Segment tail;
+  private int size;
+  private long nextSequence;
+  private long memoryBytes;
+  private long spilledBytes;
+  private int segments;
+
+  /**
+   * Construct the queue
+   *
+   * @param serializer the serializer for the values of the events
+   * @param segmentBytes the size of a segment. A larger event gets a segment of its own.
+   * @param memoryThresholdBytes the bytes of direct memory to use before spilling to disk
+   * @param spillDirectory the directory of the spilled segments
+   */
+  public SpillableEventQueue(IPluggableSerializer serializer, int segmentBytes,
+                             long memoryThresholdBytes, File spillDirectory) {
+    if (segmentBytes <= 0) {
+      throw new IllegalArgumentException("Segment size must be positive: " + segmentBytes);
+    }
+    this.serializer = Objects.requireNonNull(serializer);
+    this.segmentBytes = segmentBytes;
+    this.memoryThresholdBytes = memoryThresholdBytes;
+    this.spillDirectory = Objects.requireNonNull(spillDirectory);
+  }
+
+  @Override
+  public boolean add(Event<T> event) {
+    if (event.isWatermark()) {
+      throw new IllegalArgumentException("Watermark events are not queued: " + event);
+    }
+    byte[] value = serializer.serialize(event.get());
+    synchronized (this) {
+      long sequence;
+      if (event instanceof StoredEvent) {
+        // keep the identity of a restored event
+        sequence = ((StoredEvent<T>) event).sequence;
+        nextSequence = Math.max(nextSequence, sequence + 1);
+      } else {
+        sequence = nextSequence++;
+      }
+      if (tail == null || !tail.fits(value.length)) {
+        appendSegment(value.length);
+      }
+      tail.append(sequence, event.getTimestamp(), value);
+      size++;
+    }
+    return true;
+  }
+
+  @Override
+  public Iterator<Event<T>> iterator() {
+    return new Itr();
+  }
+
+  @Override
+  public synchronized int size() {
+    return size;
+  }
+
+  @Override
+  public synchronized void clear() {
+    while (head != null) {
+      release(head);
+    }
+    size = 0;
+  }
+
+  /**
+   * Release all the segments and delete the spilled files
+   */
+  @Override
+  public synchronized void close() {
+    clear();
+    memoryBytes -= (long) freeBuffers.size() * segmentBytes;
+    freeBuffers.clear();
+  }
+
+  /**
+   * Get the bytes of direct memory allocated, including the segments kept for reuse
+   */
+  public synchronized long getMemoryBytes() {
+    return memoryBytes;
+  }
+
+  /**
+   * Get the bytes of the segments spilled to disk
+   */
+  public synchronized long getSpilledBytes() {
+    return spilledBytes;
+  }
+
+  /**
+   * Get the number of segments holding events
+   */
+  public synchronized int getSegmentCount() {
+    return segments;
+  }
+
+  @Override
+  public String toString() {
+    return "SpillableEventQueue{" + "size=" + size() + ", segments=" + getSegmentCount()
+        + ", memoryBytes=" + getMemoryBytes() + ", spilledBytes=" + getSpilledBytes() + '}';
+  }
+
+  // Checkpoint the deserialized events rather than the segments
+  private Object writeReplace() {
+    return new ArrayList<>(this);
+  }
+
+  private void appendSegment(int valueBytes) {
+    int capacity = Math.max(segmentBytes, Segment.HEADER_BYTES + valueBytes);
+    Segment segment;
+    if (capacity == segmentBytes && !freeBuffers.isEmpty()) {
+      segment = new Segment(freeBuffers.poll(), null);
+    } else if (memoryBytes + capacity <= memoryThresholdBytes) {
+      segment = new Segment(ByteBuffer.allocateDirect(capacity), null);
+      memoryBytes += capacity;
+    } else {
+      segment = spill(capacity);
+      spilledBytes += capacity;
+    }
+    segments++;
+
+    Segment previous = tail;
+    if (previous == null) {
+      head = segment;
+    } else {
+      previous.next = segment;
+      segment.prev = previous;
+    }
+    tail = segment;
+    // the previous tail is kept while appending to it even if all of its events are removed
+    if (previous != null && previous.live == 0) {
+      release(previous);
+    }
+  }
+
+  private Segment spill(int capacity) {
+    File file = null;
+    try {
+      file = File.createTempFile("window-", ".segment", spillDirectory);
+      try (RandomAccessFile raf = new RandomAccessFile(file, "rw");
+           FileChannel channel = raf.getChannel()) {
+        // the mapping stays valid after the channel is closed
+        return new Segment(channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity), file);
+      }
+    } catch (IOException e) {
+      if (file != null && !file.delete()) {
+        LOG.warning("Failed to delete window segment " + file);
+      }
+      throw new RuntimeException("Failed to spill window events to " + spillDirectory, e);
+    }
+  }
+
+  private void removeEvent(Segment segment, int index) {
+    if (segment.removed.get(index)) {
+      return;
+    }
+    segment.removed.set(index);
+    segment.live--;
+    size--;
+    if (segment.live == 0 && segment != tail) {
+      release(segment);
+    }
+  }
+
+  // Unlink the segment, keeping its next pointer for the iterators positioned on it
+  private void release(Segment segment) {
+    if (segment.prev == null) {
+      head = segment.next;
+    } else {
+      segment.prev.next = segment.next;
+    }
+    if (segment.next == null) {
+      tail = segment.prev;
+    } else {
+      segment.next.prev = segment.prev;
+    }
+    segments--;
+
+    ByteBuffer buffer = segment.buffer;
+    segment.buffer = null;
+    segment.removed.set(0, segment.count);
+    if (segment.file != null) {
+      spilledBytes -= buffer.capacity();
+      if (!segment.file.delete()) {
+        LOG.warning("Failed to delete window segment " + segment.file);
+      }
+    } else if (buffer.capacity() == segmentBytes && freeBuffers.size() < MAX_FREE_BUFFERS) {
+      buffer.clear();
+      freeBuffers.push(buffer);
+    } else {
+      memoryBytes -= buffer.capacity();
+    }
+  }
+
+  private T read(Segment segment, int index) {
+    byte[] value;
+    synchronized (this) {
+      if (segment.buffer == null) {
+        throw new IllegalStateException("The event has been released from the window");
+      }
+      value = segment.read(index);
+    }
+    @SuppressWarnings("unchecked")
+    T ret = (T) serializer.deserialize(value);
+    return ret;
+  }
+
+  /**
+   * The events of a segment, each stored as its sequence number, its timestamp, the length
+   * of its serialized value and the value.
+   */
+  private static final class Segment {
+    private static final int HEADER_BYTES = 8 + 8 + 4;
+
+    private final File file;
+    private final BitSet removed = new BitSet();
+    private ByteBuffer buffer;
+    private int[] offsets = new int[64];
+    private int count;
+    private int live;
+    private Segment prev;
+    private Segment next;
+
+    private Segment(ByteBuffer buffer, File file) {
+      this.buffer = buffer;
+      this.file = file;
+    }
+
+    private boolean fits(int valueBytes) {
+      return buffer.remaining() >= HEADER_BYTES + valueBytes;
+    }
+
+    private void append(long sequence, long timestamp, byte[] value) {
+      if (count == offsets.length) {
+        offsets = Arrays.copyOf(offsets, count * 2);
+      }
+      offsets[count++] = buffer.position();
+      buffer.putLong(sequence).putLong(timestamp).putInt(value.length).put(value);
+      live++;
+    }
+
+    private long sequence(int index) {
+      return buffer.getLong(offsets[index]);
+    }
+
+    private long timestamp(int index) {
+      return buffer.getLong(offsets[index] + 8);
+    }
+
+    private byte[] read(int index) {
+      int offset = offsets[index];
+      byte[] value = new byte[buffer.getInt(offset + 16)];
+      ByteBuffer view = buffer.duplicate();
+      view.position(offset + HEADER_BYTES);
+      view.get(value);
+      return value;
+    }
+  }
+
+  /**
+   * A weakly consistent iterator, like the ones of the concurrent collections
+   */
+  private final class Itr implements Iterator<Event<T>> {
+    private Segment segment;
+    private int index;
+    private Segment lastSegment;
+    private int lastIndex = -1;
+
+    private Itr() {
+      synchronized (SpillableEventQueue.this) {
+        segment = head;
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      synchronized (SpillableEventQueue.this) {
+        return advance();
+      }
+    }
+
+    @Override
+    public Event<T> next() {
+      synchronized (SpillableEventQueue.this) {
+        if (!advance()) {
+          throw new NoSuchElementException();
+        }
+        lastSegment = segment;
+        lastIndex = index++;
+        return new StoredEvent<>(SpillableEventQueue.this, lastSegment, lastIndex,
+            lastSegment.sequence(lastIndex), lastSegment.timestamp(lastIndex));
+      }
+    }
+
+    @Override
+    public void remove() {
+      synchronized (SpillableEventQueue.this) {
+        if (lastIndex < 0) {
+          throw new IllegalStateException();
+        }
+        removeEvent(lastSegment, lastIndex);
+        lastIndex = -1;
+      }
+    }
+
+    // Position on the next event which is not removed
+    private boolean advance() {
+      while (segment != null) {
+        index = segment.removed.nextClearBit(index);
+        if (index < segment.count) {
+          return true;
+        }
+        if (segment.next == null) {
+          return false;
+        }
+        segment = segment.next;
+        index = 0;
+      }
+      return false;
+    }
+  }
+
+  /**
+   * An event read from the queue. The value is deserialized on every get() so the event can
+   * be held, e.g. as part of the previous window, without keeping the value on the heap.
+   */
+  private static final class StoredEvent<T extends Serializable> implements Event<T> {
+    private static final long serialVersionUID = -3360960811359880186L;
+
+    private final transient SpillableEventQueue<T> queue;
+    private final transient Segment segment;
+    private final transient int index;
+    private final long sequence;
+    private final long timestamp;
+    // Only set for the events which have been checkpointed
+    private final T value;
+
+    private StoredEvent(SpillableEventQueue<T> queue, Segment segment, int index,
+                        long sequence, long timestamp) {
+      this.queue = queue;
+      this.segment = segment;
+      this.index = index;
+      this.sequence = sequence;
+      this.timestamp = timestamp;
+      this.value = null;
+    }
+
+    private StoredEvent(long sequence, long timestamp, T value) {
+      this.queue = null;
+      this.segment = null;
+      this.index = -1;
+      this.sequence = sequence;
+      this.timestamp = timestamp;
+      this.value = value;
+    }
+
+    @Override
+    public long getTimestamp() {
+      return timestamp;
+    }
+
+    @Override
+    public T get() {
+      return queue == null ? value : queue.read(segment, index);
+    }
+
+    @Override
+    public boolean isWatermark() {
+      return false;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return this == o
+          || o instanceof StoredEvent && sequence == ((StoredEvent<?>) o).sequence;
+    }
+
+    @Override
+    public int hashCode() {
+      return Long.hashCode(sequence);
+    }
+
+    @Override
+    public String toString() {
+      return "StoredEvent{" + "sequence=" + sequence + ", ts=" + timestamp + '}';
+    }
+
+    private Object writeReplace() {
+      return queue == null ? this : new StoredEvent<>(sequence, timestamp, get());
+    }
+  }
+}
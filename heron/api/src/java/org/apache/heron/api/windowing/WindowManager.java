@@ -157,9 +157,11 @@ public class WindowManager<T extends Serializable> implements TriggerHandler {
     List<T> events = new ArrayList<>();
     List<T> newEvents = new ArrayList<>();
     for (Event<T> event : windowEvents) {
-      events.add(event.get());
+      // the queue may deserialize the event on every get()
+      T value = event.get();
+      events.add(value);
       if (!prevWindowEvents.contains(event)) {
-        newEvents.add(event.get());
+        newEvents.add(value);
       }
     }
     prevWindowEvents.clear();
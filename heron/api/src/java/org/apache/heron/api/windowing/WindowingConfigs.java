@@ -85,6 +85,33 @@ public class WindowingConfigs extends HashMap<String, Object> {
   public static final String TOPOLOGY_BOLTS_WINDOW_CUSTOM_TRIGGER =
           "topology.bolts.window.custom.trigger";
 
+  /**
+   * Bolt-specific configuration for windowed bolts to keep the events of the window serialized
+   * outside of the java heap, in a {@link SpillableEventQueue}, instead of on the heap.
+   * The tuples are serialized with java serialization.
+   */
+  public static final String TOPOLOGY_BOLTS_WINDOW_OFFHEAP_ENABLED =
+          "topology.bolts.window.offheap.enabled";
+
+  /**
+   * The size in bytes of a segment of the off-heap window events, 1 MB by default.
+   */
+  public static final String TOPOLOGY_BOLTS_WINDOW_OFFHEAP_SEGMENT_BYTES =
+          "topology.bolts.window.offheap.segment.bytes";
+
+  /**
+   * The bytes of direct memory used for the off-heap window events before the segments
+   * are spilled to disk, 64 MB by default.
+   */
+  public static final String TOPOLOGY_BOLTS_WINDOW_OFFHEAP_MEMORY_BYTES =
+          "topology.bolts.window.offheap.memory.bytes";
+
+  /**
+   * The local directory the off-heap window events are spilled to, java.io.tmpdir by default.
+   */
+  public static final String TOPOLOGY_BOLTS_WINDOW_SPILL_DIRECTORY =
+          "topology.bolts.window.spill.directory";
+
   public void setTopologyBoltsWindowLengthCount(long value) {
     setTopologyBoltsWindowLengthCount(this, value);
   }
@@ -160,4 +187,40 @@ public class WindowingConfigs extends HashMap<String, Object> {
                                                          TriggerPolicy<Tuple, ?> value) {
     conf.put(TOPOLOGY_BOLTS_WINDOW_CUSTOM_TRIGGER, value);
   }
+
+  public void setTopologyBoltsWindowOffheapEnabled(boolean value) {
+    setTopologyBoltsWindowOffheapEnabled(this, value);
+  }
+
+  public static void setTopologyBoltsWindowOffheapEnabled(Map<String, Object> conf,
+                                                          boolean value) {
+    conf.put(TOPOLOGY_BOLTS_WINDOW_OFFHEAP_ENABLED, value);
+  }
+
+  public void setTopologyBoltsWindowOffheapSegmentBytes(int value) {
+    setTopologyBoltsWindowOffheapSegmentBytes(this, value);
+  }
+
+  public static void setTopologyBoltsWindowOffheapSegmentBytes(Map<String, Object> conf,
+                                                               int value) {
+    conf.put(TOPOLOGY_BOLTS_WINDOW_OFFHEAP_SEGMENT_BYTES, value);
+  }
+
+  public void setTopologyBoltsWindowOffheapMemoryBytes(long value) {
+    setTopologyBoltsWindowOffheapMemoryBytes(this, value);
+  }
+
+  public static void setTopologyBoltsWindowOffheapMemoryBytes(Map<String, Object> conf,
+                                                              long value) {
+    conf.put(TOPOLOGY_BOLTS_WINDOW_OFFHEAP_MEMORY_BYTES, value);
+  }
+
+  public void setTopologyBoltsWindowSpillDirectory(String value) {
+    setTopologyBoltsWindowSpillDirectory(this, value);
+  }
+
+  public static void setTopologyBoltsWindowSpillDirectory(Map<String, Object> conf,
+                                                          String value) {
+    conf.put(TOPOLOGY_BOLTS_WINDOW_SPILL_DIRECTORY, value);
+  }
 }
@@ -19,6 +19,7 @@
 
 package org.apache.heron.streamlet;
 
+import java.time.Duration;
 import java.util.List;
 
 import org.apache.heron.classification.InterfaceStability;
@@ -71,6 +72,16 @@ public interface Streamlet<R> {
    */
   int getNumPartitions();
 
+  /**
+   * Keeps the operator of this streamlet in a bolt of its own. By default, a chain of
+   * map/flatMap/filter streamlets with the same number of partitions is fused into a single
+   * bolt, which applies their functions one after the other without serializing the elements
+   * in between. A streamlet which disables the fusion is not fused with its parent nor with
+   * its children.
+   * @return Returns back the Streamlet
+   */
+  Streamlet<R> disableFusion();
+
   /**
    * Return a new Streamlet by applying mapFn to each element of this Streamlet
    * @param mapFn The Map Function that should be applied to each element
@@ -108,6 +119,20 @@ public interface Streamlet<R> {
   Streamlet<R> repartition(int numPartitions,
                            SerializableBiFunction<R, Integer, List<Integer>> partitionFn);
 
+  /**
+   * Repartition by key, with the elements of a key split between two partitions so that a hot
+   * key does not overload one of them. Each element goes to whichever of the two partitions
+   * of its key got fewer elements from the current partition so far (partial key grouping).
+   * Since a key could be in two partitions, the results computed per key downstream have to be
+   * merged once more.
+   * @param numPartitions The number of partitions of the new streamlet
+   * @param keyExtractor The function applied to an element of this streamlet to get the key
+   * @param consistentHashing If set, the two partitions of a key are chosen by consistent
+   * hashing, so that few keys move when the number of partitions changes
+   */
+  <K> Streamlet<R> repartitionByKey(int numPartitions, SerializableFunction<R, K> keyExtractor,
+                                    boolean consistentHashing);
+
   /**
    * Clones the current Streamlet. It returns an array of numClones Streamlets where each
    * Streamlet contains all the tuples of the current Streamlet
@@ -153,6 +178,31 @@ public interface Streamlet<R> {
              SerializableFunction<S, K> otherKeyExtractor, WindowConfig windowCfg,
              JoinType joinType, SerializableBiFunction<R, S, ? extends T> joinFunction);
 
+  /**
+   * Return a new KVStreamlet by joining 'this streamlet with ‘other’ streamlet. The type of joining
+   * is declared by the joinType parameter.
+   * The join is done over elements accumulated over a time window defined by windowCfg.
+   * The elements are compared using the thisKeyExtractor for this streamlet with the
+   * otherKeyExtractor for the other streamlet. On each matching pair, the joinFunction is applied.
+   * Types of joins {@link JoinType}
+   * @param other The Streamlet that we are joining with.
+   * @param thisKeyExtractor The function applied to a tuple of this streamlet to get the key
+   * @param otherKeyExtractor The function applied to a tuple of the other streamlet to get the key
+   * @param windowCfg This is a specification of what kind of windowing strategy you like to
+   * have. Typical windowing strategies are sliding windows and tumbling windows
+   * @param joinType Type of Join. Options {@link JoinType}
+   * @param joinFunction The join function that needs to be applied
+   * @param incremental If set, the join is evaluated incrementally: the values of the window are
+   * kept in per key buffers, each new value is joined with the buffered values of the other
+   * side, and each matching pair is emitted once, rather than once per window it is part of.
+   * For the outer joins, a value without any match is emitted with null once it leaves the window.
+   */
+  <K, S, T> Streamlet<KeyValue<KeyedWindow<K>, T>>
+        join(Streamlet<S> other, SerializableFunction<R, K> thisKeyExtractor,
+             SerializableFunction<S, K> otherKeyExtractor, WindowConfig windowCfg,
+             JoinType joinType, SerializableBiFunction<R, S, ? extends T> joinFunction,
+             boolean incremental);
+
   /**
    * Return a new Streamlet accumulating tuples of this streamlet over a Window defined by
    * windowCfg and applying reduceFn on those tuples.
@@ -167,6 +217,56 @@ public interface Streamlet<R> {
       SerializableFunction<R, K> keyExtractor, SerializableFunction<R, V> valueExtractor,
       WindowConfig windowCfg, SerializableBinaryOperator<V> reduceFn);
 
+  /**
+   * Return a new Streamlet accumulating tuples of this streamlet over a Window defined by
+   * windowCfg and applying reduceFn on those tuples, incrementally. The tuples are not kept:
+   * their values are reduced into partial results per key and slice of the window as they
+   * arrive, and the partial results are combined when the window ends. This only applies to
+   * time and count based windows; custom windows keep their tuples like reduceByKeyAndWindow.
+   * Since the values are reduced in slices, reduceFn has to be associative. The tuples are acked
+   * once they are reduced rather than when they leave the window.
+   * @param keyExtractor The function applied to a tuple of this streamlet to get the key
+   * @param valueExtractor The function applied to a tuple of this streamlet to extract the value
+   * to be reduced on
+   * @param windowCfg This is a specification of what kind of windowing strategy you like to have.
+   * Typical windowing strategies are sliding windows and tumbling windows
+   * @param reduceFn The reduce function that you want to apply to all the values of a key.
+   * @param inverseReduceFn Optional, could be null. The inverse of reduceFn, taking out of a
+   * reduced value the values reduced into the second parameter, e.g. subtraction if reduceFn is
+   * addition. If set, a running result per key is updated as values enter and leave the window,
+   * rather than the slices being combined when the window ends.
+   */
+  <K, V> Streamlet<KeyValue<KeyedWindow<K>, V>> reduceByKeyAndWindow(
+      SerializableFunction<R, K> keyExtractor, SerializableFunction<R, V> valueExtractor,
+      WindowConfig windowCfg, SerializableBinaryOperator<V> reduceFn,
+      SerializableBinaryOperator<V> inverseReduceFn);
+
+  /**
+   * Return a new Streamlet accumulating tuples of this streamlet over a Window defined by
+   * windowCfg and applying reduceFn on those tuples, incrementally, with the values partially
+   * reduced per key by a combiner on the upstream side. The combiner runs in the same bolt as
+   * the map, flatMap and filter streamlets leading to it, and only sends the partial aggregates
+   * of each key to the reducers, every combinerFlushInterval or every combinerFlushCount tuples,
+   * whichever comes first. This cuts the traffic to the reducers when the keys repeat within a
+   * flush. The combiner only applies to time based windows, and a value reaches the reducer up
+   * to combinerFlushInterval later, so the interval should be small compared to the sliding
+   * interval of the window. reduceFn has to be associative.
+   * @param keyExtractor The function applied to a tuple of this streamlet to get the key
+   * @param valueExtractor The function applied to a tuple of this streamlet to extract the value
+   * to be reduced on
+   * @param windowCfg This is a specification of what kind of windowing strategy you like to have.
+   * Typical windowing strategies are sliding windows and tumbling windows
+   * @param reduceFn The reduce function that you want to apply to all the values of a key.
+   * @param inverseReduceFn Optional, could be null. The inverse of reduceFn, see above.
+   * @param combinerFlushInterval The longest time a partial aggregate is held by the combiner
+   * @param combinerFlushCount The most tuples the combiner reduces before it flushes
+   */
+  <K, V> Streamlet<KeyValue<KeyedWindow<K>, V>> reduceByKeyAndWindow(
+      SerializableFunction<R, K> keyExtractor, SerializableFunction<R, V> valueExtractor,
+      WindowConfig windowCfg, SerializableBinaryOperator<V> reduceFn,
+      SerializableBinaryOperator<V> inverseReduceFn,
+      Duration combinerFlushInterval, long combinerFlushCount);
+
   /**
    * Return a new Streamlet accumulating tuples of this streamlet over a Window defined by
    * windowCfg and applying reduceFn on those tuples. For each window, the value identity is used
@@ -20,6 +20,7 @@
 
 package org.apache.heron.streamlet.impl;
 
+import java.io.OutputStream;
 import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -35,6 +36,7 @@ import com.esotericsoftware.kryo.serializers.DefaultSerializers;
 import com.esotericsoftware.kryo.serializers.MapSerializer;
 
 import org.apache.heron.api.serializer.IPluggableSerializer;
+import org.apache.heron.api.serializer.KryoStreamWriter;
 
 /**
  * KryoSerializer is a wrapper around Heron's IPluggableSerializer.
@@ -43,6 +45,7 @@ import org.apache.heron.api.serializer.IPluggableSerializer;
 public class KryoSerializer implements IPluggableSerializer {
   private Kryo kryo;
   private Output kryoOut;
+  private KryoStreamWriter kryoStreamWriter;
   private Input kryoIn;
 
   /**
@@ -57,6 +60,7 @@ public class KryoSerializer implements IPluggableSerializer {
   public void initialize(Map<String, Object> config) {
     kryo = getKryo();
     kryoOut = new Output(2000, 2000000000);
+    kryoStreamWriter = new KryoStreamWriter();
     kryoIn = new Input(1);
   }
 
@@ -67,6 +71,11 @@ public class KryoSerializer implements IPluggableSerializer {
     return kryoOut.toBytes();
   }
 
+  @Override
+  public void serialize(Object object, OutputStream output) {
+    kryoStreamWriter.writeClassAndObject(kryo, object, output);
+  }
+
   @Override
   public Object deserialize(byte[] input) {
     kryoIn.setBuffer(input);
@@ -20,6 +20,7 @@
 
 package org.apache.heron.streamlet.impl;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
@@ -41,6 +42,9 @@ import org.apache.heron.streamlet.Sink;
 import org.apache.heron.streamlet.Source;
 import org.apache.heron.streamlet.Streamlet;
 import org.apache.heron.streamlet.WindowConfig;
+import org.apache.heron.streamlet.impl.groupings.PartialKeyCustomGrouping;
+import org.apache.heron.streamlet.impl.operators.CombinerOperator.PartialAggregate;
+import org.apache.heron.streamlet.impl.streamlets.CombinerStreamlet;
 import org.apache.heron.streamlet.impl.streamlets.ConsumerStreamlet;
 import org.apache.heron.streamlet.impl.streamlets.FilterStreamlet;
 import org.apache.heron.streamlet.impl.streamlets.FlatMapStreamlet;
@@ -81,6 +85,7 @@ public abstract class StreamletImpl<R> implements Streamlet<R> {
   protected int nPartitions;
   private List<StreamletImpl<?>> children;
   private boolean built;
+  private boolean fusionEnabled;
 
   public boolean isBuilt() {
     return built;
@@ -99,6 +104,7 @@ public abstract class StreamletImpl<R> implements Streamlet<R> {
   }
 
   protected enum StreamletNamePrefix {
+    COMBINE("combiner"),
     CONSUMER("consumer"),
     FILTER("filter"),
     FLATMAP("flatmap"),
@@ -196,6 +202,24 @@ public abstract class StreamletImpl<R> implements Streamlet<R> {
     return nPartitions;
   }
 
+  /**
+   * Keeps the operator of this streamlet in a bolt of its own
+   * @return Returns back the Streamlet
+   */
+  @Override
+  public Streamlet<R> disableFusion() {
+    this.fusionEnabled = false;
+    return this;
+  }
+
+  /**
+   * Checks whether the operator of this streamlet could be fused with its parent and children
+   * @return true unless the fusion has been disabled
+   */
+  public boolean isFusionEnabled() {
+    return fusionEnabled;
+  }
+
   /**
    * Only used by the implementors
    */
@@ -203,6 +227,7 @@ public abstract class StreamletImpl<R> implements Streamlet<R> {
     this.nPartitions = -1;
     this.children = new LinkedList<>();
     this.built = false;
+    this.fusionEnabled = true;
   }
 
   public void build(TopologyBuilder bldr, Set<String> stageNames) {
@@ -294,10 +319,11 @@ public abstract class StreamletImpl<R> implements Streamlet<R> {
 
   /**
    * Same as filter(Identity).setNumPartitions(nPartitions)
+   * The identity map is not fused, so the elements are always redistributed.
   */
   @Override
   public Streamlet<R> repartition(int numPartitions) {
-    return this.map((a) -> a).setNumPartitions(numPartitions);
+    return this.map((a) -> a).setNumPartitions(numPartitions).disableFusion();
   }
 
   /**
@@ -313,6 +339,21 @@ public abstract class StreamletImpl<R> implements Streamlet<R> {
     return retval;
   }
 
+  /**
+   * Repartition by key, with the elements of a key split between two partitions by a
+   * partial key grouping
+   */
+  @Override
+  public <K> Streamlet<R> repartitionByKey(int numPartitions,
+                                           SerializableFunction<R, K> keyExtractor,
+                                           boolean consistentHashing) {
+    RemapStreamlet<R> retval = new RemapStreamlet<>(this,
+        new PartialKeyCustomGrouping<R, K>(keyExtractor, consistentHashing));
+    retval.setNumPartitions(numPartitions);
+    addChild(retval);
+    return retval;
+  }
+
   /**
    * Clones the current Streamlet. It returns an array of numClones Streamlets where each
    * Streamlet contains all the tuples of the current Streamlet
@@ -368,10 +409,38 @@ public abstract class StreamletImpl<R> implements Streamlet<R> {
         join(Streamlet<S> other, SerializableFunction<R, K> thisKeyExtractor,
              SerializableFunction<S, K> otherKeyExtractor, WindowConfig windowCfg,
              JoinType joinType, SerializableBiFunction<R, S, ? extends T> joinFunction) {
+    return join(other, thisKeyExtractor, otherKeyExtractor,
+        windowCfg, joinType, joinFunction, false);
+  }
+
+  /**
+   * Return a new KVStreamlet by joining 'this streamlet with ‘other’ streamlet. The type of joining
+   * is declared by the joinType parameter.
+   * The join is done over elements accumulated over a time window defined by windowCfg.
+   * The elements are compared using the thisKeyExtractor for this streamlet with the
+   * otherKeyExtractor for the other streamlet. On each matching pair, the joinFunction is applied.
+   * Types of joins {@link JoinType}
+   * @param other The Streamlet that we are joining with.
+   * @param thisKeyExtractor The function applied to a tuple of this streamlet to get the key
+   * @param otherKeyExtractor The function applied to a tuple of the other streamlet to get the key
+   * @param windowCfg This is a specification of what kind of windowing strategy you like to
+   * have. Typical windowing strategies are sliding windows and tumbling windows
+   * @param joinType Type of Join. Options {@link JoinType}
+   * @param joinFunction The join function that needs to be applied
+   * @param incremental If set, the join is evaluated incrementally, emitting each matching pair
+   * once
+   */
+  @Override
+  public <K, S, T> Streamlet<KeyValue<KeyedWindow<K>, T>>
+        join(Streamlet<S> other, SerializableFunction<R, K> thisKeyExtractor,
+             SerializableFunction<S, K> otherKeyExtractor, WindowConfig windowCfg,
+             JoinType joinType, SerializableBiFunction<R, S, ? extends T> joinFunction,
+             boolean incremental) {
 
     StreamletImpl<S> joinee = (StreamletImpl<S>) other;
     JoinStreamlet<K, R, S, T> retval = JoinStreamlet.createJoinStreamlet(
-        this, joinee, thisKeyExtractor, otherKeyExtractor, windowCfg, joinType, joinFunction);
+        this, joinee, thisKeyExtractor, otherKeyExtractor, windowCfg, joinType, joinFunction,
+        incremental);
     addChild(retval);
     joinee.addChild(retval);
     return retval;
@@ -398,6 +467,71 @@ public abstract class StreamletImpl<R> implements Streamlet<R> {
     return retval;
   }
 
+  /**
+   * Return a new Streamlet accumulating tuples of this streamlet over a Window defined by
+   * windowCfg and applying reduceFn on those tuples incrementally, pane by pane, for time and
+   * count based windows.
+   * @param keyExtractor The function applied to a tuple of this streamlet to get the key
+   * @param valueExtractor The function applied to a tuple of this streamlet to extract the value
+   * to be reduced on
+   * @param windowCfg This is a specification of what kind of windowing strategy you like to have.
+   * Typical windowing strategies are sliding windows and tumbling windows
+   * @param reduceFn The associative reduce function that you want to apply to all the values
+   * of a key.
+   * @param inverseReduceFn Optional, could be null. The inverse of reduceFn, used to take the
+   * values leaving the window out of a running result.
+   */
+  @Override
+  public <K, V> Streamlet<KeyValue<KeyedWindow<K>, V>> reduceByKeyAndWindow(
+      SerializableFunction<R, K> keyExtractor, SerializableFunction<R, V> valueExtractor,
+      WindowConfig windowCfg, SerializableBinaryOperator<V> reduceFn,
+      SerializableBinaryOperator<V> inverseReduceFn) {
+    ReduceByKeyAndWindowStreamlet<K, V, R> retval =
+        new ReduceByKeyAndWindowStreamlet<>(this, keyExtractor, valueExtractor,
+            windowCfg, reduceFn, true, inverseReduceFn);
+    addChild(retval);
+    return retval;
+  }
+
+  /**
+   * Return a new Streamlet accumulating tuples of this streamlet over a Window defined by
+   * windowCfg and applying reduceFn on those tuples, incrementally, with the values partially
+   * reduced per key by a combiner ahead of the reducers, for time based windows.
+   * @param keyExtractor The function applied to a tuple of this streamlet to get the key
+   * @param valueExtractor The function applied to a tuple of this streamlet to extract the value
+   * to be reduced on
+   * @param windowCfg This is a specification of what kind of windowing strategy you like to have.
+   * Typical windowing strategies are sliding windows and tumbling windows
+   * @param reduceFn The associative reduce function that you want to apply to all the values
+   * of a key.
+   * @param inverseReduceFn Optional, could be null. The inverse of reduceFn, used to take the
+   * values leaving the window out of a running result.
+   * @param combinerFlushInterval The longest time a partial aggregate is held by the combiner
+   * @param combinerFlushCount The most tuples the combiner reduces before it flushes
+   */
+  @Override
+  public <K, V> Streamlet<KeyValue<KeyedWindow<K>, V>> reduceByKeyAndWindow(
+      SerializableFunction<R, K> keyExtractor, SerializableFunction<R, V> valueExtractor,
+      WindowConfig windowCfg, SerializableBinaryOperator<V> reduceFn,
+      SerializableBinaryOperator<V> inverseReduceFn,
+      Duration combinerFlushInterval, long combinerFlushCount) {
+    if (!((WindowConfigImpl) windowCfg).isCombinerSupported()) {
+      // Count and custom windows see the tuples themselves
+      return reduceByKeyAndWindow(keyExtractor, valueExtractor, windowCfg, reduceFn,
+          inverseReduceFn);
+    }
+    CombinerStreamlet<K, V, R> combiner =
+        new CombinerStreamlet<>(this, keyExtractor, valueExtractor, reduceFn,
+            combinerFlushInterval, combinerFlushCount);
+    addChild(combiner);
+    ReduceByKeyAndWindowStreamlet<K, V, PartialAggregate<K, V>> retval =
+        new ReduceByKeyAndWindowStreamlet<>(combiner, PartialAggregate::getKey,
+            PartialAggregate::getValue, windowCfg, reduceFn, true, inverseReduceFn,
+            PartialAggregate::getCount);
+    combiner.addChild(retval);
+    return retval;
+  }
+
   /**
    * Return a new Streamlet accumulating tuples of this streamlet over a Window defined by
    * windowCfg and applying reduceFn on those tuples. For each window, the value identity is used
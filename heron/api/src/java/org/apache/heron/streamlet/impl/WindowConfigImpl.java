@@ -28,6 +28,7 @@ import org.apache.heron.api.tuple.Tuple;
 import org.apache.heron.api.windowing.EvictionPolicy;
 import org.apache.heron.api.windowing.TriggerPolicy;
 import org.apache.heron.streamlet.WindowConfig;
+import org.apache.heron.streamlet.impl.operators.IncrementalReduceByKeyAndWindowOperator;
 
 /**
  * WindowConfigImpl implements the WindowConfig interface.
@@ -76,4 +77,34 @@ public final class WindowConfigImpl implements WindowConfig {
         throw new RuntimeException("Unknown windowType " + String.valueOf(windowType));
     }
   }
+
+  /**
+   * Whether the window could be attached to an operator which aggregates incrementally,
+   * i.e. the window is time or count based
+   */
+  public boolean isIncrementalSupported() {
+    return windowType == WindowType.TIME || windowType == WindowType.COUNT;
+  }
+
+  /**
+   * Whether the tuples could be partially reduced by a combiner ahead of the window,
+   * i.e. the window is time based. Count based windows count the tuples it receives.
+   */
+  public boolean isCombinerSupported() {
+    return windowType == WindowType.TIME;
+  }
+
+  public void attachWindowConfig(IncrementalReduceByKeyAndWindowOperator<?, ?, ?> operator) {
+    switch(windowType) {
+      case COUNT:
+        operator.withWindow(windowSize, slideInterval);
+        break;
+      case TIME:
+        operator.withWindow(windowDuration, slidingIntervalDuration);
+        break;
+      default:
+        throw new IllegalArgumentException(
+            "Incremental aggregation does not support windowType " + String.valueOf(windowType));
+    }
+  }
 }
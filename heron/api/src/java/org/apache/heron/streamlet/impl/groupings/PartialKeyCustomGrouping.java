@@ -0,0 +1,47 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.heron.streamlet.impl.groupings;
+
+import java.util.List;
+
+import org.apache.heron.api.grouping.PartialKeyGrouping;
+import org.apache.heron.streamlet.SerializableFunction;
+
+/**
+ * PartialKeyCustomGrouping is the partial key grouping of repartitionByKey.
+ * The key of an element is given by the user supplied keyExtractor, and the element is
+ * routed to the least loaded of the two partitions of its key.
+ */
+public class PartialKeyCustomGrouping<R, K> extends PartialKeyGrouping {
+  private static final long serialVersionUID = -3196466404780522985L;
+  private SerializableFunction<R, K> keyExtractor;
+
+  public PartialKeyCustomGrouping(SerializableFunction<R, K> keyExtractor,
+                                  boolean consistentHashing) {
+    super(null, consistentHashing);
+    this.keyExtractor = keyExtractor;
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  protected Object getKey(List<Object> values) {
+    return keyExtractor.apply((R) values.get(0));
+  }
+}
@@ -0,0 +1,201 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.heron.streamlet.impl.operators;
+
+import java.io.Serializable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.heron.api.Config;
+import org.apache.heron.api.bolt.OutputCollector;
+import org.apache.heron.api.topology.TopologyContext;
+import org.apache.heron.api.tuple.Tuple;
+import org.apache.heron.api.tuple.Values;
+import org.apache.heron.streamlet.SerializableBinaryOperator;
+import org.apache.heron.streamlet.SerializableFunction;
+
+/**
+ * CombinerOperator partially reduces the values of each key on the upstream side of a
+ * reduceByKeyAndWindow, so that only one PartialAggregate per key and flush is sent to the
+ * reducers instead of every tuple. The values are reduced as they arrive, and the partial
+ * aggregates are emitted and forgotten every flushInterval, or as soon as flushCount tuples
+ * were combined since the last flush, and before every checkpoint. It is a FusedOperator whose
+ * last stage is the combiner, so a chain of map/flatMap/filter streamlets feeding the reduce runs
+ * in the same bolt. The partial aggregates are anchored on the tuples combined into them, and
+ * these tuples are acked once flushed. reduceFn is required to be associative.
+ */
+public class CombinerOperator<K, V, R> extends FusedOperator {
+  private static final long serialVersionUID = -1640436374585219532L;
+  private static final String FLUSH_TIMER_NAME = "CombinerFlushTimer";
+
+  private SerializableFunction<R, K> keyExtractor;
+  private SerializableFunction<R, V> valueExtractor;
+  private SerializableBinaryOperator<V> reduceFn;
+  private Duration flushInterval;
+  private long flushCount;
+
+  private Map<K, PartialAggregate<K, V>> partials;
+  // The tuples combined into each partial aggregate, which it is anchored on
+  private Map<K, List<Tuple>> anchors;
+  // The tuples combined since the last flush, acked once the partial aggregates are emitted
+  private List<Tuple> combinedTuples;
+  private boolean inputCombined;
+  private long combinedCount;
+
+  public CombinerOperator(SerializableFunction<R, K> keyExtractor,
+                          SerializableFunction<R, V> valueExtractor,
+                          SerializableBinaryOperator<V> reduceFn,
+                          Duration flushInterval, long flushCount) {
+    this(Collections.emptyList(), keyExtractor, valueExtractor, reduceFn,
+        flushInterval, flushCount);
+  }
+
+  public CombinerOperator(List<Stage> stages,
+                          SerializableFunction<R, K> keyExtractor,
+                          SerializableFunction<R, V> valueExtractor,
+                          SerializableBinaryOperator<V> reduceFn,
+                          Duration flushInterval, long flushCount) {
+    super(stages);
+    if (flushInterval.isNegative() || flushInterval.isZero()) {
+      throw new IllegalArgumentException("Combiner flush interval must be positive");
+    }
+    if (flushCount <= 0) {
+      throw new IllegalArgumentException("Combiner flush count must be positive");
+    }
+    this.keyExtractor = keyExtractor;
+    this.valueExtractor = valueExtractor;
+    this.reduceFn = reduceFn;
+    this.flushInterval = flushInterval;
+    this.flushCount = flushCount;
+  }
+
+  @SuppressWarnings("rawtypes")
+  @Override
+  public void prepare(Map map, TopologyContext topologyContext, OutputCollector outputCollector) {
+    super.prepare(map, topologyContext, outputCollector);
+    partials = new HashMap<>();
+    anchors = new HashMap<>();
+    combinedTuples = new ArrayList<>();
+    inputCombined = false;
+    combinedCount = 0;
+    Config.registerTopologyTimerEvents(map, FLUSH_TIMER_NAME, flushInterval, () -> flush());
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  protected void output(Tuple input, Object obj) {
+    R tup = (R) obj;
+    K key = keyExtractor.apply(tup);
+    V value = valueExtractor.apply(tup);
+    PartialAggregate<K, V> partial = partials.get(key);
+    if (partial == null) {
+      partials.put(key, new PartialAggregate<>(key, value, 1));
+      anchors.put(key, new ArrayList<>());
+    } else {
+      partial.value = reduceFn.apply(partial.value, value);
+      partial.count++;
+    }
+    List<Tuple> keyAnchors = anchors.get(key);
+    if (keyAnchors.isEmpty() || keyAnchors.get(keyAnchors.size() - 1) != input) {
+      keyAnchors.add(input);
+    }
+
+    inputCombined = true;
+    combinedCount++;
+  }
+
+  @Override
+  protected void processed(Tuple tuple) {
+    if (!inputCombined) {
+      // Nothing of the tuple is left to emit
+      collector.ack(tuple);
+      return;
+    }
+    combinedTuples.add(tuple);
+    inputCombined = false;
+    // Flush between tuples, so that a tuple is acked once all its values are flushed
+    if (combinedCount >= flushCount) {
+      flush();
+    }
+  }
+
+  @Override
+  public void preSave(String checkpointId) {
+    // Nothing combined is kept in the checkpoint, so it is emitted ahead of the checkpoint
+    flush();
+  }
+
+  /**
+   * Emit the partial aggregates combined since the last flush, anchored on their tuples,
+   * and ack these tuples
+   */
+  void flush() {
+    for (PartialAggregate<K, V> partial : partials.values()) {
+      collector.emit(anchors.get(partial.getKey()), new Values(partial));
+    }
+    for (Tuple tuple : combinedTuples) {
+      collector.ack(tuple);
+    }
+    partials.clear();
+    anchors.clear();
+    combinedTuples.clear();
+    combinedCount = 0;
+  }
+
+  /**
+   * The values of a key reduced by a combiner, and the # of values reduced into it,
+   * so that the reducers count the tuples rather than the partial aggregates in a window
+   */
+  public static final class PartialAggregate<K, V> implements Serializable {
+    private static final long serialVersionUID = 4622390117846592237L;
+
+    private final K key;
+    private V value;
+    private long count;
+
+    public PartialAggregate(K key, V value, long count) {
+      this.key = key;
+      this.value = value;
+      this.count = count;
+    }
+
+    public K getKey() {
+      return key;
+    }
+
+    public V getValue() {
+      return value;
+    }
+
+    public long getCount() {
+      return count;
+    }
+
+    @Override
+    public String toString() {
+      return "{ " + String.valueOf(key) + " : " + String.valueOf(value)
+          + " Count: " + String.valueOf(count) + " }";
+    }
+  }
+}
@@ -0,0 +1,140 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.heron.streamlet.impl.operators;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.heron.api.bolt.OutputCollector;
+import org.apache.heron.api.topology.TopologyContext;
+import org.apache.heron.api.tuple.Tuple;
+import org.apache.heron.api.tuple.Values;
+import org.apache.heron.streamlet.SerializableFunction;
+import org.apache.heron.streamlet.SerializablePredicate;
+
+/**
+ * FusedOperator implements a chain of map/flatMap/filter streamlets in a single bolt.
+ * It takes in the functions of the streamlets as stages, and for every tuple, it applies
+ * the stages one after the other on the same object, emitting what comes out of the last one.
+ * Hence the elements are not serialized and sent between the streamlets of the chain.
+ */
+public class FusedOperator extends StreamletOperator {
+  private static final long serialVersionUID = 2912838154621479367L;
+  private Stage[] stages;
+
+  protected OutputCollector collector;
+
+  public FusedOperator(List<Stage> stages) {
+    this.stages = stages.toArray(new Stage[0]);
+  }
+
+  @SuppressWarnings("rawtypes")
+  @Override
+  public void prepare(Map map, TopologyContext topologyContext, OutputCollector outputCollector) {
+    collector = outputCollector;
+  }
+
+  @Override
+  public void execute(Tuple tuple) {
+    apply(tuple, tuple.getValue(0), 0);
+    processed(tuple);
+  }
+
+  private void apply(Tuple input, Object obj, int index) {
+    if (index == stages.length) {
+      output(input, obj);
+      return;
+    }
+    Stage stage = stages[index];
+    switch (stage.type) {
+      case MAP:
+        apply(input, stage.mapFn.apply(obj), index + 1);
+        break;
+      case FLATMAP:
+        for (Object o : stage.flatMapFn.apply(obj)) {
+          apply(input, o, index + 1);
+        }
+        break;
+      case FILTER:
+        if (stage.filterFn.test(obj)) {
+          apply(input, obj, index + 1);
+        }
+        break;
+      default:
+        throw new RuntimeException("Unknown stage type: " + stage.type.name());
+    }
+  }
+
+  /**
+   * Called with every object coming out of the last stage of the chain, and the tuple it
+   * comes from
+   */
+  protected void output(Tuple input, Object obj) {
+    collector.emit(new Values(obj));
+  }
+
+  /**
+   * Called once all the objects coming out of the tuple were output
+   */
+  protected void processed(Tuple tuple) {
+    collector.ack(tuple);
+  }
+
+  /**
+   * The function of one of the streamlets of the chain
+   */
+  public static final class Stage implements Serializable {
+    private static final long serialVersionUID = -6307158473614733398L;
+
+    private enum Type { MAP, FLATMAP, FILTER }
+
+    private final Type type;
+    private final SerializableFunction<Object, Object> mapFn;
+    private final SerializableFunction<Object, ? extends Iterable<?>> flatMapFn;
+    private final SerializablePredicate<Object> filterFn;
+
+    private Stage(Type type, SerializableFunction<Object, Object> mapFn,
+                  SerializableFunction<Object, ? extends Iterable<?>> flatMapFn,
+                  SerializablePredicate<Object> filterFn) {
+      this.type = type;
+      this.mapFn = mapFn;
+      this.flatMapFn = flatMapFn;
+      this.filterFn = filterFn;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <R, T> Stage map(SerializableFunction<? super R, ? extends T> mapFn) {
+      return new Stage(Type.MAP, (SerializableFunction<Object, Object>) mapFn, null, null);
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <R, T> Stage flatMap(
+        SerializableFunction<? super R, ? extends Iterable<? extends T>> flatMapFn) {
+      return new Stage(Type.FLATMAP, null,
+          (SerializableFunction<Object, ? extends Iterable<?>>) flatMapFn, null);
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <R> Stage filter(SerializablePredicate<? super R> filterFn) {
+      return new Stage(Type.FILTER, null, null, (SerializablePredicate<Object>) filterFn);
+    }
+  }
+}
@@ -0,0 +1,306 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.heron.streamlet.impl.operators;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import org.apache.heron.api.bolt.OutputCollector;
+import org.apache.heron.api.topology.TopologyContext;
+import org.apache.heron.api.tuple.Tuple;
+import org.apache.heron.api.tuple.Values;
+import org.apache.heron.api.windowing.TupleWindow;
+import org.apache.heron.streamlet.JoinType;
+import org.apache.heron.streamlet.KeyValue;
+import org.apache.heron.streamlet.KeyedWindow;
+import org.apache.heron.streamlet.SerializableBiFunction;
+import org.apache.heron.streamlet.SerializableFunction;
+import org.apache.heron.streamlet.Window;
+
+/**
+ * IncrementalJoinOperator implements join/leftJoin/innerJoin as a symmetric hash join.
+ * Rather than rebuilding the join from the whole window on every trigger, it keeps the values
+ * of the window in per key left and right buffers. Every new tuple of the window probes the
+ * buffer of the other side for its key and is then added to the buffer of its own side, and
+ * every expired tuple is taken out of its buffer. Hence each matching pair is emitted once,
+ * when the later of the two tuples enters the window, and a slide costs the # of new and
+ * expired tuples plus the # of pairs they produce.
+ * For the outer joins, a value which has not matched any value of the other side by the time
+ * it leaves the window is emitted with null, once.
+ */
+public class IncrementalJoinOperator<K, V1, V2, VR> extends StreamletWindowOperator {
+  private static final long serialVersionUID = -2283746651436215617L;
+
+  private JoinType joinType;
+  // The source component that represent the left join component
+  private String leftComponent;
+  // The source component that represent the right join component
+  private String rightComponent;
+  private SerializableFunction<V1, K> leftKeyExtractor;
+  private SerializableFunction<V2, K> rightKeyExtractor;
+  // The user supplied join function
+  private SerializableBiFunction<V1, V2, ? extends VR> joinFn;
+
+  private OutputCollector collector;
+  private Map<K, JoinBuffers<V1, V2>> buffers;
+  // The # of tuples of the window accounted in the buffers, including the null values
+  private long windowSize;
+
+  public IncrementalJoinOperator(JoinType joinType, String leftComponent, String rightComponent,
+                                 SerializableFunction<V1, K> leftKeyExtractor,
+                                 SerializableFunction<V2, K> rightKeyExtractor,
+                                 SerializableBiFunction<V1, V2, ? extends VR> joinFn) {
+    this.joinType = joinType;
+    this.leftComponent = leftComponent;
+    this.rightComponent = rightComponent;
+    this.leftKeyExtractor = leftKeyExtractor;
+    this.rightKeyExtractor = rightKeyExtractor;
+    this.joinFn = joinFn;
+  }
+
+  @SuppressWarnings("rawtypes")
+  @Override
+  public void prepare(Map map, TopologyContext topologyContext, OutputCollector outputCollector) {
+    collector = outputCollector;
+    buffers = new HashMap<>();
+    windowSize = 0;
+  }
+
+  @Override
+  public void execute(TupleWindow inputWindow) {
+    KeyedWindowFactory windowFactory = new KeyedWindowFactory(inputWindow);
+    List<Tuple> newTuples = inputWindow.getNew();
+    boolean missed = false;
+    for (Tuple tuple : inputWindow.getExpired()) {
+      missed |= !expire(tuple, windowFactory);
+    }
+    windowSize -= inputWindow.getExpired().size();
+
+    // The window manager drops the expired tuples of a trigger without any tuple in the window,
+    // and the window is restored without the buffers after a failure. An expired tuple without
+    // an entry also means the buffers are not in line with the window anymore.
+    if (missed || windowSize + newTuples.size() != inputWindow.get().size()) {
+      rebuild(inputWindow.get(), newTuples);
+    }
+
+    for (Tuple tuple : newTuples) {
+      add(tuple, windowFactory, true);
+    }
+    windowSize += newTuples.size();
+  }
+
+  @SuppressWarnings("unchecked")
+  private void add(Tuple tuple, KeyedWindowFactory windowFactory, boolean probe) {
+    Object value = tuple.getValue(0);
+    if (value == null) {
+      return;
+    }
+    if (isLeft(tuple)) {
+      V1 left = (V1) value;
+      K key = leftKeyExtractor.apply(left);
+      JoinBuffers<V1, V2> joinBuffers = getBuffers(key);
+      Entry<V1> entry = new Entry<>(tuple, left);
+      if (probe) {
+        for (Entry<V2> right : joinBuffers.right) {
+          emit(key, windowFactory, left, right.value);
+          entry.matched = true;
+          right.matched = true;
+        }
+      } else {
+        entry.matched = true;
+      }
+      joinBuffers.left.addLast(entry);
+    } else {
+      V2 right = (V2) value;
+      K key = rightKeyExtractor.apply(right);
+      JoinBuffers<V1, V2> joinBuffers = getBuffers(key);
+      Entry<V2> entry = new Entry<>(tuple, right);
+      if (probe) {
+        for (Entry<V1> left : joinBuffers.left) {
+          emit(key, windowFactory, left.value, right);
+          entry.matched = true;
+          left.matched = true;
+        }
+      } else {
+        entry.matched = true;
+      }
+      joinBuffers.right.addLast(entry);
+    }
+  }
+
+  /**
+   * Take an expired tuple out of its buffer.
+   * Returns false if the tuple has no entry in the buffers.
+   */
+  @SuppressWarnings("unchecked")
+  private boolean expire(Tuple tuple, KeyedWindowFactory windowFactory) {
+    Object value = tuple.getValue(0);
+    if (value == null) {
+      return true;
+    }
+    if (isLeft(tuple)) {
+      V1 left = (V1) value;
+      K key = leftKeyExtractor.apply(left);
+      JoinBuffers<V1, V2> joinBuffers = buffers.get(key);
+      if (joinBuffers == null) {
+        return false;
+      }
+      Entry<V1> entry = remove(joinBuffers.left, tuple, left);
+      if (entry == null) {
+        return false;
+      }
+      if (!entry.matched && (joinType == JoinType.OUTER_LEFT || joinType == JoinType.OUTER)) {
+        emit(key, windowFactory, entry.value, null);
+      }
+      removeIfEmpty(key, joinBuffers);
+    } else {
+      V2 right = (V2) value;
+      K key = rightKeyExtractor.apply(right);
+      JoinBuffers<V1, V2> joinBuffers = buffers.get(key);
+      if (joinBuffers == null) {
+        return false;
+      }
+      Entry<V2> entry = remove(joinBuffers.right, tuple, right);
+      if (entry == null) {
+        return false;
+      }
+      if (!entry.matched && (joinType == JoinType.OUTER_RIGHT || joinType == JoinType.OUTER)) {
+        emit(key, windowFactory, null, entry.value);
+      }
+      removeIfEmpty(key, joinBuffers);
+    }
+    return true;
+  }
+
+  /**
+   * Remove the entry of an expired tuple. The expired tuple is the same object as the one
+   * which was added, unless the window keeps its tuples serialized, then the entry is found
+   * by value. The tuples leave the window in the order they came, so the entry is usually
+   * the first one. Returns null, and leaves the entries as they are, if neither matches.
+   */
+  private static <V> Entry<V> remove(ArrayDeque<Entry<V>> entries, Tuple tuple, V value) {
+    Entry<V> byValue = null;
+    for (Iterator<Entry<V>> it = entries.iterator(); it.hasNext();) {
+      Entry<V> entry = it.next();
+      if (entry.tuple == tuple) {
+        it.remove();
+        return entry;
+      }
+      if (byValue == null && Objects.equals(entry.value, value)) {
+        byValue = entry;
+      }
+    }
+    if (byValue != null) {
+      entries.removeFirstOccurrence(byValue);
+    }
+    return byValue;
+  }
+
+  /**
+   * Rebuild the buffers from the tuples in the window, other than the new ones.
+   * The pairs of these tuples are taken as emitted already.
+   */
+  private void rebuild(List<Tuple> windowTuples, List<Tuple> newTuples) {
+    buffers.clear();
+    Set<Tuple> added = Collections.newSetFromMap(new IdentityHashMap<>());
+    added.addAll(newTuples);
+    for (Tuple tuple : windowTuples) {
+      if (!added.contains(tuple)) {
+        add(tuple, null, false);
+      }
+    }
+    windowSize = windowTuples.size() - newTuples.size();
+  }
+
+  private JoinBuffers<V1, V2> getBuffers(K key) {
+    JoinBuffers<V1, V2> joinBuffers = buffers.get(key);
+    if (joinBuffers == null) {
+      joinBuffers = new JoinBuffers<>();
+      buffers.put(key, joinBuffers);
+    }
+    return joinBuffers;
+  }
+
+  private void removeIfEmpty(K key, JoinBuffers<V1, V2> joinBuffers) {
+    if (joinBuffers.left.isEmpty() && joinBuffers.right.isEmpty()) {
+      buffers.remove(key);
+    }
+  }
+
+  private boolean isLeft(Tuple tuple) {
+    return tuple.getSourceComponent().equals(leftComponent);
+  }
+
+  private void emit(K key, KeyedWindowFactory windowFactory, V1 left, V2 right) {
+    collector.emit(new Values(new KeyValue<>(windowFactory.get(key), joinFn.apply(left, right))));
+  }
+
+  /**
+   * Creates the KeyedWindow of the results, sharing the window of the trigger between the keys
+   */
+  private static final class KeyedWindowFactory {
+    private final TupleWindow tupleWindow;
+    private Window window;
+
+    private KeyedWindowFactory(TupleWindow tupleWindow) {
+      this.tupleWindow = tupleWindow;
+    }
+
+    private <K> KeyedWindow<K> get(K key) {
+      if (window == null) {
+        long startWindow = tupleWindow.getStartTimestamp() == null
+            ? 0 : tupleWindow.getStartTimestamp();
+        long endWindow = tupleWindow.getEndTimestamp() == null
+            ? 0 : tupleWindow.getEndTimestamp();
+        window = new Window(startWindow, endWindow, tupleWindow.get().size());
+      }
+      return new KeyedWindow<>(key, window);
+    }
+  }
+
+  /**
+   * The values of a key in the window, from the left and from the right
+   */
+  private static final class JoinBuffers<V1, V2> {
+    private final ArrayDeque<Entry<V1>> left = new ArrayDeque<>();
+    private final ArrayDeque<Entry<V2>> right = new ArrayDeque<>();
+  }
+
+  /**
+   * A value in the window and whether it has been joined with a value of the other side
+   */
+  private static final class Entry<V> {
+    private final Tuple tuple;
+    private final V value;
+    private boolean matched;
+
+    private Entry(Tuple tuple, V value) {
+      this.tuple = tuple;
+      this.value = value;
+    }
+  }
+}
@@ -0,0 +1,376 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.heron.streamlet.impl.operators;
+
+import java.io.Serializable;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.heron.api.Config;
+import org.apache.heron.api.bolt.OutputCollector;
+import org.apache.heron.api.state.State;
+import org.apache.heron.api.topology.TopologyContext;
+import org.apache.heron.api.tuple.Tuple;
+import org.apache.heron.api.tuple.Values;
+import org.apache.heron.streamlet.KeyValue;
+import org.apache.heron.streamlet.KeyedWindow;
+import org.apache.heron.streamlet.SerializableBinaryOperator;
+import org.apache.heron.streamlet.SerializableFunction;
+import org.apache.heron.streamlet.Window;
+
+/**
+ * IncrementalReduceByKeyAndWindowOperator implements reduceByKeyAndWindow for time and count
+ * based windows without reducing the tuples of the window again on every slide.
+ * The stream is cut into panes, whose length is the greatest common divisor of the window
+ * length and the sliding interval. Every tuple is reduced into the partial result of its key
+ * in the current pane as it arrives. When a window ends, the partial results of the panes in
+ * the window are reduced per key and emitted, and the oldest panes are dropped. If an
+ * inverseReduceFn is given, a running result per key is kept instead: values are reduced into
+ * it as they arrive, and the partial results of a pane are taken out of it when the pane is
+ * dropped, so that a window is emitted without combining panes.
+ * Hence the memory is bounded by the # of panes times the # of keys per pane, and reduceFn
+ * is required to be associative. If a countExtractor is given, each tuple counts as the # of
+ * values it extracts in the count of the window, e.g. for the partial aggregates of a combiner.
+ * With ATLEAST_ONCE, the tuples of a pane are kept as well: the results are anchored on the
+ * tuples of their window, which are acked when their pane leaves the window. Otherwise a tuple
+ * is acked once it is reduced, and with EFFECTIVELY_ONCE the panes are checkpointed.
+ */
+public class IncrementalReduceByKeyAndWindowOperator<K, V, R> extends StreamletOperator {
+  private static final long serialVersionUID = -3467123358234817352L;
+  private static final String PANE_TIMER_NAME = "IncrementalReduceByKeyAndWindowPaneTimer";
+  // Upper bound of panes per window, to keep the pane timer or the pane size sane
+  private static final long MAX_PANES_PER_WINDOW = 10000;
+  // Keys of the checkpointed state
+  private static final String STATE_PANES = "panes";
+  private static final String STATE_CURRENT_PANE = "currentPane";
+  private static final String STATE_CURRENT_PANE_COUNT = "currentPaneCount";
+  private static final String STATE_PANES_SINCE_LAST_WINDOW = "panesSinceLastWindow";
+  private static final String STATE_RUNNING_RESULTS = "runningResults";
+
+  private SerializableFunction<R, K> keyExtractor;
+  private SerializableFunction<R, V> valueExtractor;
+  private SerializableBinaryOperator<V> reduceFn;
+  // Could be null, then the panes are combined when a window ends
+  private SerializableBinaryOperator<V> inverseReduceFn;
+  // Could be null, then each tuple counts as one
+  private SerializableFunction<R, Long> countExtractor;
+
+  private boolean isTimeWindow;
+  // In milli-seconds for time based windows, in # of tuples for count based windows
+  private long paneLength;
+  private long panesPerWindow;
+  private long panesPerSlide;
+
+  private OutputCollector collector;
+  private State<Serializable, Serializable> state;
+  // Whether the tuples are kept and acked when their pane leaves the window
+  private boolean anchored;
+  // Closed panes in the current window, the oldest first
+  private ArrayDeque<Pane<K, V>> panes;
+  private Pane<K, V> currentPane;
+  private long currentPaneCount;
+  private long panesSinceLastWindow;
+  // Result of each key over the panes in the window and the current one,
+  // only kept with an inverseReduceFn
+  private HashMap<K, PartialResult<V>> runningResults;
+
+  public IncrementalReduceByKeyAndWindowOperator(SerializableFunction<R, K> keyExtractor,
+                                                 SerializableFunction<R, V> valueExtractor,
+                                                 SerializableBinaryOperator<V> reduceFn,
+                                                 SerializableBinaryOperator<V> inverseReduceFn) {
+    this(keyExtractor, valueExtractor, reduceFn, inverseReduceFn, null);
+  }
+
+  public IncrementalReduceByKeyAndWindowOperator(SerializableFunction<R, K> keyExtractor,
+                                                 SerializableFunction<R, V> valueExtractor,
+                                                 SerializableBinaryOperator<V> reduceFn,
+                                                 SerializableBinaryOperator<V> inverseReduceFn,
+                                                 SerializableFunction<R, Long> countExtractor) {
+    this.keyExtractor = keyExtractor;
+    this.valueExtractor = valueExtractor;
+    this.reduceFn = reduceFn;
+    this.inverseReduceFn = inverseReduceFn;
+    this.countExtractor = countExtractor;
+  }
+
+  /**
+   * Time based sliding window
+   * @param windowDuration the duration of the window
+   * @param slidingInterval the duration of the sliding interval
+   * @return this operator
+   */
+  public IncrementalReduceByKeyAndWindowOperator<K, V, R> withWindow(Duration windowDuration,
+                                                                     Duration slidingInterval) {
+    this.isTimeWindow = true;
+    setPanes(windowDuration.toMillis(), slidingInterval.toMillis());
+    return this;
+  }
+
+  /**
+   * Count based sliding window
+   * @param windowSize the # of tuples in the window
+   * @param slideSize the # of tuples to slide the window
+   * @return this operator
+   */
+  public IncrementalReduceByKeyAndWindowOperator<K, V, R> withWindow(int windowSize,
+                                                                     int slideSize) {
+    this.isTimeWindow = false;
+    setPanes(windowSize, slideSize);
+    return this;
+  }
+
+  private void setPanes(long length, long slidingInterval) {
+    if (length <= 0 || slidingInterval <= 0) {
+      throw new IllegalArgumentException("Window length and sliding interval must be positive");
+    }
+    if (slidingInterval > length) {
+      throw new IllegalArgumentException("Sliding interval " + slidingInterval
+          + " is larger than window length " + length);
+    }
+    this.paneLength = gcd(length, slidingInterval);
+    this.panesPerWindow = length / paneLength;
+    this.panesPerSlide = slidingInterval / paneLength;
+    if (panesPerWindow > MAX_PANES_PER_WINDOW) {
+      throw new IllegalArgumentException("Window length " + length + " and sliding interval "
+          + slidingInterval + " would need " + panesPerWindow + " panes per window, more than "
+          + MAX_PANES_PER_WINDOW + ". Choose values with a larger common divisor");
+    }
+  }
+
+  private static long gcd(long a, long b) {
+    return b == 0 ? a : gcd(b, a % b);
+  }
+
+  @Override
+  public void initState(State<Serializable, Serializable> startupState) {
+    this.state = startupState;
+  }
+
+  @Override
+  public void preSave(String checkpointId) {
+    if (state != null) {
+      state.put(STATE_PANES, panes);
+      state.put(STATE_CURRENT_PANE, currentPane);
+      state.put(STATE_CURRENT_PANE_COUNT, currentPaneCount);
+      state.put(STATE_PANES_SINCE_LAST_WINDOW, panesSinceLastWindow);
+      state.put(STATE_RUNNING_RESULTS, runningResults);
+    }
+  }
+
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  @Override
+  public void prepare(Map map, TopologyContext topologyContext, OutputCollector outputCollector) {
+    if (paneLength <= 0) {
+      throw new IllegalStateException("Window is not set");
+    }
+    collector = outputCollector;
+    anchored = String.valueOf(Config.TopologyReliabilityMode.ATLEAST_ONCE)
+        .equals(String.valueOf(map.get(Config.TOPOLOGY_RELIABILITY_MODE)));
+    if (state != null && state.containsKey(STATE_PANES)) {
+      // Restored from a checkpoint
+      panes = (ArrayDeque<Pane<K, V>>) state.get(STATE_PANES);
+      currentPane = (Pane<K, V>) state.get(STATE_CURRENT_PANE);
+      currentPaneCount = (Long) state.get(STATE_CURRENT_PANE_COUNT);
+      panesSinceLastWindow = (Long) state.get(STATE_PANES_SINCE_LAST_WINDOW);
+      runningResults = (HashMap<K, PartialResult<V>>) state.get(STATE_RUNNING_RESULTS);
+    } else {
+      panes = new ArrayDeque<>();
+      currentPane = new Pane<>(currentTimeMillis(), anchored);
+      currentPaneCount = 0;
+      panesSinceLastWindow = 0;
+      if (inverseReduceFn != null) {
+        runningResults = new HashMap<>();
+      }
+    }
+
+    if (isTimeWindow) {
+      // Timer events are run in the same thread as execute()
+      Config.registerTopologyTimerEvents(map, PANE_TIMER_NAME,
+          Duration.ofMillis(paneLength), () -> closePane());
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public void execute(Tuple tuple) {
+    R tup = (R) tuple.getValue(0);
+    K key = keyExtractor.apply(tup);
+    V value = valueExtractor.apply(tup);
+    long count = countExtractor == null ? 1 : countExtractor.apply(tup);
+    add(currentPane.results, key, value, count);
+    if (runningResults != null) {
+      add(runningResults, key, value, count);
+    }
+    if (anchored) {
+      currentPane.tuples.add(tuple);
+    } else {
+      // The tuple is not kept around, so it is done once it is reduced
+      collector.ack(tuple);
+    }
+
+    currentPaneCount++;
+    if (!isTimeWindow && currentPaneCount == paneLength) {
+      closePane();
+    }
+  }
+
+  private void add(Map<K, PartialResult<V>> results, K key, V value, long count) {
+    PartialResult<V> result = results.get(key);
+    if (result == null) {
+      results.put(key, new PartialResult<>(value, count));
+    } else {
+      result.value = reduceFn.apply(result.value, value);
+      result.count += count;
+    }
+  }
+
+  /**
+   * Close the current pane, evict the panes out of the window and emit the window
+   * if it slides at this pane.
+   */
+  void closePane() {
+    long now = currentTimeMillis();
+    currentPane.endTime = now;
+    panes.addLast(currentPane);
+    currentPane = new Pane<>(now, anchored);
+    currentPaneCount = 0;
+    List<Pane<K, V>> evictedPanes = new ArrayList<>();
+    while (panes.size() > panesPerWindow) {
+      Pane<K, V> evicted = panes.removeFirst();
+      if (runningResults != null) {
+        subtract(evicted.results);
+      }
+      evictedPanes.add(evicted);
+    }
+
+    panesSinceLastWindow++;
+    if (panesSinceLastWindow == panesPerSlide) {
+      panesSinceLastWindow = 0;
+      emitWindow();
+    }
+
+    // The tuples of the evicted panes are done once their last window is emitted
+    for (Pane<K, V> evicted : evictedPanes) {
+      if (evicted.tuples != null) {
+        for (Tuple tuple : evicted.tuples) {
+          collector.ack(tuple);
+        }
+      }
+    }
+  }
+
+  // Package private for the tests
+  long currentTimeMillis() {
+    return System.currentTimeMillis();
+  }
+
+  private void subtract(Map<K, PartialResult<V>> evicted) {
+    for (Map.Entry<K, PartialResult<V>> entry : evicted.entrySet()) {
+      PartialResult<V> result = runningResults.get(entry.getKey());
+      result.count -= entry.getValue().count;
+      if (result.count == 0) {
+        // The key has no value in the window anymore
+        runningResults.remove(entry.getKey());
+      } else {
+        result.value = inverseReduceFn.apply(result.value, entry.getValue().value);
+      }
+    }
+  }
+
+  private void emitWindow() {
+    Map<K, PartialResult<V>> results;
+    if (runningResults != null) {
+      results = runningResults;
+    } else {
+      results = new HashMap<>();
+      // Oldest pane first, to reduce the values in the order they came
+      for (Pane<K, V> pane : panes) {
+        for (Map.Entry<K, PartialResult<V>> entry : pane.results.entrySet()) {
+          PartialResult<V> result = results.get(entry.getKey());
+          if (result == null) {
+            results.put(entry.getKey(),
+                new PartialResult<>(entry.getValue().value, entry.getValue().count));
+          } else {
+            result.value = reduceFn.apply(result.value, entry.getValue().value);
+            result.count += entry.getValue().count;
+          }
+        }
+      }
+    }
+
+    // The window spans from the opening of its oldest pane to the closing of its newest one
+    long startWindow = panes.getFirst().startTime;
+    long endWindow = panes.getLast().endTime;
+    List<Tuple> anchors = null;
+    if (anchored) {
+      anchors = new ArrayList<>();
+      for (Pane<K, V> pane : panes) {
+        anchors.addAll(pane.tuples);
+      }
+    }
+    for (Map.Entry<K, PartialResult<V>> entry : results.entrySet()) {
+      Window window = new Window(startWindow, endWindow, entry.getValue().count);
+      KeyedWindow<K> keyedWindow = new KeyedWindow<>(entry.getKey(), window);
+      Values output = new Values(new KeyValue<>(keyedWindow, entry.getValue().value));
+      if (anchors == null) {
+        collector.emit(output);
+      } else {
+        collector.emit(anchors, output);
+      }
+    }
+  }
+
+  /**
+   * The partial results of the keys in a pane, and the time it was opened and closed at
+   */
+  private static final class Pane<K, V> implements Serializable {
+    private static final long serialVersionUID = 4087316853467931842L;
+    private final HashMap<K, PartialResult<V>> results = new HashMap<>();
+    private final long startTime;
+    private long endTime;
+    // The tuples reduced into the pane, only kept when anchored
+    private transient List<Tuple> tuples;
+
+    Pane(long startTime, boolean anchored) {
+      this.startTime = startTime;
+      if (anchored) {
+        this.tuples = new ArrayList<>();
+      }
+    }
+  }
+
+  /**
+   * The reduced value of a key and the # of values reduced into it
+   */
+  private static final class PartialResult<V> implements Serializable {
+    private static final long serialVersionUID = -5920138457163208516L;
+    private V value;
+    private long count;
+
+    PartialResult(V value, long count) {
+      this.value = value;
+      this.count = count;
+    }
+  }
+}
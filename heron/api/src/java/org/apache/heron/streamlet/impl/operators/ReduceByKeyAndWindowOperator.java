@@ -38,21 +38,33 @@ import org.apache.heron.streamlet.Window;
  * ReduceByKeyAndWindowOperator is the class that implements reduceByKeyAndWindow functionality.
  * It takes in a reduceFunction Function as an input.
  * For every time window, the bolt goes over all the tuples in that window and applies the reduce
- * function grouped by keys. It emits a KeyedWindow, reduced Value KeyPairs as outputs
+ * function grouped by keys. It emits a KeyedWindow, reduced Value KeyPairs as outputs.
+ * If a countExtractor is given, each tuple counts as the # of values it extracts in the
+ * count of the window, e.g. for the partial aggregates of a combiner.
  */
 public class ReduceByKeyAndWindowOperator<K, V, R> extends StreamletWindowOperator {
   private static final long serialVersionUID = 2833576046687750496L;
   private SerializableFunction<R, K> keyExtractor;
   private SerializableFunction<R, V> valueExtractor;
   private SerializableBinaryOperator<V> reduceFn;
+  // Could be null, then each tuple counts as one
+  private SerializableFunction<R, Long> countExtractor;
   private OutputCollector collector;
 
   public ReduceByKeyAndWindowOperator(SerializableFunction<R, K> keyExtractor,
                                       SerializableFunction<R, V> valueExtractor,
                                       SerializableBinaryOperator<V> reduceFn) {
+    this(keyExtractor, valueExtractor, reduceFn, null);
+  }
+
+  public ReduceByKeyAndWindowOperator(SerializableFunction<R, K> keyExtractor,
+                                      SerializableFunction<R, V> valueExtractor,
+                                      SerializableBinaryOperator<V> reduceFn,
+                                      SerializableFunction<R, Long> countExtractor) {
     this.keyExtractor = keyExtractor;
     this.valueExtractor = valueExtractor;
     this.reduceFn = reduceFn;
+    this.countExtractor = countExtractor;
   }
 
   @SuppressWarnings("rawtypes")
@@ -65,7 +77,7 @@ public class ReduceByKeyAndWindowOperator<K, V, R> extends StreamletWindowOperat
   @Override
   public void execute(TupleWindow inputWindow) {
     Map<K, V> reduceMap = new HashMap<>();
-    Map<K, Integer> windowCountMap = new HashMap<>();
+    Map<K, Long> windowCountMap = new HashMap<>();
     for (Tuple tuple : inputWindow.get()) {
       R tup = (R) tuple.getValue(0);
       addMap(reduceMap, windowCountMap, tup);
@@ -89,14 +101,15 @@ public class ReduceByKeyAndWindowOperator<K, V, R> extends StreamletWindowOperat
     }
   }
 
-  private void addMap(Map<K, V> reduceMap, Map<K, Integer> windowCountMap, R tup) {
+  private void addMap(Map<K, V> reduceMap, Map<K, Long> windowCountMap, R tup) {
     K key = keyExtractor.apply(tup);
+    long count = countExtractor == null ? 1 : countExtractor.apply(tup);
     if (reduceMap.containsKey(key)) {
       reduceMap.put(key, reduceFn.apply(reduceMap.get(key), valueExtractor.apply(tup)));
-      windowCountMap.put(key, windowCountMap.get(key) + 1);
+      windowCountMap.put(key, windowCountMap.get(key) + count);
     } else {
       reduceMap.put(key, valueExtractor.apply(tup));
-      windowCountMap.put(key, 1);
+      windowCountMap.put(key, count);
     }
   }
 }
@@ -0,0 +1,81 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.heron.streamlet.impl.streamlets;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.apache.heron.streamlet.SerializableBinaryOperator;
+import org.apache.heron.streamlet.SerializableFunction;
+import org.apache.heron.streamlet.impl.StreamletImpl;
+import org.apache.heron.streamlet.impl.operators.CombinerOperator;
+import org.apache.heron.streamlet.impl.operators.FusedOperator;
+import org.apache.heron.streamlet.impl.operators.StreamletOperator;
+
+/**
+ * CombinerStreamlet represents the partial aggregates of the parent streamlet per key,
+ * combined ahead of a reduceByKeyAndWindow. It is fused with the map/flatMap/filter
+ * streamlets feeding it, so that the combiner runs where the tuples are produced.
+ * It is never fused with its child, and hence is always the last stage of a chain.
+ */
+public class CombinerStreamlet<K, V, R>
+    extends FusibleStreamlet<R, CombinerOperator.PartialAggregate<K, V>> {
+  private SerializableFunction<R, K> keyExtractor;
+  private SerializableFunction<R, V> valueExtractor;
+  private SerializableBinaryOperator<V> reduceFn;
+  private Duration flushInterval;
+  private long flushCount;
+
+  public CombinerStreamlet(StreamletImpl<R> parent,
+                           SerializableFunction<R, K> keyExtractor,
+                           SerializableFunction<R, V> valueExtractor,
+                           SerializableBinaryOperator<V> reduceFn,
+                           Duration flushInterval, long flushCount) {
+    super(parent);
+    this.keyExtractor = keyExtractor;
+    this.valueExtractor = valueExtractor;
+    this.reduceFn = reduceFn;
+    this.flushInterval = flushInterval;
+    this.flushCount = flushCount;
+  }
+
+  @Override
+  protected StreamletNamePrefix getNamePrefix() {
+    return StreamletNamePrefix.COMBINE;
+  }
+
+  @Override
+  protected StreamletOperator getOperator() {
+    return new CombinerOperator<K, V, R>(keyExtractor, valueExtractor, reduceFn,
+        flushInterval, flushCount);
+  }
+
+  @Override
+  protected StreamletOperator getFusedOperator(List<FusedOperator.Stage> parentStages) {
+    return new CombinerOperator<K, V, R>(parentStages, keyExtractor, valueExtractor, reduceFn,
+        flushInterval, flushCount);
+  }
+
+  // The partial aggregates are emitted on flush, so the combiner has no stage to run in its child
+  @Override
+  protected boolean canBeFusedIntoChild() {
+    return false;
+  }
+}
@@ -20,32 +20,36 @@
 
 package org.apache.heron.streamlet.impl.streamlets;
 
-import java.util.Set;
-
-import org.apache.heron.api.topology.TopologyBuilder;
 import org.apache.heron.streamlet.SerializablePredicate;
 import org.apache.heron.streamlet.impl.StreamletImpl;
 import org.apache.heron.streamlet.impl.operators.FilterOperator;
+import org.apache.heron.streamlet.impl.operators.FusedOperator;
+import org.apache.heron.streamlet.impl.operators.StreamletOperator;
 
 /**
  * FilterStreamlet represents a Streamlet that is made up of elements from
  * the parent Streamlet after applying a user supplied filter function.
  */
-public class FilterStreamlet<R> extends StreamletImpl<R> {
-  private StreamletImpl<R> parent;
+public class FilterStreamlet<R> extends FusibleStreamlet<R, R> {
   private SerializablePredicate<? super R> filterFn;
 
   public FilterStreamlet(StreamletImpl<R> parent, SerializablePredicate<? super R> filterFn) {
-    this.parent = parent;
+    super(parent);
     this.filterFn = filterFn;
-    setNumPartitions(parent.getNumPartitions());
   }
 
   @Override
-  public boolean doBuild(TopologyBuilder bldr, Set<String> stageNames) {
-    setDefaultNameIfNone(StreamletNamePrefix.FILTER, stageNames);
-    bldr.setBolt(getName(), new FilterOperator<R>(filterFn),
-        getNumPartitions()).shuffleGrouping(parent.getName());
-    return true;
+  protected StreamletNamePrefix getNamePrefix() {
+    return StreamletNamePrefix.FILTER;
+  }
+
+  @Override
+  protected StreamletOperator getOperator() {
+    return new FilterOperator<R>(filterFn);
+  }
+
+  @Override
+  protected FusedOperator.Stage getStage() {
+    return FusedOperator.Stage.filter(filterFn);
   }
 }
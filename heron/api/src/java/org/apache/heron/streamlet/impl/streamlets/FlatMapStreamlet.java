@@ -20,35 +20,39 @@
 
 package org.apache.heron.streamlet.impl.streamlets;
 
-import java.util.Set;
-
-import org.apache.heron.api.topology.TopologyBuilder;
 import org.apache.heron.streamlet.SerializableFunction;
 import org.apache.heron.streamlet.impl.StreamletImpl;
 import org.apache.heron.streamlet.impl.operators.FlatMapOperator;
+import org.apache.heron.streamlet.impl.operators.FusedOperator;
+import org.apache.heron.streamlet.impl.operators.StreamletOperator;
 
 /**
  * FlatMapStreamlet represents a Streamlet that is made up of applying the user
  * supplied flatMap function to each element of the parent streamlet and flattening
  * out the result.
  */
-public class FlatMapStreamlet<R, T> extends StreamletImpl<T> {
-  private StreamletImpl<R> parent;
+public class FlatMapStreamlet<R, T> extends FusibleStreamlet<R, T> {
   private SerializableFunction<? super R, ? extends Iterable<? extends T>> flatMapFn;
 
   public FlatMapStreamlet(StreamletImpl<R> parent,
                           SerializableFunction<? super R,
                               ? extends Iterable<? extends T>> flatMapFn) {
-    this.parent = parent;
+    super(parent);
     this.flatMapFn = flatMapFn;
-    setNumPartitions(parent.getNumPartitions());
   }
 
   @Override
-  public boolean doBuild(TopologyBuilder bldr, Set<String> stageNames) {
-    setDefaultNameIfNone(StreamletNamePrefix.FLATMAP, stageNames);
-    bldr.setBolt(getName(), new FlatMapOperator<R, T>(flatMapFn),
-        getNumPartitions()).shuffleGrouping(parent.getName());
-    return true;
+  protected StreamletNamePrefix getNamePrefix() {
+    return StreamletNamePrefix.FLATMAP;
+  }
+
+  @Override
+  protected StreamletOperator getOperator() {
+    return new FlatMapOperator<R, T>(flatMapFn);
+  }
+
+  @Override
+  protected FusedOperator.Stage getStage() {
+    return FusedOperator.Stage.flatMap(flatMapFn);
   }
 }
@@ -0,0 +1,111 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.heron.streamlet.impl.streamlets;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.heron.api.topology.TopologyBuilder;
+import org.apache.heron.streamlet.impl.StreamletImpl;
+import org.apache.heron.streamlet.impl.operators.FusedOperator;
+import org.apache.heron.streamlet.impl.operators.StreamletOperator;
+
+/**
+ * FusibleStreamlet is the base of the one to one streamlets, map, flatMap and filter,
+ * and of the combiner of reduceByKeyAndWindow.
+ * A chain of them is fused into a single bolt when each streamlet of the chain is the only
+ * child of the previous one and has the same number of partitions, unless one of them disables
+ * the fusion. Every streamlet of the chain keeps its name, but only the last one, whose name
+ * the children subscribe to, adds a bolt to the topology. That bolt is a FusedOperator
+ * subscribing to the parent of the first streamlet of the chain.
+ */
+public abstract class FusibleStreamlet<R, T> extends StreamletImpl<T> {
+  protected StreamletImpl<R> parent;
+
+  protected FusibleStreamlet(StreamletImpl<R> parent) {
+    this.parent = parent;
+    setNumPartitions(parent.getNumPartitions());
+  }
+
+  protected abstract StreamletNamePrefix getNamePrefix();
+
+  // The operator of this streamlet when it is not fused
+  protected abstract StreamletOperator getOperator();
+
+  // Whether this streamlet can run as a stage of its child's bolt. If not, it is always the
+  // last streamlet of a chain
+  protected boolean canBeFusedIntoChild() {
+    return true;
+  }
+
+  // The stage of this streamlet in a FusedOperator, only asked if it can be fused into its child
+  protected FusedOperator.Stage getStage() {
+    throw new IllegalStateException(getName() + " cannot be fused into its child");
+  }
+
+  @Override
+  public boolean doBuild(TopologyBuilder bldr, Set<String> stageNames) {
+    setDefaultNameIfNone(getNamePrefix(), stageNames);
+    if (isFusedWithChild()) {
+      // The bolt is added by the last streamlet of the chain
+      return true;
+    }
+    List<FusedOperator.Stage> parentStages = new ArrayList<>();
+    FusibleStreamlet<?, ?> first = this;
+    while (first.isFusedWithParent()) {
+      first = (FusibleStreamlet<?, ?>) first.parent;
+      parentStages.add(first.getStage());
+    }
+    StreamletOperator operator;
+    if (first == this) {
+      operator = getOperator();
+    } else {
+      Collections.reverse(parentStages);
+      operator = getFusedOperator(parentStages);
+    }
+    bldr.setBolt(getName(), operator,
+        getNumPartitions()).shuffleGrouping(first.parent.getName());
+    return true;
+  }
+
+  // The operator of this streamlet fused after the stages of its parents in the chain
+  protected StreamletOperator getFusedOperator(List<FusedOperator.Stage> parentStages) {
+    List<FusedOperator.Stage> stages = new ArrayList<>(parentStages);
+    stages.add(getStage());
+    return new FusedOperator(stages);
+  }
+
+  private boolean isFusedWithParent() {
+    return parent instanceof FusibleStreamlet
+        && ((FusibleStreamlet<?, ?>) parent).isFusedWithChild();
+  }
+
+  private boolean isFusedWithChild() {
+    if (!canBeFusedIntoChild() || !isFusionEnabled() || getChildren().size() != 1) {
+      return false;
+    }
+    StreamletImpl<?> child = getChildren().get(0);
+    return child instanceof FusibleStreamlet
+        && child.isFusionEnabled()
+        && child.getNumPartitions() == getNumPartitions();
+  }
+}
@@ -22,6 +22,7 @@ package org.apache.heron.streamlet.impl.streamlets;
 
 import java.util.Set;
 
+import org.apache.heron.api.bolt.BaseWindowedBolt;
 import org.apache.heron.api.topology.TopologyBuilder;
 import org.apache.heron.streamlet.JoinType;
 import org.apache.heron.streamlet.KeyValue;
@@ -32,6 +33,7 @@ import org.apache.heron.streamlet.WindowConfig;
 import org.apache.heron.streamlet.impl.StreamletImpl;
 import org.apache.heron.streamlet.impl.WindowConfigImpl;
 import org.apache.heron.streamlet.impl.groupings.JoinCustomGrouping;
+import org.apache.heron.streamlet.impl.operators.IncrementalJoinOperator;
 import org.apache.heron.streamlet.impl.operators.JoinOperator;
 
 /**
@@ -49,6 +51,7 @@ public final class JoinStreamlet<K, R, S, T> extends StreamletImpl<KeyValue<Keye
   private SerializableFunction<S, K> rightKeyExtractor;
   private WindowConfigImpl windowCfg;
   private SerializableBiFunction<R, S, ? extends T> joinFn;
+  private boolean incremental;
 
   public static <A, B, C, D> JoinStreamlet<A, B, C, D>
       createJoinStreamlet(StreamletImpl<B> left,
@@ -58,8 +61,21 @@ public final class JoinStreamlet<K, R, S, T> extends StreamletImpl<KeyValue<Keye
                           WindowConfig windowCfg,
                           JoinType joinType,
                           SerializableBiFunction<B, C, ? extends D> joinFn) {
+    return createJoinStreamlet(left, right, leftKeyExtractor, rightKeyExtractor, windowCfg,
+        joinType, joinFn, false);
+  }
+
+  public static <A, B, C, D> JoinStreamlet<A, B, C, D>
+      createJoinStreamlet(StreamletImpl<B> left,
+                          StreamletImpl<C> right,
+                          SerializableFunction<B, A> leftKeyExtractor,
+                          SerializableFunction<C, A> rightKeyExtractor,
+                          WindowConfig windowCfg,
+                          JoinType joinType,
+                          SerializableBiFunction<B, C, ? extends D> joinFn,
+                          boolean incremental) {
     return new JoinStreamlet<>(joinType, left,
-        right, leftKeyExtractor, rightKeyExtractor, windowCfg, joinFn);
+        right, leftKeyExtractor, rightKeyExtractor, windowCfg, joinFn, incremental);
   }
 
   private JoinStreamlet(JoinType joinType, StreamletImpl<R> left,
@@ -67,7 +83,8 @@ public final class JoinStreamlet<K, R, S, T> extends StreamletImpl<KeyValue<Keye
                         SerializableFunction<R, K> leftKeyExtractor,
                         SerializableFunction<S, K> rightKeyExtractor,
                         WindowConfig windowCfg,
-                        SerializableBiFunction<R, S, ? extends T> joinFn) {
+                        SerializableBiFunction<R, S, ? extends T> joinFn,
+                        boolean incremental) {
     this.joinType = joinType;
     this.left = left;
     this.right = right;
@@ -75,6 +92,7 @@ public final class JoinStreamlet<K, R, S, T> extends StreamletImpl<KeyValue<Keye
     this.rightKeyExtractor = rightKeyExtractor;
     this.windowCfg = (WindowConfigImpl) windowCfg;
     this.joinFn = joinFn;
+    this.incremental = incremental;
     setNumPartitions(left.getNumPartitions());
   }
 
@@ -88,8 +106,14 @@ public final class JoinStreamlet<K, R, S, T> extends StreamletImpl<KeyValue<Keye
       return false;
     }
     setDefaultNameIfNone(StreamletNamePrefix.JOIN, stageNames);
-    JoinOperator<K, R, S, T> bolt = new JoinOperator<>(joinType, left.getName(),
-        right.getName(), leftKeyExtractor, rightKeyExtractor, joinFn);
+    BaseWindowedBolt bolt;
+    if (incremental) {
+      bolt = new IncrementalJoinOperator<>(joinType, left.getName(),
+          right.getName(), leftKeyExtractor, rightKeyExtractor, joinFn);
+    } else {
+      bolt = new JoinOperator<>(joinType, left.getName(),
+          right.getName(), leftKeyExtractor, rightKeyExtractor, joinFn);
+    }
     windowCfg.attachWindowConfig(bolt);
     bldr.setBolt(getName(), bolt, getNumPartitions())
         .customGrouping(left.getName(), new JoinCustomGrouping<K, R>(leftKeyExtractor))
@@ -20,32 +20,36 @@
 
 package org.apache.heron.streamlet.impl.streamlets;
 
-import java.util.Set;
-
-import org.apache.heron.api.topology.TopologyBuilder;
 import org.apache.heron.streamlet.SerializableFunction;
 import org.apache.heron.streamlet.impl.StreamletImpl;
+import org.apache.heron.streamlet.impl.operators.FusedOperator;
 import org.apache.heron.streamlet.impl.operators.MapOperator;
+import org.apache.heron.streamlet.impl.operators.StreamletOperator;
 
 /**
  * MapStreamlet represents a Streamlet that is made up of applying the user
  * supplied map function to each element of the parent streamlet.
  */
-public class MapStreamlet<R, T> extends StreamletImpl<T> {
-  private StreamletImpl<R> parent;
+public class MapStreamlet<R, T> extends FusibleStreamlet<R, T> {
   private SerializableFunction<? super R, ? extends T> mapFn;
 
   public MapStreamlet(StreamletImpl<R> parent, SerializableFunction<? super R, ? extends T> mapFn) {
-    this.parent = parent;
+    super(parent);
     this.mapFn = mapFn;
-    setNumPartitions(parent.getNumPartitions());
   }
 
   @Override
-  public boolean doBuild(TopologyBuilder bldr, Set<String> stageNames) {
-    setDefaultNameIfNone(StreamletNamePrefix.MAP, stageNames);
-    bldr.setBolt(getName(), new MapOperator<R, T>(mapFn),
-        getNumPartitions()).shuffleGrouping(parent.getName());
-    return true;
+  protected StreamletNamePrefix getNamePrefix() {
+    return StreamletNamePrefix.MAP;
+  }
+
+  @Override
+  protected StreamletOperator getOperator() {
+    return new MapOperator<R, T>(mapFn);
+  }
+
+  @Override
+  protected FusedOperator.Stage getStage() {
+    return FusedOperator.Stage.map(mapFn);
   }
 }
@@ -31,6 +31,7 @@ import org.apache.heron.streamlet.WindowConfig;
 import org.apache.heron.streamlet.impl.StreamletImpl;
 import org.apache.heron.streamlet.impl.WindowConfigImpl;
 import org.apache.heron.streamlet.impl.groupings.ReduceByKeyAndWindowCustomGrouping;
+import org.apache.heron.streamlet.impl.operators.IncrementalReduceByKeyAndWindowOperator;
 import org.apache.heron.streamlet.impl.operators.ReduceByKeyAndWindowOperator;
 
 /**
@@ -47,29 +48,70 @@ public class ReduceByKeyAndWindowStreamlet<K, V, R>
   private SerializableFunction<R, V> valueExtractor;
   private WindowConfigImpl windowCfg;
   private SerializableBinaryOperator<V> reduceFn;
+  private boolean isIncremental;
+  private SerializableBinaryOperator<V> inverseReduceFn;
+  // Could be null, then each tuple of the parent counts as one in a window
+  private SerializableFunction<R, Long> countExtractor;
 
   public ReduceByKeyAndWindowStreamlet(StreamletImpl<R> parent,
                        SerializableFunction<R, K> keyExtractor,
                        SerializableFunction<R, V> valueExtractor,
                        WindowConfig windowCfg,
                        SerializableBinaryOperator<V> reduceFn) {
+    this(parent, keyExtractor, valueExtractor, windowCfg, reduceFn, false, null);
+  }
+
+  public ReduceByKeyAndWindowStreamlet(StreamletImpl<R> parent,
+                       SerializableFunction<R, K> keyExtractor,
+                       SerializableFunction<R, V> valueExtractor,
+                       WindowConfig windowCfg,
+                       SerializableBinaryOperator<V> reduceFn,
+                       boolean isIncremental,
+                       SerializableBinaryOperator<V> inverseReduceFn) {
+    this(parent, keyExtractor, valueExtractor, windowCfg, reduceFn, isIncremental,
+        inverseReduceFn, null);
+  }
+
+  public ReduceByKeyAndWindowStreamlet(StreamletImpl<R> parent,
+                       SerializableFunction<R, K> keyExtractor,
+                       SerializableFunction<R, V> valueExtractor,
+                       WindowConfig windowCfg,
+                       SerializableBinaryOperator<V> reduceFn,
+                       boolean isIncremental,
+                       SerializableBinaryOperator<V> inverseReduceFn,
+                       SerializableFunction<R, Long> countExtractor) {
     this.parent = parent;
     this.keyExtractor = keyExtractor;
     this.valueExtractor = valueExtractor;
     this.windowCfg = (WindowConfigImpl) windowCfg;
     this.reduceFn = reduceFn;
+    this.isIncremental = isIncremental;
+    this.inverseReduceFn = inverseReduceFn;
+    this.countExtractor = countExtractor;
     setNumPartitions(parent.getNumPartitions());
   }
 
   @Override
   public boolean doBuild(TopologyBuilder bldr, Set<String> stageNames) {
     setDefaultNameIfNone(StreamletNamePrefix.REDUCE, stageNames);
-    ReduceByKeyAndWindowOperator<K, V, R> bolt = new ReduceByKeyAndWindowOperator<>(keyExtractor,
-        valueExtractor, reduceFn);
-    windowCfg.attachWindowConfig(bolt);
-    bldr.setBolt(getName(), bolt, getNumPartitions())
-        .customGrouping(parent.getName(),
-            new ReduceByKeyAndWindowCustomGrouping<K, R>(keyExtractor));
+    if (isIncremental && windowCfg.isIncrementalSupported()) {
+      IncrementalReduceByKeyAndWindowOperator<K, V, R> bolt =
+          new IncrementalReduceByKeyAndWindowOperator<>(keyExtractor, valueExtractor,
+              reduceFn, inverseReduceFn, countExtractor);
+      windowCfg.attachWindowConfig(bolt);
+      bldr.setBolt(getName(), bolt, getNumPartitions())
+          .customGrouping(parent.getName(),
+              new ReduceByKeyAndWindowCustomGrouping<K, R>(keyExtractor));
+    } else {
+      // Custom windows are evaluated on the tuples of the window
+      ReduceByKeyAndWindowOperator<K, V, R> bolt =
+          new ReduceByKeyAndWindowOperator<>(keyExtractor, valueExtractor, reduceFn,
+              countExtractor);
+      windowCfg.attachWindowConfig(bolt);
+      bldr.setBolt(getName(), bolt, getNumPartitions())
+          .customGrouping(parent.getName(),
+              new ReduceByKeyAndWindowCustomGrouping<K, R>(keyExtractor));
+    }
     return true;
   }
 }
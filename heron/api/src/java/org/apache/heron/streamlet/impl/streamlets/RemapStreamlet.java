@@ -23,6 +23,7 @@ package org.apache.heron.streamlet.impl.streamlets;
 import java.util.List;
 import java.util.Set;
 
+import org.apache.heron.api.grouping.CustomStreamGrouping;
 import org.apache.heron.api.topology.TopologyBuilder;
 import org.apache.heron.streamlet.SerializableBiFunction;
 import org.apache.heron.streamlet.impl.StreamletImpl;
@@ -35,15 +36,20 @@ import org.apache.heron.streamlet.impl.operators.MapOperator;
  * RemapStreamlet as such is a generalized version of the Map/FlatMapStreamlets
  * that give users more flexibility over the operation. The remapFn allows for
  * users to choose which destination shards every transformed element can go.
+ * It could also be given the grouping routing the elements, e.g. a partial key grouping.
  */
 public class RemapStreamlet<R> extends StreamletImpl<R> {
   private StreamletImpl<R> parent;
-  private SerializableBiFunction<? super R, Integer, List<Integer>> remapFn;
+  private CustomStreamGrouping grouping;
 
   public RemapStreamlet(StreamletImpl<R> parent,
                         SerializableBiFunction<? super R, Integer, List<Integer>> remapFn) {
+    this(parent, new RemapCustomGrouping<R>(remapFn));
+  }
+
+  public RemapStreamlet(StreamletImpl<R> parent, CustomStreamGrouping grouping) {
     this.parent = parent;
-    this.remapFn = remapFn;
+    this.grouping = grouping;
     setNumPartitions(parent.getNumPartitions());
   }
 
@@ -52,7 +58,7 @@ public class RemapStreamlet<R> extends StreamletImpl<R> {
     setDefaultNameIfNone(StreamletNamePrefix.REMAP, stageNames);
     bldr.setBolt(getName(), new MapOperator<R, R>((a) -> a),
         getNumPartitions())
-        .customGrouping(parent.getName(), new RemapCustomGrouping<R>(remapFn));
+        .customGrouping(parent.getName(), grouping);
     return true;
   }
 }
@@ -18,6 +18,8 @@
  */
 package org.apache.heron.streamlet.scala
 
+import java.time.Duration
+
 import org.apache.heron.streamlet.{
   JoinType,
   KeyValue,
@@ -76,6 +78,17 @@ trait Streamlet[R] {
     */
   def getNumPartitions: Int
 
+  /**
+    * Keeps the operator of this streamlet in a bolt of its own. By default, a chain of
+    * map/flatMap/filter streamlets with the same number of partitions is fused into a single
+    * bolt, which applies their functions one after the other without serializing the elements
+    * in between. A streamlet which disables the fusion is not fused with its parent nor with
+    * its children.
+    *
+    * @return Returns back the Streamlet
+    */
+  def disableFusion(): Streamlet[R]
+
   /**
     * Return a new Streamlet by applying mapFn to each element of this Streamlet
     *
@@ -115,6 +128,20 @@ trait Streamlet[R] {
   def repartition(numPartitions: Int,
                   partitionFn: (R, Int) => Seq[Int]): Streamlet[R]
 
+  /**
+    * Repartition by key, with the elements of a key split between two partitions so that a hot
+    * key does not overload one of them. Each element goes to whichever of the two partitions
+    * of its key got fewer elements from the current partition so far (partial key grouping).
+    *
+    * @param numPartitions     The number of partitions of the new streamlet
+    * @param keyExtractor      The function applied to an element of this streamlet to get the key
+    * @param consistentHashing If set, the two partitions of a key are chosen by consistent
+    *                          hashing, so that few keys move when the number of partitions changes
+    */
+  def repartitionByKey[K](numPartitions: Int,
+                          keyExtractor: R => K,
+                          consistentHashing: Boolean): Streamlet[R]
+
   /**
     * Clones the current Streamlet. It returns an array of numClones Streamlets where each
     * Streamlet contains all the tuples of the current Streamlet
@@ -167,6 +194,35 @@ trait Streamlet[R] {
       joinType: JoinType,
       joinFunction: (R, S) => T): Streamlet[KeyValue[KeyedWindow[K], T]]
 
+  /**
+    * Return a new KVStreamlet by joining 'this streamlet with ‘other’ streamlet. The type of joining
+    * is declared by the joinType parameter.
+    * The join is done over elements accumulated over a time window defined by windowCfg.
+    * The elements are compared using the thisKeyExtractor for this streamlet with the
+    * otherKeyExtractor for the other streamlet. On each matching pair, the joinFunction is applied.
+    * Types of joins {@link JoinType}
+    *
+    * @param other             The Streamlet that we are joining with.
+    * @param thisKeyExtractor  The function applied to a tuple of this streamlet to get the key
+    * @param otherKeyExtractor The function applied to a tuple of the other streamlet to get the key
+    * @param windowCfg         This is a specification of what kind of windowing strategy you like to
+    * have. Typical windowing strategies are sliding windows and tumbling windows
+    * @param joinType          Type of Join. Options { @link JoinType}
+    * @param joinFunction The join function that needs to be applied
+    * @param incremental If set, the join is evaluated incrementally: the values of the window are
+    * kept in per key buffers, each new value is joined with the buffered values of the other
+    * side, and each matching pair is emitted once, rather than once per window it is part of.
+    * For the outer joins, a value without any match is emitted with null once it leaves the window.
+    */
+  def join[K, S, T](
+      other: Streamlet[S],
+      thisKeyExtractor: R => K,
+      otherKeyExtractor: S => K,
+      windowCfg: WindowConfig,
+      joinType: JoinType,
+      joinFunction: (R, S) => T,
+      incremental: Boolean): Streamlet[KeyValue[KeyedWindow[K], T]]
+
   /**
     * Return a new Streamlet accumulating tuples of this streamlet over a Window defined by
     * windowCfg and applying reduceFn on those tuples.
@@ -184,6 +240,55 @@ trait Streamlet[R] {
       windowCfg: WindowConfig,
       reduceFn: (V, V) => V): Streamlet[KeyValue[KeyedWindow[K], V]]
 
+  /**
+    * Return a new Streamlet accumulating tuples of this streamlet over a Window defined by
+    * windowCfg and applying reduceFn on those tuples, incrementally. The tuples of time and count
+    * based windows are not kept: their values are reduced per key and slice of the window as they
+    * arrive. reduceFn has to be associative.
+    *
+    * @param keyExtractor    The function applied to a tuple of this streamlet to get the key
+    * @param valueExtractor  The function applied to a tuple of this streamlet to extract the value
+    *                        to be reduced on
+    * @param windowCfg       This is a specification of what kind of windowing strategy you like to have.
+    *                        Typical windowing strategies are sliding windows and tumbling windows
+    * @param reduceFn        The reduce function that you want to apply to all the values of a key.
+    * @param inverseReduceFn The inverse of reduceFn, used to take the values leaving the window
+    *                        out of a running result
+    */
+  def reduceByKeyAndWindow[K, V](
+      keyExtractor: R => K,
+      valueExtractor: R => V,
+      windowCfg: WindowConfig,
+      reduceFn: (V, V) => V,
+      inverseReduceFn: Option[(V, V) => V]): Streamlet[KeyValue[KeyedWindow[K], V]]
+
+  /**
+    * Return a new Streamlet accumulating tuples of this streamlet over a Window defined by
+    * windowCfg and applying reduceFn on those tuples, incrementally, with the values partially
+    * reduced per key by a combiner on the upstream side, which sends the partial aggregates to
+    * the reducers every combinerFlushInterval or combinerFlushCount tuples. The combiner only
+    * applies to time based windows. reduceFn has to be associative.
+    *
+    * @param keyExtractor          The function applied to a tuple of this streamlet to get the key
+    * @param valueExtractor        The function applied to a tuple of this streamlet to extract the value
+    *                              to be reduced on
+    * @param windowCfg             This is a specification of what kind of windowing strategy you like to have.
+    *                              Typical windowing strategies are sliding windows and tumbling windows
+    * @param reduceFn              The reduce function that you want to apply to all the values of a key.
+    * @param inverseReduceFn       The inverse of reduceFn, used to take the values leaving the window
+    *                              out of a running result
+    * @param combinerFlushInterval The longest time a partial aggregate is held by the combiner
+    * @param combinerFlushCount    The most tuples the combiner reduces before it flushes
+    */
+  def reduceByKeyAndWindow[K, V](
+      keyExtractor: R => K,
+      valueExtractor: R => V,
+      windowCfg: WindowConfig,
+      reduceFn: (V, V) => V,
+      inverseReduceFn: Option[(V, V) => V],
+      combinerFlushInterval: Duration,
+      combinerFlushCount: Long): Streamlet[KeyValue[KeyedWindow[K], V]]
+
   /**
     * Return a new Streamlet accumulating tuples of this streamlet over a Window defined by
     * windowCfg and applying reduceFn on those tuples. For each window, the value identity is used
@@ -18,6 +18,8 @@
  */
 package org.apache.heron.streamlet.scala.impl
 
+import java.time.Duration
+
 import scala.collection.JavaConverters
 
 import org.apache.heron.streamlet.{
@@ -101,6 +103,15 @@ class StreamletImpl[R](val javaStreamlet: JavaStreamlet[R])
     */
   override def getNumPartitions(): Int = javaStreamlet.getNumPartitions
 
+  /**
+    * Keeps the operator of this streamlet in a bolt of its own, rather than fusing it with
+    * the map/flatMap/filter streamlets around it.
+    *
+    * @return Returns back the Streamlet
+    */
+  override def disableFusion(): Streamlet[R] =
+    fromJavaStreamlet[R](javaStreamlet.disableFusion())
+
   /**
     * Return a new Streamlet by applying mapFn to each element of this Streamlet
     *
@@ -161,6 +172,19 @@ class StreamletImpl[R](val javaStreamlet: JavaStreamlet[R])
     fromJavaStreamlet[R](newJavaStreamlet)
   }
 
+  /**
+    * Repartition by key, with the elements of a key split between two partitions by a
+    * partial key grouping
+    */
+  override def repartitionByKey[K](numPartitions: Int,
+                                   keyExtractor: R => K,
+                                   consistentHashing: Boolean): Streamlet[R] = {
+    val javaKeyExtractor = toSerializableFunction[R, K](keyExtractor)
+    val newJavaStreamlet =
+      javaStreamlet.repartitionByKey[K](numPartitions, javaKeyExtractor, consistentHashing)
+    fromJavaStreamlet[R](newJavaStreamlet)
+  }
+
   /**
     * Clones the current Streamlet. It returns an array of numClones Streamlets where each
     * Streamlet contains all the tuples of the current Streamlet
@@ -245,6 +269,47 @@ class StreamletImpl[R](val javaStreamlet: JavaStreamlet[R])
     fromJavaStreamlet[KeyValue[KeyedWindow[K], T]](newJavaStreamlet)
   }
 
+  /**
+    * Return a new KVStreamlet by joining 'this streamlet with ‘other’ streamlet. The type of joining
+    * is declared by the joinType parameter.
+    * The join is done over elements accumulated over a time window defined by windowCfg.
+    * The elements are compared using the thisKeyExtractor for this streamlet with the
+    * otherKeyExtractor for the other streamlet. On each matching pair, the joinFunction is applied.
+    * Types of joins {@link JoinType}
+    *
+    * @param other             The Streamlet that we are joining with.
+    * @param thisKeyExtractor  The function applied to a tuple of this streamlet to get the key
+    * @param otherKeyExtractor The function applied to a tuple of the other streamlet to get the key
+    * @param windowCfg         This is a specification of what kind of windowing strategy you like to
+    * have. Typical windowing strategies are sliding windows and tumbling windows
+    * @param joinType          Type of Join. Options { @link JoinType}
+    * @param joinFunction      The join function that needs to be applied
+    * @param incremental       If set, the join is evaluated incrementally, emitting each
+    * matching pair once
+    */
+  override def join[K, S, T](
+      other: Streamlet[S],
+      thisKeyExtractor: R => K,
+      otherKeyExtractor: S => K,
+      windowCfg: WindowConfig,
+      joinType: JoinType,
+      joinFunction: (R, S) => T,
+      incremental: Boolean): Streamlet[KeyValue[KeyedWindow[K], T]] = {
+    val javaOtherStreamlet = toJavaStreamlet[S](other)
+    val javaThisKeyExtractor = toSerializableFunction[R, K](thisKeyExtractor)
+    val javaOtherKeyExtractor = toSerializableFunction[S, K](otherKeyExtractor)
+    val javaJoinFunction = toSerializableBiFunction[R, S, T](joinFunction)
+
+    val newJavaStreamlet = javaStreamlet.join[K, S, T](javaOtherStreamlet,
+                                                       javaThisKeyExtractor,
+                                                       javaOtherKeyExtractor,
+                                                       windowCfg,
+                                                       joinType,
+                                                       javaJoinFunction,
+                                                       incremental)
+    fromJavaStreamlet[KeyValue[KeyedWindow[K], T]](newJavaStreamlet)
+  }
+
   /**
     * Return a new Streamlet accumulating tuples of this streamlet over a Window defined by
     * windowCfg and applying reduceFn on those tuples.
@@ -273,6 +338,81 @@ class StreamletImpl[R](val javaStreamlet: JavaStreamlet[R])
     fromJavaStreamlet[KeyValue[KeyedWindow[K], V]](newJavaStreamlet)
   }
 
+  /**
+    * Return a new Streamlet accumulating tuples of this streamlet over a Window defined by
+    * windowCfg and applying reduceFn on those tuples, incrementally.
+    *
+    * @param keyExtractor    The function applied to a tuple of this streamlet to get the key
+    * @param valueExtractor  The function applied to a tuple of this streamlet to extract the value
+    *                        to be reduced on
+    * @param windowCfg       This is a specification of what kind of windowing strategy you like to have.
+    *                        Typical windowing strategies are sliding windows and tumbling windows
+    * @param reduceFn        The reduce function that you want to apply to all the values of a key.
+    * @param inverseReduceFn The inverse of reduceFn, used to take the values leaving the window
+    *                        out of a running result
+    */
+  override def reduceByKeyAndWindow[K, V](
+      keyExtractor: R => K,
+      valueExtractor: R => V,
+      windowCfg: WindowConfig,
+      reduceFn: (V, V) => V,
+      inverseReduceFn: Option[(V, V) => V]): Streamlet[KeyValue[KeyedWindow[K], V]] = {
+    val javaKeyExtractor = toSerializableFunction[R, K](keyExtractor)
+    val javaValueExtractor = toSerializableFunction[R, V](valueExtractor)
+    val javaReduceFunction = toSerializableBinaryOperator[V](reduceFn)
+    val javaInverseReduceFunction =
+      inverseReduceFn.map(toSerializableBinaryOperator[V](_)).orNull
+
+    val newJavaStreamlet = javaStreamlet.reduceByKeyAndWindow[K, V](
+      javaKeyExtractor,
+      javaValueExtractor,
+      windowCfg,
+      javaReduceFunction,
+      javaInverseReduceFunction)
+    fromJavaStreamlet[KeyValue[KeyedWindow[K], V]](newJavaStreamlet)
+  }
+
+  /**
+    * Return a new Streamlet accumulating tuples of this streamlet over a Window defined by
+    * windowCfg and applying reduceFn on those tuples, incrementally, with the values partially
+    * reduced per key by a combiner ahead of the reducers, for time based windows.
+    *
+    * @param keyExtractor          The function applied to a tuple of this streamlet to get the key
+    * @param valueExtractor        The function applied to a tuple of this streamlet to extract the value
+    *                              to be reduced on
+    * @param windowCfg             This is a specification of what kind of windowing strategy you like to have.
+    *                              Typical windowing strategies are sliding windows and tumbling windows
+    * @param reduceFn              The reduce function that you want to apply to all the values of a key.
+    * @param inverseReduceFn       The inverse of reduceFn, used to take the values leaving the window
+    *                              out of a running result
+    * @param combinerFlushInterval The longest time a partial aggregate is held by the combiner
+    * @param combinerFlushCount    The most tuples the combiner reduces before it flushes
+    */
+  override def reduceByKeyAndWindow[K, V](
+      keyExtractor: R => K,
+      valueExtractor: R => V,
+      windowCfg: WindowConfig,
+      reduceFn: (V, V) => V,
+      inverseReduceFn: Option[(V, V) => V],
+      combinerFlushInterval: Duration,
+      combinerFlushCount: Long): Streamlet[KeyValue[KeyedWindow[K], V]] = {
+    val javaKeyExtractor = toSerializableFunction[R, K](keyExtractor)
+    val javaValueExtractor = toSerializableFunction[R, V](valueExtractor)
+    val javaReduceFunction = toSerializableBinaryOperator[V](reduceFn)
+    val javaInverseReduceFunction =
+      inverseReduceFn.map(toSerializableBinaryOperator[V](_)).orNull
+
+    val newJavaStreamlet = javaStreamlet.reduceByKeyAndWindow[K, V](
+      javaKeyExtractor,
+      javaValueExtractor,
+      windowCfg,
+      javaReduceFunction,
+      javaInverseReduceFunction,
+      combinerFlushInterval,
+      combinerFlushCount)
+    fromJavaStreamlet[KeyValue[KeyedWindow[K], V]](newJavaStreamlet)
+  }
+
   /**
     * Return a new Streamlet accumulating tuples of this streamlet over a Window defined by
     * windowCfg and applying reduceFn on those tuples. For each window, the value identity is used
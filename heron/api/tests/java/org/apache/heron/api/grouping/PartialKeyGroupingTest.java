@@ -0,0 +1,173 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.heron.api.grouping;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import org.apache.heron.api.topology.TopologyContext;
+import org.apache.heron.api.tuple.Fields;
+
+public class PartialKeyGroupingTest {
+
+  @Test
+  public void testHotKeySplitBetweenTwoTasks() {
+    PartialKeyGrouping grouping = new PartialKeyGrouping();
+    grouping.prepare(null, "component", "stream", getTasks(10));
+
+    Map<Integer, Integer> counts = new HashMap<>();
+    for (int i = 0; i < 1000; i++) {
+      int task = chooseTask(grouping, "hot");
+      counts.put(task, counts.getOrDefault(task, 0) + 1);
+    }
+    Assert.assertEquals(2, counts.size());
+    for (int count : counts.values()) {
+      Assert.assertEquals(500, count);
+    }
+  }
+
+  @Test
+  public void testKeysStayOnTheirCandidates() {
+    PartialKeyGrouping grouping = new PartialKeyGrouping();
+    grouping.prepare(null, "component", "stream", getTasks(10));
+
+    Map<String, Set<Integer>> tasksOfKeys = new HashMap<>();
+    for (int i = 0; i < 10000; i++) {
+      String key = "key" + (i % 100);
+      tasksOfKeys.computeIfAbsent(key, k -> new HashSet<>()).add(chooseTask(grouping, key));
+    }
+    for (Set<Integer> tasks : tasksOfKeys.values()) {
+      Assert.assertTrue(tasks.size() <= 2);
+    }
+  }
+
+  @Test
+  public void testGroupingFields() {
+    TopologyContext context = Mockito.mock(TopologyContext.class);
+    Mockito.when(context.getComponentOutputFields("component", "stream"))
+        .thenReturn(new Fields("word", "count"));
+    PartialKeyGrouping grouping = new PartialKeyGrouping(new Fields("word"));
+    grouping.prepare(context, "component", "stream", getTasks(10));
+
+    // only the word is hashed, so the counts do not change the candidates
+    Set<Integer> tasks = new HashSet<>();
+    for (int i = 0; i < 100; i++) {
+      tasks.addAll(grouping.chooseTasks(Arrays.asList("hot", i)));
+    }
+    Assert.assertEquals(2, tasks.size());
+  }
+
+  @Test
+  public void testConsistentHashingMovesFewKeys() {
+    // the candidates of a key are the tasks of its first two tuples, with no load before
+    int movedModulo = 0;
+    int movedConsistent = 0;
+    for (int i = 0; i < 1000; i++) {
+      String key = "key" + i;
+      if (!getCandidates(key, 10, false).equals(getCandidates(key, 11, false))) {
+        movedModulo++;
+      }
+      Set<Integer> candidates = getCandidates(key, 10, true);
+      Assert.assertEquals(2, candidates.size());
+      if (!candidates.equals(getCandidates(key, 11, true))) {
+        movedConsistent++;
+      }
+    }
+    // one task in eleven is new, and a key has two candidates
+    Assert.assertTrue("moved " + movedConsistent, movedConsistent < 350);
+    Assert.assertTrue("moved " + movedModulo, movedModulo > 700);
+  }
+
+  @Test
+  public void testHashDoesNotDependOnIdentity() {
+    // equal keys in different JVMs are different objects, with different identity hashCodes
+    Assert.assertEquals(PartialKeyGrouping.hash(new byte[] {1, 2, 3}),
+        PartialKeyGrouping.hash(new byte[] {1, 2, 3}));
+    Assert.assertEquals(PartialKeyGrouping.hash(new Object[] {"a", new int[] {1}}),
+        PartialKeyGrouping.hash(new Object[] {"a", new int[] {1}}));
+    Assert.assertEquals(PartialKeyGrouping.hash(new IdentityKey("a")),
+        PartialKeyGrouping.hash(new IdentityKey("a")));
+    Assert.assertNotEquals(PartialKeyGrouping.hash(new IdentityKey("a")),
+        PartialKeyGrouping.hash(new IdentityKey("b")));
+    // the hashCode of an enum is its identity, so it is hashed by name
+    Assert.assertEquals("FIRST".hashCode(), PartialKeyGrouping.hash(Key.FIRST));
+    Assert.assertEquals(PartialKeyGrouping.hash(Arrays.asList("a", 1)),
+        PartialKeyGrouping.hash(Arrays.asList("a", 1)));
+  }
+
+  @Test
+  public void testArrayKeysStayOnTheirCandidates() {
+    PartialKeyGrouping grouping = new PartialKeyGrouping();
+    grouping.prepare(null, "component", "stream", getTasks(10));
+
+    Set<Integer> tasks = new HashSet<>();
+    for (int i = 0; i < 100; i++) {
+      tasks.add(chooseTask(grouping, new byte[] {4, 2}));
+    }
+    Assert.assertEquals(2, tasks.size());
+  }
+
+  private enum Key {
+    FIRST
+  }
+
+  /**
+   * A key keeping the identity hashCode of Object
+   */
+  private static final class IdentityKey implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private final String name;
+
+    IdentityKey(String name) {
+      this.name = name;
+    }
+  }
+
+  private static Set<Integer> getCandidates(String key, int numTasks,
+                                            boolean consistentHashing) {
+    PartialKeyGrouping grouping = new PartialKeyGrouping(null, consistentHashing);
+    grouping.prepare(null, "component", "stream", getTasks(numTasks));
+    return new HashSet<>(Arrays.asList(chooseTask(grouping, key), chooseTask(grouping, key)));
+  }
+
+  private static int chooseTask(PartialKeyGrouping grouping, Object key) {
+    List<Integer> tasks = grouping.chooseTasks(Arrays.asList(key));
+    Assert.assertEquals(1, tasks.size());
+    return tasks.get(0);
+  }
+
+  private static List<Integer> getTasks(int numTasks) {
+    List<Integer> tasks = new ArrayList<>();
+    for (int i = 0; i < numTasks; i++) {
+      tasks.add(i + 1);
+    }
+    return tasks;
+  }
+}
@@ -0,0 +1,103 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.apache.heron.api.metric;
+
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class HistogramMetricTest {
+
+  @Test
+  public void testBuckets() {
+    HistogramMetric metric = new HistogramMetric(4);
+    // Exact below 2^4
+    for (int i = 0; i < 16; i++) {
+      Assert.assertEquals(i, metric.bucketIndex(i));
+      Assert.assertEquals(i, metric.bucketUpperBound(i));
+    }
+    // Every value is at most its bucket bound, and within 1/16 of it
+    long[] values = {16, 17, 31, 32, 33, 1000, 123456789, Long.MAX_VALUE / 3, Long.MAX_VALUE};
+    for (long value : values) {
+      long bound = metric.bucketUpperBound(metric.bucketIndex(value));
+      Assert.assertTrue(value <= bound);
+      Assert.assertTrue(bound - value <= value / 16);
+    }
+    Assert.assertEquals(Long.MAX_VALUE,
+        metric.bucketUpperBound(metric.bucketIndex(Long.MAX_VALUE)));
+    // Adjacent buckets do not overlap
+    for (int i = 1; i < 60 * 16; i++) {
+      Assert.assertEquals(i, metric.bucketIndex(metric.bucketUpperBound(i - 1) + 1));
+    }
+  }
+
+  @Test
+  public void testGetValueAndReset() {
+    HistogramMetric metric = new HistogramMetric();
+    Assert.assertNull(metric.getValueAndReset());
+
+    // 1 to 1000 ms, in ns
+    for (long i = 1; i <= 1000; i++) {
+      metric.record(i * 1000000);
+    }
+    metric.record(-5);
+    HistogramSnapshot snapshot = metric.getValueAndReset();
+    Assert.assertEquals(1001, snapshot.getCount());
+    Assert.assertEquals(500500L * 1000000, snapshot.getSum());
+    Assert.assertEquals(0, snapshot.getMin());
+    Assert.assertEquals(1000000000L, snapshot.getMax());
+    assertWithin(500000000L, snapshot.getQuantile(0.5));
+    assertWithin(990000000L, snapshot.getQuantile(0.99));
+    Assert.assertEquals(1000000000L, snapshot.getQuantile(1));
+    long total = 0;
+    for (int i = 0; i < snapshot.getBucketCount(); i++) {
+      total += snapshot.getBucketCount(i);
+      if (i > 0) {
+        Assert.assertTrue(snapshot.getBucketBound(i - 1) < snapshot.getBucketBound(i));
+      }
+    }
+    Assert.assertEquals(1001, total);
+
+    Assert.assertNull(metric.getValueAndReset());
+    metric.record(7);
+    snapshot = metric.getValueAndReset();
+    Assert.assertEquals(1, snapshot.getBucketCount());
+    Assert.assertEquals(7, snapshot.getQuantile(0.99));
+  }
+
+  @Test
+  public void testScopes() {
+    MultiHistogramMetric metric = new MultiHistogramMetric();
+    metric.scope("a").record(10);
+    metric.scope("b");
+
+    Map<String, HistogramSnapshot> values = metric.getValueAndReset();
+    Assert.assertEquals(1, values.get("a").getCount());
+    // Scopes without any value are not exported
+    Assert.assertFalse(values.containsKey("b"));
+  }
+
+  private static void assertWithin(long expected, long actual) {
+    Assert.assertTrue(actual + " is not within 1/16 of " + expected,
+        Math.abs(actual - expected) <= expected / 16);
+  }
+}
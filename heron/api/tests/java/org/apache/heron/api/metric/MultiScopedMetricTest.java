@@ -0,0 +1,72 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.heron.api.metric;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit test for resolving the scopes of MultiCountMetric and MultiReducedMetric in bulk
+ */
+public class MultiScopedMetricTest {
+
+  @Test
+  public void testCountMetricScopes() {
+    MultiCountMetric metric = new MultiCountMetric();
+    List<CountMetric> scopes = metric.scopes(Arrays.asList("a", "b"));
+    Assert.assertEquals(2, scopes.size());
+    Assert.assertSame(metric.scope("a"), scopes.get(0));
+    Assert.assertSame(metric.scope("b"), scopes.get(1));
+
+    scopes.get(0).incr();
+    scopes.get(1).incrBy(3);
+    scopes.get(1).incr();
+
+    Map<String, Long> values = metric.getValueAndReset();
+    Assert.assertEquals(Long.valueOf(1), values.get("a"));
+    Assert.assertEquals(Long.valueOf(4), values.get("b"));
+
+    // The handles stay bound after the metric is exported
+    scopes.get(0).incr();
+    Assert.assertEquals(Long.valueOf(1), metric.getValueAndReset().get("a"));
+  }
+
+  @Test
+  public void testReducedMetricScopes() {
+    MultiReducedMetric<MeanReducerState, Number, Double> metric =
+        new MultiReducedMetric<>(new MeanReducer());
+    List<ReducedMetric<MeanReducerState, Number, Double>> scopes =
+        metric.scopes(Arrays.asList("a", "b"));
+    Assert.assertEquals(2, scopes.size());
+    Assert.assertSame(metric.scope("b"), scopes.get(1));
+
+    scopes.get(0).update(1);
+    scopes.get(0).update(3);
+
+    Map<String, Double> values = metric.getValueAndReset();
+    Assert.assertEquals(2.0, values.get("a"), 0.0);
+    // Scopes without any update are not exported
+    Assert.assertFalse(values.containsKey("b"));
+  }
+}
@@ -0,0 +1,79 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.heron.api.serializer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class JavaSerializerTest {
+  private JavaSerializer serializer;
+
+  @Before
+  public void before() {
+    serializer = new JavaSerializer();
+    serializer.initialize(Collections.emptyMap());
+  }
+
+  @Test
+  public void testSerializeToStream() throws IOException {
+    List<Object> object = Arrays.asList("word", 42, 4.2, null);
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    serializer.serialize(object, output);
+
+    // The same bytes as serialize(Object), so either is deserialized the same way
+    Assert.assertArrayEquals(serializer.serialize(object), output.toByteArray());
+    Assert.assertEquals(object, serializer.deserialize(output.toByteArray()));
+  }
+
+  @Test
+  public void testDefaultSerializeToStream() throws IOException {
+    IPluggableSerializer byteArraySerializer = new IPluggableSerializer() {
+      @Override
+      public void initialize(Map<String, Object> config) {
+      }
+
+      @Override
+      public byte[] serialize(Object object) {
+        return serializer.serialize(object);
+      }
+
+      @Override
+      public Object deserialize(byte[] input) {
+        return serializer.deserialize(input);
+      }
+    };
+
+    // Falls back to serialize(Object), appending to what the stream already holds
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    output.write(new byte[] {1, 2, 3});
+    byteArraySerializer.serialize("word", output);
+    byte[] bytes = output.toByteArray();
+    Assert.assertEquals("word",
+        byteArraySerializer.deserialize(Arrays.copyOfRange(bytes, 3, bytes.length)));
+  }
+}
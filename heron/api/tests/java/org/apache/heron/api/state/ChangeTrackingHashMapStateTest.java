@@ -0,0 +1,170 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.heron.api.state;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ChangeTrackingHashMapStateTest {
+  private ChangeTrackingHashMapState<String, Integer> state;
+
+  @Before
+  public void before() {
+    state = new ChangeTrackingHashMapState<>();
+    state.put("a", 1);
+    state.put("b", 2);
+    state.put("c", 3);
+    state.startTracking("ckpt-1", 0, 3);
+  }
+
+  private static Object roundTrip(Object o) throws Exception {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(o);
+    }
+    try (ObjectInputStream in =
+             new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+      return in.readObject();
+    }
+  }
+
+  /**
+   * Test that applying the delta to the previous checkpoint gives the current state
+   */
+  @Test
+  public void testDeltaAppliesChanges() throws Exception {
+    HashMapState<String, Integer> previous = new HashMapState<>();
+    previous.putAll(state);
+
+    state.put("a", 10);
+    state.remove("b");
+    state.merge("d", 4, Integer::sum);
+    Iterator<Map.Entry<String, Integer>> it = state.entrySet().iterator();
+    while (it.hasNext()) {
+      Map.Entry<String, Integer> entry = it.next();
+      if (entry.getKey().equals("c")) {
+        entry.setValue(30);
+      }
+    }
+
+    @SuppressWarnings("unchecked")
+    ChangeTrackingHashMapState.Delta<String, Integer> delta =
+        (ChangeTrackingHashMapState.Delta<String, Integer>) roundTrip(state.getDelta());
+    Assert.assertEquals(3, delta.getUpdated().size());
+    Assert.assertEquals(1, delta.getRemoved().size());
+
+    delta.applyTo(previous);
+    Assert.assertEquals(state, previous);
+  }
+
+  /**
+   * Test that removals through the views are tracked
+   */
+  @Test
+  public void testRemoveThroughViews() {
+    state.keySet().remove("a");
+    Iterator<Integer> values = state.values().iterator();
+    while (values.hasNext()) {
+      if (values.next() == 2) {
+        values.remove();
+      }
+    }
+
+    ChangeTrackingHashMapState.Delta<String, Integer> delta = state.getDelta();
+    Assert.assertTrue(delta.getUpdated().isEmpty());
+    Assert.assertEquals(2, delta.getRemoved().size());
+    Assert.assertTrue(delta.getRemoved().contains("a"));
+    Assert.assertTrue(delta.getRemoved().contains("b"));
+  }
+
+  /**
+   * Test that full snapshots are due every interval checkpoints
+   */
+  @Test
+  public void testFullCheckpointInterval() {
+    Assert.assertEquals("ckpt-1", state.getDeltaBaseCheckpointId());
+    state.checkpointed("ckpt-2", true);
+    state.checkpointSaved("ckpt-2");
+    Assert.assertTrue(state.getDelta().getUpdated().isEmpty());
+    Assert.assertEquals("ckpt-2", state.getDeltaBaseCheckpointId());
+    state.checkpointed("ckpt-3", true);
+    state.checkpointSaved("ckpt-3");
+    Assert.assertNull(state.getDeltaBaseCheckpointId());
+    state.checkpointed("ckpt-4", false);
+    state.checkpointSaved("ckpt-4");
+    Assert.assertEquals("ckpt-4", state.getDeltaBaseCheckpointId());
+  }
+
+  /**
+   * Test that a checkpoint is not the base of a delta until it is saved
+   */
+  @Test
+  public void testUnsavedCheckpointIsNotBase() {
+    state.checkpointed("ckpt-2", true);
+    Assert.assertNull(state.getDeltaBaseCheckpointId());
+
+    // The checkpoint that failed to be saved is followed by a full snapshot
+    state.checkpointed("ckpt-3", false);
+    state.checkpointSaved("ckpt-2");
+    Assert.assertNull(state.getDeltaBaseCheckpointId());
+    state.checkpointSaved("ckpt-3");
+    Assert.assertEquals("ckpt-3", state.getDeltaBaseCheckpointId());
+  }
+
+  /**
+   * Test that the chain of a restored delta checkpoint is continued up to the interval only
+   */
+  @Test
+  public void testRestoredDeltaChain() {
+    state.startTracking("ckpt-3", 1, 3);
+    Assert.assertEquals("ckpt-3", state.getDeltaBaseCheckpointId());
+    state.checkpointed("ckpt-4", true);
+    state.checkpointSaved("ckpt-4");
+    Assert.assertNull(state.getDeltaBaseCheckpointId());
+
+    state.startTracking("ckpt-5", 2, 3);
+    Assert.assertNull(state.getDeltaBaseCheckpointId());
+  }
+
+  /**
+   * Test that a state that is not tracking or not checkpointed yet needs a full snapshot
+   */
+  @Test
+  public void testFullSnapshotWithoutBase() throws Exception {
+    state.startTracking("", 0, 3);
+    Assert.assertNull(state.getDeltaBaseCheckpointId());
+
+    @SuppressWarnings("unchecked")
+    ChangeTrackingHashMapState<String, Integer> restored =
+        (ChangeTrackingHashMapState<String, Integer>) roundTrip(state);
+    Assert.assertEquals(state, restored);
+    Assert.assertFalse(restored.isTracking());
+    restored.put("e", 5);
+    Assert.assertNull(restored.getDeltaBaseCheckpointId());
+  }
+}
@@ -0,0 +1,236 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.heron.api.windowing;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.apache.heron.api.serializer.JavaSerializer;
+import org.apache.heron.api.windowing.evictors.CountEvictionPolicy;
+import org.apache.heron.api.windowing.triggers.CountTriggerPolicy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link SpillableEventQueue}
+ */
+public class SpillableEventQueueTest {
+  private File spillDirectory;
+
+  @Before
+  public void setUp() throws Exception {
+    spillDirectory = Files.createTempDirectory("spillable-event-queue-test").toFile();
+  }
+
+  @After
+  public void tearDown() {
+    File[] files = spillDirectory.listFiles();
+    if (files != null) {
+      for (File file : files) {
+        assertTrue(file.delete());
+      }
+    }
+    assertTrue(spillDirectory.delete());
+  }
+
+  private SpillableEventQueue<Integer> newQueue(long memoryThresholdBytes) {
+    // about 10 serialized integers per segment
+    return new SpillableEventQueue<>(new JavaSerializer(), 1024, memoryThresholdBytes,
+        spillDirectory);
+  }
+
+  private static List<Integer> values(Collection<Event<Integer>> events) {
+    List<Integer> values = new ArrayList<>();
+    for (Event<Integer> event : events) {
+      values.add(event.get());
+    }
+    return values;
+  }
+
+  @Test
+  public void testAddIterateAndRemove() {
+    SpillableEventQueue<Integer> queue = newQueue(Long.MAX_VALUE);
+    List<Integer> expected = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      queue.add(new EventImpl<>(i, 1000L + i));
+      expected.add(i);
+    }
+    assertEquals(100, queue.size());
+    assertTrue(queue.getSegmentCount() > 1);
+    assertEquals(expected, values(queue));
+
+    // remove the odd events, the timestamps are read without deserializing the values
+    Iterator<Event<Integer>> it = queue.iterator();
+    while (it.hasNext()) {
+      Event<Integer> event = it.next();
+      if (event.getTimestamp() % 2 == 1) {
+        it.remove();
+      }
+    }
+    expected.removeIf(i -> i % 2 == 1);
+    assertEquals(50, queue.size());
+    assertEquals(expected, values(queue));
+    queue.close();
+  }
+
+  @Test
+  public void testSegmentsReleasedAsWindowExpires() {
+    SpillableEventQueue<Integer> queue = newQueue(Long.MAX_VALUE);
+    for (int i = 0; i < 100; i++) {
+      queue.add(new EventImpl<>(i, i));
+    }
+    int segments = queue.getSegmentCount();
+    long memoryBytes = queue.getMemoryBytes();
+
+    // expire oldest first, as the window manager does
+    Iterator<Event<Integer>> it = queue.iterator();
+    for (int i = 0; i < 60; i++) {
+      it.next();
+      it.remove();
+    }
+    assertTrue(queue.getSegmentCount() < segments);
+    assertEquals(40, queue.size());
+    assertEquals(Integer.valueOf(60), queue.iterator().next().get());
+
+    // a few released segments are kept for reuse
+    long expiredMemoryBytes = queue.getMemoryBytes();
+    assertTrue(expiredMemoryBytes < memoryBytes);
+    for (int i = 100; i < 120; i++) {
+      queue.add(new EventImpl<>(i, i));
+    }
+    assertEquals(expiredMemoryBytes, queue.getMemoryBytes());
+    assertEquals(60, queue.size());
+    queue.close();
+  }
+
+  @Test
+  public void testSpillToDisk() {
+    SpillableEventQueue<Integer> queue = newQueue(2048);
+    for (int i = 0; i < 100; i++) {
+      queue.add(new EventImpl<>(i, i));
+    }
+    assertEquals(2048, queue.getMemoryBytes());
+    assertTrue(queue.getSpilledBytes() > 0);
+    assertEquals(queue.getSegmentCount() - 2, spillDirectory.listFiles().length);
+    assertEquals(100, values(queue).size());
+
+    queue.clear();
+    assertTrue(queue.isEmpty());
+    assertEquals(0, queue.getSpilledBytes());
+    assertEquals(0, spillDirectory.listFiles().length);
+    queue.close();
+    assertEquals(0, queue.getMemoryBytes());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testCheckpointKeepsEventIdentity() throws Exception {
+    SpillableEventQueue<Integer> queue = newQueue(0);
+    for (int i = 0; i < 20; i++) {
+      queue.add(new EventImpl<>(i, i));
+    }
+    Set<Event<Integer>> prevWindowEvents = new HashSet<>(queue);
+    assertEquals(20, prevWindowEvents.size());
+
+    ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    try (ObjectOutputStream oos = new ObjectOutputStream(bos)) {
+      oos.writeObject(queue);
+      oos.writeObject(prevWindowEvents);
+    }
+    queue.close();
+
+    Collection<Event<Integer>> restoredEvents;
+    Set<Event<Integer>> restoredPrevWindowEvents;
+    try (ObjectInputStream ois =
+             new ObjectInputStream(new ByteArrayInputStream(bos.toByteArray()))) {
+      restoredEvents = (Collection<Event<Integer>>) ois.readObject();
+      restoredPrevWindowEvents = (Set<Event<Integer>>) ois.readObject();
+    }
+
+    SpillableEventQueue<Integer> restored = newQueue(0);
+    restored.addAll(restoredEvents);
+    restored.add(new EventImpl<>(20, 20));
+    assertEquals(Arrays.asList(0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17,
+        18, 19, 20), values(restored));
+    int newEvents = 0;
+    for (Event<Integer> event : restored) {
+      if (!restoredPrevWindowEvents.contains(event)) {
+        assertEquals(Integer.valueOf(20), event.get());
+        newEvents++;
+      }
+    }
+    assertEquals(1, newEvents);
+    assertFalse(restored.isEmpty());
+    restored.close();
+  }
+
+  @Test
+  public void testCountBasedWindow() {
+    SpillableEventQueue<Integer> queue = newQueue(1024);
+    List<List<Integer>> activations = new ArrayList<>();
+    List<List<Integer>> newEvents = new ArrayList<>();
+    WindowManager<Integer> windowManager = new WindowManager<>(
+        new WindowLifecycleListener<Integer>() {
+          @Override
+          public void onExpiry(List<Integer> events) {
+          }
+
+          @Override
+          public void onActivation(List<Integer> events, List<Integer> newEventsList,
+                                   List<Integer> expired, Long timestamp) {
+            activations.add(events);
+            newEvents.add(newEventsList);
+          }
+        }, queue);
+    EvictionPolicy<Integer, ?> evictionPolicy = new CountEvictionPolicy<Integer>(5);
+    TriggerPolicy<Integer, ?> triggerPolicy = new CountTriggerPolicy<Integer>(2);
+    triggerPolicy.setTriggerHandler(windowManager);
+    triggerPolicy.setEvictionPolicy(evictionPolicy);
+    triggerPolicy.start();
+    windowManager.setEvictionPolicy(evictionPolicy);
+    windowManager.setTriggerPolicy(triggerPolicy);
+    for (int i = 1; i <= 8; i++) {
+      windowManager.add(i);
+    }
+    assertEquals(Arrays.asList(Arrays.asList(1, 2), Arrays.asList(1, 2, 3, 4),
+        Arrays.asList(2, 3, 4, 5, 6), Arrays.asList(4, 5, 6, 7, 8)), activations);
+    assertEquals(Arrays.asList(7, 8), newEvents.get(3));
+    assertEquals(5, queue.size());
+    windowManager.shutdown();
+    queue.close();
+  }
+}
@@ -0,0 +1,79 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.heron.streamlet.impl;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class KryoSerializerTest {
+  private KryoSerializer serializer;
+
+  @Before
+  public void before() {
+    serializer = new KryoSerializer();
+    serializer.initialize(Collections.emptyMap());
+  }
+
+  @Test
+  public void testSerializeToStream() {
+    Map<String, Object> object = new HashMap<>();
+    object.put("word", new ArrayList<>(Arrays.asList(1, 2, 3)));
+    object.put("number", 42L);
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    serializer.serialize(object, output);
+
+    // The same bytes as serialize(Object), so either is deserialized the same way
+    Assert.assertArrayEquals(serializer.serialize(object), output.toByteArray());
+    Assert.assertEquals(object, serializer.deserialize(output.toByteArray()));
+  }
+
+  @Test
+  public void testSerializeToStreamBeyondBuffer() {
+    // Larger than the buffer of the Kryo output, so it is flushed to the stream more than once
+    char[] chars = new char[100000];
+    Arrays.fill(chars, 'a');
+    String object = new String(chars);
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    serializer.serialize(object, output);
+    Assert.assertEquals(object, serializer.deserialize(output.toByteArray()));
+  }
+
+  @Test
+  public void testSerializeToStreamAppends() {
+    // Every object is appended, and the serializer is reusable after each of them
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    serializer.serialize("first", output);
+    int firstSize = output.size();
+    serializer.serialize("second", output);
+    byte[] bytes = output.toByteArray();
+
+    Assert.assertEquals("first", serializer.deserialize(Arrays.copyOfRange(bytes, 0, firstSize)));
+    Assert.assertEquals("second",
+        serializer.deserialize(Arrays.copyOfRange(bytes, firstSize, bytes.length)));
+  }
+}
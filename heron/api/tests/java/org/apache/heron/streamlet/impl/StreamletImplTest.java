@@ -19,15 +19,19 @@
 
 package org.apache.heron.streamlet.impl;
 
+import java.time.Duration;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
 import org.junit.Test;
 
+import org.apache.heron.api.generated.TopologyAPI;
 import org.apache.heron.api.topology.TopologyBuilder;
 import org.apache.heron.common.basics.ByteAmount;
 import org.apache.heron.streamlet.Config;
@@ -266,6 +270,88 @@ public class StreamletImplTest {
     assertEquals(jStreamlet.getChildren().size(), 0);
   }
 
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testFusedBuild() {
+    Streamlet<String> baseStreamlet = StreamletImpl.createSupplierStreamlet(() -> "sa re ga ma");
+    baseStreamlet.map(x -> x.toUpperCase())
+                 .filter(x -> !x.isEmpty())
+                 .flatMap(x -> Arrays.asList(x.split(" ")))
+                 .consume((SerializableConsumer<String>) s -> { });
+    TopologyBuilder builder = new TopologyBuilder();
+    Set<String> stageNames = new HashSet<>();
+    ((SupplierStreamlet<String>) baseStreamlet).build(builder, stageNames);
+
+    // the fused streamlets keep their names, only the last one has a bolt
+    assertTrue(stageNames.containsAll(Arrays.asList("map1", "filter1", "flatmap1")));
+    Map<String, String> boltInputs = getBoltInputs(builder);
+    assertEquals(2, boltInputs.size());
+    assertEquals("supplier1", boltInputs.get("flatmap1"));
+    assertEquals("flatmap1", boltInputs.get("consumer1"));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testFusionBoundaries() {
+    Streamlet<String> baseStreamlet = StreamletImpl.createSupplierStreamlet(() -> "sa re ga ma");
+    Streamlet<String> mapStreamlet = baseStreamlet.map(x -> x.toUpperCase());
+    // a streamlet with two children is not fused with them,
+    // and a streamlet which disables the fusion is not fused with its parent
+    mapStreamlet.map(x -> x + "!").map(x -> x + "?").disableFusion();
+    // nor are streamlets with different numbers of partitions
+    mapStreamlet.filter(x -> !x.isEmpty()).map(x -> x.trim()).setNumPartitions(2);
+    TopologyBuilder builder = new TopologyBuilder();
+    Set<String> stageNames = new HashSet<>();
+    ((SupplierStreamlet<String>) baseStreamlet).build(builder, stageNames);
+
+    Map<String, String> boltInputs = getBoltInputs(builder);
+    assertEquals(5, boltInputs.size());
+    assertEquals("supplier1", boltInputs.get("map1"));
+    assertEquals("map1", boltInputs.get("map2"));
+    assertEquals("map2", boltInputs.get("map3"));
+    assertEquals("map1", boltInputs.get("filter1"));
+    assertEquals("filter1", boltInputs.get("map4"));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testCombinerBuild() {
+    Streamlet<String> baseStreamlet = StreamletImpl.createSupplierStreamlet(() -> "sa re ga ma");
+    baseStreamlet.flatMap(x -> Arrays.asList(x.split(" ")))
+                 .reduceByKeyAndWindow(x -> x, x -> 1,
+                     WindowConfig.TumblingTimeWindow(Duration.ofSeconds(10)),
+                     (x, y) -> x + y, null, Duration.ofMillis(100), 1000);
+    // the combiner is not used for count windows
+    baseStreamlet.reduceByKeyAndWindow(x -> x, x -> 1, WindowConfig.TumblingCountWindow(10),
+        (x, y) -> x + y, null, Duration.ofMillis(100), 1000);
+    TopologyBuilder builder = new TopologyBuilder();
+    Set<String> stageNames = new HashSet<>();
+    ((SupplierStreamlet<String>) baseStreamlet).build(builder, stageNames);
+
+    // the flatMap is fused with the combiner, which feeds the reducer
+    Map<String, String> boltInputs = getBoltInputs(builder);
+    assertEquals(3, boltInputs.size());
+    assertEquals("supplier1", boltInputs.get("combiner1"));
+    assertEquals("combiner1", boltInputs.get("reduceByKeyAndWindow1"));
+    assertEquals("supplier1", boltInputs.get("reduceByKeyAndWindow2"));
+  }
+
+  // The name of every bolt mapped to the component it subscribes to
+  private static Map<String, String> getBoltInputs(TopologyBuilder builder) {
+    TopologyAPI.Topology topology = builder.createTopology()
+        .setConfig(new org.apache.heron.api.Config())
+        .setName("test")
+        .setState(TopologyAPI.TopologyState.RUNNING)
+        .getTopology();
+    Map<String, String> boltInputs = new HashMap<>();
+    for (TopologyAPI.Bolt bolt : topology.getBoltsList()) {
+      assertEquals(1, bolt.getInputsCount());
+      boltInputs.put(bolt.getComp().getName(),
+          bolt.getInputs(0).getStream().getComponentName());
+    }
+    return boltInputs;
+  }
+
   @Test
   @SuppressWarnings("unchecked")
   public void testCalculatedDefaultStageNames() {
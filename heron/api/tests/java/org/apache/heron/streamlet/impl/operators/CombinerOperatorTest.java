@@ -0,0 +1,262 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.heron.streamlet.impl.operators;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.powermock.api.mockito.PowerMockito;
+
+import org.apache.heron.api.Config;
+import org.apache.heron.api.bolt.IOutputCollector;
+import org.apache.heron.api.bolt.OutputCollector;
+import org.apache.heron.api.generated.TopologyAPI;
+import org.apache.heron.api.topology.TopologyBuilder;
+import org.apache.heron.api.topology.TopologyContext;
+import org.apache.heron.api.tuple.Fields;
+import org.apache.heron.api.tuple.Tuple;
+import org.apache.heron.api.tuple.Values;
+import org.apache.heron.common.utils.topology.TopologyContextImpl;
+import org.apache.heron.common.utils.tuple.TupleImpl;
+
+public class CombinerOperatorTest {
+
+  private List<Object> emittedTuples;
+  private List<Collection<Tuple>> emittedAnchors;
+  private List<Tuple> ackedTuples;
+
+  @Before
+  public void setUp() {
+    emittedTuples = new LinkedList<>();
+    emittedAnchors = new LinkedList<>();
+    ackedTuples = new LinkedList<>();
+  }
+
+  @Test
+  public void testCombinedUntilFlush() {
+    CombinerOperator<String, Integer, String> combinerOperator =
+        getCombinerOperator(new LinkedList<>(), 100);
+
+    List<Tuple> tuples = new LinkedList<>();
+    for (String word : Arrays.asList("sa", "re", "sa", "ga", "sa", "re")) {
+      Tuple tuple = getTuple(word);
+      tuples.add(tuple);
+      combinerOperator.execute(tuple);
+    }
+    Assert.assertTrue(ackedTuples.isEmpty());
+    Assert.assertTrue(emittedTuples.isEmpty());
+
+    combinerOperator.flush();
+    // the tuples are acked once their partials are flushed
+    Assert.assertEquals(tuples, ackedTuples);
+    Map<String, CombinerOperator.PartialAggregate<String, Integer>> partials = getPartials();
+    Assert.assertEquals(3, partials.size());
+    assertPartial(partials.get("sa"), 3, 3);
+    assertPartial(partials.get("re"), 2, 2);
+    assertPartial(partials.get("ga"), 1, 1);
+
+    // the partials are forgotten once they are flushed
+    emittedTuples.clear();
+    combinerOperator.execute(getTuple("sa"));
+    combinerOperator.flush();
+    partials = getPartials();
+    Assert.assertEquals(1, partials.size());
+    assertPartial(partials.get("sa"), 1, 1);
+  }
+
+  @Test
+  public void testFlushOnCount() {
+    CombinerOperator<String, Integer, String> combinerOperator =
+        getCombinerOperator(new LinkedList<>(), 3);
+
+    for (String word : Arrays.asList("sa", "sa", "re", "sa")) {
+      combinerOperator.execute(getTuple(word));
+    }
+
+    Map<String, CombinerOperator.PartialAggregate<String, Integer>> partials = getPartials();
+    Assert.assertEquals(2, partials.size());
+    assertPartial(partials.get("sa"), 2, 2);
+    assertPartial(partials.get("re"), 1, 1);
+  }
+
+  @Test
+  public void testAnchors() {
+    CombinerOperator<String, Integer, String> combinerOperator =
+        getCombinerOperator(new LinkedList<>(), 100);
+
+    Tuple sa1 = getTuple("sa");
+    Tuple re = getTuple("re");
+    Tuple sa2 = getTuple("sa");
+    for (Tuple tuple : Arrays.asList(sa1, re, sa2)) {
+      combinerOperator.execute(tuple);
+    }
+    combinerOperator.flush();
+
+    // every partial is anchored on the tuples combined into it
+    Assert.assertEquals(2, emittedAnchors.size());
+    for (int i = 0; i < emittedTuples.size(); i++) {
+      @SuppressWarnings("unchecked")
+      CombinerOperator.PartialAggregate<String, Integer> partial =
+          (CombinerOperator.PartialAggregate<String, Integer>) emittedTuples.get(i);
+      Assert.assertEquals("sa".equals(partial.getKey()) ? Arrays.asList(sa1, sa2)
+          : Arrays.asList(re), emittedAnchors.get(i));
+    }
+  }
+
+  @Test
+  public void testFlushOnPreSave() {
+    CombinerOperator<String, Integer, String> combinerOperator =
+        getCombinerOperator(new LinkedList<>(), 100);
+
+    Tuple tuple = getTuple("sa");
+    combinerOperator.execute(tuple);
+    combinerOperator.preSave("checkpoint-1");
+
+    // nothing combined is left out of the checkpoint
+    Map<String, CombinerOperator.PartialAggregate<String, Integer>> partials = getPartials();
+    Assert.assertEquals(1, partials.size());
+    assertPartial(partials.get("sa"), 1, 1);
+    Assert.assertEquals(Arrays.asList(tuple), ackedTuples);
+  }
+
+  @Test
+  public void testFilteredTupleAcked() {
+    List<FusedOperator.Stage> stages = Arrays.asList(
+        FusedOperator.Stage.<String>filter(x -> !x.isEmpty()));
+    CombinerOperator<String, Integer, String> combinerOperator =
+        getCombinerOperator(stages, 100);
+
+    // nothing is combined out of the tuple, so it is acked right away
+    Tuple tuple = getTuple("");
+    combinerOperator.execute(tuple);
+    Assert.assertEquals(Arrays.asList(tuple), ackedTuples);
+    Assert.assertTrue(emittedTuples.isEmpty());
+  }
+
+  @Test
+  public void testFusedStages() {
+    List<FusedOperator.Stage> stages = Arrays.asList(
+        FusedOperator.Stage.<String, String>flatMap(x -> Arrays.asList(x.split(" "))));
+    CombinerOperator<String, Integer, String> combinerOperator =
+        getCombinerOperator(stages, 100);
+
+    Tuple tuple = getTuple("sa re ga sa");
+    combinerOperator.execute(tuple);
+    combinerOperator.flush();
+
+    Map<String, CombinerOperator.PartialAggregate<String, Integer>> partials = getPartials();
+    Assert.assertEquals(3, partials.size());
+    assertPartial(partials.get("sa"), 2, 2);
+    Assert.assertEquals(Arrays.asList(tuple), ackedTuples);
+  }
+
+  private static void assertPartial(CombinerOperator.PartialAggregate<String, Integer> partial,
+                                    int value, long count) {
+    Assert.assertEquals(Integer.valueOf(value), partial.getValue());
+    Assert.assertEquals(count, partial.getCount());
+  }
+
+  @SuppressWarnings("unchecked")
+  private Map<String, CombinerOperator.PartialAggregate<String, Integer>> getPartials() {
+    Map<String, CombinerOperator.PartialAggregate<String, Integer>> partials = new HashMap<>();
+    for (Object object : emittedTuples) {
+      CombinerOperator.PartialAggregate<String, Integer> partial =
+          (CombinerOperator.PartialAggregate<String, Integer>) object;
+      Assert.assertFalse(partials.containsKey(partial.getKey()));
+      partials.put(partial.getKey(), partial);
+    }
+    return partials;
+  }
+
+  private CombinerOperator<String, Integer, String> getCombinerOperator(
+      List<FusedOperator.Stage> stages, long flushCount) {
+    CombinerOperator<String, Integer, String> combinerOperator =
+        new CombinerOperator<>(stages, x -> x, x -> 1, (x, y) -> x + y,
+            Duration.ofSeconds(1), flushCount);
+
+    combinerOperator.prepare(new Config(), PowerMockito.mock(TopologyContext.class),
+        new OutputCollector(new IOutputCollector() {
+
+          @Override
+          public void reportError(Throwable error) {
+
+          }
+
+          @Override
+          public List<Integer> emit(String streamId,
+                                    Collection<Tuple> anchors, List<Object> tuple) {
+            emittedTuples.addAll(tuple);
+            emittedAnchors.add(anchors);
+            return null;
+          }
+
+          @Override
+          public void emitDirect(int taskId, String streamId,
+                                 Collection<Tuple> anchors, List<Object> tuple) {
+
+          }
+
+          @Override
+          public void ack(Tuple input) {
+            ackedTuples.add(input);
+          }
+
+          @Override
+          public void fail(Tuple input) {
+
+          }
+        }));
+    return combinerOperator;
+  }
+
+  private Tuple getTuple(String value) {
+    TopologyAPI.StreamId streamId = TopologyAPI.StreamId.newBuilder()
+        .setComponentName("sourceComponent").setId("default").build();
+    return new TupleImpl(getContext(new Fields("output")), streamId, 0,
+        null, new Values(value), 1);
+  }
+
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  private TopologyContext getContext(final Fields fields) {
+    TopologyBuilder builder = new TopologyBuilder();
+    return new TopologyContextImpl(new Config(),
+        builder.createTopology()
+            .setConfig(new Config())
+            .setName("test")
+            .setState(TopologyAPI.TopologyState.RUNNING)
+            .getTopology(),
+        new HashMap(), 1, null) {
+      @Override
+      public Fields getComponentOutputFields(
+          String componentId, String streamId) {
+        return fields;
+      }
+
+    };
+  }
+}
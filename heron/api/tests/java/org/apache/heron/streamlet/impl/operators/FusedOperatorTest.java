@@ -0,0 +1,146 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.heron.streamlet.impl.operators;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.powermock.api.mockito.PowerMockito;
+
+import org.apache.heron.api.Config;
+import org.apache.heron.api.bolt.IOutputCollector;
+import org.apache.heron.api.bolt.OutputCollector;
+import org.apache.heron.api.generated.TopologyAPI;
+import org.apache.heron.api.topology.TopologyBuilder;
+import org.apache.heron.api.topology.TopologyContext;
+import org.apache.heron.api.tuple.Fields;
+import org.apache.heron.api.tuple.Tuple;
+import org.apache.heron.api.tuple.Values;
+import org.apache.heron.common.utils.topology.TopologyContextImpl;
+import org.apache.heron.common.utils.tuple.TupleImpl;
+
+public class FusedOperatorTest {
+
+  private List<Object> emittedTuples;
+  private List<Tuple> ackedTuples;
+
+  @Before
+  public void setUp() {
+    emittedTuples = new LinkedList<>();
+    ackedTuples = new LinkedList<>();
+  }
+
+  @Test
+  public void testStagesAppliedInOrder() {
+    FusedOperator fusedOperator = getFusedOperator(Arrays.asList(
+        FusedOperator.Stage.<String, String>map(x -> x.toUpperCase()),
+        FusedOperator.Stage.<String, String>flatMap(x -> Arrays.asList(x.split(" "))),
+        FusedOperator.Stage.<String>filter(x -> !x.equals("RE")),
+        FusedOperator.Stage.<String, Integer>map(String::length)));
+
+    Tuple tuple = getTuple("sa re ga ma");
+    fusedOperator.execute(tuple);
+
+    Assert.assertEquals(Arrays.asList(2, 2, 2), emittedTuples);
+    Assert.assertEquals(Arrays.asList(tuple), ackedTuples);
+  }
+
+  @Test
+  public void testFilteredOutTupleIsAcked() {
+    FusedOperator fusedOperator = getFusedOperator(Arrays.asList(
+        FusedOperator.Stage.<String>filter(x -> x.isEmpty()),
+        FusedOperator.Stage.<String, String>map(x -> x + "!")));
+
+    Tuple tuple = getTuple("sa re ga ma");
+    fusedOperator.execute(tuple);
+
+    Assert.assertTrue(emittedTuples.isEmpty());
+    Assert.assertEquals(Arrays.asList(tuple), ackedTuples);
+  }
+
+  private FusedOperator getFusedOperator(List<FusedOperator.Stage> stages) {
+    FusedOperator fusedOperator = new FusedOperator(stages);
+
+    fusedOperator.prepare(new Config(), PowerMockito.mock(TopologyContext.class),
+        new OutputCollector(new IOutputCollector() {
+
+          @Override
+          public void reportError(Throwable error) {
+
+          }
+
+          @Override
+          public List<Integer> emit(String streamId,
+                                    Collection<Tuple> anchors, List<Object> tuple) {
+            emittedTuples.addAll(tuple);
+            return null;
+          }
+
+          @Override
+          public void emitDirect(int taskId, String streamId,
+                                 Collection<Tuple> anchors, List<Object> tuple) {
+
+          }
+
+          @Override
+          public void ack(Tuple input) {
+            ackedTuples.add(input);
+          }
+
+          @Override
+          public void fail(Tuple input) {
+
+          }
+        }));
+    return fusedOperator;
+  }
+
+  private Tuple getTuple(String value) {
+    TopologyAPI.StreamId streamId = TopologyAPI.StreamId.newBuilder()
+        .setComponentName("sourceComponent").setId("default").build();
+    return new TupleImpl(getContext(new Fields("output")), streamId, 0,
+        null, new Values(value), 1);
+  }
+
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  private TopologyContext getContext(final Fields fields) {
+    TopologyBuilder builder = new TopologyBuilder();
+    return new TopologyContextImpl(new Config(),
+        builder.createTopology()
+            .setConfig(new Config())
+            .setName("test")
+            .setState(TopologyAPI.TopologyState.RUNNING)
+            .getTopology(),
+        new HashMap(), 1, null) {
+      @Override
+      public Fields getComponentOutputFields(
+          String componentId, String streamId) {
+        return fields;
+      }
+
+    };
+  }
+}
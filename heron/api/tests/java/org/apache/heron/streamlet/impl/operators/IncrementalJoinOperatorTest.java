@@ -0,0 +1,258 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.heron.streamlet.impl.operators;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.powermock.api.mockito.PowerMockito;
+
+import org.apache.heron.api.Config;
+import org.apache.heron.api.bolt.IOutputCollector;
+import org.apache.heron.api.bolt.OutputCollector;
+import org.apache.heron.api.generated.TopologyAPI;
+import org.apache.heron.api.topology.TopologyBuilder;
+import org.apache.heron.api.topology.TopologyContext;
+import org.apache.heron.api.tuple.Fields;
+import org.apache.heron.api.tuple.Tuple;
+import org.apache.heron.api.tuple.Values;
+import org.apache.heron.api.windowing.TupleWindowImpl;
+import org.apache.heron.common.utils.topology.TopologyContextImpl;
+import org.apache.heron.common.utils.tuple.TupleImpl;
+import org.apache.heron.streamlet.JoinType;
+import org.apache.heron.streamlet.KeyValue;
+import org.apache.heron.streamlet.KeyedWindow;
+import org.apache.heron.streamlet.SerializableBiFunction;
+import org.apache.heron.streamlet.SerializableFunction;
+
+public class IncrementalJoinOperatorTest {
+
+  private List<Object> emittedTuples;
+  private long startTime = 1508099660801L;
+  private long endTime = startTime + 1000L;
+
+  private Tuple left0;
+  private Tuple right1;
+  private Tuple left2;
+  private Tuple right3;
+  private Tuple left5;
+
+  @Before
+  public void setUp() {
+    emittedTuples = new LinkedList<>();
+    left0 = getTuple("leftComponent", "key1", "0");
+    right1 = getTuple("rightComponent", "key1", "1");
+    left2 = getTuple("leftComponent", "key1", "2");
+    right3 = getTuple("rightComponent", "key1", "3");
+    left5 = getTuple("leftComponent", "key2", "5");
+  }
+
+  @Test
+  public void testInnerJoinEmitsEachPairOnce() {
+    IncrementalJoinOperator<String, KeyValue<String, String>, KeyValue<String, String>, String>
+        joinOperator = getJoinOperator(JoinType.INNER);
+
+    Assert.assertEquals(Arrays.asList("01"), execute(joinOperator,
+        Arrays.asList(left0, right1, left5), Arrays.asList(left0, right1, left5),
+        Collections.emptyList()));
+
+    // the window slides, only the new tuple is joined
+    Assert.assertEquals(Arrays.asList("21"), execute(joinOperator,
+        Arrays.asList(left0, right1, left5, left2), Arrays.asList(left2),
+        Collections.emptyList()));
+
+    // the expired tuples are not joined anymore
+    Assert.assertEquals(Arrays.asList("23"), execute(joinOperator,
+        Arrays.asList(right1, left2, right3), Arrays.asList(right3),
+        Arrays.asList(left0, left5)));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testOuterLeftJoinEmitsUnmatchedOnExpiry() {
+    IncrementalJoinOperator<String, KeyValue<String, String>, KeyValue<String, String>, String>
+        joinOperator = getJoinOperator(JoinType.OUTER_LEFT);
+
+    Assert.assertEquals(Arrays.asList("01"), execute(joinOperator,
+        Arrays.asList(left0, right1, left5), Arrays.asList(left0, right1, left5),
+        Collections.emptyList()));
+
+    // left0 matched right1, left5 never matched
+    Assert.assertEquals(Arrays.asList("21", "23", "5null"), execute(joinOperator,
+        Arrays.asList(right1, left2, right3), Arrays.asList(left2, right3),
+        Arrays.asList(left0, left5)));
+    for (Object object : emittedTuples) {
+      KeyValue<KeyedWindow<String>, String> tuple = (KeyValue<KeyedWindow<String>, String>) object;
+      if ("5null".equals(tuple.getValue())) {
+        Assert.assertEquals("key2", tuple.getKey().getKey());
+      }
+      Assert.assertEquals(3, tuple.getKey().getWindow().getCount());
+      Assert.assertEquals(startTime, tuple.getKey().getWindow().getStartTime());
+      Assert.assertEquals(endTime, tuple.getKey().getWindow().getEndTime());
+    }
+  }
+
+  @Test
+  public void testOuterJoinEmitsUnmatchedOnExpiry() {
+    IncrementalJoinOperator<String, KeyValue<String, String>, KeyValue<String, String>, String>
+        joinOperator = getJoinOperator(JoinType.OUTER);
+    Tuple right6 = getTuple("rightComponent", "key3", "6");
+
+    Assert.assertEquals(Arrays.asList("01"), execute(joinOperator,
+        Arrays.asList(left0, right1, left5, right6), Arrays.asList(left0, right1, left5, right6),
+        Collections.emptyList()));
+    Assert.assertEquals(Arrays.asList("5null", "null6"), execute(joinOperator,
+        Arrays.asList(left2), Arrays.asList(left2),
+        Arrays.asList(left0, right1, left5, right6)));
+  }
+
+  @Test
+  public void testRebuildWhenExpiredTuplesAreMissed() {
+    IncrementalJoinOperator<String, KeyValue<String, String>, KeyValue<String, String>, String>
+        joinOperator = getJoinOperator(JoinType.INNER);
+
+    Assert.assertEquals(Arrays.asList("01"), execute(joinOperator,
+        Arrays.asList(left0, right1), Arrays.asList(left0, right1), Collections.emptyList()));
+
+    // left0 and right1 left the window without being reported, as after an empty window
+    Assert.assertEquals(Arrays.asList("23"), execute(joinOperator,
+        Arrays.asList(left2, right3), Arrays.asList(right3), Collections.emptyList()));
+  }
+
+  @Test
+  public void testUnknownExpiredTupleDoesNotEvictOtherEntries() {
+    IncrementalJoinOperator<String, KeyValue<String, String>, KeyValue<String, String>, String>
+        joinOperator = getJoinOperator(JoinType.OUTER_LEFT);
+
+    Assert.assertEquals(Collections.emptyList(), execute(joinOperator,
+        Arrays.asList(left0, left2), Arrays.asList(left0, left2), Collections.emptyList()));
+
+    // A copy of left2, as from a serialized window, matching no entry by identity or by value
+    Tuple expired = getTuple("leftComponent", "key1", "2");
+    Assert.assertEquals(Collections.emptyList(), execute(joinOperator,
+        Arrays.asList(left0), Collections.emptyList(), Arrays.asList(expired)));
+
+    // left0 is still in the window, left2 is not
+    Assert.assertEquals(Arrays.asList("03"), execute(joinOperator,
+        Arrays.asList(left0, right3), Arrays.asList(right3), Collections.emptyList()));
+  }
+
+  private List<String> execute(
+      IncrementalJoinOperator<String, KeyValue<String, String>, KeyValue<String, String>, String>
+          joinOperator, List<Tuple> tuples, List<Tuple> newTuples, List<Tuple> expiredTuples) {
+    emittedTuples.clear();
+    joinOperator.execute(new TupleWindowImpl(tuples, newTuples, expiredTuples,
+        startTime, endTime));
+    List<String> results = new ArrayList<>();
+    for (Object object : emittedTuples) {
+      results.add((String) ((KeyValue<?, ?>) object).getValue());
+    }
+    Collections.sort(results);
+    return results;
+  }
+
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  private IncrementalJoinOperator<String, KeyValue<String, String>, KeyValue<String, String>,
+      String> getJoinOperator(JoinType type) {
+    SerializableFunction<KeyValue<String, String>, String> f = x -> x == null ? "null" : x.getKey();
+    IncrementalJoinOperator<String, KeyValue<String, String>, KeyValue<String, String>, String>
+        joinOperator = new IncrementalJoinOperator(
+        type,
+        "leftComponent",
+        "rightComponent",
+            f,
+            f,
+        (SerializableBiFunction<KeyValue<String, String>, KeyValue<String, String>, String>)
+            (o, o2) -> (o == null ? "null" : o.getValue()) + (o2 == null ? "null" : o2.getValue()));
+
+    joinOperator.prepare(new Config(), PowerMockito.mock(TopologyContext.class),
+        new OutputCollector(new IOutputCollector() {
+
+          @Override
+          public void reportError(Throwable error) {
+
+          }
+
+          @Override
+          public List<Integer> emit(String streamId,
+                                    Collection<Tuple> anchors, List<Object> tuple) {
+            emittedTuples.addAll(tuple);
+            return null;
+          }
+
+          @Override
+          public void emitDirect(int taskId, String streamId,
+                                 Collection<Tuple> anchors, List<Object> tuple) {
+
+          }
+
+          @Override
+          public void ack(Tuple input) {
+
+          }
+
+          @Override
+          public void fail(Tuple input) {
+
+          }
+        }));
+    return joinOperator;
+  }
+
+  private Tuple getTuple(String componentName, String key, String value) {
+    TopologyAPI.StreamId streamId = TopologyAPI.StreamId.newBuilder()
+        .setComponentName(componentName).setId("s1").build();
+    TopologyContext topologyContext = getContext(new Fields("a"));
+    return new TupleImpl(topologyContext, streamId, 0,
+        null, new Values(new KeyValue<String, String>(key, value)), 1) {
+      @Override
+      public TopologyAPI.StreamId getSourceGlobalStreamId() {
+        return TopologyAPI.StreamId.newBuilder().setComponentName("s1").setId("default").build();
+      }
+    };
+  }
+
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  private TopologyContext getContext(final Fields fields) {
+    TopologyBuilder builder = new TopologyBuilder();
+    return new TopologyContextImpl(new Config(),
+        builder.createTopology()
+            .setConfig(new Config())
+            .setName("test")
+            .setState(TopologyAPI.TopologyState.RUNNING)
+            .getTopology(),
+        new HashMap(), 1, null) {
+      @Override
+      public Fields getComponentOutputFields(
+          String componentId, String streamId) {
+        return fields;
+      }
+
+    };
+  }
+}
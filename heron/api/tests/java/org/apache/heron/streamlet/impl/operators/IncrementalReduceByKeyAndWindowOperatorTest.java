@@ -0,0 +1,353 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.heron.streamlet.impl.operators;
+
+import java.io.Serializable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.powermock.api.mockito.PowerMockito;
+
+import org.apache.heron.api.Config;
+import org.apache.heron.api.bolt.IOutputCollector;
+import org.apache.heron.api.bolt.OutputCollector;
+import org.apache.heron.api.generated.TopologyAPI;
+import org.apache.heron.api.state.HashMapState;
+import org.apache.heron.api.state.State;
+import org.apache.heron.api.topology.TopologyBuilder;
+import org.apache.heron.api.topology.TopologyContext;
+import org.apache.heron.api.tuple.Fields;
+import org.apache.heron.api.tuple.Tuple;
+import org.apache.heron.api.tuple.Values;
+import org.apache.heron.api.utils.Utils;
+import org.apache.heron.common.utils.topology.TopologyContextImpl;
+import org.apache.heron.common.utils.tuple.TupleImpl;
+import org.apache.heron.streamlet.KeyValue;
+import org.apache.heron.streamlet.KeyedWindow;
+import org.apache.heron.streamlet.SerializableBinaryOperator;
+import org.apache.heron.streamlet.Window;
+
+public class IncrementalReduceByKeyAndWindowOperatorTest {
+
+  private List<Object> emittedTuples;
+  // The # of tuples each emitted tuple is anchored on
+  private List<Integer> emittedAnchors;
+  private int ackedTuples;
+  private Config config;
+  private long now;
+
+  @Before
+  public void setUp() {
+    emittedTuples = new LinkedList<>();
+    emittedAnchors = new ArrayList<>();
+    ackedTuples = 0;
+    config = new Config();
+    now = 0;
+  }
+
+  @Test
+  public void testCountWindow() {
+    IncrementalReduceByKeyAndWindowOperator<String, Integer, String> reduceOperator =
+        getReduceOperator(null).withWindow(4, 2);
+    prepare(reduceOperator);
+
+    // panes of 2 tuples, window of 2 panes sliding by 1 pane
+    execute(reduceOperator, "a", "b");
+    assertEmitted(expected("a", 1, "b", 1));
+    execute(reduceOperator, "a", "a");
+    assertEmitted(expected("a", 3, "b", 1));
+    execute(reduceOperator, "b", "c");
+    assertEmitted(expected("a", 2, "b", 1, "c", 1));
+    Assert.assertEquals(6, ackedTuples);
+  }
+
+  @Test
+  public void testCountWindowWithInverse() {
+    IncrementalReduceByKeyAndWindowOperator<String, Integer, String> reduceOperator =
+        getReduceOperator((x, y) -> x - y).withWindow(4, 2);
+    prepare(reduceOperator);
+
+    execute(reduceOperator, "a", "b");
+    assertEmitted(expected("a", 1, "b", 1));
+    execute(reduceOperator, "a", "a");
+    assertEmitted(expected("a", 3, "b", 1));
+    // "b" of the first pane leaves the window, "a" and "b" come
+    execute(reduceOperator, "b", "c");
+    assertEmitted(expected("a", 2, "b", 1, "c", 1));
+    // every key of the 2nd pane leaves the window
+    execute(reduceOperator, "c", "c");
+    assertEmitted(expected("b", 1, "c", 3));
+  }
+
+  @Test
+  public void testTumblingCountWindow() {
+    IncrementalReduceByKeyAndWindowOperator<String, Integer, String> reduceOperator =
+        getReduceOperator(null).withWindow(3, 3);
+    prepare(reduceOperator);
+
+    execute(reduceOperator, "a", "b");
+    Assert.assertTrue(emittedTuples.isEmpty());
+    execute(reduceOperator, "a");
+    assertEmitted(expected("a", 2, "b", 1));
+    execute(reduceOperator, "c", "c", "c");
+    assertEmitted(expected("c", 3));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testTimeWindow() {
+    IncrementalReduceByKeyAndWindowOperator<String, Integer, String> reduceOperator =
+        getReduceOperator(null).withWindow(Duration.ofSeconds(30), Duration.ofSeconds(20));
+    prepare(reduceOperator);
+
+    // panes are closed by a timer of 10 seconds
+    Map<String, ?> timers = (Map<String, ?>) config.get(Config.TOPOLOGY_TIMER_EVENTS);
+    Assert.assertEquals(1, timers.size());
+
+    execute(reduceOperator, "a");
+    reduceOperator.closePane();
+    Assert.assertTrue(emittedTuples.isEmpty());
+    execute(reduceOperator, "a", "b");
+    reduceOperator.closePane();
+    assertEmitted(expected("a", 2, "b", 1));
+    reduceOperator.closePane();
+    reduceOperator.closePane();
+    // the window covers the 2nd, 3rd and 4th panes
+    assertEmitted(expected("a", 1, "b", 1));
+    reduceOperator.closePane();
+    reduceOperator.closePane();
+    // no key in the window
+    assertEmitted(expected());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testWindowBounds() {
+    IncrementalReduceByKeyAndWindowOperator<String, Integer, String> reduceOperator =
+        getReduceOperator(null).withWindow(Duration.ofSeconds(30), Duration.ofSeconds(20));
+    now = 1000;
+    prepare(reduceOperator);
+
+    execute(reduceOperator, "a");
+    now = 11000;
+    reduceOperator.closePane();
+    execute(reduceOperator, "a", "b");
+    now = 21000;
+    reduceOperator.closePane();
+    Window window = ((KeyValue<KeyedWindow<String>, Integer>) emittedTuples.get(0))
+        .getKey().getWindow();
+    Assert.assertEquals(1000, window.getStartTime());
+    Assert.assertEquals(21000, window.getEndTime());
+    emittedTuples.clear();
+
+    now = 31000;
+    reduceOperator.closePane();
+    now = 41000;
+    reduceOperator.closePane();
+    // the window covers the 2nd, 3rd and 4th panes
+    window = ((KeyValue<KeyedWindow<String>, Integer>) emittedTuples.get(0))
+        .getKey().getWindow();
+    Assert.assertEquals(11000, window.getStartTime());
+    Assert.assertEquals(41000, window.getEndTime());
+    Assert.assertEquals(1, window.getCount());
+  }
+
+  @Test
+  public void testAnchoredWhenAtLeastOnce() {
+    Config.setTopologyReliabilityMode(config, Config.TopologyReliabilityMode.ATLEAST_ONCE);
+    IncrementalReduceByKeyAndWindowOperator<String, Integer, String> reduceOperator =
+        getReduceOperator(null).withWindow(4, 2);
+    prepare(reduceOperator);
+
+    execute(reduceOperator, "a", "b");
+    assertEmitted(expected("a", 1, "b", 1));
+    assertAnchors(2, 2);
+    execute(reduceOperator, "a", "a");
+    assertEmitted(expected("a", 3, "b", 1));
+    assertAnchors(4, 4);
+    // the tuples stay pending as long as they are in a window
+    Assert.assertEquals(0, ackedTuples);
+
+    execute(reduceOperator, "b", "c");
+    assertEmitted(expected("a", 2, "b", 1, "c", 1));
+    assertAnchors(4, 4, 4);
+    // the first pane left the window
+    Assert.assertEquals(2, ackedTuples);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testRestoreFromCheckpoint() {
+    Config.setTopologyReliabilityMode(config, Config.TopologyReliabilityMode.EFFECTIVELY_ONCE);
+    IncrementalReduceByKeyAndWindowOperator<String, Integer, String> reduceOperator =
+        getReduceOperator((x, y) -> x - y).withWindow(4, 2);
+    State<Serializable, Serializable> state = new HashMapState<>();
+    reduceOperator.initState(state);
+    prepare(reduceOperator);
+
+    execute(reduceOperator, "a", "b");
+    assertEmitted(expected("a", 1, "b", 1));
+    execute(reduceOperator, "a");
+    reduceOperator.preSave("c1");
+    Assert.assertEquals(3, ackedTuples);
+
+    // a new instance restored from the checkpoint, which went through serialization
+    IncrementalReduceByKeyAndWindowOperator<String, Integer, String> restoredOperator =
+        getReduceOperator((x, y) -> x - y).withWindow(4, 2);
+    restoredOperator.initState(
+        (State<Serializable, Serializable>) Utils.deserialize(Utils.serialize(state)));
+    prepare(restoredOperator);
+
+    execute(restoredOperator, "a");
+    assertEmitted(expected("a", 3, "b", 1));
+    execute(restoredOperator, "b", "c");
+    assertEmitted(expected("a", 2, "b", 1, "c", 1));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSlideLargerThanWindow() {
+    getReduceOperator(null).withWindow(2, 3);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testTooManyPanes() {
+    getReduceOperator(null).withWindow(Duration.ofMillis(100003), Duration.ofMillis(1000));
+  }
+
+  private Map<String, Integer> expected(Object... keyValues) {
+    Map<String, Integer> ret = new HashMap<>();
+    for (int i = 0; i < keyValues.length; i += 2) {
+      ret.put((String) keyValues[i], (Integer) keyValues[i + 1]);
+    }
+    return ret;
+  }
+
+  @SuppressWarnings("unchecked")
+  private void assertEmitted(Map<String, Integer> expectedResults) {
+    Map<String, Integer> results = new HashMap<>();
+    for (Object object : emittedTuples) {
+      KeyValue<KeyedWindow<String>, Integer> tuple =
+          (KeyValue<KeyedWindow<String>, Integer>) object;
+      KeyedWindow<String> window = tuple.getKey();
+      // every value is 1, so the count is the same as the sum
+      Assert.assertEquals(tuple.getValue().longValue(), window.getWindow().getCount());
+      results.put(window.getKey(), tuple.getValue());
+    }
+    Assert.assertEquals(expectedResults, results);
+    emittedTuples.clear();
+  }
+
+  private void assertAnchors(Integer... expectedAnchors) {
+    Assert.assertEquals(Arrays.asList(expectedAnchors), emittedAnchors);
+    emittedAnchors.clear();
+  }
+
+  private void execute(IncrementalReduceByKeyAndWindowOperator<String, Integer, String> operator,
+                       String... keys) {
+    for (String key : keys) {
+      operator.execute(getTuple(key));
+    }
+  }
+
+  private IncrementalReduceByKeyAndWindowOperator<String, Integer, String> getReduceOperator(
+      SerializableBinaryOperator<Integer> inverseReduceFn) {
+    return new IncrementalReduceByKeyAndWindowOperator<String, Integer, String>(x -> x, x -> 1,
+        (o, o2) -> o + o2, inverseReduceFn) {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      long currentTimeMillis() {
+        return now;
+      }
+    };
+  }
+
+  private void prepare(IncrementalReduceByKeyAndWindowOperator<String, Integer, String> operator) {
+    operator.prepare(config, PowerMockito.mock(TopologyContext.class),
+        new OutputCollector(new IOutputCollector() {
+
+          @Override
+          public void reportError(Throwable error) {
+
+          }
+
+          @Override
+          public List<Integer> emit(String streamId,
+                                    Collection<Tuple> anchors, List<Object> tuple) {
+            emittedTuples.addAll(tuple);
+            if (anchors != null) {
+              emittedAnchors.add(anchors.size());
+            }
+            return null;
+          }
+
+          @Override
+          public void emitDirect(int taskId, String streamId,
+                                 Collection<Tuple> anchors, List<Object> tuple) {
+
+          }
+
+          @Override
+          public void ack(Tuple input) {
+            ackedTuples++;
+          }
+
+          @Override
+          public void fail(Tuple input) {
+
+          }
+        }));
+  }
+
+  private Tuple getTuple(String key) {
+    TopologyAPI.StreamId streamId = TopologyAPI.StreamId.newBuilder()
+        .setComponentName("sourceComponent").setId("default").build();
+    return new TupleImpl(getContext(new Fields("a")), streamId, 0,
+        null, new Values(key), 1);
+  }
+
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  private TopologyContext getContext(final Fields fields) {
+    TopologyBuilder builder = new TopologyBuilder();
+    return new TopologyContextImpl(new Config(),
+        builder.createTopology()
+            .setConfig(new Config())
+            .setName("test")
+            .setState(TopologyAPI.TopologyState.RUNNING)
+            .getTopology(),
+        new HashMap(), 1, null) {
+      @Override
+      public Fields getComponentOutputFields(
+          String componentId, String streamId) {
+        return fields;
+      }
+
+    };
+  }
+}
@@ -0,0 +1,216 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.apache.heron.benchmarks;
+
+import java.nio.file.Paths;
+import java.util.Map;
+
+import com.google.protobuf.ByteString;
+
+import org.apache.heron.api.Config;
+import org.apache.heron.api.bolt.BaseRichBolt;
+import org.apache.heron.api.bolt.OutputCollector;
+import org.apache.heron.api.generated.TopologyAPI;
+import org.apache.heron.api.serializer.IPluggableSerializer;
+import org.apache.heron.api.serializer.JavaSerializer;
+import org.apache.heron.api.spout.BaseRichSpout;
+import org.apache.heron.api.spout.SpoutOutputCollector;
+import org.apache.heron.api.topology.OutputFieldsDeclarer;
+import org.apache.heron.api.topology.TopologyBuilder;
+import org.apache.heron.api.topology.TopologyContext;
+import org.apache.heron.api.tuple.Fields;
+import org.apache.heron.api.tuple.Tuple;
+import org.apache.heron.api.utils.Utils;
+import org.apache.heron.common.basics.SingletonRegistry;
+import org.apache.heron.common.config.SystemConfig;
+import org.apache.heron.common.utils.misc.PhysicalPlanHelper;
+import org.apache.heron.proto.system.HeronTuples;
+import org.apache.heron.proto.system.PhysicalPlans;
+
+/**
+ * The fixtures shared by the benchmarks: the system config and a physical plan of a spout
+ * feeding a bolt, both doing nothing, so that only the instance code is measured.
+ */
+public final class BenchmarkPlans {
+  public static final String SPOUT_NAME = "benchmark-spout";
+  public static final String BOLT_NAME = "benchmark-bolt";
+  public static final String SPOUT_INSTANCE_ID = "spout-id";
+  public static final String BOLT_INSTANCE_ID = "bolt-id";
+  public static final int SPOUT_TASK_ID = 0;
+  public static final int BOLT_TASK_ID = 1;
+  public static final String[] FIELDS = {"word", "count"};
+
+  // The system property overriding the heron internals config the benchmarks run with
+  public static final String INTERNALS_CONFIG_PROPERTY = "heron.benchmarks.internals.config";
+  private static final String RUNFILES_INTERNALS_CONFIG_PATH =
+      "org_apache_heron/heron/config/src/yaml/conf/test/test_heron_internals.yaml";
+
+  private BenchmarkPlans() {
+  }
+
+  /**
+   * Load the heron internals config and register it as the singleton the instance code reads,
+   * unless it is already registered in this JVM
+   */
+  public static synchronized SystemConfig getSystemConfig() {
+    if (!SingletonRegistry.INSTANCE.containsSingleton(SystemConfig.HERON_SYSTEM_CONFIG)) {
+      String filePath = System.getProperty(INTERNALS_CONFIG_PROPERTY);
+      if (filePath == null) {
+        String runFiles = System.getenv("JAVA_RUNFILES");
+        if (runFiles == null) {
+          throw new RuntimeException("Neither the " + INTERNALS_CONFIG_PROPERTY
+              + " property nor the JAVA_RUNFILES environment variable is set");
+        }
+        filePath = Paths.get(runFiles, RUNFILES_INTERNALS_CONFIG_PATH).toString();
+      }
+      SystemConfig systemConfig = SystemConfig.newBuilder(true)
+          .putAll(filePath, true)
+          .build();
+      SingletonRegistry.INSTANCE.registerSingleton(SystemConfig.HERON_SYSTEM_CONFIG, systemConfig);
+    }
+    return (SystemConfig) SingletonRegistry.INSTANCE.getSingleton(
+        SystemConfig.HERON_SYSTEM_CONFIG);
+  }
+
+  /**
+   * The physical plan of a topology with one spout task and one bolt task
+   *
+   * @param serializerClassName the serializer of the tuples
+   */
+  public static PhysicalPlans.PhysicalPlan getPhysicalPlan(String serializerClassName) {
+    TopologyBuilder topologyBuilder = new TopologyBuilder();
+    topologyBuilder.setSpout(SPOUT_NAME, new NoOpSpout(), 1);
+    topologyBuilder.setBolt(BOLT_NAME, new NoOpBolt(), 1).shuffleGrouping(SPOUT_NAME);
+
+    Config conf = new Config();
+    conf.setNumStmgrs(1);
+    conf.setTopologyReliabilityMode(Config.TopologyReliabilityMode.ATMOST_ONCE);
+    conf.setSerializationClassName(serializerClassName);
+
+    TopologyAPI.Topology topology = topologyBuilder.createTopology()
+        .setName("benchmark-topology")
+        .setConfig(conf)
+        .setState(TopologyAPI.TopologyState.RUNNING)
+        .getTopology();
+
+    PhysicalPlans.PhysicalPlan.Builder pPlan = PhysicalPlans.PhysicalPlan.newBuilder();
+    pPlan.setTopology(topology);
+    pPlan.addInstances(getInstance(SPOUT_INSTANCE_ID, SPOUT_NAME, SPOUT_TASK_ID));
+    pPlan.addInstances(getInstance(BOLT_INSTANCE_ID, BOLT_NAME, BOLT_TASK_ID));
+    pPlan.addStmgrs(PhysicalPlans.StMgr.newBuilder()
+        .setId("stream-manager-id")
+        .setHostName("127.0.0.1")
+        .setDataPort(8888)
+        .setLocalEndpoint("endpoint"));
+    return pPlan.build();
+  }
+
+  public static PhysicalPlans.PhysicalPlan getPhysicalPlan() {
+    return getPhysicalPlan(JavaSerializer.class.getName());
+  }
+
+  /**
+   * The PhysicalPlanHelper of the given instance of the plan, with its topology context set
+   */
+  public static PhysicalPlanHelper getPhysicalPlanHelper(PhysicalPlans.PhysicalPlan pPlan,
+                                                         String instanceId) {
+    PhysicalPlanHelper helper = new PhysicalPlanHelper(pPlan, instanceId);
+    // The metrics are not exported, so no MetricsCollector is needed
+    helper.setTopologyContext(null);
+    return helper;
+  }
+
+  /**
+   * The stream the spout emits to the bolt
+   */
+  public static TopologyAPI.StreamId getStreamId() {
+    return TopologyAPI.StreamId.newBuilder()
+        .setId(Utils.DEFAULT_STREAM_ID)
+        .setComponentName(SPOUT_NAME)
+        .build();
+  }
+
+  /**
+   * The i-th data tuple of the spout, a word and its count serialized by the given serializer
+   */
+  public static HeronTuples.HeronDataTuple.Builder getDataTuple(IPluggableSerializer serializer,
+                                                                int i) {
+    HeronTuples.HeronDataTuple.Builder dataTuple = HeronTuples.HeronDataTuple.newBuilder();
+    dataTuple.setKey(i);
+    dataTuple.addValues(ByteString.copyFrom(serializer.serialize("word-" + i)));
+    dataTuple.addValues(ByteString.copyFrom(serializer.serialize(i)));
+    return dataTuple;
+  }
+
+  private static PhysicalPlans.Instance.Builder getInstance(String instanceId,
+                                                            String componentName,
+                                                            int taskId) {
+    PhysicalPlans.InstanceInfo.Builder instanceInfo = PhysicalPlans.InstanceInfo.newBuilder()
+        .setComponentName(componentName)
+        .setTaskId(taskId)
+        .setComponentIndex(0);
+    return PhysicalPlans.Instance.newBuilder()
+        .setInstanceId(instanceId)
+        .setStmgrId("stream-manager-id")
+        .setInfo(instanceInfo);
+  }
+
+  /**
+   * A spout declaring the fields of the tuples, never emitting by itself
+   */
+  public static class NoOpSpout extends BaseRichSpout {
+    private static final long serialVersionUID = 6104216632401870226L;
+
+    @Override
+    public void open(Map<String, Object> conf, TopologyContext context,
+                     SpoutOutputCollector collector) {
+    }
+
+    @Override
+    public void nextTuple() {
+    }
+
+    @Override
+    public void declareOutputFields(OutputFieldsDeclarer declarer) {
+      declarer.declare(new Fields(FIELDS));
+    }
+  }
+
+  /**
+   * A bolt dropping every tuple, so that executing it only costs the instance's own work
+   */
+  public static class NoOpBolt extends BaseRichBolt {
+    private static final long serialVersionUID = -3213587026011617312L;
+
+    @Override
+    public void prepare(Map<String, Object> conf, TopologyContext context,
+                        OutputCollector collector) {
+    }
+
+    @Override
+    public void execute(Tuple tuple) {
+    }
+
+    @Override
+    public void declareOutputFields(OutputFieldsDeclarer declarer) {
+    }
+  }
+}
@@ -0,0 +1,96 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.apache.heron.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import com.google.protobuf.Message;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.apache.heron.api.serializer.IPluggableSerializer;
+import org.apache.heron.api.serializer.JavaSerializer;
+import org.apache.heron.common.basics.Communicator;
+import org.apache.heron.common.basics.SlaveLooper;
+import org.apache.heron.instance.bolt.BoltInstance;
+import org.apache.heron.proto.system.HeronTuples;
+
+/**
+ * BoltInstance reading a HeronTupleSet2 as it came from the stream manager, decoding and
+ * deserializing its tuples and executing them on a bolt doing nothing.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class BoltInstanceBenchmark {
+  // # of tuples in each HeronTupleSet2
+  @Param({"1", "100"})
+  public int tuplesPerSet;
+
+  private Communicator<Message> inQueue;
+  private BoltInstance boltInstance;
+  private HeronTuples.HeronTupleSet2 tupleSet;
+
+  @Setup
+  public void setUp() {
+    BenchmarkPlans.getSystemConfig();
+    inQueue = new Communicator<>(null, null);
+    boltInstance = new BoltInstance(
+        BenchmarkPlans.getPhysicalPlanHelper(
+            BenchmarkPlans.getPhysicalPlan(), BenchmarkPlans.BOLT_INSTANCE_ID),
+        inQueue, new Communicator<>(null, null), new SlaveLooper());
+
+    IPluggableSerializer serializer = new JavaSerializer();
+    serializer.initialize(null);
+    HeronTuples.HeronDataTupleSet2.Builder dataTupleSet =
+        HeronTuples.HeronDataTupleSet2.newBuilder();
+    dataTupleSet.setStream(BenchmarkPlans.getStreamId());
+    for (int i = 0; i < tuplesPerSet; i++) {
+      dataTupleSet.addTuples(BenchmarkPlans.getDataTuple(serializer, i).build().toByteString());
+    }
+    tupleSet = HeronTuples.HeronTupleSet2.newBuilder()
+        .setSrcTaskId(BenchmarkPlans.SPOUT_TASK_ID)
+        .setData(dataTupleSet)
+        .build();
+  }
+
+  /**
+   * Execute one HeronTupleSet2 of tuplesPerSet tuples
+   */
+  @Benchmark
+  public void readTuplesAndExecute() {
+    inQueue.offer(tupleSet);
+    boltInstance.readTuplesAndExecute(inQueue);
+  }
+}
@@ -0,0 +1,67 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.apache.heron.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.apache.heron.api.generated.TopologyAPI;
+import org.apache.heron.common.utils.metrics.FullBoltMetrics;
+
+/**
+ * The metrics a bolt updates for every tuple it executes.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class BoltMetricsBenchmark {
+  private static final long EXECUTE_LATENCY_NS = 1000;
+
+  private FullBoltMetrics boltMetrics;
+  private int streamIndex;
+
+  @Setup
+  public void setUp() {
+    boltMetrics = new FullBoltMetrics();
+    boltMetrics.initMultiCountMetrics(BenchmarkPlans.getPhysicalPlanHelper(
+        BenchmarkPlans.getPhysicalPlan(), BenchmarkPlans.BOLT_INSTANCE_ID));
+    TopologyAPI.StreamId stream = BenchmarkPlans.getStreamId();
+    streamIndex = boltMetrics.getInputStreamIndex(stream.getId(), stream.getComponentName());
+  }
+
+  @Benchmark
+  public void executeTuple() {
+    boltMetrics.executeTuple(streamIndex, EXECUTE_LATENCY_NS);
+  }
+}
@@ -0,0 +1,107 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.apache.heron.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.apache.heron.common.basics.Communicator;
+
+/**
+ * Communicator offer/poll, with the LinkedTransferQueue and the single-producer single-consumer
+ * ring buffer behind it, the two values of heron.instance.internal.stream.queue.type.
+ * The queues have no loopers to wake up, so only the hand-off itself is measured.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Group)
+public class CommunicatorBenchmark {
+  // The producer stops offering past this many queued items, like the slave does when the
+  // out queue is above its expected capacity, so the unbounded queues could not grow forever
+  private static final int MAX_QUEUED_ITEMS = 1024;
+  private static final Object ITEM = new Object();
+
+  @Param({"linked", "spsc"})
+  public String queueType;
+
+  @Param("1024")
+  public int ringSize;
+
+  private Communicator<Object> queue;
+
+  @Setup(Level.Iteration)
+  public void setUp() {
+    if ("spsc".equals(queueType)) {
+      queue = Communicator.newSingleProducerSingleConsumer(null, null, ringSize);
+    } else {
+      queue = new Communicator<>(null, null);
+    }
+  }
+
+  /**
+   * An offer and a poll on the same thread, the uncontended cost of a hand-off
+   */
+  @Benchmark
+  public Object offerPoll() {
+    queue.offer(ITEM);
+    return queue.poll();
+  }
+
+  /**
+   * The producer side of a hand-off between two threads, like the slave and the gateway
+   */
+  @Benchmark
+  @Group("handOff")
+  @GroupThreads(1)
+  public boolean offer() {
+    if (queue.size() < MAX_QUEUED_ITEMS) {
+      return queue.offer(ITEM);
+    }
+    return false;
+  }
+
+  /**
+   * The consumer side of a hand-off between two threads
+   */
+  @Benchmark
+  @Group("handOff")
+  @GroupThreads(1)
+  public Object poll() {
+    return queue.poll();
+  }
+}
@@ -0,0 +1,105 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.apache.heron.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.google.protobuf.Message;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.apache.heron.api.serializer.IPluggableSerializer;
+import org.apache.heron.api.serializer.JavaSerializer;
+import org.apache.heron.common.basics.Communicator;
+import org.apache.heron.instance.OutgoingTupleCollection;
+import org.apache.heron.proto.system.HeronTuples;
+
+/**
+ * OutgoingTupleCollection batching the tuples a spout emits into HeronTupleSets, and flushing
+ * them to the out queue at the end of a round of the slave.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class OutgoingTupleCollectionBenchmark {
+  // # of tuples added before each flush
+  @Param({"1", "100"})
+  public int tuplesPerFlush;
+
+  private Communicator<Message> outQueue;
+  private OutgoingTupleCollection collection;
+  private String streamId;
+  private HeronTuples.HeronDataTuple.Builder dataTuple;
+  private long dataTupleSize;
+
+  @Setup
+  public void setUp() {
+    BenchmarkPlans.getSystemConfig();
+    outQueue = new Communicator<>(null, null);
+    collection = new OutgoingTupleCollection(
+        BenchmarkPlans.getPhysicalPlanHelper(
+            BenchmarkPlans.getPhysicalPlan(), BenchmarkPlans.SPOUT_INSTANCE_ID),
+        outQueue, new ReentrantLock());
+    streamId = BenchmarkPlans.getStreamId().getId();
+
+    IPluggableSerializer serializer = new JavaSerializer();
+    serializer.initialize(null);
+    dataTuple = BenchmarkPlans.getDataTuple(serializer, 0);
+    dataTupleSize = dataTuple.build().getSerializedSize();
+  }
+
+  /**
+   * Add one tuple to the current HeronTupleSet, which is queued whenever it is full
+   */
+  @Benchmark
+  public Message addDataTuple() {
+    collection.addDataTuple(streamId, dataTuple, dataTupleSize);
+    return outQueue.poll();
+  }
+
+  /**
+   * Add tuplesPerFlush tuples and queue them as one HeronTupleSet, like a round of the slave
+   */
+  @Benchmark
+  public Message addAndFlush() {
+    for (int i = 0; i < tuplesPerFlush; i++) {
+      collection.addDataTuple(streamId, dataTuple, dataTupleSize);
+    }
+    collection.sendOutTuples();
+    Message tupleSet = outQueue.poll();
+    outQueue.clear();
+    return tupleSet;
+  }
+}
@@ -0,0 +1,158 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.apache.heron.benchmarks;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.apache.heron.api.serializer.IPluggableSerializer;
+import org.apache.heron.api.serializer.JavaSerializer;
+import org.apache.heron.common.network.ByteBufferPool;
+import org.apache.heron.common.network.IncomingPacket;
+import org.apache.heron.common.network.OutgoingPacket;
+import org.apache.heron.common.network.REQID;
+import org.apache.heron.proto.system.HeronTuples;
+
+/**
+ * OutgoingPacket framing a HeronTupleSet2, and the round trip of the packet through a loopback
+ * socket into an IncomingPacket, with and without a ByteBufferPool.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class PacketBenchmark {
+  private static final int MAX_POOLED_BUFFER_SIZE = 1 << 20;
+  private static final int MAX_BUFFERS_PER_SIZE_CLASS = 4;
+  // Large enough for a whole packet, so that it could be written before it is read back
+  private static final int SOCKET_BUFFER_SIZE = 1 << 20;
+
+  // # of tuples in each packet
+  @Param({"1", "100"})
+  public int tuplesPerPacket;
+
+  @Param({"none", "heap", "direct"})
+  public String bufferPoolType;
+
+  private ByteBufferPool bufferPool;
+  private HeronTuples.HeronTupleSet2 tupleSet;
+
+  private ServerSocketChannel serverChannel;
+  private SocketChannel writeChannel;
+  private SocketChannel readChannel;
+
+  @Setup
+  public void setUp() throws IOException {
+    if ("none".equals(bufferPoolType)) {
+      bufferPool = null;
+    } else {
+      bufferPool = new ByteBufferPool(MAX_POOLED_BUFFER_SIZE, MAX_BUFFERS_PER_SIZE_CLASS,
+          "direct".equals(bufferPoolType));
+    }
+
+    IPluggableSerializer serializer = new JavaSerializer();
+    serializer.initialize(null);
+    HeronTuples.HeronDataTupleSet2.Builder dataTupleSet =
+        HeronTuples.HeronDataTupleSet2.newBuilder();
+    dataTupleSet.setStream(BenchmarkPlans.getStreamId());
+    for (int i = 0; i < tuplesPerPacket; i++) {
+      dataTupleSet.addTuples(BenchmarkPlans.getDataTuple(serializer, i).build().toByteString());
+    }
+    tupleSet = HeronTuples.HeronTupleSet2.newBuilder()
+        .setSrcTaskId(BenchmarkPlans.SPOUT_TASK_ID)
+        .setData(dataTupleSet)
+        .build();
+
+    serverChannel = ServerSocketChannel.open();
+    // The accepted channel inherits the receive buffer size of the server channel
+    serverChannel.setOption(StandardSocketOptions.SO_RCVBUF, SOCKET_BUFFER_SIZE);
+    serverChannel.bind(new InetSocketAddress("127.0.0.1", 0));
+    writeChannel = SocketChannel.open(serverChannel.getLocalAddress());
+    writeChannel.setOption(StandardSocketOptions.SO_SNDBUF, SOCKET_BUFFER_SIZE);
+    writeChannel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+    readChannel = serverChannel.accept();
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    writeChannel.close();
+    readChannel.close();
+    serverChannel.close();
+  }
+
+  /**
+   * Encode the tuples into a packet ready to be written out
+   */
+  @Benchmark
+  public int frame() {
+    OutgoingPacket packet = new OutgoingPacket(REQID.zeroREQID, tupleSet, bufferPool);
+    int size = packet.size();
+    packet.release();
+    return size;
+  }
+
+  /**
+   * Encode the tuples into a packet, write it to the socket, read it back and decode it
+   */
+  @Benchmark
+  public HeronTuples.HeronTupleSet2 roundTrip() {
+    OutgoingPacket outgoingPacket = new OutgoingPacket(REQID.zeroREQID, tupleSet, bufferPool);
+    // The channels are blocking, so the whole packet is written at once
+    if (outgoingPacket.writeToChannel(writeChannel) != 0) {
+      throw new RuntimeException("Failed to write the packet");
+    }
+    outgoingPacket.release();
+
+    IncomingPacket incomingPacket = new IncomingPacket(bufferPool);
+    int remaining;
+    do {
+      remaining = incomingPacket.readFromChannel(readChannel);
+    } while (remaining > 0);
+    if (remaining < 0) {
+      throw new RuntimeException("Failed to read the packet");
+    }
+    incomingPacket.unpackString();
+    incomingPacket.unpackREQID();
+    HeronTuples.HeronTupleSet2.Builder builder = HeronTuples.HeronTupleSet2.newBuilder();
+    incomingPacket.unpackMessage(builder);
+    incomingPacket.release();
+    return builder.build();
+  }
+}
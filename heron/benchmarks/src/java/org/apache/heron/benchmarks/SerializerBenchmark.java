@@ -0,0 +1,92 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.apache.heron.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.apache.heron.api.serializer.IPluggableSerializer;
+import org.apache.heron.api.serializer.JavaSerializer;
+import org.apache.heron.streamlet.impl.KryoSerializer;
+
+/**
+ * KryoSerializer versus JavaSerializer, on a plain value and on a list of values like the
+ * ones the streamlet operators emit.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SerializerBenchmark {
+  private static final int LIST_SIZE = 16;
+
+  @Param({"java", "kryo"})
+  public String serializerType;
+
+  @Param({"string", "list"})
+  public String valueType;
+
+  private IPluggableSerializer serializer;
+  private Object value;
+  private byte[] serializedValue;
+
+  @Setup
+  public void setUp() {
+    serializer = "kryo".equals(serializerType) ? new KryoSerializer() : new JavaSerializer();
+    serializer.initialize(null);
+
+    if ("list".equals(valueType)) {
+      List<Object> list = new ArrayList<>(LIST_SIZE);
+      for (int i = 0; i < LIST_SIZE; i++) {
+        list.add(i % 2 == 0 ? "word-" + i : Long.valueOf(i));
+      }
+      value = list;
+    } else {
+      value = "the quick brown fox jumps over the lazy dog";
+    }
+    serializedValue = serializer.serialize(value);
+  }
+
+  @Benchmark
+  public byte[] serialize() {
+    return serializer.serialize(value);
+  }
+
+  @Benchmark
+  public Object deserialize() {
+    return serializer.deserialize(serializedValue);
+  }
+}
@@ -0,0 +1,143 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.apache.heron.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.apache.heron.api.windowing.DefaultEvictionContext;
+import org.apache.heron.api.windowing.WindowLifecycleListener;
+import org.apache.heron.api.windowing.WindowManager;
+import org.apache.heron.api.windowing.evictors.CountEvictionPolicy;
+import org.apache.heron.api.windowing.triggers.CountTriggerPolicy;
+
+/**
+ * WindowManager of a sliding count window: adding events, which activates the window every
+ * slidingInterval events, and activating a full window on its own.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WindowManagerBenchmark {
+
+  /**
+   * A window activated by its trigger policy every slidingInterval events
+   */
+  @State(Scope.Thread)
+  public static class SlidingWindow {
+    @Param("1000")
+    public int windowLength;
+
+    @Param({"10", "100"})
+    public int slidingInterval;
+
+    private WindowManager<Integer> windowManager;
+    private int nextEvent;
+
+    @Setup(Level.Iteration)
+    public void setUp(Blackhole blackhole) {
+      windowManager = newWindowManager(blackhole, windowLength, slidingInterval);
+      nextEvent = 0;
+    }
+  }
+
+  /**
+   * A window holding windowLength events, whose trigger policy never fires by itself
+   */
+  @State(Scope.Thread)
+  public static class FullWindow {
+    @Param("1000")
+    public int windowLength;
+
+    private WindowManager<Integer> windowManager;
+
+    @Setup(Level.Iteration)
+    public void setUp(Blackhole blackhole) {
+      windowManager = newWindowManager(blackhole, windowLength, Integer.MAX_VALUE);
+      for (int i = 0; i < windowLength; i++) {
+        windowManager.add(i);
+      }
+    }
+  }
+
+  @Benchmark
+  public void add(SlidingWindow window) {
+    window.windowManager.add(window.nextEvent++);
+  }
+
+  @Benchmark
+  public boolean onTrigger(FullWindow window) {
+    return window.windowManager.onTrigger();
+  }
+
+  private static WindowManager<Integer> newWindowManager(Blackhole blackhole, int windowLength,
+                                                         int slidingInterval) {
+    WindowManager<Integer> windowManager = new WindowManager<>(new Listener(blackhole));
+    CountEvictionPolicy<Integer> evictionPolicy = new CountEvictionPolicy<>(windowLength);
+    // The trigger policy sets it on every activation, onTrigger() alone needs it set up front
+    evictionPolicy.setContext(new DefaultEvictionContext(System.currentTimeMillis()));
+    CountTriggerPolicy<Integer> triggerPolicy = new CountTriggerPolicy<>(slidingInterval);
+    triggerPolicy.setTriggerHandler(windowManager);
+    triggerPolicy.setEvictionPolicy(evictionPolicy);
+    triggerPolicy.start();
+    windowManager.setEvictionPolicy(evictionPolicy);
+    windowManager.setTriggerPolicy(triggerPolicy);
+    return windowManager;
+  }
+
+  // Hands the windows to the blackhole, so that building them is not optimized away
+  private static final class Listener implements WindowLifecycleListener<Integer> {
+    private final Blackhole blackhole;
+
+    Listener(Blackhole blackhole) {
+      this.blackhole = blackhole;
+    }
+
+    @Override
+    public void onExpiry(List<Integer> events) {
+      blackhole.consume(events);
+    }
+
+    @Override
+    public void onActivation(List<Integer> events, List<Integer> newEvents,
+                             List<Integer> expired, Long referenceTime) {
+      blackhole.consume(events);
+      blackhole.consume(newEvents);
+      blackhole.consume(expired);
+    }
+  }
+}
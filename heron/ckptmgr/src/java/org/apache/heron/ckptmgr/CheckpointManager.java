@@ -164,7 +164,8 @@ public class CheckpointManager {
     // Start the server
     this.checkpointManagerServer = new CheckpointManagerServer(
         topologyName, topologyId, checkpointMgrId, statefulStorage,
-        checkpointManagerServerLoop, serverHost, serverPort, serverSocketOptions);
+        checkpointManagerServerLoop, serverHost, serverPort, serverSocketOptions,
+        checkpointManagerConfig);
   }
 
   public void startAndLoop() {
@@ -85,6 +85,18 @@ public final class CheckpointManagerConfig {
     return getByteAmount(CheckpointManagerConfigKey.MAXIMUM_PACKET_SIZE);
   }
 
+  public int getStorageThreads() {
+    return getInteger(CheckpointManagerConfigKey.STORAGE_THREADS);
+  }
+
+  public int getStorageMaxPendingOperations() {
+    return getInteger(CheckpointManagerConfigKey.STORAGE_MAX_PENDING_OPERATIONS);
+  }
+
+  public int getStorageMaxConcurrentPerCheckpoint() {
+    return getInteger(CheckpointManagerConfigKey.STORAGE_MAX_CONCURRENT_PER_CHECKPOINT);
+  }
+
   private String getString(CheckpointManagerConfigKey key) {
     assertType(key, CheckpointManagerConfigKey.Type.STRING);
     return (String) get(key);
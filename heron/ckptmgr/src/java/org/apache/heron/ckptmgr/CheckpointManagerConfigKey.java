@@ -74,7 +74,23 @@ public enum CheckpointManagerConfigKey {
    * The maximum size of a packet that can be read by the checkpoint manager
    */
   MAXIMUM_PACKET_SIZE(
-      "heron.ckptmgr.network.options.maximum.packetsize.bytes", Type.BYTE_AMOUNT);
+      "heron.ckptmgr.network.options.maximum.packetsize.bytes", Type.BYTE_AMOUNT),
+
+  /**
+   * The number of threads running store and restore operations against the stateful storage
+   */
+  STORAGE_THREADS("heron.ckptmgr.storage.threads", 4),
+
+  /**
+   * The maximum number of storage operations pending at once; more are failed immediately
+   */
+  STORAGE_MAX_PENDING_OPERATIONS("heron.ckptmgr.storage.max.pending.operations", 1024),
+
+  /**
+   * The maximum number of storage operations of a single checkpoint running at once
+   */
+  STORAGE_MAX_CONCURRENT_PER_CHECKPOINT(
+      "heron.ckptmgr.storage.max.concurrent.operations.per.checkpoint", 4);
 
   private final String value;
   private final Object defaultValue;
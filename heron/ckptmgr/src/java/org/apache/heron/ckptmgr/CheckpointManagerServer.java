@@ -45,6 +45,8 @@ public class CheckpointManagerServer extends HeronServer {
   private final String topologyId;
   private final String checkpointMgrId;
   private final IStatefulStorage statefulStorage;
+  // Runs the store and restore operations off the looper's thread
+  private final CheckpointStorageExecutor storageExecutor;
 
   private SocketChannel connection;
 
@@ -57,12 +59,30 @@ public class CheckpointManagerServer extends HeronServer {
       String host,
       int port,
       HeronSocketOptions options) {
+    this(topologyName, topologyId, checkpointMgrId, statefulStorage, looper, host, port, options,
+        CheckpointManagerConfig.newBuilder(true).build());
+  }
+
+  public CheckpointManagerServer(
+      String topologyName,
+      String topologyId,
+      String checkpointMgrId,
+      IStatefulStorage statefulStorage,
+      NIOLooper looper,
+      String host,
+      int port,
+      HeronSocketOptions options,
+      CheckpointManagerConfig checkpointManagerConfig) {
     super(looper, host, port, options);
 
     this.topologyName = topologyName;
     this.topologyId = topologyId;
     this.checkpointMgrId = checkpointMgrId;
     this.statefulStorage = statefulStorage;
+    this.storageExecutor = new CheckpointStorageExecutor(looper,
+        checkpointManagerConfig.getStorageThreads(),
+        checkpointManagerConfig.getStorageMaxPendingOperations(),
+        checkpointManagerConfig.getStorageMaxConcurrentPerCheckpoint());
 
     this.connection = null;
 
@@ -220,30 +240,37 @@ public class CheckpointManagerServer extends HeronServer {
                            info.getInstanceId(),
                            channel.socket().getRemoteSocketAddress()));
 
-    Common.StatusCode statusCode = Common.StatusCode.OK;
-    String errorMessage = "";
-    try {
-      statefulStorage.storeCheckpoint(info, checkpoint);
-      LOG.info(String.format("Saved checkpoint for checkpointId %s compnent %s instanceId %s",
-                             info.getCheckpointId(), info.getComponent(),
-                             info.getInstanceId()));
-    } catch (StatefulStorageException e) {
-      errorMessage = String.format("Save checkpoint not successful for checkpointId "
-                                   + "%s component %s instanceId %s",
+    storageExecutor.submit(info.getCheckpointId(),
+        CheckpointStorageExecutor.OperationType.STORE,
+        () -> {
+          statefulStorage.storeCheckpoint(info, checkpoint);
+          return null;
+        },
+        (result, failure) -> {
+          Common.StatusCode statusCode = Common.StatusCode.OK;
+          String errorMessage = "";
+          if (failure == null) {
+            LOG.info(String.format("Saved checkpoint for checkpointId %s compnent %s instanceId %s",
                                    info.getCheckpointId(), info.getComponent(),
-                                   info.getInstanceId());
-      statusCode = Common.StatusCode.NOTOK;
-      LOG.log(Level.WARNING, errorMessage, e);
-    }
-
-    CheckpointManager.SaveInstanceStateResponse.Builder responseBuilder =
-        CheckpointManager.SaveInstanceStateResponse.newBuilder();
-    responseBuilder.setStatus(Common.Status.newBuilder().setStatus(statusCode)
-                              .setMessage(errorMessage));
-    responseBuilder.setCheckpointId(request.getCheckpoint().getCheckpointId());
-    responseBuilder.setInstance(request.getInstance());
-
-    sendResponse(rid, channel, responseBuilder.build());
+                                   info.getInstanceId()));
+          } else {
+            errorMessage = String.format("Save checkpoint not successful for checkpointId "
+                                         + "%s component %s instanceId %s",
+                                         info.getCheckpointId(), info.getComponent(),
+                                         info.getInstanceId());
+            statusCode = Common.StatusCode.NOTOK;
+            LOG.log(Level.WARNING, errorMessage, failure);
+          }
+
+          CheckpointManager.SaveInstanceStateResponse.Builder responseBuilder =
+              CheckpointManager.SaveInstanceStateResponse.newBuilder();
+          responseBuilder.setStatus(Common.Status.newBuilder().setStatus(statusCode)
+                                    .setMessage(errorMessage));
+          responseBuilder.setCheckpointId(request.getCheckpoint().getCheckpointId());
+          responseBuilder.setInstance(request.getInstance());
+
+          sendResponse(rid, channel, responseBuilder.build());
+        });
   }
 
   protected void handleGetInstanceStateRequest(
@@ -263,9 +290,6 @@ public class CheckpointManagerServer extends HeronServer {
         CheckpointManager.GetInstanceStateResponse.newBuilder();
     responseBuilder.setInstance(request.getInstance());
     responseBuilder.setCheckpointId(request.getCheckpointId());
-    String errorMessage = "";
-
-    Common.StatusCode statusCode = Common.StatusCode.OK;
     if (!request.hasCheckpointId() || request.getCheckpointId().isEmpty()) {
       LOG.info("The checkpoint id was empty, this sending empty state");
       CheckpointManager.InstanceStateCheckpoint dummyState =
@@ -274,31 +298,42 @@ public class CheckpointManagerServer extends HeronServer {
               .setState(ByteString.EMPTY).build();
 
       responseBuilder.setCheckpoint(dummyState);
-    } else {
-      try {
-        Checkpoint checkpoint = statefulStorage.restoreCheckpoint(info);
-        LOG.info(String.format("Get checkpoint successful for checkpointId %s "
-                               + "component %s instanceId %d",
-                               info.getCheckpointId(),
-                               info.getComponent(),
-                               info.getInstanceId()));
-        // Set the checkpoint-state in response
-        responseBuilder.setCheckpoint(checkpoint.getCheckpoint());
-      } catch (StatefulStorageException e) {
-        errorMessage = String.format("Get checkpoint not successful for checkpointId %s "
-                                     + "component %s instanceId %d",
-                                     info.getCheckpointId(),
-                                     info.getComponent(),
-                                     info.getInstanceId());
-        LOG.log(Level.WARNING, errorMessage, e);
-        statusCode = Common.StatusCode.NOTOK;
-      }
-    }
+      responseBuilder.setStatus(Common.Status.newBuilder().setStatus(Common.StatusCode.OK)
+                                .setMessage(""));
 
-    responseBuilder.setStatus(Common.Status.newBuilder().setStatus(statusCode)
-                              .setMessage(errorMessage));
+      sendResponse(rid, channel, responseBuilder.build());
+      return;
+    }
 
-    sendResponse(rid, channel, responseBuilder.build());
+    storageExecutor.submit(info.getCheckpointId(),
+        CheckpointStorageExecutor.OperationType.RESTORE,
+        () -> statefulStorage.restoreCheckpointChain(info),
+        (checkpoint, failure) -> {
+          Common.StatusCode statusCode = Common.StatusCode.OK;
+          String errorMessage = "";
+          if (failure == null) {
+            LOG.info(String.format("Get checkpoint successful for checkpointId %s "
+                                   + "component %s instanceId %d",
+                                   info.getCheckpointId(),
+                                   info.getComponent(),
+                                   info.getInstanceId()));
+            // Set the checkpoint-state in response
+            responseBuilder.setCheckpoint(checkpoint.getCheckpoint());
+          } else {
+            errorMessage = String.format("Get checkpoint not successful for checkpointId %s "
+                                         + "component %s instanceId %d",
+                                         info.getCheckpointId(),
+                                         info.getComponent(),
+                                         info.getInstanceId());
+            LOG.log(Level.WARNING, errorMessage, failure);
+            statusCode = Common.StatusCode.NOTOK;
+          }
+
+          responseBuilder.setStatus(Common.Status.newBuilder().setStatus(statusCode)
+                                    .setMessage(errorMessage));
+
+          sendResponse(rid, channel, responseBuilder.build());
+        });
   }
 
   @Override
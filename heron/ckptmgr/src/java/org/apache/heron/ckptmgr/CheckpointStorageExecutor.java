@@ -0,0 +1,301 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.heron.ckptmgr;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.heron.common.basics.Communicator;
+import org.apache.heron.common.basics.WakeableLooper;
+import org.apache.heron.spi.statefulstorage.StatefulStorageException;
+
+/**
+ * CheckpointStorageExecutor runs the IStatefulStorage operations of the CheckpointManagerServer
+ * on a fixed pool of worker threads, so that one slow write to the storage does not stall
+ * the looper serving every other instance in the container.
+ * <p>
+ * submit() must be called from the looper's thread. The operation runs on a worker and its
+ * completion is posted back through a Communicator, so completions also run on the looper's
+ * thread and may send responses directly. Besides the size of the pool, it limits:
+ * 1. The operations that may be pending at once; above it, operations fail immediately
+ * 2. The operations of one checkpoint that may run at once; the rest wait in submission order
+ * <p>
+ * The number of pending operations and the latency of store and restore operations are
+ * logged every METRICS_LOG_INTERVAL while there is activity.
+ */
+public class CheckpointStorageExecutor {
+  private static final Logger LOG = Logger.getLogger(CheckpointStorageExecutor.class.getName());
+
+  private static final Duration METRICS_LOG_INTERVAL = Duration.ofMinutes(1);
+
+  /**
+   * An operation against the stateful storage, run on a worker thread
+   */
+  public interface StorageOperation<T> {
+    T run() throws StatefulStorageException;
+  }
+
+  /**
+   * Invoked on the looper's thread with either the result or the failure of an operation
+   */
+  public interface Completion<T> {
+    void onComplete(T result, StatefulStorageException failure);
+  }
+
+  public enum OperationType {
+    STORE,
+    RESTORE
+  }
+
+  private final WakeableLooper looper;
+  private final ExecutorService workers;
+  private final Communicator<Runnable> completions;
+  private final int maxPendingOperations;
+  private final int maxConcurrentPerCheckpoint;
+
+  // Only accessed from the looper's thread
+  private final Map<String, CheckpointOperations> checkpoints = new HashMap<>();
+  private int pendingOperations;
+  private final LatencyStats storeLatency = new LatencyStats();
+  private final LatencyStats restoreLatency = new LatencyStats();
+  private long rejectedOperations;
+  private boolean activeSinceLastLog;
+
+  public CheckpointStorageExecutor(WakeableLooper looper,
+                                   int numThreads,
+                                   int maxPendingOperations,
+                                   int maxConcurrentPerCheckpoint) {
+    if (numThreads <= 0 || maxPendingOperations <= 0 || maxConcurrentPerCheckpoint <= 0) {
+      throw new IllegalArgumentException(String.format(
+          "Invalid checkpoint storage limits: %d threads, %d pending, %d per checkpoint",
+          numThreads, maxPendingOperations, maxConcurrentPerCheckpoint));
+    }
+    this.looper = looper;
+    this.maxPendingOperations = maxPendingOperations;
+    this.maxConcurrentPerCheckpoint = maxConcurrentPerCheckpoint;
+    this.workers = Executors.newFixedThreadPool(numThreads, new WorkerThreadFactory());
+
+    this.completions = new Communicator<>(null, looper);
+    looper.addTasksOnWakeup(new Runnable() {
+      @Override
+      public void run() {
+        runCompletions();
+      }
+    });
+    looper.registerPeriodicEvent(METRICS_LOG_INTERVAL, new Runnable() {
+      @Override
+      public void run() {
+        logMetrics();
+      }
+    });
+    looper.addTasksOnExit(new Runnable() {
+      @Override
+      public void run() {
+        workers.shutdownNow();
+      }
+    });
+  }
+
+  /**
+   * Run the operation for the given checkpoint on a worker thread
+   */
+  public <T> void submit(String checkpointId, OperationType type,
+                         StorageOperation<T> operation, Completion<T> completion) {
+    if (pendingOperations >= maxPendingOperations) {
+      rejectedOperations++;
+      activeSinceLastLog = true;
+      completion.onComplete(null, new StatefulStorageException(String.format(
+          "Too many pending checkpoint storage operations: %d", pendingOperations)));
+      return;
+    }
+    pendingOperations++;
+
+    CheckpointOperations ops = checkpoints.get(checkpointId);
+    if (ops == null) {
+      ops = new CheckpointOperations();
+      checkpoints.put(checkpointId, ops);
+    }
+    Task<T> task = new Task<>(checkpointId, type, operation, completion);
+    if (ops.running < maxConcurrentPerCheckpoint) {
+      dispatch(ops, task);
+    } else {
+      ops.waiting.add(task);
+    }
+  }
+
+  /**
+   * Get the number of operations submitted but not completed yet
+   */
+  public int getPendingOperations() {
+    return pendingOperations;
+  }
+
+  public long getRejectedOperations() {
+    return rejectedOperations;
+  }
+
+  public LatencyStats getStoreLatency() {
+    return storeLatency;
+  }
+
+  public LatencyStats getRestoreLatency() {
+    return restoreLatency;
+  }
+
+  private void dispatch(CheckpointOperations ops, Task<?> task) {
+    ops.running++;
+    workers.execute(task);
+  }
+
+  private void runCompletions() {
+    Runnable completion = completions.poll();
+    while (completion != null) {
+      completion.run();
+      completion = completions.poll();
+    }
+  }
+
+  private <T> void complete(Task<T> task, T result,
+                            StatefulStorageException failure, long latencyNanos) {
+    pendingOperations--;
+    activeSinceLastLog = true;
+    (task.type == OperationType.STORE ? storeLatency : restoreLatency).record(latencyNanos);
+
+    CheckpointOperations ops = checkpoints.get(task.checkpointId);
+    ops.running--;
+    if (!ops.waiting.isEmpty()) {
+      dispatch(ops, ops.waiting.poll());
+    } else if (ops.running == 0) {
+      checkpoints.remove(task.checkpointId);
+    }
+
+    task.completion.onComplete(result, failure);
+  }
+
+  private void logMetrics() {
+    if (!activeSinceLastLog) {
+      return;
+    }
+    activeSinceLastLog = false;
+    LOG.info(String.format("Checkpoint storage: %d pending operations, %d rejected; "
+                           + "store %s; restore %s",
+                           pendingOperations, rejectedOperations, storeLatency, restoreLatency));
+  }
+
+  /**
+   * Count, mean and max latency of the completed operations of one type
+   */
+  public static final class LatencyStats {
+    private long count;
+    private long totalNanos;
+    private long maxNanos;
+
+    private void record(long latencyNanos) {
+      count++;
+      totalNanos += latencyNanos;
+      maxNanos = Math.max(maxNanos, latencyNanos);
+    }
+
+    public long getCount() {
+      return count;
+    }
+
+    public Duration getMean() {
+      return count == 0 ? Duration.ZERO : Duration.ofNanos(totalNanos / count);
+    }
+
+    public Duration getMax() {
+      return Duration.ofNanos(maxNanos);
+    }
+
+    @Override
+    public String toString() {
+      return String.format("count %d, mean latency %d ms, max latency %d ms",
+          count, getMean().toMillis(), getMax().toMillis());
+    }
+  }
+
+  // The running and waiting operations of one checkpoint
+  private static final class CheckpointOperations {
+    private int running;
+    private final ArrayDeque<Task<?>> waiting = new ArrayDeque<>();
+  }
+
+  private final class Task<T> implements Runnable {
+    private final String checkpointId;
+    private final OperationType type;
+    private final StorageOperation<T> operation;
+    private final Completion<T> completion;
+
+    private Task(String checkpointId, OperationType type,
+                 StorageOperation<T> operation, Completion<T> completion) {
+      this.checkpointId = checkpointId;
+      this.type = type;
+      this.operation = operation;
+      this.completion = completion;
+    }
+
+    @Override
+    public void run() {
+      long start = System.nanoTime();
+      T result = null;
+      StatefulStorageException failure = null;
+      try {
+        result = operation.run();
+      } catch (StatefulStorageException e) {
+        failure = e;
+
+        // SUPPRESS CHECKSTYLE IllegalCatch
+      } catch (RuntimeException e) {
+        LOG.log(Level.SEVERE, "Checkpoint storage operation threw unexpectedly", e);
+        failure = new StatefulStorageException("Checkpoint storage operation failed", e);
+      }
+      long latencyNanos = System.nanoTime() - start;
+
+      final T finalResult = result;
+      final StatefulStorageException finalFailure = failure;
+      completions.offer(new Runnable() {
+        @Override
+        public void run() {
+          complete(Task.this, finalResult, finalFailure, latencyNanos);
+        }
+      });
+    }
+  }
+
+  private static final class WorkerThreadFactory implements ThreadFactory {
+    private final AtomicInteger count = new AtomicInteger();
+
+    @Override
+    public Thread newThread(Runnable r) {
+      Thread thread = new Thread(r, "checkpoint-storage-" + count.getAndIncrement());
+      thread.setDaemon(true);
+      return thread;
+    }
+  }
+}
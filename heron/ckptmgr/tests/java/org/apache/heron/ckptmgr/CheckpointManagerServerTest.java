@@ -176,7 +176,7 @@ public class CheckpointManagerServerTest {
   public void testGetInstanceState() throws Exception {
     final CheckpointInfo info = new CheckpointInfo(CHECKPOINT_ID, instance);
     final Checkpoint checkpoint = new Checkpoint(checkpointPartition);
-    when(statefulStorage.restoreCheckpoint(any(CheckpointInfo.class)))
+    when(statefulStorage.restoreCheckpointChain(any(CheckpointInfo.class)))
         .thenReturn(checkpoint);
 
     runTest(TestRequestHandler.RequestType.GET_INSTANCE_STATE,
@@ -186,7 +186,7 @@ public class CheckpointManagerServerTest {
               @Override
               public void handleResponse(HeronClient client, StatusCode status,
                                          Object ctx, Message response) throws Exception {
-                verify(statefulStorage).restoreCheckpoint(info);
+                verify(statefulStorage).restoreCheckpointChain(info);
                 assertEquals(checkpoint.getCheckpoint(),
                     ((CheckpointManager.GetInstanceStateResponse) response).getCheckpoint());
               }
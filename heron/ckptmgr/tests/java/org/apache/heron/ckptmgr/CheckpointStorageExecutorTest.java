@@ -0,0 +1,155 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.heron.ckptmgr;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.apache.heron.common.basics.NIOLooper;
+import org.apache.heron.spi.statefulstorage.StatefulStorageException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class CheckpointStorageExecutorTest {
+  private NIOLooper looper;
+  private Thread looperThread;
+  private List<Object> results;
+  private List<StatefulStorageException> failures;
+
+  @Before
+  public void before() throws IOException {
+    looper = new NIOLooper();
+    results = new ArrayList<>();
+    failures = new ArrayList<>();
+  }
+
+  @After
+  public void after() throws InterruptedException {
+    looper.exitLoop();
+    if (looperThread != null) {
+      looperThread.join();
+    }
+  }
+
+  /**
+   * Submit the operations from the looper's thread, and run the looper until count of them
+   * completed
+   */
+  private void runOnLooper(int count, Runnable submit) throws InterruptedException {
+    CountDownLatch done = new CountDownLatch(count);
+    looper.registerTimerEvent(Duration.ZERO, submit);
+    looper.addTasksOnWakeup(() -> {
+      while (count - done.getCount() < results.size() + failures.size()) {
+        done.countDown();
+      }
+    });
+    looperThread = new Thread(looper::loop);
+    looperThread.start();
+    assertTrue(done.await(10, TimeUnit.SECONDS));
+  }
+
+  private <T> CheckpointStorageExecutor.Completion<T> collect() {
+    return (result, failure) -> {
+      if (failure == null) {
+        results.add(result);
+      } else {
+        failures.add(failure);
+      }
+    };
+  }
+
+  @Test
+  public void testResultsAndFailures() throws Exception {
+    CheckpointStorageExecutor executor = new CheckpointStorageExecutor(looper, 2, 16, 2);
+    runOnLooper(2, () -> {
+      executor.submit("ckpt", CheckpointStorageExecutor.OperationType.RESTORE,
+          () -> "state", collect());
+      executor.submit("ckpt", CheckpointStorageExecutor.OperationType.STORE,
+          () -> {
+            throw new StatefulStorageException("store failed");
+          }, collect());
+    });
+
+    assertEquals(1, results.size());
+    assertEquals("state", results.get(0));
+    assertEquals(1, failures.size());
+    assertEquals("store failed", failures.get(0).getMessage());
+    assertEquals(1, executor.getStoreLatency().getCount());
+    assertEquals(1, executor.getRestoreLatency().getCount());
+    assertEquals(0, executor.getPendingOperations());
+  }
+
+  @Test
+  public void testConcurrencyPerCheckpoint() throws Exception {
+    CheckpointStorageExecutor executor = new CheckpointStorageExecutor(looper, 4, 64, 1);
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger maxRunning = new AtomicInteger();
+    CheckpointStorageExecutor.StorageOperation<Object> operation = () -> {
+      maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+      try {
+        Thread.sleep(5);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      running.decrementAndGet();
+      return null;
+    };
+
+    runOnLooper(8, () -> {
+      for (int i = 0; i < 8; i++) {
+        executor.submit("ckpt", CheckpointStorageExecutor.OperationType.STORE,
+            operation, collect());
+      }
+    });
+
+    assertEquals(8, results.size());
+    assertEquals(1, maxRunning.get());
+    assertEquals(0, executor.getPendingOperations());
+  }
+
+  @Test
+  public void testRejectWhenTooManyPending() throws Exception {
+    CheckpointStorageExecutor executor = new CheckpointStorageExecutor(looper, 1, 2, 1);
+    runOnLooper(3, () -> {
+      for (int i = 0; i < 3; i++) {
+        executor.submit("ckpt-" + i, CheckpointStorageExecutor.OperationType.STORE,
+            () -> null, collect());
+      }
+    });
+
+    assertEquals(2, results.size());
+    assertNull(results.get(0));
+    assertEquals(1, failures.size());
+    assertNotNull(failures.get(0).getMessage());
+    assertEquals(1, executor.getRejectedOperations());
+  }
+}
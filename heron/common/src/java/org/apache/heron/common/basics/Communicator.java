@@ -20,6 +20,7 @@
 package org.apache.heron.common.basics;
 
 import java.util.Collection;
+import java.util.Queue;
 import java.util.concurrent.LinkedTransferQueue;
 
 /**
@@ -34,13 +35,29 @@ import java.util.concurrent.LinkedTransferQueue;
  * <p>
  * However, in order to avoid GC issues and keep high performance, we would have a dynamical tuning
  * Queue's expected capacity, see updateExpectedAvailableCapacity() below.
+ * <p>
+ * When exactly one thread offers and exactly one thread polls, newSingleProducerSingleConsumer()
+ * builds a Communicator on top of a SpscRingBuffer instead. In that mode offer() does not allocate,
+ * and the consumer is only waken up when it has seen the queue empty, i.e. when it may be parked,
+ * rather than on every offer.
  */
 
 public class Communicator<E> {
   /**
    * The buffer queue underneath, an unbound queue.
    */
-  private final LinkedTransferQueue<E> buffer;
+  private final Queue<E> buffer;
+
+  /**
+   * The same object as buffer when backed by a SpscRingBuffer, otherwise null
+   */
+  private final SpscRingBuffer<E> ringBuffer;
+
+  /**
+   * Only used with a ring buffer. Set by the consumer when it observes the queue empty and
+   * cleared when it polls an item; the producer wakes up the consumer only while it is set.
+   */
+  private volatile boolean isConsumerIdle;
 
   /*
    * The producer offers item into the queue, and it will be wake up when consumer polls a item.
@@ -106,6 +123,7 @@ public class Communicator<E> {
     this.producer = producer;
     this.consumer = consumer;
     this.buffer = new LinkedTransferQueue<E>();
+    this.ringBuffer = null;
   }
 
   public Communicator() {
@@ -113,6 +131,32 @@ public class Communicator<E> {
     this.producer = null;
     this.consumer = null;
     this.buffer = new LinkedTransferQueue<E>();
+    this.ringBuffer = null;
+  }
+
+  private Communicator(WakeableLooper producer, WakeableLooper consumer,
+                       SpscRingBuffer<E> ringBuffer) {
+    this.producer = producer;
+    this.consumer = consumer;
+    this.buffer = ringBuffer;
+    this.ringBuffer = ringBuffer;
+    // The consumer has not polled anything yet, so the first offer must wake it up
+    this.isConsumerIdle = true;
+  }
+
+  /**
+   * Create a Communicator backed by a lock-free single-producer single-consumer ring buffer.
+   * offer() must only be called from the producer's thread, and poll(), peek() and drainTo()
+   * only from the consumer's thread.
+   *
+   * @param producer would be waken up when items are consumed from queue
+   * @param consumer would be waken up when items are produced into an idle queue
+   * @param ringCapacity the number of slots in the ring, rounded up to a power of two
+   */
+  public static <E> Communicator<E> newSingleProducerSingleConsumer(WakeableLooper producer,
+                                                                    WakeableLooper consumer,
+                                                                    int ringCapacity) {
+    return new Communicator<E>(producer, consumer, new SpscRingBuffer<E>(ringCapacity));
   }
 
   public void setProducer(WakeableLooper producer) {
@@ -155,6 +199,10 @@ public class Communicator<E> {
    * @return null if there is no item inside the queue
    */
   public E poll() {
+    if (ringBuffer != null) {
+      return pollRingBuffer();
+    }
+
     E result = buffer.poll();
     if (producer != null) {
       producer.wakeUp();
@@ -171,7 +219,7 @@ public class Communicator<E> {
    */
   public boolean offer(E e) {
     buffer.offer(e);
-    if (consumer != null) {
+    if (consumer != null && (ringBuffer == null || isConsumerIdle)) {
       consumer.wakeUp();
     }
 
@@ -187,6 +235,13 @@ public class Communicator<E> {
   }
 
   public boolean isEmpty() {
+    if (ringBuffer != null && ringBuffer.isEmpty()) {
+      // The caller is likely to go to sleep; make sure the next offer wakes it up,
+      // and re-check so an offer racing with the flag update is not missed
+      isConsumerIdle = true;
+      return ringBuffer.isEmpty();
+    }
+
     return buffer.isEmpty();
   }
 
@@ -204,16 +259,15 @@ public class Communicator<E> {
    * @return the number of elements transferred
    */
   public int drainTo(Collection<? super E> c) {
-    int result = buffer.drainTo(c);
-    if (producer != null) {
-      producer.wakeUp();
-    }
-
-    return result;
+    return drainTo(c, Integer.MAX_VALUE);
   }
 
   public int drainTo(Collection<? super E> c, int maxElements) {
-    int result = buffer.drainTo(c, maxElements);
+    if (ringBuffer != null) {
+      return drainRingBuffer(c, maxElements);
+    }
+
+    int result = ((LinkedTransferQueue<E>) buffer).drainTo(c, maxElements);
     if (producer != null) {
       producer.wakeUp();
     }
@@ -273,4 +327,45 @@ public class Communicator<E> {
       consumer.wakeUp();
     }
   }
+
+  private E pollRingBuffer() {
+    E result = ringBuffer.poll();
+    if (result == null) {
+      isConsumerIdle = true;
+      if (ringBuffer.isEmpty()) {
+        return null;
+      }
+      result = ringBuffer.poll();
+    }
+
+    if (isConsumerIdle) {
+      isConsumerIdle = false;
+    }
+    // Only wake up the producer when we have actually freed some capacity
+    if (producer != null) {
+      producer.wakeUp();
+    }
+
+    return result;
+  }
+
+  private int drainRingBuffer(Collection<? super E> c, int maxElements) {
+    int result = ringBuffer.drainTo(c, maxElements);
+    if (result == 0) {
+      isConsumerIdle = true;
+      if (ringBuffer.isEmpty()) {
+        return 0;
+      }
+      result = ringBuffer.drainTo(c, maxElements);
+    }
+
+    if (isConsumerIdle) {
+      isConsumerIdle = false;
+    }
+    if (producer != null) {
+      producer.wakeUp();
+    }
+
+    return result;
+  }
 }
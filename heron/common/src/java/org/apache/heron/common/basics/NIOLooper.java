@@ -33,17 +33,42 @@ import java.util.Set;
  * It extends WakeableLooper, so it will execute in a while loop unless the exitLoop() is called.
  * And in every execution, in tasksOnWakeup(), it will handle the selected keys.
  * The NIOLooper should start by calling {@code loop()}
+ * <p>
+ * How doWait() waits is decided by the WaitStrategy: BLOCKING blocks in selector.select(),
+ * the other strategies poll with selector.selectNow() first; SPIN_PARK then falls back to a
+ * blocking select, which is how a selector thread parks.
  */
 
 public class NIOLooper extends WakeableLooper {
   private final Selector selector;
 
+  private final WaitStrategy waitStrategy;
+
+  // # of iterations to spin before yielding or parking, for SPIN_YIELD and SPIN_PARK
+  private final int spinIterations;
+
+  // For the spinning strategies: set by wakeUp(), cleared when doWait() returns
+  private volatile boolean isWakeUpRequested;
+
+  // For the spinning strategies: whether the looper might be blocked in selector.select()
+  private volatile boolean isSelecting;
+
   public NIOLooper() throws IOException {
-    selector = Selector.open();
+    this(WaitStrategy.BLOCKING, 0);
+  }
+
+  public NIOLooper(WaitStrategy waitStrategy, int spinIterations) throws IOException {
+    this.selector = Selector.open();
+    this.waitStrategy = waitStrategy;
+    this.spinIterations = spinIterations;
 
     addNIOLooperTasks();
   }
 
+  public WaitStrategy getWaitStrategy() {
+    return waitStrategy;
+  }
+
   private void addNIOLooperTasks() {
     Runnable task = new Runnable() {
       @Override
@@ -56,6 +81,11 @@ public class NIOLooper extends WakeableLooper {
 
   @Override
   public void doWait() {
+    if (waitStrategy != WaitStrategy.BLOCKING) {
+      spinWait();
+      return;
+    }
+
     // If timer task exists, the doWait() should wait not later than the time timer to execute
     // It no timer exists, we consider it will wait forever until other threads call wakeUp()
     Duration nextTimeoutInterval = getNextTimeoutInterval();
@@ -66,6 +96,7 @@ public class NIOLooper extends WakeableLooper {
     try {
       if (nextTimeoutInterval.toMillis() > 0) {
         // The select will take the timeout in unit of milli-seconds
+        recordPark();
         selector.select(nextTimeoutInterval.toMillis());
       } else {
         selector.selectNow();
@@ -76,9 +107,61 @@ public class NIOLooper extends WakeableLooper {
     }
   }
 
+  private void spinWait() {
+    // Timers are only registered from this thread, so the deadline could not move while we wait
+    long deadline = System.nanoTime() + getNextTimeoutInterval().toNanos();
+    long spins = 0;
+    try {
+      while (!isWakeUpRequested) {
+        // Stop waiting once the next timer is due or some channel is ready
+        long timeoutNanos = deadline - System.nanoTime();
+        if (timeoutNanos <= 0 || selector.selectNow() > 0) {
+          break;
+        }
+
+        long timeoutMillis = timeoutNanos / 1_000_000;
+        if (waitStrategy == WaitStrategy.BUSY_SPIN || spins < spinIterations
+            || (waitStrategy == WaitStrategy.SPIN_PARK && timeoutMillis == 0)) {
+          spins++;
+        } else if (waitStrategy == WaitStrategy.SPIN_YIELD) {
+          spins++;
+          Thread.yield();
+        } else {
+          // Publish the flag before re-checking for a wake up, so that a wakeUp() in between
+          // either knows to wake up the selector or is seen by us
+          isSelecting = true;
+          if (!isWakeUpRequested) {
+            recordPark();
+            selector.select(timeoutMillis);
+          }
+          isSelecting = false;
+          break;
+        }
+      }
+    } catch (IOException e) {
+      e.printStackTrace();
+      throw new RuntimeException(e);
+    }
+    isWakeUpRequested = false;
+    recordSpins(spins);
+  }
+
   @Override
   public void wakeUp() {
-    selector.wakeup();
+    if (waitStrategy == WaitStrategy.BLOCKING) {
+      selector.wakeup();
+      recordWakeUp();
+      return;
+    }
+
+    // A spinning looper only needs to see the flag; wake up the selector if it is blocked
+    if (!isWakeUpRequested) {
+      isWakeUpRequested = true;
+      recordWakeUp();
+    }
+    if (isSelecting) {
+      selector.wakeup();
+    }
   }
 
   public void removeAllInterest(SelectableChannel channel) {
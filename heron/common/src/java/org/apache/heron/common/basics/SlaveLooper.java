@@ -20,24 +20,54 @@
 package org.apache.heron.common.basics;
 
 import java.time.Duration;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * A SlaveLooper, implementing WakeableLooper, is a class wrapping object wait()/notify() to await/unblock a thread.
  * It extends WakeableLooper, so it will execute in a while loop unless the exitLoop() is called.
  * And in every execution, in tasksOnWakeup(), it will do nothing by default
  * The SlaveLooper should start by calling {@code loop()}
+ * <p>
+ * How doWait() waits is decided by the WaitStrategy: BLOCKING uses wait()/notify(),
+ * the other strategies spin on a volatile flag first and then yield or park with LockSupport.
  */
 
 public class SlaveLooper extends WakeableLooper {
   // The lock to implement the await/unblock
   private final RunnableLock lock;
 
+  private final WaitStrategy waitStrategy;
+
+  // # of iterations to spin before yielding or parking, for SPIN_YIELD and SPIN_PARK
+  private final int spinIterations;
+
+  // The looper's thread while it is parked, for SPIN_PARK
+  private volatile Thread parkedThread;
+
   public SlaveLooper() {
+    this(WaitStrategy.BLOCKING, 0);
+  }
+
+  public SlaveLooper(WaitStrategy waitStrategy, int spinIterations) {
     this.lock = new RunnableLock();
+    this.waitStrategy = waitStrategy;
+    this.spinIterations = spinIterations;
+  }
+
+  public WaitStrategy getWaitStrategy() {
+    return waitStrategy;
   }
 
   @Override
   protected void doWait() {
+    if (waitStrategy == WaitStrategy.BLOCKING) {
+      blockingWait();
+    } else {
+      spinWait();
+    }
+  }
+
+  private void blockingWait() {
     synchronized (lock.proceedLock) {
       while (!lock.isToProceed) {
 
@@ -51,6 +81,7 @@ public class SlaveLooper extends WakeableLooper {
         if (nextTimeoutInterval.toMillis() > 0) {
           try {
             lock.isWaiting = true;
+            recordPark();
             // The wait will take the timeout in unit of milli-seconds
             lock.proceedLock.wait(nextTimeoutInterval.toMillis());
           } catch (InterruptedException e) {
@@ -67,16 +98,57 @@ public class SlaveLooper extends WakeableLooper {
     }
   }
 
+  private void spinWait() {
+    // Timers are only registered from this thread, so the deadline could not move while we wait
+    long deadline = System.nanoTime() + getNextTimeoutInterval().toNanos();
+    long spins = 0;
+    while (!lock.isToProceed) {
+      // Stop waiting once the next timer is due
+      long timeoutNanos = deadline - System.nanoTime();
+      if (timeoutNanos <= 0) {
+        break;
+      }
+
+      if (waitStrategy == WaitStrategy.BUSY_SPIN || spins < spinIterations) {
+        spins++;
+      } else if (waitStrategy == WaitStrategy.SPIN_YIELD) {
+        spins++;
+        Thread.yield();
+      } else {
+        // Publish the thread before re-checking the flag, so that a wakeUp() in between
+        // either sees the thread to unpark or is seen by us
+        parkedThread = Thread.currentThread();
+        if (!lock.isToProceed) {
+          recordPark();
+          LockSupport.parkNanos(this, timeoutNanos);
+        }
+        parkedThread = null;
+      }
+    }
+    lock.isToProceed = false;
+    recordSpins(spins);
+  }
+
   @Override
   public void wakeUp() {
-    // In fact, we are using the wait()/notify() to implement the blocking thread here
     if (!lock.isToProceed) {
-      synchronized (lock.proceedLock) {
+      if (waitStrategy == WaitStrategy.BLOCKING) {
+        // In fact, we are using the wait()/notify() to implement the blocking thread here
+        synchronized (lock.proceedLock) {
+          lock.isToProceed = true;
+          if (lock.isWaiting) {
+            lock.proceedLock.notify();
+          }
+        }
+      } else {
+        // The spinning looper only needs to see the flag; unpark it if it went to sleep
         lock.isToProceed = true;
-        if (lock.isWaiting) {
-          lock.proceedLock.notify();
+        Thread thread = parkedThread;
+        if (thread != null) {
+          LockSupport.unpark(thread);
         }
       }
+      recordWakeUp();
     }
   }
 
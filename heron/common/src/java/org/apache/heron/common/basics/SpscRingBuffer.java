@@ -0,0 +1,341 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.heron.common.basics;
+
+import java.util.AbstractQueue;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A lock-free queue for exactly one producer thread and one consumer thread, backed by a
+ * preallocated power-of-two ring.
+ * <p>
+ * Offer and poll never allocate in steady state: the producer publishes an item with an ordered
+ * store into its slot and the consumer hands the slot back by nulling it. The producer and consumer
+ * indices live on separate padded cache lines so the two threads do not false-share.
+ * <p>
+ * Communicator is an unbounded queue by contract, so the ring never rejects an item. When the
+ * producer finds the ring full it links a fresh ring of the same size and leaves a jump marker
+ * behind; the consumer follows the marker once it has drained the old ring. The soft bound is still
+ * enforced by the caller through Communicator's expected available capacity.
+ * <p>
+ * clear() is safe to call from either side: it records the producer index at the time of the call
+ * and the consumer discards everything before it on its next access.
+ * <p>
+ * iterator() is weakly consistent and meant for the consumer thread: it walks the items between
+ * the head and the tail at the time of the call without consuming them, and does not support
+ * removal.
+ */
+public final class SpscRingBuffer<E> extends AbstractQueue<E> {
+  // Left in a slot by the producer to tell the consumer to continue in the linked ring
+  private static final Object JUMP = new Object();
+
+  private static final int MAX_CAPACITY = 1 << 30;
+
+  private final int capacity;
+  private final int mask;
+
+  // Count of items ever offered; written by the producer only
+  private final PaddedAtomicLong producerIndex = new PaddedAtomicLong();
+
+  // Count of items ever polled or discarded; written by the consumer only
+  private final PaddedAtomicLong consumerIndex = new PaddedAtomicLong();
+
+  // Items with an index lower than this were cleared and should be dropped by the consumer
+  private final PaddedAtomicLong discardIndex = new PaddedAtomicLong();
+
+  // Accessed by the producer thread only
+  private AtomicReferenceArray<Object> producerBuffer;
+
+  // Accessed by the consumer thread only
+  private AtomicReferenceArray<Object> consumerBuffer;
+
+  /**
+   * Construct a ring buffer
+   *
+   * @param requestedCapacity the number of slots in the ring, rounded up to a power of two
+   */
+  public SpscRingBuffer(int requestedCapacity) {
+    if (requestedCapacity <= 0) {
+      throw new IllegalArgumentException("Capacity must be positive: " + requestedCapacity);
+    }
+    this.capacity = roundUpToPowerOfTwo(Math.min(MAX_CAPACITY, Math.max(2, requestedCapacity)));
+    this.mask = capacity - 1;
+    // The extra trailing slot holds the link to the next ring once this one fills up
+    this.producerBuffer = new AtomicReferenceArray<>(capacity + 1);
+    this.consumerBuffer = producerBuffer;
+  }
+
+  /**
+   * Get the number of slots in one ring
+   */
+  public int getCapacity() {
+    return capacity;
+  }
+
+  /**
+   * Offer an item. Must only be called from the producer thread.
+   *
+   * @param e Item to be inserted
+   * @return always true
+   */
+  @Override
+  public boolean offer(E e) {
+    if (e == null) {
+      throw new NullPointerException();
+    }
+
+    AtomicReferenceArray<Object> buffer = producerBuffer;
+    long index = producerIndex.get();
+    int offset = offset(index);
+
+    // We keep one slot free so there is always room for the jump marker
+    if (buffer.get(offset(index + 1)) != null) {
+      AtomicReferenceArray<Object> next = new AtomicReferenceArray<>(capacity + 1);
+      next.lazySet(offset, e);
+      buffer.lazySet(capacity, next);
+      producerBuffer = next;
+      buffer.lazySet(offset, JUMP);
+    } else {
+      buffer.lazySet(offset, e);
+    }
+
+    // A full volatile store: Communicator reads the consumer's idle flag right after offering
+    // and relies on this store not being reordered with that read
+    producerIndex.set(index + 1);
+    return true;
+  }
+
+  /**
+   * Poll an item. Must only be called from the consumer thread.
+   *
+   * @return the head item, or null if the queue is empty
+   */
+  @Override
+  public E poll() {
+    skipDiscarded();
+    return pollElement();
+  }
+
+  /**
+   * Peek the head item. Must only be called from the consumer thread.
+   *
+   * @return the head item, or null if the queue is empty
+   */
+  @Override
+  @SuppressWarnings("unchecked")
+  public E peek() {
+    skipDiscarded();
+    AtomicReferenceArray<Object> buffer = consumerBuffer;
+    int offset = offset(consumerIndex.get());
+    Object e = buffer.get(offset);
+    if (e == JUMP) {
+      e = nextBuffer(buffer).get(offset);
+    }
+    return (E) e;
+  }
+
+  /**
+   * Move up to maxElements items into the given collection, publishing the consumer index once
+   * for the whole batch. Must only be called from the consumer thread.
+   *
+   * @return the number of items transferred
+   */
+  @SuppressWarnings("unchecked")
+  public int drainTo(Collection<? super E> c, int maxElements) {
+    if (c == null) {
+      throw new NullPointerException();
+    }
+    if (c == this) {
+      throw new IllegalArgumentException();
+    }
+
+    skipDiscarded();
+    long index = consumerIndex.get();
+    long available = producerIndex.get() - index;
+    int toDrain = (int) Math.min(available, (long) maxElements);
+
+    AtomicReferenceArray<Object> buffer = consumerBuffer;
+    for (int i = 0; i < toDrain; i++) {
+      int offset = offset(index + i);
+      Object e = buffer.get(offset);
+      if (e == JUMP) {
+        buffer = nextBuffer(buffer);
+        e = buffer.get(offset);
+      }
+      buffer.lazySet(offset, null);
+      c.add((E) e);
+    }
+    consumerBuffer = buffer;
+
+    if (toDrain > 0) {
+      consumerIndex.lazySet(index + toDrain);
+    }
+    return toDrain;
+  }
+
+  public int drainTo(Collection<? super E> c) {
+    return drainTo(c, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Get the number of items in the queue. Safe to call from any thread.
+   */
+  @Override
+  public int size() {
+    // Read the consumer side first so the result could never be negative
+    long consumed = Math.max(consumerIndex.get(), discardIndex.get());
+    long produced = producerIndex.get();
+    return (int) Math.min(Math.max(0L, produced - consumed), (long) Integer.MAX_VALUE);
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+
+  /**
+   * Drop every item offered so far. Safe to call from either the producer or the consumer thread.
+   */
+  @Override
+  public void clear() {
+    discardIndex.set(producerIndex.get());
+  }
+
+  /**
+   * Iterate the items from the head to the tail of the queue at the time of the call, oldest
+   * first, without consuming them. Only the consumer thread sees a stable snapshot; an item polled
+   * concurrently ends the iteration early.
+   */
+  @Override
+  public Iterator<E> iterator() {
+    return new ConsumerIterator();
+  }
+
+  private final class ConsumerIterator implements Iterator<E> {
+    // Read the producer side first so every item before the tail is published
+    private final long tail = producerIndex.get();
+    private final long discard = discardIndex.get();
+    private long index = consumerIndex.get();
+    private AtomicReferenceArray<Object> buffer = consumerBuffer;
+    private Object next;
+
+    ConsumerIterator() {
+      advance();
+    }
+
+    @Override
+    public boolean hasNext() {
+      return next != null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E next() {
+      if (next == null) {
+        throw new NoSuchElementException();
+      }
+      E e = (E) next;
+      advance();
+      return e;
+    }
+
+    private void advance() {
+      next = null;
+      while (index < tail) {
+        int offset = offset(index);
+        Object e = buffer.get(offset);
+        if (e == JUMP) {
+          buffer = nextBuffer(buffer);
+          e = buffer.get(offset);
+        }
+        if (e == null) {
+          // Polled since the iteration started
+          index = tail;
+          return;
+        }
+        if (index++ >= discard) {
+          next = e;
+          return;
+        }
+      }
+    }
+  }
+
+  private void skipDiscarded() {
+    long discard = discardIndex.get();
+    while (consumerIndex.get() < discard) {
+      pollElement();
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private E pollElement() {
+    AtomicReferenceArray<Object> buffer = consumerBuffer;
+    long index = consumerIndex.get();
+    int offset = offset(index);
+    Object e = buffer.get(offset);
+    if (e == null) {
+      return null;
+    }
+
+    if (e == JUMP) {
+      buffer = nextBuffer(buffer);
+      consumerBuffer = buffer;
+      e = buffer.get(offset);
+    }
+
+    buffer.lazySet(offset, null);
+    consumerIndex.lazySet(index + 1);
+    return (E) e;
+  }
+
+  @SuppressWarnings("unchecked")
+  private AtomicReferenceArray<Object> nextBuffer(AtomicReferenceArray<Object> buffer) {
+    return (AtomicReferenceArray<Object>) buffer.get(capacity);
+  }
+
+  private int offset(long index) {
+    return (int) index & mask;
+  }
+
+  private static int roundUpToPowerOfTwo(int value) {
+    return 1 << (32 - Integer.numberOfLeadingZeros(value - 1));
+  }
+
+  /**
+   * An AtomicLong followed by enough padding to keep the next index off its cache line
+   */
+  @SuppressWarnings("unused")
+  private static final class PaddedAtomicLong extends AtomicLong {
+    private static final long serialVersionUID = 1L;
+
+    private long p1;
+    private long p2;
+    private long p3;
+    private long p4;
+    private long p5;
+    private long p6;
+    private long p7;
+  }
+}
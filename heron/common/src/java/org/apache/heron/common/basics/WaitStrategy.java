@@ -0,0 +1,56 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.heron.common.basics;
+
+/**
+ * How a WakeableLooper waits in doWait() for the next wakeUp(), timer or I/O event.
+ * <p>
+ * BLOCKING gives up the core immediately and is the right choice for densely packed containers.
+ * The spinning strategies trade CPU for latency: a looper that spins can pick up a handoff
+ * from another thread in microseconds instead of going through the OS scheduler.
+ */
+public enum WaitStrategy {
+  /**
+   * Block right away (Object.wait() or Selector.select())
+   */
+  BLOCKING,
+
+  /**
+   * Spin until woken up, never giving up the core
+   */
+  BUSY_SPIN,
+
+  /**
+   * Spin for a number of iterations, then keep yielding the core until woken up
+   */
+  SPIN_YIELD,
+
+  /**
+   * Spin for a number of iterations, then park the thread until woken up
+   */
+  SPIN_PARK;
+
+  /**
+   * Parse a wait strategy from its config value, e.g. "spin_park", case insensitively
+   */
+  public static WaitStrategy fromString(String value) {
+    return WaitStrategy.valueOf(value.trim().toUpperCase());
+  }
+}
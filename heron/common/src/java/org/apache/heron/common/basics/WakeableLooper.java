@@ -23,6 +23,7 @@ import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.PriorityQueue;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * A WakeableLooper is a class that could:
@@ -66,6 +67,12 @@ public abstract class WakeableLooper {
   // this boolean is need if it is one of the tasks in exitTask that clears the list
   private boolean terminateAllExitTasks;
 
+  // Statistics on how the looper waits, see WaitStrategy.
+  // Wake ups could be recorded by any thread; spins and parks only by the looper's own thread
+  private final LongAdder wakeUpCount = new LongAdder();
+  private volatile long spinCount;
+  private volatile long parkCount;
+
   public WakeableLooper() {
     exitLoop = false;
     tasksOnWakeup = new ArrayList<>();
@@ -128,6 +135,43 @@ public abstract class WakeableLooper {
 
   public abstract void wakeUp();
 
+  /**
+   * Get the number of times other threads actually had to signal this looper in wakeUp()
+   */
+  public long getWakeUpCount() {
+    return wakeUpCount.sum();
+  }
+
+  /**
+   * Get the number of iterations this looper spent spinning in doWait()
+   */
+  public long getSpinCount() {
+    return spinCount;
+  }
+
+  /**
+   * Get the number of times this looper blocked or parked its thread in doWait()
+   */
+  public long getParkCount() {
+    return parkCount;
+  }
+
+  protected void recordWakeUp() {
+    wakeUpCount.increment();
+  }
+
+  // Only called from the looper's own thread
+  protected void recordSpins(long spins) {
+    if (spins > 0) {
+      spinCount = spinCount + spins;
+    }
+  }
+
+  // Only called from the looper's own thread
+  protected void recordPark() {
+    parkCount = parkCount + 1;
+  }
+
   public void addTasksOnWakeup(Runnable task) {
     tasksOnWakeup.add(task);
     // We need to wake up the looper itself when we add a new task, otherwise, it is possible
@@ -26,6 +26,7 @@ import java.util.Map;
 
 import org.apache.heron.common.basics.ByteAmount;
 import org.apache.heron.common.basics.TypeUtils;
+import org.apache.heron.common.basics.WaitStrategy;
 
 /**
  * SystemConfig are a set of configuration parameters that are set by the system
@@ -82,6 +83,18 @@ public final class SystemConfig {
     return getDuration(SystemConfigKey.INSTANCE_FORCE_EXIT_TIMEOUT);
   }
 
+  public WaitStrategy getInstanceGatewayWaitStrategy() {
+    return WaitStrategy.fromString(getString(SystemConfigKey.INSTANCE_GATEWAY_WAIT_STRATEGY));
+  }
+
+  public WaitStrategy getInstanceSlaveWaitStrategy() {
+    return WaitStrategy.fromString(getString(SystemConfigKey.INSTANCE_SLAVE_WAIT_STRATEGY));
+  }
+
+  public int getInstanceWaitStrategySpinIterations() {
+    return getInteger(SystemConfigKey.INSTANCE_WAIT_STRATEGY_SPIN_ITERATIONS);
+  }
+
   public int getInstanceInternalBoltReadQueueCapacity() {
     return getInteger(SystemConfigKey.INSTANCE_INTERNAL_BOLT_READ_QUEUE_CAPACITY);
   }
@@ -98,6 +111,18 @@ public final class SystemConfig {
     return getInteger(SystemConfigKey.INSTANCE_INTERNAL_SPOUT_WRITE_QUEUE_CAPACITY);
   }
 
+  public String getInstanceInternalStreamQueueType() {
+    return getString(SystemConfigKey.INSTANCE_INTERNAL_STREAM_QUEUE_TYPE);
+  }
+
+  public int getInstanceInternalStreamQueueRingSize() {
+    return getInteger(SystemConfigKey.INSTANCE_INTERNAL_STREAM_QUEUE_RING_SIZE);
+  }
+
+  public int getInstanceExecutorsPerProcess() {
+    return getInteger(SystemConfigKey.INSTANCE_EXECUTORS_PER_PROCESS);
+  }
+
   public Duration getInstanceAckBatchTime() {
     return getDuration(SystemConfigKey.INSTANCE_ACK_BATCH_TIME);
   }
@@ -158,6 +183,18 @@ public final class SystemConfig {
     return getByteAmount(SystemConfigKey.INSTANCE_NETWORK_OPTIONS_SOCKET_SEND_BUFFER_SIZE);
   }
 
+  public ByteAmount getInstanceNetworkBufferPoolMaximumBufferSize() {
+    return getByteAmount(SystemConfigKey.INSTANCE_NETWORK_BUFFER_POOL_MAXIMUM_BUFFER_SIZE);
+  }
+
+  public int getInstanceNetworkBufferPoolBuffersPerSizeClass() {
+    return getInteger(SystemConfigKey.INSTANCE_NETWORK_BUFFER_POOL_BUFFERS_PER_SIZE_CLASS);
+  }
+
+  public boolean isInstanceNetworkBufferPoolDirect() {
+    return getBoolean(SystemConfigKey.INSTANCE_NETWORK_BUFFER_POOL_DIRECT);
+  }
+
   public Duration getInstanceEmitBatchTime() {
     return getDuration(SystemConfigKey.INSTANCE_EMIT_BATCH_TIME);
   }
@@ -251,6 +288,11 @@ public final class SystemConfig {
     return (String) get(key);
   }
 
+  private Boolean getBoolean(SystemConfigKey key) {
+    assertType(key, SystemConfigKey.Type.BOOLEAN);
+    return TypeUtils.getBoolean(get(key));
+  }
+
   private Integer getInteger(SystemConfigKey key) {
     assertType(key, SystemConfigKey.Type.INTEGER);
     return TypeUtils.getInteger(get(key));
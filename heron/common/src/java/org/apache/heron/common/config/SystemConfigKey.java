@@ -101,6 +101,26 @@ public enum SystemConfigKey {
   INSTANCE_INTERNAL_METRICS_WRITE_QUEUE_CAPACITY(
       "heron.instance.internal.metrics.write.queue.capacity", Type.INTEGER),
 
+  /**
+   * The queue implementation between the gateway and slave threads for stream packets:
+   * "linked" for an unbounded linked queue, "spsc" for a lock-free single-producer
+   * single-consumer ring buffer
+   */
+  INSTANCE_INTERNAL_STREAM_QUEUE_TYPE("heron.instance.internal.stream.queue.type", "linked"),
+
+  /**
+   * The number of slots in the ring when heron.instance.internal.stream.queue.type is "spsc"
+   */
+  INSTANCE_INTERNAL_STREAM_QUEUE_RING_SIZE(
+      "heron.instance.internal.stream.queue.ring.size", 1024),
+
+  /**
+   * The max number of tasks of a component hosted by one Java instance process, each with its
+   * own slave thread, sharing the gateway thread and the JVM. The RAM of an instance covers its
+   * heap plus the JVM overhead, so a process gets the heaps of all its tasks and one overhead
+   */
+  INSTANCE_EXECUTORS_PER_PROCESS("heron.instance.executors.per.process", 1),
+
   /**
    * Time based, the maximum batch time in ms for instance to read from stream manager per attempt
    */
@@ -136,6 +156,24 @@ public enum SystemConfigKey {
   INSTANCE_NETWORK_OPTIONS_SOCKET_SEND_BUFFER_SIZE(
       "heron.instance.network.options.socket.send.buffer.size.bytes", Type.BYTE_AMOUNT),
 
+  /**
+   * The largest packet buffer in bytes kept in the buffer pool of each instance connection,
+   * 0 disables pooling
+   */
+  INSTANCE_NETWORK_BUFFER_POOL_MAXIMUM_BUFFER_SIZE(
+      "heron.instance.network.buffer.pool.maximum.buffer.size.bytes", ByteAmount.ZERO),
+
+  /**
+   * The maximum # of idle buffers kept for each size class of the buffer pool
+   */
+  INSTANCE_NETWORK_BUFFER_POOL_BUFFERS_PER_SIZE_CLASS(
+      "heron.instance.network.buffer.pool.buffers.per.size.class", 8),
+
+  /**
+   * Whether the buffer pool allocates direct buffers instead of heap buffers
+   */
+  INSTANCE_NETWORK_BUFFER_POOL_DIRECT("heron.instance.network.buffer.pool.direct", false),
+
   /**
    * The maximum # of data tuple to batch in a HeronDataTupleSet protobuf
    */
@@ -192,6 +230,23 @@ public enum SystemConfigKey {
    */
   INSTANCE_FORCE_EXIT_TIMEOUT("heron.instance.force.exit.timeout.ms", ChronoUnit.MILLIS),
 
+  /**
+   * How the gateway thread waits for network events and wake ups:
+   * blocking, busy_spin, spin_yield or spin_park
+   */
+  INSTANCE_GATEWAY_WAIT_STRATEGY("heron.instance.gateway.wait.strategy", "blocking"),
+
+  /**
+   * How the slave thread waits for wake ups: blocking, busy_spin, spin_yield or spin_park
+   */
+  INSTANCE_SLAVE_WAIT_STRATEGY("heron.instance.slave.wait.strategy", "blocking"),
+
+  /**
+   * The # of iterations to spin before yielding or parking, for spin_yield and spin_park
+   */
+  INSTANCE_WAIT_STRATEGY_SPIN_ITERATIONS(
+      "heron.instance.wait.strategy.spin.iterations", 10000),
+
   /**
    * Interval in seconds to reconnect to the stream manager
    */
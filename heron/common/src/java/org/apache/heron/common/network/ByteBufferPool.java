@@ -0,0 +1,168 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.heron.common.network;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+
+/**
+ * A pool of ByteBuffers backing IncomingPacket and OutgoingPacket.
+ * <p>
+ * Buffers are grouped in power-of-two size classes, from MIN_BUFFER_SIZE up to
+ * maxPooledBufferSize. A request is served from the smallest class that fits it; requests larger
+ * than the largest class are allocated on demand and dropped on release.
+ * <p>
+ * The pool is not thread-safe: it belongs to a single SocketChannelHelper and must only be used
+ * from the NIOLooper thread driving that connection.
+ * <p>
+ * Direct buffers can be requested, but see the comments on top of OutgoingPacket for why
+ * heap buffers remain the default.
+ */
+public class ByteBufferPool {
+  // Smallest size class; covers the packet headers
+  static final int MIN_BUFFER_SIZE = 64;
+  private static final int MIN_BUFFER_SIZE_SHIFT = Integer.numberOfTrailingZeros(MIN_BUFFER_SIZE);
+  // Largest size class that can be represented as an int capacity
+  private static final int MAX_BUFFER_SIZE = 1 << 30;
+
+  private final int maxPooledBufferSize;
+  private final int maxBuffersPerSizeClass;
+  private final boolean useDirectBuffers;
+  private final ArrayDeque<ByteBuffer>[] freeBuffers;
+
+  // # of leases served from / not served from the pool since last reset
+  private long hits;
+  private long misses;
+
+  /**
+   * Construct a pool that does not retain any buffers, i.e. every lease is a fresh allocation
+   */
+  public ByteBufferPool() {
+    this(0, 0, false);
+  }
+
+  /**
+   * Construct a ByteBufferPool
+   *
+   * @param maxPooledBufferSize the largest buffer, in bytes, to keep in the pool; 0 disables pooling
+   * @param maxBuffersPerSizeClass the maximum # of idle buffers kept for each size class
+   * @param useDirectBuffers whether to allocate direct buffers instead of heap buffers
+   */
+  @SuppressWarnings("unchecked")
+  public ByteBufferPool(int maxPooledBufferSize, int maxBuffersPerSizeClass,
+                        boolean useDirectBuffers) {
+    this.maxBuffersPerSizeClass = maxBuffersPerSizeClass;
+    this.useDirectBuffers = useDirectBuffers;
+
+    int sizeClasses = 0;
+    if (maxPooledBufferSize >= MIN_BUFFER_SIZE && maxBuffersPerSizeClass > 0) {
+      sizeClasses = sizeClassOf(Math.min(maxPooledBufferSize, MAX_BUFFER_SIZE)) + 1;
+      // Round down so the largest size class never exceeds the requested size
+      if (capacityOf(sizeClasses - 1) > maxPooledBufferSize) {
+        sizeClasses--;
+      }
+    }
+    this.maxPooledBufferSize = sizeClasses == 0 ? 0 : capacityOf(sizeClasses - 1);
+    this.freeBuffers = new ArrayDeque[sizeClasses];
+    for (int i = 0; i < sizeClasses; i++) {
+      freeBuffers[i] = new ArrayDeque<>();
+    }
+  }
+
+  /**
+   * Lease a buffer with at least the given size. The returned buffer is cleared and its limit
+   * is set to size.
+   */
+  public ByteBuffer acquire(int size) {
+    ByteBuffer buffer;
+    if (size <= maxPooledBufferSize) {
+      int sizeClass = sizeClassOf(size);
+      buffer = freeBuffers[sizeClass].poll();
+      if (buffer != null) {
+        hits++;
+      } else {
+        misses++;
+        buffer = allocate(capacityOf(sizeClass));
+      }
+    } else {
+      misses++;
+      buffer = allocate(size);
+    }
+
+    buffer.limit(size);
+    return buffer;
+  }
+
+  /**
+   * Return a buffer previously leased through acquire(). The caller must not touch the buffer
+   * afterwards.
+   */
+  public void release(ByteBuffer buffer) {
+    if (buffer == null) {
+      return;
+    }
+    int capacity = buffer.capacity();
+    if (capacity < MIN_BUFFER_SIZE || capacity > maxPooledBufferSize
+        || Integer.bitCount(capacity) != 1 || buffer.isDirect() != useDirectBuffers) {
+      // Not one of ours; leave it to the GC
+      return;
+    }
+    ArrayDeque<ByteBuffer> free = freeBuffers[sizeClassOf(capacity)];
+    if (free.size() < maxBuffersPerSizeClass) {
+      buffer.clear();
+      free.offer(buffer);
+    }
+  }
+
+  public boolean isPoolingEnabled() {
+    return maxPooledBufferSize > 0;
+  }
+
+  public long getHitCount() {
+    return hits;
+  }
+
+  public long getMissCount() {
+    return misses;
+  }
+
+  /**
+   * Reset the hit and miss counters, typically once they have been exported as metrics
+   */
+  public void resetCounters() {
+    hits = 0;
+    misses = 0;
+  }
+
+  private ByteBuffer allocate(int capacity) {
+    return useDirectBuffers ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+  }
+
+  private static int sizeClassOf(int size) {
+    if (size <= MIN_BUFFER_SIZE) {
+      return 0;
+    }
+    return 32 - Integer.numberOfLeadingZeros(size - 1) - MIN_BUFFER_SIZE_SHIFT;
+  }
+
+  private static int capacityOf(int sizeClass) {
+    return MIN_BUFFER_SIZE << sizeClass;
+  }
+}
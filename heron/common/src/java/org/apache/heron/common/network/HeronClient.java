@@ -169,6 +169,7 @@ public abstract class HeronClient implements ISelectHandler {
     List<IncomingPacket> packets = socketChannelHelper.read();
     for (IncomingPacket ipt : packets) {
       handlePacket(ipt);
+      ipt.release();
     }
   }
 
@@ -206,7 +207,8 @@ public abstract class HeronClient implements ISelectHandler {
       });
     }
 
-    OutgoingPacket opk = new OutgoingPacket(rid, request);
+    OutgoingPacket opk =
+        new OutgoingPacket(rid, request, socketChannelHelper.getBufferPool());
     socketChannelHelper.sendPacket(opk);
   }
 
@@ -218,7 +220,8 @@ public abstract class HeronClient implements ISelectHandler {
   // This method is used if you want to communicate with the other end
   // on a non-request-response based communication.
   public void sendMessage(Message message) {
-    OutgoingPacket opk = new OutgoingPacket(REQID.zeroREQID, message);
+    OutgoingPacket opk =
+        new OutgoingPacket(REQID.zeroREQID, message, socketChannelHelper.getBufferPool());
     socketChannelHelper.sendPacket(opk);
   }
 
@@ -371,6 +374,11 @@ public abstract class HeronClient implements ISelectHandler {
     return socketChannelHelper.getOutstandingPackets();
   }
 
+  // The helper of the current connection, or null if not yet connected
+  public SocketChannelHelper getSocketChannelHelper() {
+    return socketChannelHelper;
+  }
+
   // Force to flush all data to be sent by HeronClient
   public void forceFlushWithBestEffort() {
     socketChannelHelper.forceFlushWithBestEffort();
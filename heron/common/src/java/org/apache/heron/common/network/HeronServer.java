@@ -167,6 +167,7 @@ public abstract class HeronServer implements ISelectHandler {
     List<IncomingPacket> packets = helper.read();
     for (IncomingPacket ipt : packets) {
       handlePacket(channel, ipt);
+      ipt.release();
     }
   }
 
@@ -258,7 +259,7 @@ public abstract class HeronServer implements ISelectHandler {
       LOG.severe("Trying to send a response on an unknown connection");
       return false;
     }
-    OutgoingPacket opk = new OutgoingPacket(rid, response);
+    OutgoingPacket opk = new OutgoingPacket(rid, response, helper.getBufferPool());
     helper.sendPacket(opk);
     return true;
   }
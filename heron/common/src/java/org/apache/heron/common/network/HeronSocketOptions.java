@@ -36,6 +36,9 @@ public class HeronSocketOptions {
   private ByteAmount socketSendBufferSize;
   private ByteAmount socketReceivedBufferSize;
   private ByteAmount maximumPacketSize;
+  private ByteAmount bufferPoolMaximumBufferSize;
+  private int bufferPoolBuffersPerSizeClass;
+  private boolean bufferPoolUseDirectBuffers;
 
   public HeronSocketOptions(ByteAmount networkWriteBatchSize,
                             Duration networkWriteBatchTime,
@@ -44,6 +47,30 @@ public class HeronSocketOptions {
                             ByteAmount socketSendBufferSize,
                             ByteAmount socketReceivedBufferSize,
                             ByteAmount maximumPacketSize) {
+    this(networkWriteBatchSize, networkWriteBatchTime,
+        networkReadBatchSize, networkReadBatchTime,
+        socketSendBufferSize, socketReceivedBufferSize, maximumPacketSize,
+        ByteAmount.ZERO, 0, false);
+  }
+
+  /**
+   * Construct HeronSocketOptions with packet buffer pooling
+   *
+   * @param bufferPoolMaximumBufferSize the largest packet buffer kept in each connection's
+   * ByteBufferPool; ByteAmount.ZERO disables pooling
+   * @param bufferPoolBuffersPerSizeClass the maximum # of idle buffers kept per size class
+   * @param bufferPoolUseDirectBuffers whether pooled buffers are direct buffers
+   */
+  public HeronSocketOptions(ByteAmount networkWriteBatchSize,
+                            Duration networkWriteBatchTime,
+                            ByteAmount networkReadBatchSize,
+                            Duration networkReadBatchTime,
+                            ByteAmount socketSendBufferSize,
+                            ByteAmount socketReceivedBufferSize,
+                            ByteAmount maximumPacketSize,
+                            ByteAmount bufferPoolMaximumBufferSize,
+                            int bufferPoolBuffersPerSizeClass,
+                            boolean bufferPoolUseDirectBuffers) {
     this.networkWriteBatchSize = networkWriteBatchSize;
     this.networkWriteBatchTime = networkWriteBatchTime;
     this.networkReadBatchSize = networkReadBatchSize;
@@ -51,6 +78,9 @@ public class HeronSocketOptions {
     this.socketSendBufferSize = socketSendBufferSize;
     this.socketReceivedBufferSize = socketReceivedBufferSize;
     this.maximumPacketSize = maximumPacketSize;
+    this.bufferPoolMaximumBufferSize = bufferPoolMaximumBufferSize;
+    this.bufferPoolBuffersPerSizeClass = bufferPoolBuffersPerSizeClass;
+    this.bufferPoolUseDirectBuffers = bufferPoolUseDirectBuffers;
   }
 
   public ByteAmount getNetworkWriteBatchSize() {
@@ -80,4 +110,16 @@ public class HeronSocketOptions {
   public ByteAmount getMaximumPacketSize() {
     return maximumPacketSize;
   }
+
+  public ByteAmount getBufferPoolMaximumBufferSize() {
+    return bufferPoolMaximumBufferSize;
+  }
+
+  public int getBufferPoolBuffersPerSizeClass() {
+    return bufferPoolBuffersPerSizeClass;
+  }
+
+  public boolean isBufferPoolUseDirectBuffers() {
+    return bufferPoolUseDirectBuffers;
+  }
 }
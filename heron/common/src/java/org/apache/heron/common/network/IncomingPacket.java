@@ -25,7 +25,7 @@ import java.nio.channels.SocketChannel;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
-import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.CodedInputStream;
 import com.google.protobuf.Message;
 
 /**
@@ -54,12 +54,21 @@ import com.google.protobuf.Message;
 
 public class IncomingPacket {
   private static final Logger LOG = Logger.getLogger(IncomingPacket.class.getName());
+  private static final int HEADER_SIZE = 4;
+  // The pool header and data buffers are leased from, or null to allocate them on demand
+  private final ByteBufferPool bufferPool;
   private ByteBuffer header;
   private ByteBuffer data;
   private boolean headerRead;
+  private int dataSize;
 
   public IncomingPacket() {
-    header = ByteBuffer.allocate(4);
+    this(null);
+  }
+
+  public IncomingPacket(ByteBufferPool bufferPool) {
+    this.bufferPool = bufferPool;
+    header = allocate(HEADER_SIZE);
     headerRead = false;
   }
 
@@ -82,7 +91,8 @@ public class IncomingPacket {
         LOG.log(Level.SEVERE, "packet size " + size + " exceeds limit " + limit);
         return -1;
       }
-      data = ByteBuffer.allocate(size);
+      dataSize = size;
+      data = allocate(size);
     }
     int retval = readFromChannel(channel, data);
     if (retval == 0) {
@@ -122,20 +132,38 @@ public class IncomingPacket {
     return new REQID(data);
   }
 
-  // TODO:- Multiple copies going on here.
+  // Parse the message straight from the packet buffer
   public void unpackMessage(Message.Builder builder) {
     int size = data.getInt();
-    byte[] bytes = new byte[size];
-    data.get(bytes);
+    ByteBuffer message = data.slice();
+    message.limit(size);
+    data.position(data.position() + size);
     try {
-      builder.mergeFrom(bytes);
-    } catch (InvalidProtocolBufferException e) {
-      LOG.log(Level.SEVERE, "InvalidProtocolBufferException: ", e);
+      builder.mergeFrom(CodedInputStream.newInstance(message));
+    } catch (IOException e) {
+      LOG.log(Level.SEVERE, "Failed to parse message: ", e);
     }
   }
 
   // TODO -- the calculation is not accurate but work
   public int size() {
-    return data == null ? 0 : data.capacity();
+    return dataSize;
+  }
+
+  /**
+   * Return the buffers of this packet to the pool it was created with.
+   * The packet must not be used after it is released.
+   */
+  public void release() {
+    if (bufferPool != null) {
+      bufferPool.release(header);
+      bufferPool.release(data);
+    }
+    header = null;
+    data = null;
+  }
+
+  private ByteBuffer allocate(int size) {
+    return bufferPool == null ? ByteBuffer.allocate(size) : bufferPool.acquire(size);
   }
 }
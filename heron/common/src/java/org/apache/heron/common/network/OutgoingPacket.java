@@ -25,6 +25,7 @@ import java.nio.channels.SocketChannel;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import com.google.protobuf.CodedOutputStream;
 import com.google.protobuf.Message;
 
 /**
@@ -53,9 +54,16 @@ import com.google.protobuf.Message;
 
 public class OutgoingPacket {
   private static final Logger LOG = Logger.getLogger(OutgoingPacket.class.getName());
+  // The pool the buffer is leased from, or null if it was allocated on demand
+  private final ByteBufferPool bufferPool;
   private ByteBuffer buffer;
+  private final int size;
 
   public OutgoingPacket(REQID reqid, Message message) {
+    this(reqid, message, null);
+  }
+
+  public OutgoingPacket(REQID reqid, Message message, ByteBufferPool bufferPool) {
     assert message.isInitialized();
     // First calculate the total size of the packet
     // including the header
@@ -64,7 +72,9 @@ public class OutgoingPacket {
     int dataSize = sizeRequiredToPackString(typename)
         + REQID.REQID_SIZE
         + sizeRequiredToPackMessage(message);
-    buffer = ByteBuffer.allocate(headerSize + dataSize);
+    this.bufferPool = bufferPool;
+    size = headerSize + dataSize;
+    buffer = bufferPool == null ? ByteBuffer.allocate(size) : bufferPool.acquire(size);
 
     // First write out how much data is there as the header
     buffer.putInt(dataSize);
@@ -76,10 +86,16 @@ public class OutgoingPacket {
     // now the reqid
     reqid.pack(buffer);
 
-    // finally the proto
-    // Double copy but it is designed, see the comments on top
+    // finally the proto, encoded straight into the packet buffer rather than
+    // through an intermediate byte array
     buffer.putInt(message.getSerializedSize());
-    buffer.put(message.toByteArray());
+    try {
+      CodedOutputStream output = CodedOutputStream.newInstance(buffer);
+      message.writeTo(output);
+      output.flush();
+    } catch (IOException e) {
+      throw new RuntimeException("Failed to serialize message: " + typename, e);
+    }
 
     // Make the buffer ready for writing out
     buffer.flip();
@@ -107,6 +123,26 @@ public class OutgoingPacket {
   }
 
   public int size() {
-    return buffer.capacity();
+    return size;
+  }
+
+  // The buffer holding the bytes left to write, used for gathering writes
+  ByteBuffer getBuffer() {
+    return buffer;
+  }
+
+  boolean isFullyWritten() {
+    return !buffer.hasRemaining();
+  }
+
+  /**
+   * Return the buffer of this packet to the pool it was created with, once it has been written
+   * out or dropped. The packet must not be used after it is released.
+   */
+  public void release() {
+    if (bufferPool != null) {
+      bufferPool.release(buffer);
+    }
+    buffer = null;
   }
 }
@@ -19,13 +19,17 @@
 
 package org.apache.heron.common.network;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.channels.ClosedChannelException;
 import java.nio.channels.SocketChannel;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Queue;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import org.apache.heron.common.basics.ByteAmount;
@@ -63,6 +67,8 @@ import org.apache.heron.common.basics.NIOLooper;
 
 public class SocketChannelHelper {
   private static final Logger LOG = Logger.getLogger(SocketChannelHelper.class.getName());
+  // The maximum # of packets gathered into a single write call
+  private static final int MAX_PACKETS_PER_WRITE = 128;
   private final NIOLooper looper;
   private final ISelectHandler selectHandler;
   private final SocketChannel socketChannel;
@@ -70,6 +76,8 @@ public class SocketChannelHelper {
   // Carefully check the size of queue before offering packets into it
   // to avoid the unbounded-growth of queue
   private final Queue<OutgoingPacket> outgoingPacketsToWrite;
+  // Reused to gather the buffers of queued packets into one write call
+  private final ByteBuffer[] buffersToWrite = new ByteBuffer[MAX_PACKETS_PER_WRITE];
 
   // System Config related
   private final ByteAmount writeBatchSize;
@@ -77,12 +85,18 @@ public class SocketChannelHelper {
   private final ByteAmount readBatchSize;
   private final Duration readReadBatchTime;
 
+  // Pool of the buffers backing this connection's incoming and outgoing packets
+  private final ByteBufferPool bufferPool;
+
   // Incompletely read next packet
   private IncomingPacket incomingPacket;
   private long totalPacketsRead;
   private long totalPacketsWritten;
   private long totalBytesRead;
   private long totalBytesWritten;
+  private long totalWriteCalls;
+  // # of write calls avoided by gathering several packets per call, since last reset
+  private long writeCallsSaved;
   private ByteAmount maximumPacketSize;
 
   public SocketChannelHelper(NIOLooper looper,
@@ -93,7 +107,11 @@ public class SocketChannelHelper {
     this.selectHandler = selectHandler;
     this.socketChannel = socketChannel;
     this.outgoingPacketsToWrite = new LinkedList<OutgoingPacket>();
-    this.incomingPacket = new IncomingPacket();
+    this.bufferPool = new ByteBufferPool(
+        (int) Math.min(options.getBufferPoolMaximumBufferSize().asBytes(), Integer.MAX_VALUE),
+        options.getBufferPoolBuffersPerSizeClass(),
+        options.isBufferPoolUseDirectBuffers());
+    this.incomingPacket = new IncomingPacket(bufferPool);
 
     this.writeBatchSize = options.getNetworkWriteBatchSize();
     this.writeBatchTime = options.getNetworkWriteBatchTime();
@@ -110,6 +128,9 @@ public class SocketChannelHelper {
   }
 
   public void clear() {
+    for (OutgoingPacket outgoingPacket : outgoingPacketsToWrite) {
+      outgoingPacket.release();
+    }
     outgoingPacketsToWrite.clear();
   }
 
@@ -162,7 +183,7 @@ public class SocketChannelHelper {
         nPacketsRead++;
         bytesRead += incomingPacket.size();
         ret.add(incomingPacket);
-        incomingPacket = new IncomingPacket();
+        incomingPacket = new IncomingPacket(bufferPool);
       }
     }
 
@@ -173,6 +194,7 @@ public class SocketChannelHelper {
   }
 
   // Write the outgoingPackets in buffer to socket
+  // Queued packets are gathered into a single write call, up to writeBatchSize bytes
   public void write() {
     // We record the start time to avoid spending too much time on writings
     long startOfCycle = System.nanoTime();
@@ -181,28 +203,56 @@ public class SocketChannelHelper {
     long nPacketsWritten = 0;
 
     while ((System.nanoTime() - startOfCycle - writeBatchTime.toNanos()) < 0
-        && (bytesWritten < writeBatchSize.asBytes())) {
-      OutgoingPacket outgoingPacket = outgoingPacketsToWrite.peek();
-      if (outgoingPacket == null) {
-        break;
+        && (bytesWritten < writeBatchSize.asBytes())
+        && !outgoingPacketsToWrite.isEmpty()) {
+      // Gather the queued packets fitting in the rest of this batch; the first one always goes
+      int nBuffers = 0;
+      long bytesToWrite = 0;
+      for (OutgoingPacket outgoingPacket : outgoingPacketsToWrite) {
+        ByteBuffer buffer = outgoingPacket.getBuffer();
+        buffersToWrite[nBuffers++] = buffer;
+        bytesToWrite += buffer.remaining();
+        if (nBuffers == buffersToWrite.length
+            || bytesWritten + bytesToWrite >= writeBatchSize.asBytes()) {
+          break;
+        }
       }
 
-      int writeState = outgoingPacket.writeToChannel(socketChannel);
-      if (writeState > 0) {
-        // Partial writing, we would break since we could not write more data on socket.
-        // But we have set the next start point of OutgoingPacket
-        // Next time when the socket is writable, it will start from that point.
-        break;
-      } else if (writeState < 0) {
+      long wrote;
+      try {
+        wrote = socketChannel.write(buffersToWrite, 0, nBuffers);
+      } catch (IOException e) {
+        LOG.log(Level.SEVERE, "Error writing to channel ", e);
+        wrote = -1;
+      }
+      Arrays.fill(buffersToWrite, 0, nBuffers, null);
+      totalWriteCalls++;
+
+      if (wrote < 0) {
         LOG.severe("Something bad happened while writing to channel");
         selectHandler.handleError(socketChannel);
         return;
-      } else {
-        // writeState == 0, we fully write a outgoingPacket
+      }
+
+      // Retire the packets fully written. A partially written one stays at the head
+      // and the next write starts from where it stopped.
+      long nPacketsInCall = 0;
+      while (!outgoingPacketsToWrite.isEmpty()
+          && outgoingPacketsToWrite.peek().isFullyWritten()) {
+        OutgoingPacket outgoingPacket = outgoingPacketsToWrite.remove();
         bytesWritten += outgoingPacket.size();
-        nPacketsWritten++;
+        nPacketsInCall++;
+        outgoingPacket.release();
+      }
+      nPacketsWritten += nPacketsInCall;
+      if (nPacketsInCall > 1) {
+        writeCallsSaved += nPacketsInCall - 1;
+      }
 
-        outgoingPacketsToWrite.remove();
+      if (wrote < bytesToWrite) {
+        // Partial writing, we would break since we could not write more data on socket.
+        // Next time when the socket is writable, it will start from that point.
+        break;
       }
     }
 
@@ -220,7 +270,9 @@ public class SocketChannelHelper {
   public void forceFlushWithBestEffort() {
     LOG.info("Forcing to flush data to socket with best effort.");
     while (!outgoingPacketsToWrite.isEmpty()) {
-      int writeState = outgoingPacketsToWrite.poll().writeToChannel(socketChannel);
+      OutgoingPacket outgoingPacket = outgoingPacketsToWrite.poll();
+      int writeState = outgoingPacket.writeToChannel(socketChannel);
+      outgoingPacket.release();
       if (writeState != 0) {
         LOG.info("Failed to write more to Socket. Clear and finish the flush.");
         clear();
@@ -261,6 +313,11 @@ public class SocketChannelHelper {
     }
   }
 
+  // The pool packets sent or received on this connection should lease their buffers from
+  public ByteBufferPool getBufferPool() {
+    return bufferPool;
+  }
+
   public int getOutstandingPackets() {
     return outgoingPacketsToWrite.size();
   }
@@ -284,4 +341,16 @@ public class SocketChannelHelper {
   public long getTotalBytesWritten() {
     return totalBytesWritten;
   }
+
+  public long getTotalWriteCalls() {
+    return totalWriteCalls;
+  }
+
+  public long getWriteCallsSaved() {
+    return writeCallsSaved;
+  }
+
+  public void resetWriteCallsSaved() {
+    writeCallsSaved = 0;
+  }
 }
@@ -90,17 +90,38 @@ public class BoltMetrics implements ComponentMetrics {
 
   }
 
+  /**
+   * Resolve the index of an input stream, which could then be passed to the
+   * index based methods to update metrics without looking up the stream again.
+   * Metrics here are not scoped by stream, so every stream shares the index 0.
+   */
+  public int getInputStreamIndex(String streamId, String sourceComponent) {
+    return 0;
+  }
+
   public void ackedTuple(String streamId, String sourceComponent, long latency) {
+    ackedTuple(getInputStreamIndex(streamId, sourceComponent), latency);
+  }
+
+  public void ackedTuple(int streamIndex, long latency) {
     ackCount.incr();
     processLatency.update(latency);
   }
 
   public void failedTuple(String streamId, String sourceComponent, long latency) {
+    failedTuple(getInputStreamIndex(streamId, sourceComponent), latency);
+  }
+
+  public void failedTuple(int streamIndex, long latency) {
     failCount.incr();
     failLatency.update(latency);
   }
 
   public void executeTuple(String streamId, String sourceComponent, long latency) {
+    executeTuple(getInputStreamIndex(streamId, sourceComponent), latency);
+  }
+
+  public void executeTuple(int streamIndex, long latency) {
     executeCount.incr();
     executeLatency.update(latency);
   }
@@ -116,6 +137,9 @@ public class BoltMetrics implements ComponentMetrics {
   public void deserializeDataTuple(String streamId, String sourceComponent, long latency) {
   }
 
+  public void deserializeDataTuple(int streamIndex, long latency) {
+  }
+
   public void serializeDataTuple(String streamId, long latency) {
   }
 }
@@ -19,14 +19,20 @@
 
 package org.apache.heron.common.utils.metrics;
 
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.heron.api.generated.TopologyAPI;
 import org.apache.heron.api.metric.CountMetric;
 import org.apache.heron.api.metric.MeanReducer;
 import org.apache.heron.api.metric.MeanReducerState;
+import org.apache.heron.api.metric.HistogramMetric;
 import org.apache.heron.api.metric.MultiCountMetric;
+import org.apache.heron.api.metric.MultiHistogramMetric;
 import org.apache.heron.api.metric.MultiReducedMetric;
+import org.apache.heron.api.metric.ReducedMetric;
 import org.apache.heron.common.basics.SingletonRegistry;
 import org.apache.heron.common.config.SystemConfig;
 import org.apache.heron.common.utils.misc.PhysicalPlanHelper;
@@ -48,6 +54,9 @@ public class FullBoltMetrics extends BoltMetrics {
   private final MultiCountMetric failCount;
   private final MultiCountMetric executeCount;
   private final MultiReducedMetric<MeanReducerState, Number, Double> executeLatency;
+  // The distributions of the latencies in nano-seconds, to export their tail quantiles
+  private final MultiHistogramMetric processLatencyHistogram;
+  private final MultiHistogramMetric executeLatencyHistogram;
 
   // Time in nano-seconds spending in execute() at every interval
   private final MultiCountMetric executeTimeNs;
@@ -59,6 +68,12 @@ public class FullBoltMetrics extends BoltMetrics {
   // so instance could not produce more tuples
   private final CountMetric outQueueFullCount;
 
+  // Scoped metrics of every input stream, resolved once and then addressed by index,
+  // so that updating them per tuple needs neither a scope lookup nor a new string
+  private InputStreamMetrics[] inputStreams;
+  private int numInputStreams;
+  // source component -> stream id -> index in inputStreams
+  private final Map<String, Map<String, Integer>> inputStreamIndices;
 
   public FullBoltMetrics() {
     ackCount = new MultiCountMetric();
@@ -67,12 +82,18 @@ public class FullBoltMetrics extends BoltMetrics {
     failCount = new MultiCountMetric();
     executeCount = new MultiCountMetric();
     executeLatency = new MultiReducedMetric<>(new MeanReducer());
+    processLatencyHistogram = new MultiHistogramMetric();
+    executeLatencyHistogram = new MultiHistogramMetric();
     executeTimeNs = new MultiCountMetric();
     emitCount = new MultiCountMetric();
     outQueueFullCount = new CountMetric();
 
     deserializationTimeNs = new MultiCountMetric();
     serializationTimeNs = new MultiCountMetric();
+
+    inputStreams = new InputStreamMetrics[0];
+    numInputStreams = 0;
+    inputStreamIndices = new HashMap<>();
   }
 
   public void registerMetrics(TopologyContextImpl topologyContext) {
@@ -87,6 +108,10 @@ public class FullBoltMetrics extends BoltMetrics {
     topologyContext.registerMetric("__fail-count", failCount, interval);
     topologyContext.registerMetric("__execute-count", executeCount, interval);
     topologyContext.registerMetric("__execute-latency", executeLatency, interval);
+    topologyContext.registerMetric(
+        "__histogram-process-latency", processLatencyHistogram, interval);
+    topologyContext.registerMetric(
+        "__histogram-execute-latency", executeLatencyHistogram, interval);
     topologyContext.registerMetric("__execute-time-ns", executeTimeNs, interval);
     topologyContext.registerMetric("__emit-count", emitCount, interval);
     topologyContext.registerMetric("__out-queue-full-count", outQueueFullCount, interval);
@@ -105,20 +130,8 @@ public class FullBoltMetrics extends BoltMetrics {
     // For bolt, we would consider both input stream and output stream
     List<TopologyAPI.InputStream> inputs = helper.getMyBolt().getInputsList();
     for (TopologyAPI.InputStream inputStream : inputs) {
-      String streamId = inputStream.getStream().getId();
-      String globalStreamId =
-          new StringBuilder(inputStream.getStream().getComponentName()).
-              append("/").append(streamId).toString();
-
-      ackCount.scope(streamId);
-      failCount.scope(streamId);
-      executeCount.scope(streamId);
-      executeTimeNs.scope(streamId);
-
-      ackCount.scope(globalStreamId);
-      failCount.scope(globalStreamId);
-      executeCount.scope(globalStreamId);
-      executeTimeNs.scope(globalStreamId);
+      getInputStreamIndex(
+          inputStream.getStream().getId(), inputStream.getStream().getComponentName());
     }
     List<TopologyAPI.OutputStream> outputs = helper.getMyBolt().getOutputsList();
     for (TopologyAPI.OutputStream outputStream : outputs) {
@@ -127,42 +140,59 @@ public class FullBoltMetrics extends BoltMetrics {
     }
   }
 
-  public void ackedTuple(String streamId, String sourceComponent, long latency) {
-    ackCount.scope(streamId).incr();
-    processLatency.scope(streamId).update(latency);
-
-    // Consider there are cases that different streams with the same streamId,
-    // but with different source component. We need to distinguish them too.
-    String globalStreamId =
-        new StringBuilder(sourceComponent).append("/").append(streamId).toString();
-    ackCount.scope(globalStreamId).incr();
-    processLatency.scope(globalStreamId).update(latency);
+  @Override
+  public int getInputStreamIndex(String streamId, String sourceComponent) {
+    Map<String, Integer> streams = inputStreamIndices.get(sourceComponent);
+    if (streams == null) {
+      streams = new HashMap<>();
+      inputStreamIndices.put(sourceComponent, streams);
+    }
+    Integer index = streams.get(streamId);
+    if (index == null) {
+      // Streams not declared in the physical plan, e.g. the tick tuple stream,
+      // are resolved the first time we see them
+      index = numInputStreams;
+      if (index == inputStreams.length) {
+        inputStreams = Arrays.copyOf(inputStreams, Math.max(4, index * 2));
+      }
+      inputStreams[index] = new InputStreamMetrics(streamId, sourceComponent);
+      numInputStreams++;
+      streams.put(streamId, index);
+    }
+    return index;
   }
 
-  public void failedTuple(String streamId, String sourceComponent, long latency) {
-    failCount.scope(streamId).incr();
-    failLatency.scope(streamId).update(latency);
+  @Override
+  public void ackedTuple(int streamIndex, long latency) {
+    InputStreamMetrics metrics = inputStreams[streamIndex];
+    metrics.ackCount.incr();
+    metrics.processLatency.update(latency);
+    metrics.processLatencyHistogram.record(latency);
+    metrics.globalAckCount.incr();
+    metrics.globalProcessLatency.update(latency);
+    metrics.globalProcessLatencyHistogram.record(latency);
+  }
 
-    // Consider there are cases that different streams with the same streamId,
-    // but with different source component. We need to distinguish them too.
-    String globalStreamId =
-        new StringBuilder(sourceComponent).append("/").append(streamId).toString();
-    failCount.scope(globalStreamId).incr();
-    failLatency.scope(globalStreamId).update(latency);
+  @Override
+  public void failedTuple(int streamIndex, long latency) {
+    InputStreamMetrics metrics = inputStreams[streamIndex];
+    metrics.failCount.incr();
+    metrics.failLatency.update(latency);
+    metrics.globalFailCount.incr();
+    metrics.globalFailLatency.update(latency);
   }
 
-  public void executeTuple(String streamId, String sourceComponent, long latency) {
-    executeCount.scope(streamId).incr();
-    executeLatency.scope(streamId).update(latency);
-    executeTimeNs.scope(streamId).incrBy(latency);
-
-    // Consider there are cases that different streams with the same streamId,
-    // but with different source component. We need to distinguish them too.
-    String globalStreamId =
-        new StringBuilder(sourceComponent).append("/").append(streamId).toString();
-    executeCount.scope(globalStreamId).incr();
-    executeLatency.scope(globalStreamId).update(latency);
-    executeTimeNs.scope(globalStreamId).incrBy(latency);
+  @Override
+  public void executeTuple(int streamIndex, long latency) {
+    InputStreamMetrics metrics = inputStreams[streamIndex];
+    metrics.executeCount.incr();
+    metrics.executeLatency.update(latency);
+    metrics.executeLatencyHistogram.record(latency);
+    metrics.executeTimeNs.incrBy(latency);
+    metrics.globalExecuteCount.incr();
+    metrics.globalExecuteLatency.update(latency);
+    metrics.globalExecuteLatencyHistogram.record(latency);
+    metrics.globalExecuteTimeNs.incrBy(latency);
   }
 
   public void emittedTuple(String streamId) {
@@ -173,18 +203,78 @@ public class FullBoltMetrics extends BoltMetrics {
     outQueueFullCount.incr();
   }
 
+  @Override
   public void deserializeDataTuple(String streamId, String sourceComponent, long latency) {
-    deserializationTimeNs.scope(streamId).incrBy(latency);
+    deserializeDataTuple(getInputStreamIndex(streamId, sourceComponent), latency);
+  }
 
-    // Consider there are cases that different streams with the same streamId,
-    // but with different source component. We need to distinguish them too.
-    String globalStreamId =
-        new StringBuilder(sourceComponent).append("/").append(streamId).toString();
-    deserializationTimeNs.scope(globalStreamId).incrBy(latency);
+  @Override
+  public void deserializeDataTuple(int streamIndex, long latency) {
+    InputStreamMetrics metrics = inputStreams[streamIndex];
+    metrics.deserializationTimeNs.incrBy(latency);
+    metrics.globalDeserializationTimeNs.incrBy(latency);
   }
 
   public void serializeDataTuple(String streamId, long latency) {
     serializationTimeNs.scope(streamId).incrBy(latency);
   }
-}
 
+  /**
+   * The scoped metrics of one input stream. Every metric is kept twice: scoped by the stream id,
+   * and scoped by the source component plus the stream id, since different streams could have
+   * the same stream id but come from different source components.
+   */
+  private final class InputStreamMetrics {
+    private final CountMetric ackCount;
+    private final ReducedMetric<MeanReducerState, Number, Double> processLatency;
+    private final HistogramMetric processLatencyHistogram;
+    private final CountMetric failCount;
+    private final ReducedMetric<MeanReducerState, Number, Double> failLatency;
+    private final CountMetric executeCount;
+    private final ReducedMetric<MeanReducerState, Number, Double> executeLatency;
+    private final HistogramMetric executeLatencyHistogram;
+    private final CountMetric executeTimeNs;
+    private final CountMetric deserializationTimeNs;
+
+    private final CountMetric globalAckCount;
+    private final ReducedMetric<MeanReducerState, Number, Double> globalProcessLatency;
+    private final HistogramMetric globalProcessLatencyHistogram;
+    private final CountMetric globalFailCount;
+    private final ReducedMetric<MeanReducerState, Number, Double> globalFailLatency;
+    private final CountMetric globalExecuteCount;
+    private final ReducedMetric<MeanReducerState, Number, Double> globalExecuteLatency;
+    private final HistogramMetric globalExecuteLatencyHistogram;
+    private final CountMetric globalExecuteTimeNs;
+    private final CountMetric globalDeserializationTimeNs;
+
+    InputStreamMetrics(String streamId, String sourceComponent) {
+      String globalStreamId =
+          new StringBuilder(sourceComponent).append("/").append(streamId).toString();
+
+      ackCount = FullBoltMetrics.this.ackCount.scope(streamId);
+      processLatency = FullBoltMetrics.this.processLatency.scope(streamId);
+      processLatencyHistogram = FullBoltMetrics.this.processLatencyHistogram.scope(streamId);
+      failCount = FullBoltMetrics.this.failCount.scope(streamId);
+      failLatency = FullBoltMetrics.this.failLatency.scope(streamId);
+      executeCount = FullBoltMetrics.this.executeCount.scope(streamId);
+      executeLatency = FullBoltMetrics.this.executeLatency.scope(streamId);
+      executeLatencyHistogram = FullBoltMetrics.this.executeLatencyHistogram.scope(streamId);
+      executeTimeNs = FullBoltMetrics.this.executeTimeNs.scope(streamId);
+      deserializationTimeNs = FullBoltMetrics.this.deserializationTimeNs.scope(streamId);
+
+      globalAckCount = FullBoltMetrics.this.ackCount.scope(globalStreamId);
+      globalProcessLatency = FullBoltMetrics.this.processLatency.scope(globalStreamId);
+      globalProcessLatencyHistogram =
+          FullBoltMetrics.this.processLatencyHistogram.scope(globalStreamId);
+      globalFailCount = FullBoltMetrics.this.failCount.scope(globalStreamId);
+      globalFailLatency = FullBoltMetrics.this.failLatency.scope(globalStreamId);
+      globalExecuteCount = FullBoltMetrics.this.executeCount.scope(globalStreamId);
+      globalExecuteLatency = FullBoltMetrics.this.executeLatency.scope(globalStreamId);
+      globalExecuteLatencyHistogram =
+          FullBoltMetrics.this.executeLatencyHistogram.scope(globalStreamId);
+      globalExecuteTimeNs = FullBoltMetrics.this.executeTimeNs.scope(globalStreamId);
+      globalDeserializationTimeNs =
+          FullBoltMetrics.this.deserializationTimeNs.scope(globalStreamId);
+    }
+  }
+}
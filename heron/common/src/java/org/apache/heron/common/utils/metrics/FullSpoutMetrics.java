@@ -19,13 +19,17 @@
 
 package org.apache.heron.common.utils.metrics;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.heron.api.generated.TopologyAPI;
 import org.apache.heron.api.metric.CountMetric;
 import org.apache.heron.api.metric.MeanReducer;
 import org.apache.heron.api.metric.MeanReducerState;
+import org.apache.heron.api.metric.HistogramMetric;
 import org.apache.heron.api.metric.MultiCountMetric;
+import org.apache.heron.api.metric.MultiHistogramMetric;
 import org.apache.heron.api.metric.MultiReducedMetric;
 import org.apache.heron.api.metric.ReducedMetric;
 import org.apache.heron.common.basics.SingletonRegistry;
@@ -46,6 +50,8 @@ import org.apache.heron.common.utils.topology.TopologyContextImpl;
 public class FullSpoutMetrics extends SpoutMetrics {
   private final MultiCountMetric ackCount;
   private final MultiReducedMetric<MeanReducerState, Number, Double> completeLatency;
+  // The distribution of the complete latency in nano-seconds, to export its tail quantiles
+  private final MultiHistogramMetric completeLatencyHistogram;
   private final MultiReducedMetric<MeanReducerState, Number, Double> failLatency;
   private final MultiCountMetric failCount;
   private final MultiCountMetric timeoutCount;
@@ -61,9 +67,14 @@ public class FullSpoutMetrics extends SpoutMetrics {
   // The mean # of pending-to-be-acked tuples in spout if acking is enabled
   private final ReducedMetric<MeanReducerState, Number, Double> pendingTuplesCount;
 
+  // Scoped metrics of every output stream, so that updating them per tuple
+  // needs a single lookup rather than one per metric
+  private final Map<String, OutputStreamMetrics> outputStreams;
+
   public FullSpoutMetrics() {
     ackCount = new MultiCountMetric();
     completeLatency = new MultiReducedMetric<>(new MeanReducer());
+    completeLatencyHistogram = new MultiHistogramMetric();
     failLatency = new MultiReducedMetric<>(new MeanReducer());
     failCount = new MultiCountMetric();
     timeoutCount = new MultiCountMetric();
@@ -73,6 +84,7 @@ public class FullSpoutMetrics extends SpoutMetrics {
     outQueueFullCount = new CountMetric();
     pendingTuplesCount = new ReducedMetric<>(new MeanReducer());
     serializationTimeNs = new MultiCountMetric();
+    outputStreams = new HashMap<>();
   }
 
   public void registerMetrics(TopologyContextImpl topologyContext) {
@@ -83,6 +95,8 @@ public class FullSpoutMetrics extends SpoutMetrics {
 
     topologyContext.registerMetric("__ack-count", ackCount, interval);
     topologyContext.registerMetric("__complete-latency", completeLatency, interval);
+    topologyContext.registerMetric(
+        "__histogram-complete-latency", completeLatencyHistogram, interval);
     topologyContext.registerMetric("__fail-latency", failLatency, interval);
     topologyContext.registerMetric("__fail-count", failCount, interval);
     topologyContext.registerMetric("__timeout-count", timeoutCount, interval);
@@ -104,30 +118,38 @@ public class FullSpoutMetrics extends SpoutMetrics {
     // For spout, we would consider the output stream
     List<TopologyAPI.OutputStream> outputs = helper.getMySpout().getOutputsList();
     for (TopologyAPI.OutputStream outputStream : outputs) {
-      String streamId = outputStream.getStream().getId();
-      ackCount.scope(streamId);
-      failCount.scope(streamId);
-      timeoutCount.scope(streamId);
-      emitCount.scope(streamId);
+      getOutputStream(outputStream.getStream().getId());
+    }
+  }
+
+  private OutputStreamMetrics getOutputStream(String streamId) {
+    OutputStreamMetrics metrics = outputStreams.get(streamId);
+    if (metrics == null) {
+      metrics = new OutputStreamMetrics(streamId);
+      outputStreams.put(streamId, metrics);
     }
+    return metrics;
   }
 
   public void ackedTuple(String streamId, long latency) {
-    ackCount.scope(streamId).incr();
-    completeLatency.scope(streamId).update(latency);
+    OutputStreamMetrics metrics = getOutputStream(streamId);
+    metrics.ackCount.incr();
+    metrics.completeLatency.update(latency);
+    metrics.completeLatencyHistogram.record(latency);
   }
 
   public void failedTuple(String streamId, long latency) {
-    failCount.scope(streamId).incr();
-    failLatency.scope(streamId).update(latency);
+    OutputStreamMetrics metrics = getOutputStream(streamId);
+    metrics.failCount.incr();
+    metrics.failLatency.update(latency);
   }
 
   public void timeoutTuple(String streamId) {
-    timeoutCount.scope(streamId).incr();
+    getOutputStream(streamId).timeoutCount.incr();
   }
 
   public void emittedTuple(String streamId) {
-    emitCount.scope(streamId).incr();
+    getOutputStream(streamId).emitCount.incr();
   }
 
   public void nextTuple(long latency) {
@@ -144,7 +166,32 @@ public class FullSpoutMetrics extends SpoutMetrics {
   }
 
   public void serializeDataTuple(String streamId, long latency) {
-    serializationTimeNs.scope(streamId).incrBy(latency);
+    getOutputStream(streamId).serializationTimeNs.incrBy(latency);
+  }
+
+  /**
+   * The scoped metrics of one output stream
+   */
+  private final class OutputStreamMetrics {
+    private final CountMetric ackCount;
+    private final ReducedMetric<MeanReducerState, Number, Double> completeLatency;
+    private final HistogramMetric completeLatencyHistogram;
+    private final CountMetric failCount;
+    private final ReducedMetric<MeanReducerState, Number, Double> failLatency;
+    private final CountMetric timeoutCount;
+    private final CountMetric emitCount;
+    private final CountMetric serializationTimeNs;
+
+    OutputStreamMetrics(String streamId) {
+      ackCount = FullSpoutMetrics.this.ackCount.scope(streamId);
+      completeLatency = FullSpoutMetrics.this.completeLatency.scope(streamId);
+      completeLatencyHistogram = FullSpoutMetrics.this.completeLatencyHistogram.scope(streamId);
+      failCount = FullSpoutMetrics.this.failCount.scope(streamId);
+      failLatency = FullSpoutMetrics.this.failLatency.scope(streamId);
+      timeoutCount = FullSpoutMetrics.this.timeoutCount.scope(streamId);
+      emitCount = FullSpoutMetrics.this.emitCount.scope(streamId);
+      serializationTimeNs = FullSpoutMetrics.this.serializationTimeNs.scope(streamId);
+    }
   }
 }
 
@@ -382,8 +382,9 @@ public class JVMMetrics {
         if (threadInfo != null) {
           String threadName = threadInfo.getThreadName();
 
+          // The slave threads are suffixed with their task id when a process hosts several
           if (threadName.equals(ThreadNames.THREAD_GATEWAY_NAME)
-              || threadName.equals(ThreadNames.THREAD_SLAVE_NAME)) {
+              || threadName.startsWith(ThreadNames.THREAD_SLAVE_NAME)) {
             threadsCPUTimeNs.scope(threadName).setValue(cpuTime);
             threadsUserCPUTimeNs.scope(threadName).setValue(cpuUserTime);
           } else {
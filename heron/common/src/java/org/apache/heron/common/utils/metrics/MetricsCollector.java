@@ -28,6 +28,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.logging.Logger;
 
+import org.apache.heron.api.metric.HistogramSnapshot;
 import org.apache.heron.api.metric.IMetric;
 import org.apache.heron.api.metric.IMetricsRegister;
 import org.apache.heron.common.basics.Communicator;
@@ -126,11 +127,34 @@ public class MetricsCollector implements IMetricsRegister {
     } else {
       assert metricName != null;
       Metrics.MetricDatum.Builder d = Metrics.MetricDatum.newBuilder();
-      d.setName(metricName).setValue(metricValue.toString());
+      d.setName(metricName);
+      // Numbers are sent typed, so that they are not formatted here and parsed again by sinks
+      if (metricValue instanceof Long || metricValue instanceof Integer
+          || metricValue instanceof Short || metricValue instanceof Byte) {
+        d.setLongValue(((Number) metricValue).longValue());
+      } else if (metricValue instanceof Double || metricValue instanceof Float) {
+        d.setDoubleValue(((Number) metricValue).doubleValue());
+      } else if (metricValue instanceof HistogramSnapshot) {
+        d.setHistogramValue(toHistogramDatum((HistogramSnapshot) metricValue));
+      } else {
+        d.setValue(metricValue.toString());
+      }
       builder.addMetrics(d);
     }
   }
 
+  private static Metrics.HistogramDatum.Builder toHistogramDatum(HistogramSnapshot histogram) {
+    Metrics.HistogramDatum.Builder builder = Metrics.HistogramDatum.newBuilder()
+        .setSum(histogram.getSum())
+        .setMin(histogram.getMin())
+        .setMax(histogram.getMax());
+    for (int i = 0; i < histogram.getBucketCount(); i++) {
+      builder.addBucketBounds(histogram.getBucketBound(i));
+      builder.addBucketCounts(histogram.getBucketCount(i));
+    }
+    return builder;
+  }
+
   @SuppressWarnings("unchecked")
   private void gatherMetrics(final int timeBucketSizeInSecs) {
     // Gather the metrics in Map<String, IMetric> metrics
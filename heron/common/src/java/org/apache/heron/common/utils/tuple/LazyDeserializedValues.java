@@ -0,0 +1,110 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.heron.common.utils.tuple;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.LongConsumer;
+
+import com.google.protobuf.ByteString;
+
+import org.apache.heron.api.serializer.IPluggableSerializer;
+
+/**
+ * The values of a received tuple, kept in their serialized form and deserialized one by one
+ * on first access. The result is cached so each field is deserialized at most once.
+ * <p>
+ * Passed to TupleImpl in place of an eagerly filled list, so a bolt only pays for the fields
+ * it actually reads, e.g. a filter or a fields grouped counter reading one field of a wide tuple.
+ * <p>
+ * Not thread-safe: the serializers are not either, so the values should be accessed from the
+ * thread executing the bolt.
+ * <p>
+ * Java serialization writes the values as a plain ArrayList, deserializing the remaining ones,
+ * so that tuples can still be serialized, e.g. in the state of a windowed bolt.
+ */
+public final class LazyDeserializedValues extends AbstractList<Object>
+    implements RandomAccess, Serializable {
+  private static final long serialVersionUID = 4410382759014624087L;
+  // Marks a value which has not been deserialized yet; null is a legal value
+  private static final Object NOT_DESERIALIZED = new Object();
+
+  private final transient List<ByteString> serializedValues;
+  private final transient IPluggableSerializer serializer;
+  private final transient LongConsumer deserializationTimeNs;
+  private final transient Object[] values;
+
+  /**
+   * Construct the values
+   *
+   * @param serializedValues the serialized values of the tuple
+   * @param serializer the serializer to deserialize the values with
+   * @param deserializationTimeNs notified of the nano-seconds spent for every field deserialized
+   */
+  public LazyDeserializedValues(List<ByteString> serializedValues,
+                                IPluggableSerializer serializer,
+                                LongConsumer deserializationTimeNs) {
+    this.serializedValues = serializedValues;
+    this.serializer = serializer;
+    this.deserializationTimeNs = deserializationTimeNs;
+    this.values = new Object[serializedValues.size()];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = NOT_DESERIALIZED;
+    }
+  }
+
+  @Override
+  public Object get(int index) {
+    Object value = values[index];
+    if (value == NOT_DESERIALIZED) {
+      long startTime = System.nanoTime();
+      value = serializer.deserialize(serializedValues.get(index).toByteArray());
+      deserializationTimeNs.accept(System.nanoTime() - startTime);
+      values[index] = value;
+    }
+    return value;
+  }
+
+  @Override
+  public Object set(int index, Object element) {
+    Object previous = get(index);
+    values[index] = element;
+    return previous;
+  }
+
+  @Override
+  public int size() {
+    return values.length;
+  }
+
+  private Object writeReplace() {
+    return new ArrayList<>(this);
+  }
+
+  /**
+   * Check whether the value at the index has been deserialized
+   */
+  public boolean isDeserialized(int index) {
+    return values[index] != NOT_DESERIALIZED;
+  }
+}
@@ -47,6 +47,8 @@ public class TupleImpl implements Tuple {
   private final List<HeronTuples.RootId> roots;
   private final long creationTime;
   private final int sourceTaskId;
+  // Index of the source stream in the bolt's metrics, or -1 if not resolved
+  private final int streamIndex;
 
   private List<Object> values;
 
@@ -60,12 +62,21 @@ public class TupleImpl implements Tuple {
                    long tupleKey, List<HeronTuples.RootId> roots,
                    List<Object> values, long creationTime, boolean isCheckRequired,
                    int sourceTaskId) {
+    this(context, stream, tupleKey, roots, values, creationTime, isCheckRequired, sourceTaskId,
+        -1);
+  }
+
+  public TupleImpl(TopologyContext context, TopologyAPI.StreamId stream,
+                   long tupleKey, List<HeronTuples.RootId> roots,
+                   List<Object> values, long creationTime, boolean isCheckRequired,
+                   int sourceTaskId, int streamIndex) {
     this.stream = stream;
     this.tupleKey = tupleKey;
     this.roots = roots;
     this.values = values;
     this.creationTime = creationTime;
     this.sourceTaskId = sourceTaskId;
+    this.streamIndex = streamIndex;
     this.fields = context.getComponentOutputFields(
         this.stream.getComponentName(), this.stream.getId());
 
@@ -88,6 +99,10 @@ public class TupleImpl implements Tuple {
     return tupleKey;
   }
 
+  public int getStreamIndex() {
+    return streamIndex;
+  }
+
   @Override
   public int size() {
     return values.size();
@@ -0,0 +1,219 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.heron.common.basics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * SpscRingBuffer Tester.
+ */
+public class SpscRingBufferTest {
+  private static final int RING_SIZE = 8;
+
+  @Test
+  public void testCapacityRoundedUpToPowerOfTwo() {
+    Assert.assertEquals(8, new SpscRingBuffer<Integer>(5).getCapacity());
+    Assert.assertEquals(2, new SpscRingBuffer<Integer>(1).getCapacity());
+  }
+
+  @Test
+  public void testOfferPollInOrder() {
+    SpscRingBuffer<Integer> ring = new SpscRingBuffer<>(RING_SIZE);
+    for (int round = 0; round < 3; round++) {
+      for (int i = 0; i < RING_SIZE - 1; i++) {
+        Assert.assertTrue(ring.offer(i));
+        Assert.assertEquals(i + 1, ring.size());
+      }
+      for (int i = 0; i < RING_SIZE - 1; i++) {
+        Assert.assertEquals(i, ring.peek().intValue());
+        Assert.assertEquals(i, ring.poll().intValue());
+      }
+      Assert.assertTrue(ring.isEmpty());
+      Assert.assertNull(ring.poll());
+    }
+  }
+
+  /**
+   * Offering past the ring size links a new ring rather than rejecting items
+   */
+  @Test
+  public void testOverOffer() {
+    SpscRingBuffer<Integer> ring = new SpscRingBuffer<>(RING_SIZE);
+    int total = RING_SIZE * 5 + 3;
+    for (int i = 0; i < total; i++) {
+      Assert.assertTrue(ring.offer(i));
+    }
+    Assert.assertEquals(total, ring.size());
+
+    for (int i = 0; i < total; i++) {
+      Assert.assertEquals(i, ring.peek().intValue());
+      Assert.assertEquals(i, ring.poll().intValue());
+    }
+    Assert.assertNull(ring.poll());
+  }
+
+  @Test
+  public void testDrainTo() {
+    SpscRingBuffer<Integer> ring = new SpscRingBuffer<>(RING_SIZE);
+    int total = RING_SIZE * 2 + 1;
+    for (int i = 0; i < total; i++) {
+      ring.offer(i);
+    }
+
+    List<Integer> drained = new ArrayList<>();
+    Assert.assertEquals(5, ring.drainTo(drained, 5));
+    Assert.assertEquals(total - 5, ring.size());
+    Assert.assertEquals(total - 5, ring.drainTo(drained));
+    Assert.assertTrue(ring.isEmpty());
+    Assert.assertEquals(0, ring.drainTo(drained));
+
+    for (int i = 0; i < total; i++) {
+      Assert.assertEquals(i, drained.get(i).intValue());
+    }
+  }
+
+  @Test
+  public void testClear() {
+    SpscRingBuffer<Integer> ring = new SpscRingBuffer<>(RING_SIZE);
+    for (int i = 0; i < RING_SIZE * 2; i++) {
+      ring.offer(i);
+    }
+    ring.poll();
+    ring.clear();
+    Assert.assertEquals(0, ring.size());
+    Assert.assertTrue(ring.isEmpty());
+
+    ring.offer(100);
+    Assert.assertEquals(1, ring.size());
+    Assert.assertEquals(100, ring.poll().intValue());
+    Assert.assertNull(ring.poll());
+  }
+
+  @Test
+  public void testIterator() {
+    SpscRingBuffer<Integer> ring = new SpscRingBuffer<>(RING_SIZE);
+    List<Integer> expected = new ArrayList<>();
+    // Over-offer so the iteration follows the jump into the linked ring
+    for (int i = 0; i < RING_SIZE * 3; i++) {
+      ring.offer(i);
+      expected.add(i);
+    }
+    Assert.assertEquals(expected, new ArrayList<>(ring));
+    Assert.assertEquals(expected.toString(), ring.toString());
+
+    // Iterating does not consume
+    ring.poll();
+    expected.remove(0);
+    Assert.assertEquals(expected, new ArrayList<>(ring));
+    Assert.assertEquals(RING_SIZE * 3 - 1, ring.size());
+
+    ring.clear();
+    Assert.assertFalse(ring.iterator().hasNext());
+    ring.offer(100);
+    Assert.assertEquals(Arrays.asList(100), new ArrayList<>(ring));
+  }
+
+  @Test
+  public void testConcurrentProducerConsumer() throws InterruptedException {
+    final SpscRingBuffer<Integer> ring = new SpscRingBuffer<>(RING_SIZE);
+    final int total = 100000;
+
+    Thread producer = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        for (int i = 0; i < total; i++) {
+          ring.offer(i);
+        }
+      }
+    });
+    producer.start();
+
+    int expected = 0;
+    List<Integer> batch = new ArrayList<>();
+    while (expected < total) {
+      if (expected % 2 == 0) {
+        Integer item = ring.poll();
+        if (item != null) {
+          Assert.assertEquals(expected++, item.intValue());
+        }
+      } else {
+        batch.clear();
+        ring.drainTo(batch, 16);
+        for (Integer item : batch) {
+          Assert.assertEquals(expected++, item.intValue());
+        }
+      }
+    }
+    producer.join();
+    Assert.assertTrue(ring.isEmpty());
+  }
+
+  /**
+   * The consumer should only be waken up by an offer after it has seen the queue empty
+   */
+  @Test
+  public void testCommunicatorWakesIdleConsumerOnly() {
+    CountingLooper producer = new CountingLooper();
+    CountingLooper consumer = new CountingLooper();
+    Communicator<Integer> communicator =
+        Communicator.newSingleProducerSingleConsumer(producer, consumer, RING_SIZE);
+    communicator.init(RING_SIZE, RING_SIZE, 0.5);
+    consumer.wakeUps = 0;
+
+    communicator.offer(1);
+    Assert.assertEquals(1, consumer.wakeUps);
+
+    // The consumer is busy once it has polled an item
+    Assert.assertEquals(1, communicator.poll().intValue());
+    communicator.offer(2);
+    communicator.offer(3);
+    Assert.assertEquals(1, consumer.wakeUps);
+
+    Assert.assertEquals(2, communicator.poll().intValue());
+    Assert.assertEquals(3, communicator.poll().intValue());
+    Assert.assertNull(communicator.poll());
+    communicator.offer(4);
+    Assert.assertEquals(2, consumer.wakeUps);
+
+    List<Integer> drained = new ArrayList<>();
+    Assert.assertEquals(1, communicator.drainTo(drained));
+    Assert.assertEquals(0, communicator.drainTo(drained));
+    communicator.offer(5);
+    Assert.assertEquals(3, consumer.wakeUps);
+  }
+
+  private static final class CountingLooper extends WakeableLooper {
+    private int wakeUps;
+
+    @Override
+    protected void doWait() {
+    }
+
+    @Override
+    public void wakeUp() {
+      wakeUps++;
+    }
+  }
+}
@@ -0,0 +1,138 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.heron.common.basics;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests SlaveLooper and NIOLooper under every WaitStrategy
+ */
+public class WaitStrategyTest {
+  private static final int SPIN_ITERATIONS = 100;
+  private static final int HANDOFFS = 1000;
+  private static final long TIMEOUT_MS = 30000;
+
+  @Test
+  public void testFromString() {
+    Assert.assertEquals(WaitStrategy.BLOCKING, WaitStrategy.fromString("blocking"));
+    Assert.assertEquals(WaitStrategy.SPIN_PARK, WaitStrategy.fromString(" Spin_Park "));
+  }
+
+  @Test
+  public void testSlaveLooperHandoff() throws InterruptedException {
+    for (WaitStrategy waitStrategy : WaitStrategy.values()) {
+      testHandoff(new SlaveLooper(waitStrategy, SPIN_ITERATIONS));
+    }
+  }
+
+  @Test
+  public void testNIOLooperHandoff() throws InterruptedException, IOException {
+    for (WaitStrategy waitStrategy : WaitStrategy.values()) {
+      testHandoff(new NIOLooper(waitStrategy, SPIN_ITERATIONS));
+    }
+  }
+
+  @Test
+  public void testSlaveLooperTimer() {
+    for (WaitStrategy waitStrategy : WaitStrategy.values()) {
+      testTimer(new SlaveLooper(waitStrategy, SPIN_ITERATIONS));
+    }
+  }
+
+  @Test
+  public void testNIOLooperTimer() throws IOException {
+    for (WaitStrategy waitStrategy : WaitStrategy.values()) {
+      testTimer(new NIOLooper(waitStrategy, SPIN_ITERATIONS));
+    }
+  }
+
+  /**
+   * A looper that is not spinning at all should park right away and be unparked by wakeUp()
+   */
+  @Test
+  public void testSpinParkCountsParks() throws InterruptedException {
+    SlaveLooper looper = new SlaveLooper(WaitStrategy.SPIN_PARK, 0);
+    testHandoff(looper);
+    Assert.assertTrue(looper.getParkCount() > 0);
+    Assert.assertTrue(looper.getWakeUpCount() > 0);
+  }
+
+  @Test
+  public void testBusySpinNeverParks() throws InterruptedException {
+    SlaveLooper looper = new SlaveLooper(WaitStrategy.BUSY_SPIN, 0);
+    testHandoff(looper);
+    Assert.assertEquals(0, looper.getParkCount());
+    Assert.assertTrue(looper.getSpinCount() > 0);
+  }
+
+  // Hands items one at a time to the looper's thread and waits for each to be picked up
+  private static void testHandoff(final WakeableLooper looper) throws InterruptedException {
+    final AtomicInteger offered = new AtomicInteger();
+    final AtomicInteger consumed = new AtomicInteger();
+    looper.addTasksOnWakeup(new Runnable() {
+      @Override
+      public void run() {
+        consumed.set(offered.get());
+      }
+    });
+
+    Thread thread = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        looper.loop();
+      }
+    });
+    thread.start();
+
+    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(TIMEOUT_MS);
+    for (int i = 1; i <= HANDOFFS; i++) {
+      offered.set(i);
+      looper.wakeUp();
+      while (consumed.get() < i) {
+        Assert.assertTrue("Looper missed a wake up", System.nanoTime() < deadline);
+        Thread.yield();
+      }
+    }
+
+    looper.exitLoop();
+    thread.join(TIMEOUT_MS);
+    Assert.assertFalse(thread.isAlive());
+  }
+
+  private static void testTimer(final WakeableLooper looper) {
+    long startTime = System.nanoTime();
+    Duration interval = Duration.ofMillis(5);
+    looper.registerTimerEvent(interval, new Runnable() {
+      @Override
+      public void run() {
+        looper.exitLoop();
+      }
+    });
+
+    looper.loop();
+    Assert.assertTrue(System.nanoTime() - startTime >= interval.toNanos());
+  }
+}
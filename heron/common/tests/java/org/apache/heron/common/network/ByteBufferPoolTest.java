@@ -0,0 +1,112 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.heron.common.network;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ByteBufferPoolTest {
+
+  @Test
+  public void testReuseWithinSizeClass() {
+    ByteBufferPool pool = new ByteBufferPool(1024, 2, false);
+    assertTrue(pool.isPoolingEnabled());
+
+    ByteBuffer buffer = pool.acquire(100);
+    assertEquals(128, buffer.capacity());
+    assertEquals(100, buffer.limit());
+    assertEquals(0, buffer.position());
+    assertEquals(1, pool.getMissCount());
+
+    buffer.putInt(42);
+    pool.release(buffer);
+
+    // Any size in the same class is served by the released buffer, cleared
+    ByteBuffer reused = pool.acquire(65);
+    assertSame(buffer, reused);
+    assertEquals(65, reused.limit());
+    assertEquals(0, reused.position());
+    assertEquals(1, pool.getHitCount());
+
+    // A different class does not
+    assertNotSame(buffer, pool.acquire(4));
+    assertEquals(2, pool.getMissCount());
+
+    pool.resetCounters();
+    assertEquals(0, pool.getHitCount());
+    assertEquals(0, pool.getMissCount());
+  }
+
+  @Test
+  public void testOversizedBuffersAreNotPooled() {
+    ByteBufferPool pool = new ByteBufferPool(1000, 2, false);
+
+    // 1000 is rounded down to the 512 size class
+    ByteBuffer buffer = pool.acquire(600);
+    assertEquals(600, buffer.capacity());
+    pool.release(buffer);
+    assertNotSame(buffer, pool.acquire(600));
+    assertEquals(2, pool.getMissCount());
+  }
+
+  @Test
+  public void testBoundedFreeList() {
+    ByteBufferPool pool = new ByteBufferPool(1024, 1, false);
+    ByteBuffer first = pool.acquire(10);
+    ByteBuffer second = pool.acquire(10);
+    pool.release(first);
+    pool.release(second);
+
+    assertSame(first, pool.acquire(10));
+    assertNotSame(second, pool.acquire(10));
+  }
+
+  @Test
+  public void testDisabledPool() {
+    ByteBufferPool pool = new ByteBufferPool();
+    assertFalse(pool.isPoolingEnabled());
+
+    ByteBuffer buffer = pool.acquire(10);
+    assertEquals(10, buffer.capacity());
+    pool.release(buffer);
+    assertNotSame(buffer, pool.acquire(10));
+    assertEquals(0, pool.getHitCount());
+  }
+
+  @Test
+  public void testDirectBuffers() {
+    ByteBufferPool pool = new ByteBufferPool(1024, 2, true);
+    ByteBuffer buffer = pool.acquire(10);
+    assertTrue(buffer.isDirect());
+
+    // Heap buffers are never adopted by a direct pool
+    ByteBuffer heap = ByteBuffer.allocate(64);
+    pool.release(heap);
+    pool.release(buffer);
+    assertSame(buffer, pool.acquire(10));
+  }
+}
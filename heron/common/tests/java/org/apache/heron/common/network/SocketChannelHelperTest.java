@@ -0,0 +1,176 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.apache.heron.common.network;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import org.apache.heron.common.basics.ByteAmount;
+import org.apache.heron.common.basics.ISelectHandler;
+import org.apache.heron.common.basics.NIOLooper;
+import org.apache.heron.proto.testing.Tests;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class SocketChannelHelperTest {
+  private static final int MAX_PACKETS_PER_WRITE = 128;
+
+  private SocketChannel channel;
+  private SocketChannelHelper helper;
+
+  // The bytes the channel accepted, in order
+  private ByteArrayOutputStream written;
+  // The # of buffers passed to each gathering write, and the bytes left in the first one
+  private List<Integer> buffersPerWrite;
+  private List<Integer> firstBufferRemaining;
+  // The most bytes the channel accepts per write call
+  private long writeLimit;
+
+  @Before
+  public void before() throws IOException {
+    written = new ByteArrayOutputStream();
+    buffersPerWrite = new ArrayList<>();
+    firstBufferRemaining = new ArrayList<>();
+    writeLimit = Long.MAX_VALUE;
+
+    channel = Mockito.mock(SocketChannel.class);
+    Mockito.when(channel.write(Mockito.any(ByteBuffer[].class), Mockito.anyInt(),
+        Mockito.anyInt())).thenAnswer(invocation -> {
+          Object[] args = invocation.getArguments();
+          ByteBuffer[] buffers = (ByteBuffer[]) args[0];
+          int offset = (Integer) args[1];
+          int length = (Integer) args[2];
+          buffersPerWrite.add(length);
+          firstBufferRemaining.add(buffers[offset].remaining());
+          long wrote = 0;
+          for (int i = offset; i < offset + length && wrote < writeLimit; i++) {
+            ByteBuffer buffer = buffers[i];
+            while (buffer.hasRemaining() && wrote < writeLimit) {
+              written.write(buffer.get());
+              wrote++;
+            }
+          }
+          return wrote;
+        });
+
+    HeronSocketOptions options = new HeronSocketOptions(
+        ByteAmount.fromMegabytes(32), Duration.ofSeconds(60),
+        ByteAmount.fromMegabytes(32), Duration.ofSeconds(60),
+        ByteAmount.fromMegabytes(1), ByteAmount.fromMegabytes(1),
+        ByteAmount.fromMegabytes(1));
+    helper = new SocketChannelHelper(Mockito.mock(NIOLooper.class),
+        Mockito.mock(ISelectHandler.class), channel, options);
+  }
+
+  /**
+   * A queue longer than MAX_PACKETS_PER_WRITE is gathered in several write calls
+   */
+  @Test
+  public void testWriteMoreThanMaxPacketsPerWrite() {
+    int nPackets = 2 * MAX_PACKETS_PER_WRITE + 44;
+    ByteArrayOutputStream expected = new ByteArrayOutputStream();
+    long expectedBytes = 0;
+    for (int i = 0; i < nPackets; i++) {
+      OutgoingPacket packet = newPacket("packet-" + i);
+      append(expected, packet);
+      expectedBytes += packet.size();
+      helper.sendPacket(packet);
+    }
+
+    helper.write();
+
+    List<Integer> expectedBuffersPerWrite = new ArrayList<>();
+    expectedBuffersPerWrite.add(MAX_PACKETS_PER_WRITE);
+    expectedBuffersPerWrite.add(MAX_PACKETS_PER_WRITE);
+    expectedBuffersPerWrite.add(44);
+    assertEquals(expectedBuffersPerWrite, buffersPerWrite);
+    assertArrayEquals(expected.toByteArray(), written.toByteArray());
+    assertEquals(0, helper.getOutstandingPackets());
+    assertEquals(nPackets, helper.getTotalPacketsWritten());
+    assertEquals(expectedBytes, helper.getTotalBytesWritten());
+    assertEquals(3, helper.getTotalWriteCalls());
+    assertEquals(nPackets - 3, helper.getWriteCallsSaved());
+  }
+
+  /**
+   * A gathering write that stops in the middle of a packet keeps it at the head of the queue,
+   * and the next write resumes from the byte it stopped at
+   */
+  @Test
+  public void testPartialWriteResumesMidPacket() {
+    OutgoingPacket first = newPacket("first");
+    OutgoingPacket second = newPacket("second");
+    OutgoingPacket third = newPacket("third");
+    ByteArrayOutputStream expected = new ByteArrayOutputStream();
+    append(expected, first);
+    append(expected, second);
+    append(expected, third);
+    int secondWritten = second.size() / 2;
+    helper.sendPacket(first);
+    helper.sendPacket(second);
+    helper.sendPacket(third);
+
+    // Only the first packet and half of the second fit in the socket
+    writeLimit = first.size() + secondWritten;
+    helper.write();
+
+    assertEquals(1, buffersPerWrite.size());
+    assertEquals(3, (int) buffersPerWrite.get(0));
+    assertEquals(2, helper.getOutstandingPackets());
+    assertEquals(1, helper.getTotalPacketsWritten());
+    assertEquals(first.size(), helper.getTotalBytesWritten());
+
+    // The socket is writable again
+    writeLimit = Long.MAX_VALUE;
+    helper.write();
+
+    assertEquals(2, buffersPerWrite.size());
+    assertEquals(2, (int) buffersPerWrite.get(1));
+    assertEquals(second.size() - secondWritten, (int) firstBufferRemaining.get(1));
+    assertArrayEquals(expected.toByteArray(), written.toByteArray());
+    assertEquals(0, helper.getOutstandingPackets());
+    assertEquals(3, helper.getTotalPacketsWritten());
+    assertEquals(first.size() + second.size() + third.size(), helper.getTotalBytesWritten());
+    assertEquals(2, helper.getTotalWriteCalls());
+  }
+
+  private static OutgoingPacket newPacket(String request) {
+    return new OutgoingPacket(REQID.zeroREQID,
+        Tests.EchoServerRequest.newBuilder().setEchoRequest(request).build());
+  }
+
+  private static void append(ByteArrayOutputStream out, OutgoingPacket packet) {
+    ByteBuffer buffer = packet.getBuffer().duplicate();
+    byte[] bytes = new byte[buffer.remaining()];
+    buffer.get(bytes);
+    out.write(bytes, 0, bytes.length);
+  }
+}
@@ -239,6 +239,27 @@ public class TopologyUtilsTest {
         "test.topology" /* Bad topology name */, new Config(), spouts, bolts)));
   }
 
+  @Test
+  public void testFullCheckpointIntervalWithinRetainedCheckpoints() {
+    Map<String, Integer> spouts = new HashMap<>();
+    spouts.put("spout", 1);
+    Map<String, Integer> bolts = new HashMap<>();
+    bolts.put("bolt", 1);
+    Map<String, String> connections = new HashMap<>();
+    connections.put("bolt", "spout");
+
+    Config topologyConfig = new Config();
+    Config.setTopologyStatefulFullCheckpointInterval(topologyConfig,
+        Config.MAX_STATEFUL_FULL_CHECKPOINT_INTERVAL);
+    Assert.assertTrue(TopologyUtils.verifyTopology(TopologyTests.createTopologyWithConnection(
+        "testTopology", topologyConfig, spouts, bolts, connections)));
+
+    Config.setTopologyStatefulFullCheckpointInterval(topologyConfig,
+        Config.MAX_STATEFUL_FULL_CHECKPOINT_INTERVAL + 1);
+    Assert.assertFalse(TopologyUtils.verifyTopology(TopologyTests.createTopologyWithConnection(
+        "testTopology", topologyConfig, spouts, bolts, connections)));
+  }
+
   @Test
   public void testValidTopology() {
     int componentParallelism = 2;
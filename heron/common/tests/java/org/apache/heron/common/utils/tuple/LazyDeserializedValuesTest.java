@@ -0,0 +1,159 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.heron.common.utils.tuple;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.protobuf.ByteString;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import org.apache.heron.api.generated.TopologyAPI;
+import org.apache.heron.api.serializer.IPluggableSerializer;
+import org.apache.heron.api.serializer.JavaSerializer;
+import org.apache.heron.api.topology.TopologyContext;
+import org.apache.heron.api.tuple.Fields;
+import org.apache.heron.api.tuple.Tuple;
+
+/**
+ * LazyDeserializedValues Tester.
+ */
+public class LazyDeserializedValuesTest {
+  private CountingSerializer serializer;
+  private List<ByteString> serializedValues;
+  private AtomicInteger timedFields;
+
+  @Before
+  public void before() {
+    serializer = new CountingSerializer();
+    serializedValues = new ArrayList<>();
+    serializedValues.add(ByteString.copyFrom(serializer.serialize("word")));
+    serializedValues.add(ByteString.copyFrom(serializer.serialize(42)));
+    serializedValues.add(ByteString.copyFrom(serializer.serialize(null)));
+    timedFields = new AtomicInteger();
+  }
+
+  @Test
+  public void testDeserializeOnFirstAccessOnly() {
+    LazyDeserializedValues values = new LazyDeserializedValues(
+        serializedValues, serializer, latency -> timedFields.incrementAndGet());
+    Assert.assertEquals(3, values.size());
+    Assert.assertEquals(0, serializer.deserializeCount.get());
+
+    Assert.assertEquals(42, values.get(1));
+    Assert.assertEquals(42, values.get(1));
+    Assert.assertEquals(1, serializer.deserializeCount.get());
+    Assert.assertEquals(1, timedFields.get());
+    Assert.assertFalse(values.isDeserialized(0));
+    Assert.assertTrue(values.isDeserialized(1));
+
+    // null is a legal value and is cached too
+    Assert.assertNull(values.get(2));
+    Assert.assertNull(values.get(2));
+    Assert.assertEquals(2, serializer.deserializeCount.get());
+  }
+
+  @Test
+  public void testCopyDeserializesRemainingValues() {
+    LazyDeserializedValues values = new LazyDeserializedValues(
+        serializedValues, serializer, latency -> timedFields.incrementAndGet());
+    Assert.assertEquals("word", values.get(0));
+    Assert.assertEquals(1, serializer.deserializeCount.get());
+
+    List<Object> all = new ArrayList<>(values);
+    Assert.assertEquals("word", all.get(0));
+    Assert.assertEquals(42, all.get(1));
+    Assert.assertNull(all.get(2));
+    Assert.assertEquals(3, serializer.deserializeCount.get());
+    Assert.assertEquals(3, timedFields.get());
+  }
+
+  @Test
+  public void testSet() {
+    LazyDeserializedValues values = new LazyDeserializedValues(
+        serializedValues, serializer, latency -> timedFields.incrementAndGet());
+    Assert.assertEquals("word", values.set(0, "other"));
+    Assert.assertEquals("other", values.get(0));
+    Assert.assertEquals(1, serializer.deserializeCount.get());
+  }
+
+  @Test
+  public void testJavaSerializeTuple() throws Exception {
+    LazyDeserializedValues values = new LazyDeserializedValues(
+        serializedValues, serializer, latency -> timedFields.incrementAndGet());
+    Assert.assertEquals("word", values.get(0));
+
+    TopologyContext context = Mockito.mock(TopologyContext.class);
+    Mockito.when(context.getComponentOutputFields("component", "default"))
+        .thenReturn(new Fields("word", "number", "nothing"));
+    TopologyAPI.StreamId stream = TopologyAPI.StreamId.newBuilder()
+        .setComponentName("component")
+        .setId("default")
+        .build();
+    Tuple tuple = new TupleImpl(context, stream, 1, null, values, 0);
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(tuple);
+    }
+    Tuple copy;
+    try (ObjectInputStream in =
+             new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+      copy = (Tuple) in.readObject();
+    }
+
+    // The values are written as a plain list, deserializing the remaining ones
+    Assert.assertEquals(3, serializer.deserializeCount.get());
+    Assert.assertEquals(ArrayList.class, copy.getValues().getClass());
+    Assert.assertEquals(Arrays.asList("word", 42, null), copy.getValues());
+    Assert.assertEquals(42, copy.getIntegerByField("number").intValue());
+  }
+
+  private static final class CountingSerializer implements IPluggableSerializer {
+    private final JavaSerializer delegate = new JavaSerializer();
+    private final AtomicInteger deserializeCount = new AtomicInteger();
+
+    @Override
+    public void initialize(Map<String, Object> config) {
+    }
+
+    @Override
+    public byte[] serialize(Object object) {
+      return delegate.serialize(object);
+    }
+
+    @Override
+    public Object deserialize(byte[] input) {
+      deserializeCount.incrementAndGet();
+      return delegate.deserialize(input);
+    }
+  }
+}
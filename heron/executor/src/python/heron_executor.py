@@ -272,6 +272,9 @@ class HeronExecutor(object):
 
     # Read the heron_internals.yaml for logging dir
     self.log_dir = self._load_logging_dir(self.heron_internals_config_file)
+    # and for the max # of tasks of a component per java instance process
+    self.executors_per_process = \
+      self._load_executors_per_process(self.heron_internals_config_file)
 
     # these get set when we call update_packing_plan
     self.packing_plan = None
@@ -392,6 +395,12 @@ class HeronExecutor(object):
       heron_internals_config = yaml.load(stream)
     return heron_internals_config['heron.logging.directory']
 
+  # pylint: disable=no-self-use
+  def _load_executors_per_process(self, heron_internals_config_file):
+    with open(heron_internals_config_file, 'r') as stream:
+      heron_internals_config = yaml.load(stream)
+    return int(heron_internals_config.get('heron.instance.executors.per.process', 1))
+
   def _get_metricsmgr_cmd(self, metricsManagerId, sink_config_file, port):
     ''' get the command to start the metrics manager processes '''
     metricsmgr_main_class = 'org.apache.heron.metricsmgr.MetricsManager'
@@ -565,12 +574,16 @@ class HeronExecutor(object):
             (len(instance_info) > len(self.jvm_remote_debugger_ports)):
       Log.warn("Not enough remote debugger ports for all instances!")
 
-    for (instance_id, component_name, global_task_id, component_index) in instance_info:
-      total_jvm_size = int(self.component_ram_map[component_name] / (1024 * 1024))
-      heap_size_mb = total_jvm_size - code_cache_size_mb - java_metasize_mb
-      Log.info("component name: %s, RAM request: %d, total JVM size: %dM, "
+    for instance_group in self._group_java_instances(instance_info):
+      # The process hosts all the instances of the group, and is named after all of them
+      process_name = self._get_java_instance_process_name(instance_group)
+      component_name = instance_group[0][1]
+      heap_size_mb = self._get_java_instance_heap_size_mb(
+          component_name, len(instance_group), code_cache_size_mb + java_metasize_mb)
+      total_jvm_size = heap_size_mb + code_cache_size_mb + java_metasize_mb
+      Log.info("component name: %s, RAM request: %d, instances: %d, total JVM size: %dM, "
                "cache size: %dM, metaspace size: %dM"
-               % (component_name, self.component_ram_map[component_name],
+               % (component_name, self.component_ram_map[component_name], len(instance_group),
                   total_jvm_size, code_cache_size_mb, java_metasize_mb))
       xmn_size = int(heap_size_mb / 2)
       instance_cmd = [os.path.join(self.heron_java_home, 'bin/java'),
@@ -597,7 +610,7 @@ class HeronExecutor(object):
                       '-XX:+HeapDumpOnOutOfMemoryError',
                       '-XX:+UseConcMarkSweepGC',
                       '-XX:ParallelGCThreads=4',
-                      '-Xloggc:log-files/gc.%s.log' % instance_id]
+                      '-Xloggc:log-files/gc.%s.log' % process_name]
 
       remote_debugger_port = None
       if self.jvm_remote_debugger_ports:
@@ -607,10 +620,10 @@ class HeronExecutor(object):
 
       instance_args = ['-topology_name', self.topology_name,
                        '-topology_id', self.topology_id,
-                       '-instance_id', instance_id,
+                       '-instance_id', ','.join(info[0] for info in instance_group),
                        '-component_name', component_name,
-                       '-task_id', str(global_task_id),
-                       '-component_index', str(component_index),
+                       '-task_id', ','.join(str(info[2]) for info in instance_group),
+                       '-component_index', ','.join(str(info[3]) for info in instance_group),
                        '-stmgr_id', self.stmgr_ids[self.shard],
                        '-stmgr_port', self.tmaster_controller_port,
                        '-metricsmgr_port', self.metrics_manager_port,
@@ -628,9 +641,40 @@ class HeronExecutor(object):
                            '%s:%s' % (self.instance_classpath, self.classpath),
                            'org.apache.heron.instance.HeronInstance'] + instance_args)
 
-      retval[instance_id] = instance_cmd
+      retval[process_name] = instance_cmd
     return retval
 
+  def _get_java_instance_heap_size_mb(self, component_name, num_instances, jvm_overhead_mb):
+    ''' The heap of a java process hosting num_instances instances of the component. The RAM of
+    an instance covers its heap plus the overhead of its JVM, i.e. the code cache and the
+    metaspace. The instances of a process share the JVM and its classes, so the process gets
+    the heaps of all of them, and the overhead only once '''
+    instance_ram_mb = int(self.component_ram_map[component_name] / (1024 * 1024))
+    return (instance_ram_mb - jvm_overhead_mb) * num_instances
+
+  # pylint: disable=no-self-use
+  def _get_java_instance_process_name(self, instance_group):
+    ''' Names the process of a group of instances, as the java instance names its log file:
+    the first instance id, followed by the task ids of the other instances '''
+    return instance_group[0][0] + ''.join('+%s' % info[2] for info in instance_group[1:])
+
+  def _group_java_instances(self, instance_info):
+    ''' Splits the instances in groups hosted by the same java process: up to
+    executors_per_process instances of the same component, in the order of instance_info '''
+    if self.executors_per_process <= 1:
+      return [[info] for info in instance_info]
+    groups = []
+    open_groups = {}
+    for info in instance_info:
+      component_name = info[1]
+      group = open_groups.get(component_name)
+      if group is None or len(group) == self.executors_per_process:
+        group = []
+        open_groups[component_name] = group
+        groups.append(group)
+      group.append(info)
+    return groups
+
   def _get_jvm_version(self):
     if not self.jvm_version:
       cmd = [os.path.join(self.heron_java_home, 'bin/java'),
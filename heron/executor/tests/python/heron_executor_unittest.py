@@ -326,6 +326,36 @@ class HeronExecutorTest(unittest.TestCase):
           % (expected_processes, monitored_processes))
     self.assert_processes(expected_processes, monitored_processes)
 
+  def test_group_java_instances(self):
+    instance_info = [('container_1_word_3', 'word', '3', '0'),
+                     ('container_1_exclaim1_2', 'exclaim1', '2', '0'),
+                     ('container_1_word_4', 'word', '4', '1'),
+                     ('container_1_exclaim1_1', 'exclaim1', '1', '1'),
+                     ('container_1_word_5', 'word', '5', '2')]
+    self.assertEquals([[info] for info in instance_info],
+                      self.executor_1._group_java_instances(instance_info))
+
+    self.executor_1.executors_per_process = 2
+    self.assertEquals(
+        [[instance_info[0], instance_info[2]],
+         [instance_info[1], instance_info[3]],
+         [instance_info[4]]],
+        self.executor_1._group_java_instances(instance_info))
+
+  def test_get_java_instance_heap_size_mb(self):
+    # 512M per instance, of which 192M of JVM overhead
+    self.assertEquals(320, self.executor_1._get_java_instance_heap_size_mb('word', 1, 192))
+    # the instances of a process share one JVM overhead
+    self.assertEquals(960, self.executor_1._get_java_instance_heap_size_mb('word', 3, 192))
+
+  def test_get_java_instance_process_name(self):
+    self.assertEquals('container_1_word_3', self.executor_1._get_java_instance_process_name(
+        [('container_1_word_3', 'word', '3', '0')]))
+    self.assertEquals('container_1_word_3+4+5', self.executor_1._get_java_instance_process_name(
+        [('container_1_word_3', 'word', '3', '0'),
+         ('container_1_word_4', 'word', '4', '1'),
+         ('container_1_word_5', 'word', '5', '2')]))
+
   def test_change_instance_dist_container_1(self):
     MockPOpen.set_next_pid(37)
     self.executor_1.update_packing_plan(self.packing_plan_expected)
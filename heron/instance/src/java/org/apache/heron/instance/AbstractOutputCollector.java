@@ -19,6 +19,8 @@
 
 package org.apache.heron.instance;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
@@ -47,6 +49,8 @@ public class AbstractOutputCollector {
   private long totalTuplesEmitted;
   private long totalBytesEmitted;
   private PhysicalPlanHelper helper;
+  // The buffer every tuple field is serialized into, reused from one field to the next
+  private final FieldOutputBuffer fieldBuffer = new FieldOutputBuffer();
   public final ReentrantLock lock = new ReentrantLock();
 
   /**
@@ -169,12 +173,16 @@ public class AbstractOutputCollector {
     long tupleSizeInBytes = 0;
     long startTime = System.nanoTime();
 
-    // Serialize it
+    // Serialize it straight into the reused buffer, then copy each field out at its exact size
     for (Object obj : tuple) {
-      byte[] b = serializer.serialize(obj);
-      ByteString bstr = ByteString.copyFrom(b);
-      bldr.addValues(bstr);
-      tupleSizeInBytes += b.length;
+      try {
+        serializer.serialize(obj, fieldBuffer);
+      } catch (IOException e) {
+        fieldBuffer.reset();
+        throw new RuntimeException("Failed to serialize object: " + obj, e);
+      }
+      tupleSizeInBytes += fieldBuffer.size();
+      bldr.addValues(fieldBuffer.takeByteString());
     }
 
     long latency = System.nanoTime() - startTime;
@@ -187,4 +195,24 @@ public class AbstractOutputCollector {
     // Update metrics
     metrics.emittedTuple(streamId);
   }
+
+  /**
+   * A ByteArrayOutputStream reused for the fields of all the tuples, so that serializing a
+   * field does not allocate a byte array of its own. Its bytes are copied once, at their exact
+   * size, into the ByteString of the field.
+   */
+  private static final class FieldOutputBuffer extends ByteArrayOutputStream {
+    FieldOutputBuffer() {
+      super(1024);
+    }
+
+    /**
+     * Get the bytes written since the last call, and start over
+     */
+    ByteString takeByteString() {
+      ByteString bytes = ByteString.copyFrom(buf, 0, count);
+      reset();
+      return bytes;
+    }
+  }
 }
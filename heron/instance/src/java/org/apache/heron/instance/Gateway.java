@@ -21,6 +21,7 @@ package org.apache.heron.instance;
 
 import java.io.IOException;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.logging.Logger;
 
@@ -29,8 +30,12 @@ import com.google.protobuf.Message;
 import org.apache.heron.common.basics.Communicator;
 import org.apache.heron.common.basics.NIOLooper;
 import org.apache.heron.common.basics.SingletonRegistry;
+import org.apache.heron.common.basics.WakeableLooper;
 import org.apache.heron.common.config.SystemConfig;
+import org.apache.heron.common.network.ByteBufferPool;
+import org.apache.heron.common.network.HeronClient;
 import org.apache.heron.common.network.HeronSocketOptions;
+import org.apache.heron.common.network.SocketChannelHelper;
 import org.apache.heron.common.utils.logging.ErrorReportLoggingHandler;
 import org.apache.heron.common.utils.metrics.JVMMetrics;
 import org.apache.heron.common.utils.metrics.MetricsCollector;
@@ -45,6 +50,8 @@ import org.apache.heron.proto.system.PhysicalPlans;
  * Gateway is a Runnable and will be executed in a thread.
  * It will new the streamManagerClient and metricsManagerClient in constructor and
  * ask them to connect with corresponding socket endpoint in run().
+ * When the process hosts more than one task, the other tasks are added with addTask(),
+ * each with its own pair of clients registered as that task, all on the same gatewayLooper.
  */
 public class Gateway implements Runnable, AutoCloseable {
   private static final Logger LOG = Logger.getLogger(Gateway.class.getName());
@@ -53,10 +60,20 @@ public class Gateway implements Runnable, AutoCloseable {
   private static final String STREAM_MGR_HOST = "127.0.0.1";
   private static final String METRICS_MGR_HOST = "127.0.0.1";
 
-  // MetricsManagerClient will communicate with Metrics Manager
-  private final MetricsManagerClient metricsManagerClient;
-  // StreamManagerClient will communicate with Stream Manager
-  private final StreamManagerClient streamManagerClient;
+  // MetricsManagerClient will communicate with Metrics Manager, one per task
+  private final List<MetricsManagerClient> metricsManagerClients = new ArrayList<>();
+  // StreamManagerClient will communicate with Stream Manager, one per task
+  private final List<StreamManagerClient> streamManagerClients = new ArrayList<>();
+
+  private final String topologyName;
+  private final String topologyId;
+  private final int streamPort;
+  private final int metricsPort;
+  private final HeronSocketOptions socketOptions;
+
+  // The stream queues of all the tasks, sampled and tuned together
+  private final List<Communicator<Message>> inStreamQueues = new ArrayList<>();
+  private final List<Communicator<Message>> outStreamQueues = new ArrayList<>();
 
   private final NIOLooper gatewayLooper;
 
@@ -67,6 +84,9 @@ public class Gateway implements Runnable, AutoCloseable {
 
   private final SystemConfig systemConfig;
 
+  // The loopers whose wait statistics are reported in gatewayMetrics
+  private final List<LooperSample> sampledLoopers = new ArrayList<>();
+
   /**
    * Construct a Gateway basing on given arguments
    */
@@ -81,6 +101,10 @@ public class Gateway implements Runnable, AutoCloseable {
         (SystemConfig) SingletonRegistry.INSTANCE.getSingleton(SystemConfig.HERON_SYSTEM_CONFIG);
 
     // New the client
+    this.topologyName = topologyName;
+    this.topologyId = topologyId;
+    this.streamPort = streamPort;
+    this.metricsPort = metricsPort;
     this.gatewayLooper = gatewayLooper;
     this.gatewayMetricsCollector = new MetricsCollector(gatewayLooper, outMetricsQueues.get(0));
 
@@ -99,22 +123,19 @@ public class Gateway implements Runnable, AutoCloseable {
         systemConfig.getHeronMetricsMaxExceptionsPerMessageCount());
 
     // Initialize the corresponding 2 socket clients with corresponding socket options
-    HeronSocketOptions socketOptions = new HeronSocketOptions(
+    this.socketOptions = new HeronSocketOptions(
         systemConfig.getInstanceNetworkWriteBatchSize(),
         systemConfig.getInstanceNetworkWriteBatchTime(),
         systemConfig.getInstanceNetworkReadBatchSize(),
         systemConfig.getInstanceNetworkReadBatchTime(),
         systemConfig.getInstanceNetworkOptionsSocketSendBufferSize(),
         systemConfig.getInstanceNetworkOptionsSocketReceivedBufferSize(),
-        systemConfig.getInstanceNetworkOptionsMaximumPacketSize()
+        systemConfig.getInstanceNetworkOptionsMaximumPacketSize(),
+        systemConfig.getInstanceNetworkBufferPoolMaximumBufferSize(),
+        systemConfig.getInstanceNetworkBufferPoolBuffersPerSizeClass(),
+        systemConfig.isInstanceNetworkBufferPoolDirect()
     );
-    this.streamManagerClient =
-        new StreamManagerClient(gatewayLooper, STREAM_MGR_HOST, streamPort,
-            topologyName, topologyId, instance,
-            inStreamQueue, outStreamQueue, inControlQueue,
-            socketOptions, gatewayMetrics);
-    this.metricsManagerClient = new MetricsManagerClient(gatewayLooper, METRICS_MGR_HOST,
-        metricsPort, instance, outMetricsQueues, socketOptions, gatewayMetrics);
+    addClients(instance, inStreamQueue, outStreamQueue, inControlQueue, outMetricsQueues);
 
     // Attach sample Runnable to gatewayMetricsCollector
     gatewayMetricsCollector.registerMetricSampleRunnable(jvmMetrics.getJVMSampleRunnable(),
@@ -122,16 +143,37 @@ public class Gateway implements Runnable, AutoCloseable {
     Runnable sampleStreamQueuesSize = new Runnable() {
       @Override
       public void run() {
-        gatewayMetrics.setInStreamQueueSize(inStreamQueue.size());
-        gatewayMetrics.setOutStreamQueueSize(outStreamQueue.size());
-        gatewayMetrics.setInStreamQueueExpectedCapacity(
-            inStreamQueue.getExpectedAvailableCapacity());
-        gatewayMetrics.setOutStreamQueueExpectedCapacity(
-            outStreamQueue.getExpectedAvailableCapacity());
+        // With more than one task, the sizes and capacities are the sums over the tasks
+        long inSize = 0;
+        long inCapacity = 0;
+        for (Communicator<Message> inStreamQueue : inStreamQueues) {
+          inSize += inStreamQueue.size();
+          inCapacity += inStreamQueue.getExpectedAvailableCapacity();
+        }
+        long outSize = 0;
+        long outCapacity = 0;
+        for (Communicator<Message> outStreamQueue : outStreamQueues) {
+          outSize += outStreamQueue.size();
+          outCapacity += outStreamQueue.getExpectedAvailableCapacity();
+        }
+        gatewayMetrics.setInStreamQueueSize(inSize);
+        gatewayMetrics.setOutStreamQueueSize(outSize);
+        gatewayMetrics.setInStreamQueueExpectedCapacity(inCapacity);
+        gatewayMetrics.setOutStreamQueueExpectedCapacity(outCapacity);
+        for (StreamManagerClient streamManagerClient : streamManagerClients) {
+          sampleConnection("stmgr", streamManagerClient);
+        }
+        for (MetricsManagerClient metricsManagerClient : metricsManagerClients) {
+          sampleConnection("metricsmgr", metricsManagerClient);
+        }
+        for (LooperSample looperSample : sampledLoopers) {
+          looperSample.sample(gatewayMetrics);
+        }
       }
     };
     gatewayMetricsCollector.registerMetricSampleRunnable(sampleStreamQueuesSize,
         systemConfig.getInstanceMetricsSystemSampleInterval());
+    addLooperToSample("gateway", gatewayLooper);
 
     final Duration instanceTuningInterval = systemConfig.getInstanceTuningInterval();
 
@@ -141,8 +183,12 @@ public class Gateway implements Runnable, AutoCloseable {
 
       @Override
       public void run() {
-        inStreamQueue.updateExpectedAvailableCapacity();
-        outStreamQueue.updateExpectedAvailableCapacity();
+        for (Communicator<Message> inStreamQueue : inStreamQueues) {
+          inStreamQueue.updateExpectedAvailableCapacity();
+        }
+        for (Communicator<Message> outStreamQueue : outStreamQueues) {
+          outStreamQueue.updateExpectedAvailableCapacity();
+        }
         gatewayLooper.registerTimerEvent(instanceTuningInterval, this);
       }
     };
@@ -151,12 +197,80 @@ public class Gateway implements Runnable, AutoCloseable {
         tuningStreamQueueSize);
   }
 
+  /**
+   * Host one more task in this process: connect it to the stream manager and the metrics
+   * manager as its own instance. The gateway metrics and the JVM metrics are only reported
+   * by the first task. Should be called before the Gateway starts running.
+   *
+   * @param instance the task to host
+   * @param inStreamQueue the queue of the tuples to the task
+   * @param outStreamQueue the queue of the tuples from the task
+   * @param inControlQueue the queue of the control messages to the task
+   * @param outMetricsQueue the queue of the metrics of the task
+   */
+  public void addTask(PhysicalPlans.Instance instance,
+                      Communicator<Message> inStreamQueue,
+                      Communicator<Message> outStreamQueue,
+                      Communicator<InstanceControlMsg> inControlQueue,
+                      Communicator<Metrics.MetricPublisherPublishMessage> outMetricsQueue) {
+    List<Communicator<Metrics.MetricPublisherPublishMessage>> outMetricsQueues =
+        new ArrayList<>();
+    outMetricsQueues.add(outMetricsQueue);
+    addClients(instance, inStreamQueue, outStreamQueue, inControlQueue, outMetricsQueues);
+  }
+
+  private void addClients(
+      PhysicalPlans.Instance instance,
+      Communicator<Message> inStreamQueue,
+      Communicator<Message> outStreamQueue,
+      Communicator<InstanceControlMsg> inControlQueue,
+      List<Communicator<Metrics.MetricPublisherPublishMessage>> outMetricsQueues) {
+    inStreamQueues.add(inStreamQueue);
+    outStreamQueues.add(outStreamQueue);
+    streamManagerClients.add(
+        new StreamManagerClient(gatewayLooper, STREAM_MGR_HOST, streamPort,
+            topologyName, topologyId, instance,
+            inStreamQueue, outStreamQueue, inControlQueue,
+            socketOptions, gatewayMetrics));
+    metricsManagerClients.add(new MetricsManagerClient(gatewayLooper, METRICS_MGR_HOST,
+        metricsPort, instance, outMetricsQueues, socketOptions, gatewayMetrics));
+  }
+
+  /**
+   * Report the wait statistics of a looper in the gateway metrics.
+   * Should be called before the Gateway starts running.
+   *
+   * @param name the scope of the looper's metrics
+   * @param looper the looper to sample
+   */
+  public void addLooperToSample(String name, WakeableLooper looper) {
+    sampledLoopers.add(new LooperSample(name, looper));
+  }
+
+  private void sampleConnection(String connection, HeronClient client) {
+    SocketChannelHelper helper = client.getSocketChannelHelper();
+    // The helper is null until the connection is established
+    if (helper != null) {
+      ByteBufferPool bufferPool = helper.getBufferPool();
+      gatewayMetrics.updateBufferPoolCount(connection,
+          bufferPool.getHitCount(), bufferPool.getMissCount());
+      bufferPool.resetCounters();
+
+      gatewayMetrics.updateWriteCallsSaved(connection, helper.getWriteCallsSaved());
+      helper.resetWriteCallsSaved();
+    }
+  }
+
   @Override
   public void run() {
     Thread.currentThread().setName(ThreadNames.THREAD_GATEWAY_NAME);
 
-    streamManagerClient.start();
-    metricsManagerClient.start();
+    for (StreamManagerClient streamManagerClient : streamManagerClients) {
+      streamManagerClient.start();
+    }
+    for (MetricsManagerClient metricsManagerClient : metricsManagerClients) {
+      metricsManagerClient.start();
+    }
 
     gatewayLooper.loop();
   }
@@ -165,10 +279,43 @@ public class Gateway implements Runnable, AutoCloseable {
     LOG.info("Closing the Gateway thread");
     this.gatewayMetricsCollector.forceGatherAllMetrics();
 
-    this.metricsManagerClient.sendAllMessage();
-    this.streamManagerClient.sendAllMessage();
+    for (MetricsManagerClient metricsManagerClient : metricsManagerClients) {
+      metricsManagerClient.sendAllMessage();
+    }
+    for (StreamManagerClient streamManagerClient : streamManagerClients) {
+      streamManagerClient.sendAllMessage();
+    }
+
+    for (MetricsManagerClient metricsManagerClient : metricsManagerClients) {
+      metricsManagerClient.stop();
+    }
+    for (StreamManagerClient streamManagerClient : streamManagerClients) {
+      streamManagerClient.stop();
+    }
+  }
+
+  // The counters in WakeableLooper are cumulative, so we remember the last values reported
+  private static final class LooperSample {
+    private final String name;
+    private final WakeableLooper looper;
+    private long lastWakeUps;
+    private long lastSpins;
+    private long lastParks;
+
+    LooperSample(String name, WakeableLooper looper) {
+      this.name = name;
+      this.looper = looper;
+    }
 
-    this.metricsManagerClient.stop();
-    this.streamManagerClient.stop();
+    void sample(GatewayMetrics metrics) {
+      long wakeUps = looper.getWakeUpCount();
+      long spins = looper.getSpinCount();
+      long parks = looper.getParkCount();
+      metrics.updateLooperCounts(name,
+          wakeUps - lastWakeUps, spins - lastSpins, parks - lastParks);
+      lastWakeUps = wakeUps;
+      lastSpins = spins;
+      lastParks = parks;
+    }
   }
 }
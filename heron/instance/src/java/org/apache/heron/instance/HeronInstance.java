@@ -22,6 +22,7 @@ package org.apache.heron.instance;
 import java.io.IOException;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
@@ -59,33 +60,27 @@ import org.apache.heron.proto.system.PhysicalPlans;
 public class HeronInstance {
   private static final Logger LOG = Logger.getLogger(HeronInstance.class.getName());
 
-  private static final int NUM_THREADS = 2;
+  // Value of heron.instance.internal.stream.queue.type selecting the ring buffer backed queues
+  private static final String STREAM_QUEUE_TYPE_SPSC = "spsc";
 
   private final NIOLooper gatewayLooper;
-  private final SlaveLooper slaveLooper;
 
-  // Only one outStreamQueue, which is responsible for both control tuples and data tuples
-  private final Communicator<Message> outStreamQueue;
-
-  // This blocking queue is used to buffer tuples read from socket and ready to be used by instance
-  // For spout, it will buffer Control tuple, while for bolt, it will buffer data tuple.
-  private final Communicator<Message> inStreamQueue;
-
-  // This queue is used to pass Control Message from Gateway to Slave
-  // TODO:- currently it would just pass the PhysicalPlanHelper
-  // TODO:- we might handle more types of ControlMessage in future
-  private final Communicator<InstanceControlMsg> inControlQueue;
+  // The tasks hosted by this process, usually one.
+  // Each has its own slave thread, and they share the gateway thread.
+  private final List<TaskExecutor> executors;
 
   // This blocking queue is used to buffer the metrics info ready to send out to metrics manager
   // The 0th queue will be used to buffer the system metrics collected by Gateway
-  // The 1th queue will be used to buffer the instance metrics collected by Instance
+  // The 1th queue will be used to buffer the instance metrics collected by the first task
   private final List<Communicator<Metrics.MetricPublisherPublishMessage>> outMetricsQueues;
 
   private final Gateway gateway;
-  private final Slave slave;
 
   private final ExecutorService threadsPool;
 
+  // Counted down as the slaves are closed
+  private final CountDownLatch slavesClosed;
+
   private final SystemConfig systemConfig;
 
   private static class CommandLineOptions {
@@ -109,21 +104,29 @@ public class HeronInstance {
   public HeronInstance(String topologyName, String topologyId,
                        PhysicalPlans.Instance instance, int streamPort, int metricsPort)
       throws IOException {
+    this(topologyName, topologyId, Collections.singletonList(instance), streamPort, metricsPort);
+  }
+
+  /**
+   * Heron instance constructor hosting several tasks of a component in this process
+   */
+  public HeronInstance(String topologyName, String topologyId,
+                       List<PhysicalPlans.Instance> instances, int streamPort, int metricsPort)
+      throws IOException {
     systemConfig =
         (SystemConfig) SingletonRegistry.INSTANCE.getSingleton(SystemConfig.HERON_SYSTEM_CONFIG);
 
-    // Two WakeableLooper
-    gatewayLooper = new NIOLooper();
-    slaveLooper = new SlaveLooper();
+    int spinIterations = systemConfig.getInstanceWaitStrategySpinIterations();
+    gatewayLooper = new NIOLooper(systemConfig.getInstanceGatewayWaitStrategy(), spinIterations);
 
     // Add the task on exit
     gatewayLooper.addTasksOnExit(new GatewayExitTask());
-    slaveLooper.addTasksOnExit(new SlaveExitTask());
 
-    // For stream
-    inStreamQueue = new Communicator<Message>(gatewayLooper, slaveLooper);
-    outStreamQueue = new Communicator<Message>(slaveLooper, gatewayLooper);
-    inControlQueue = new Communicator<InstanceControlMsg>(gatewayLooper, slaveLooper);
+    executors = new ArrayList<>(instances.size());
+    for (PhysicalPlans.Instance instance : instances) {
+      executors.add(new TaskExecutor(instance, instances.size() > 1));
+    }
+    TaskExecutor first = executors.get(0);
 
     // Now for metrics
     // No need in queues for metrics
@@ -135,24 +138,102 @@ public class HeronInstance {
         systemConfig.getInstanceTuningExpectedMetricsWriteQueueSize(),
         systemConfig.getInstanceTuningCurrentSampleWeight());
 
-    Communicator<Metrics.MetricPublisherPublishMessage> slaveMetricsOut =
-        new Communicator<Metrics.MetricPublisherPublishMessage>(slaveLooper, gatewayLooper);
-    slaveMetricsOut.init(systemConfig.getInstanceInternalMetricsWriteQueueCapacity(),
-        systemConfig.getInstanceTuningExpectedMetricsWriteQueueSize(),
-        systemConfig.getInstanceTuningCurrentSampleWeight());
-
     outMetricsQueues.add(gatewayMetricsOut);
-    outMetricsQueues.add(slaveMetricsOut);
+    outMetricsQueues.add(first.slaveMetricsOut);
 
     // We will new these two Runnable
     this.gateway =
-        new Gateway(topologyName, topologyId, instance, streamPort, metricsPort,
-            gatewayLooper, inStreamQueue, outStreamQueue, inControlQueue, outMetricsQueues);
-    this.slave = new Slave(slaveLooper, inStreamQueue, outStreamQueue,
-        inControlQueue, slaveMetricsOut);
+        new Gateway(topologyName, topologyId, first.instance, streamPort, metricsPort,
+            gatewayLooper, first.inStreamQueue, first.outStreamQueue, first.inControlQueue,
+            outMetricsQueues);
+    for (TaskExecutor executor : executors) {
+      if (executor != first) {
+        gateway.addTask(executor.instance, executor.inStreamQueue, executor.outStreamQueue,
+            executor.inControlQueue, executor.slaveMetricsOut);
+      }
+      gateway.addLooperToSample(executor.slaveLooperName, executor.slaveLooper);
+    }
 
     // New the ThreadPool and register it inside the SingletonRegistry
-    threadsPool = Executors.newFixedThreadPool(NUM_THREADS);
+    threadsPool = Executors.newFixedThreadPool(executors.size() + 1);
+    slavesClosed = new CountDownLatch(executors.size());
+  }
+
+  /**
+   * Get the name of the process hosting the instances, used for its log and pid files:
+   * the first instance id, followed by the task ids of the other instances, e.g.
+   * container_1_word_3+4+5
+   */
+  static String getProcessName(List<PhysicalPlans.Instance> instances) {
+    StringBuilder processName = new StringBuilder(instances.get(0).getInstanceId());
+    for (PhysicalPlans.Instance instance : instances.subList(1, instances.size())) {
+      processName.append('+').append(instance.getInfo().getTaskId());
+    }
+    return processName.toString();
+  }
+
+  /**
+   * The slave of a task and the queues between it and the gateway
+   */
+  private final class TaskExecutor {
+    private final PhysicalPlans.Instance instance;
+    // The name of the slave thread, also the scope of the slave looper's metrics
+    private final String slaveThreadName;
+    private final String slaveLooperName;
+    private final SlaveLooper slaveLooper;
+
+    // Only one outStreamQueue, which is responsible for both control tuples and data tuples
+    private final Communicator<Message> outStreamQueue;
+
+    // This blocking queue is used to buffer tuples read from socket and ready to be used by
+    // instance. For spout, it will buffer Control tuple, while for bolt, it will buffer data tuple.
+    private final Communicator<Message> inStreamQueue;
+
+    // This queue is used to pass Control Message from Gateway to Slave
+    // TODO:- currently it would just pass the PhysicalPlanHelper
+    // TODO:- we might handle more types of ControlMessage in future
+    private final Communicator<InstanceControlMsg> inControlQueue;
+
+    // The instance metrics collected by the slave
+    private final Communicator<Metrics.MetricPublisherPublishMessage> slaveMetricsOut;
+
+    private final Slave slave;
+
+    TaskExecutor(PhysicalPlans.Instance instance, boolean isShared) {
+      this.instance = instance;
+      int taskId = instance.getInfo().getTaskId();
+      // Keep the usual names when the process hosts only one task
+      this.slaveThreadName = isShared
+          ? ThreadNames.THREAD_SLAVE_NAME + "-" + taskId : ThreadNames.THREAD_SLAVE_NAME;
+      this.slaveLooperName = isShared ? "slave-" + taskId : "slave";
+
+      int spinIterations = systemConfig.getInstanceWaitStrategySpinIterations();
+      slaveLooper = new SlaveLooper(systemConfig.getInstanceSlaveWaitStrategy(), spinIterations);
+      slaveLooper.addTasksOnExit(new SlaveExitTask(this));
+
+      // For stream
+      // Each stream queue has exactly one producer thread and one consumer thread
+      if (STREAM_QUEUE_TYPE_SPSC.equals(systemConfig.getInstanceInternalStreamQueueType())) {
+        int ringSize = systemConfig.getInstanceInternalStreamQueueRingSize();
+        inStreamQueue =
+            Communicator.newSingleProducerSingleConsumer(gatewayLooper, slaveLooper, ringSize);
+        outStreamQueue =
+            Communicator.newSingleProducerSingleConsumer(slaveLooper, gatewayLooper, ringSize);
+      } else {
+        inStreamQueue = new Communicator<Message>(gatewayLooper, slaveLooper);
+        outStreamQueue = new Communicator<Message>(slaveLooper, gatewayLooper);
+      }
+      inControlQueue = new Communicator<InstanceControlMsg>(gatewayLooper, slaveLooper);
+
+      slaveMetricsOut =
+          new Communicator<Metrics.MetricPublisherPublishMessage>(slaveLooper, gatewayLooper);
+      slaveMetricsOut.init(systemConfig.getInstanceInternalMetricsWriteQueueCapacity(),
+          systemConfig.getInstanceTuningExpectedMetricsWriteQueueSize(),
+          systemConfig.getInstanceTuningCurrentSampleWeight());
+
+      this.slave = new Slave(slaveLooper, inStreamQueue, outStreamQueue,
+          inControlQueue, slaveMetricsOut, slaveThreadName);
+    }
   }
 
   private static CommandLine parseCommandLineArgs(String[] args) {
@@ -171,7 +252,7 @@ public class HeronInstance {
     options.addOption(topologyIdOption);
 
     Option instanceIdOption = new Option(
-        CommandLineOptions.INSTANCE_ID_OPTION, true, "Instance ID");
+        CommandLineOptions.INSTANCE_ID_OPTION, true, "Instance ID, or comma separated IDs");
     instanceIdOption.setRequired(true);
     instanceIdOption.setType(String.class);
     options.addOption(instanceIdOption);
@@ -182,15 +263,17 @@ public class HeronInstance {
     componentNameOption.setType(String.class);
     options.addOption(componentNameOption);
 
-    Option taskIdOption = new Option(CommandLineOptions.TASK_ID_OPTION, true, "Task ID");
+    Option taskIdOption = new Option(
+        CommandLineOptions.TASK_ID_OPTION, true, "Task ID, or comma separated IDs");
     taskIdOption.setRequired(true);
-    taskIdOption.setType(Integer.class);
+    taskIdOption.setType(String.class);
     options.addOption(taskIdOption);
 
     Option componentIndexOption = new Option(
-        CommandLineOptions.COMPONENT_INDEX_OPTION, true, "Component Index");
+        CommandLineOptions.COMPONENT_INDEX_OPTION, true,
+        "Component Index, or comma separated Indexes");
     componentIndexOption.setRequired(true);
-    componentIndexOption.setType(Integer.class);
+    componentIndexOption.setType(String.class);
     options.addOption(componentIndexOption);
 
     Option stmgrIdOption = new Option(
@@ -247,12 +330,18 @@ public class HeronInstance {
 
     String topologyName = commandLine.getOptionValue(CommandLineOptions.TOPOLOGY_NAME_OPTION);
     String topologyId = commandLine.getOptionValue(CommandLineOptions.TOPOLOGY_ID_OPTION);
-    String instanceId = commandLine.getOptionValue(CommandLineOptions.INSTANCE_ID_OPTION);
+    // Several tasks of the component could be hosted by this process,
+    // then their instance ids, task ids and component indexes are comma separated lists
+    String[] instanceIds =
+        commandLine.getOptionValue(CommandLineOptions.INSTANCE_ID_OPTION).split(",");
     String componentName = commandLine.getOptionValue(CommandLineOptions.COMPONENT_NAME_OPTION);
-    Integer taskId = Integer.parseInt(
-        commandLine.getOptionValue(CommandLineOptions.TASK_ID_OPTION));
-    Integer componentIndex
-        = Integer.parseInt(commandLine.getOptionValue(CommandLineOptions.COMPONENT_INDEX_OPTION));
+    String[] taskIds = commandLine.getOptionValue(CommandLineOptions.TASK_ID_OPTION).split(",");
+    String[] componentIndexes =
+        commandLine.getOptionValue(CommandLineOptions.COMPONENT_INDEX_OPTION).split(",");
+    if (taskIds.length != instanceIds.length || componentIndexes.length != instanceIds.length) {
+      throw new RuntimeException("Got " + instanceIds.length + " instance ids, "
+          + taskIds.length + " task ids and " + componentIndexes.length + " component indexes");
+    }
     String streamId = commandLine.getOptionValue(CommandLineOptions.STMGR_ID_OPTION);
     Integer streamPort
         = Integer.parseInt(commandLine.getOptionValue(CommandLineOptions.STMGR_PORT_OPTION));
@@ -278,17 +367,23 @@ public class HeronInstance {
     // Add the SystemConfig into SingletonRegistry
     SingletonRegistry.INSTANCE.registerSingleton(SystemConfig.HERON_SYSTEM_CONFIG, systemConfig);
 
-    // Create the protobuf Instance
-    PhysicalPlans.InstanceInfo.Builder instanceInfoBuilder
-        = PhysicalPlans.InstanceInfo.newBuilder().setTaskId(taskId)
-        .setComponentIndex(componentIndex).setComponentName(componentName);
-    if (remoteDebuggerPort != null) {
-      instanceInfoBuilder.setRemoteDebuggerPort(remoteDebuggerPort);
-    }
-    PhysicalPlans.InstanceInfo instanceInfo = instanceInfoBuilder.build();
+    // Create the protobuf Instances
+    List<PhysicalPlans.Instance> instances = new ArrayList<>(instanceIds.length);
+    for (int i = 0; i < instanceIds.length; i++) {
+      PhysicalPlans.InstanceInfo.Builder instanceInfoBuilder
+          = PhysicalPlans.InstanceInfo.newBuilder().setTaskId(Integer.parseInt(taskIds[i]))
+          .setComponentIndex(Integer.parseInt(componentIndexes[i]))
+          .setComponentName(componentName);
+      if (remoteDebuggerPort != null) {
+        instanceInfoBuilder.setRemoteDebuggerPort(remoteDebuggerPort);
+      }
+      PhysicalPlans.InstanceInfo instanceInfo = instanceInfoBuilder.build();
 
-    PhysicalPlans.Instance instance = PhysicalPlans.Instance.newBuilder().
-        setInstanceId(instanceId).setStmgrId(streamId).setInfo(instanceInfo).build();
+      instances.add(PhysicalPlans.Instance.newBuilder().setInstanceId(instanceIds[i])
+          .setStmgrId(streamId).setInfo(instanceInfo).build());
+    }
+    // The log file is named after all the tasks hosted, like the pid file the executor writes
+    String processName = getProcessName(instances);
 
     // Init the logging setting and redirect the stdout and stderr to logging
     // For now we just set the logging level as INFO; later we may accept an argument to set it.
@@ -298,14 +393,16 @@ public class HeronInstance {
     // Log to file and TMaster
     LoggingHelper.loggerInit(loggingLevel, true);
     LoggingHelper.addLoggingHandler(
-        LoggingHelper.getFileHandler(instanceId, loggingDir, true,
+        LoggingHelper.getFileHandler(processName, loggingDir, true,
             systemConfig.getHeronLoggingMaximumSize(),
             systemConfig.getHeronLoggingMaximumFiles()));
     LoggingHelper.addLoggingHandler(new ErrorReportLoggingHandler());
 
-    String logMsg = "\nStarting instance " + instanceId + " for topology " + topologyName
+    String logMsg = "\nStarting instance " + String.join(",", instanceIds)
+        + " for topology " + topologyName
         + " and topologyId " + topologyId + " for component " + componentName
-        + " with taskId " + taskId + " and componentIndex " + componentIndex
+        + " with taskId " + String.join(",", taskIds)
+        + " and componentIndex " + String.join(",", componentIndexes)
         + " and streamManagerId " + streamId + " and streamManagerPort " + streamPort
         + " and metricsManagerPort " + metricsPort;
 
@@ -318,7 +415,7 @@ public class HeronInstance {
     LOG.info("System Config: " + systemConfig.toString());
 
     HeronInstance heronInstance =
-        new HeronInstance(topologyName, topologyId, instance, streamPort, metricsPort);
+        new HeronInstance(topologyName, topologyId, instances, streamPort, metricsPort);
     heronInstance.start();
   }
 
@@ -328,7 +425,9 @@ public class HeronInstance {
 
     // Get the Thread Pool and run it
     threadsPool.execute(gateway);
-    threadsPool.execute(slave);
+    for (TaskExecutor executor : executors) {
+      threadsPool.execute(executor.slave);
+    }
   }
 
   public void stop() {
@@ -394,10 +493,15 @@ public class HeronInstance {
       exitExecutor.execute(new ForceExitTask(exited, systemConfig.getInstanceForceExitTimeout()));
 
       // Clean up
-      if (thread.getName().equals(ThreadNames.THREAD_SLAVE_NAME)) {
-        // Run the SlaveExitTask here since the thread throw exceptions
-        // and this Task would never be invoked on exit in future
-        new SlaveExitTask().run();
+      if (isSlaveThread(thread)) {
+        // The process exits, so the other tasks it hosts are closed and restarted with it
+        try {
+          if (!closeSlaves(thread, systemConfig.getInstanceForceExitTimeout())) {
+            LOG.severe("Not all the slaves are closed");
+          }
+        } catch (InterruptedException e) {
+          LOG.log(Level.SEVERE, "Interrupted while closing the slaves", e);
+        }
 
         // And exit the GatewayLooper
         gatewayLooper.exitLoop();
@@ -413,6 +517,35 @@ public class HeronInstance {
     }
   }
 
+  private boolean isSlaveThread(Thread thread) {
+    for (TaskExecutor executor : executors) {
+      if (thread.getName().equals(executor.slaveThreadName)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Close the slaves of all the tasks hosted. The slave of the failed thread is closed right
+   * away, since its looper would never invoke its SlaveExitTask; the others exit their loopers
+   * and close themselves on their own threads.
+   *
+   * @param failedThread the thread which failed
+   * @param timeout how long to wait for the slaves to close
+   * @return whether all the slaves are closed within the timeout
+   */
+  boolean closeSlaves(Thread failedThread, Duration timeout) throws InterruptedException {
+    for (TaskExecutor executor : executors) {
+      if (failedThread.getName().equals(executor.slaveThreadName)) {
+        new SlaveExitTask(executor).run();
+      } else {
+        executor.slaveLooper.exitLoop();
+      }
+    }
+    return slavesClosed.await(timeout.toMillis(), TimeUnit.MILLISECONDS);
+  }
+
   // The Task to execute on Gateway thread's exit
   public class GatewayExitTask implements Runnable {
 
@@ -426,10 +559,16 @@ public class HeronInstance {
 
   // The Task to execute on Slave thread's exit
   public class SlaveExitTask implements Runnable {
+    private final TaskExecutor executor;
+
+    private SlaveExitTask(TaskExecutor executor) {
+      this.executor = executor;
+    }
 
     @Override
     public void run() {
-      SysUtils.closeIgnoringExceptions(slave);
+      SysUtils.closeIgnoringExceptions(executor.slave);
+      slavesClosed.countDown();
     }
   }
 
@@ -26,11 +26,13 @@ public final class InstanceControlMsg {
   private PhysicalPlanHelper newPhysicalPlanHelper;
   private CheckpointManager.RestoreInstanceStateRequest restoreInstanceStateRequest;
   private CheckpointManager.StartInstanceStatefulProcessing startInstanceStatefulProcessing;
+  private CheckpointManager.InstanceStateCheckpointSaved instanceStateCheckpointSaved;
 
   private InstanceControlMsg(Builder builder) {
     this.newPhysicalPlanHelper = builder.newPhysicalPlanHelper;
     this.restoreInstanceStateRequest = builder.restoreInstanceStateRequest;
     this.startInstanceStatefulProcessing = builder.startInstanceStatefulProcessing;
+    this.instanceStateCheckpointSaved = builder.instanceStateCheckpointSaved;
   }
 
   public static Builder newBuilder() {
@@ -61,10 +63,19 @@ public final class InstanceControlMsg {
     return this.startInstanceStatefulProcessing != null;
   }
 
+  public CheckpointManager.InstanceStateCheckpointSaved getInstanceStateCheckpointSaved() {
+    return this.instanceStateCheckpointSaved;
+  }
+
+  public boolean isInstanceStateCheckpointSaved() {
+    return this.instanceStateCheckpointSaved != null;
+  }
+
   public static final class Builder {
     private PhysicalPlanHelper newPhysicalPlanHelper;
     private CheckpointManager.RestoreInstanceStateRequest restoreInstanceStateRequest;
     private CheckpointManager.StartInstanceStatefulProcessing startInstanceStatefulProcessing;
+    private CheckpointManager.InstanceStateCheckpointSaved instanceStateCheckpointSaved;
 
     private Builder() {
 
@@ -87,6 +98,12 @@ public final class InstanceControlMsg {
       return this;
     }
 
+    public Builder setInstanceStateCheckpointSaved(
+        CheckpointManager.InstanceStateCheckpointSaved message) {
+      this.instanceStateCheckpointSaved = message;
+      return this;
+    }
+
     public InstanceControlMsg build() {
       return new InstanceControlMsg(this);
     }
@@ -28,6 +28,7 @@ import com.google.protobuf.Message;
 
 import org.apache.heron.api.generated.TopologyAPI;
 import org.apache.heron.api.serializer.IPluggableSerializer;
+import org.apache.heron.api.state.ChangeTrackingHashMapState;
 import org.apache.heron.api.state.State;
 import org.apache.heron.common.basics.ByteAmount;
 import org.apache.heron.common.basics.Communicator;
@@ -102,7 +103,9 @@ public class OutgoingTupleCollection {
   }
 
   /**
-   * Send out the instance's state with corresponding checkpointId
+   * Send out the instance's state with corresponding checkpointId.
+   * If the state tracks its changes, only the changes since its previous checkpoint are sent,
+   * unless a full snapshot is due or the previous checkpoint is not known to be saved yet.
    * @param state instance's state
    * @param checkpointId the checkpointId
    */
@@ -113,15 +116,30 @@ public class OutgoingTupleCollection {
       // flush all the current data before sending the state
       flushRemaining();
 
-      // Serialize the state
-      byte[] serializedState = serializer.serialize(state);
+      ChangeTrackingHashMapState<Serializable, Serializable> trackedState = null;
+      String baseCheckpointId = null;
+      if (state instanceof ChangeTrackingHashMapState) {
+        trackedState = (ChangeTrackingHashMapState<Serializable, Serializable>) state;
+        baseCheckpointId = trackedState.getDeltaBaseCheckpointId();
+      }
+
+      // Serialize the state, or its changes since the base checkpoint
+      byte[] serializedState = baseCheckpointId == null
+          ? serializer.serialize(state) : serializer.serialize(trackedState.getDelta());
 
       // Construct the instance state checkpoint
-      CheckpointManager.InstanceStateCheckpoint instanceState =
+      CheckpointManager.InstanceStateCheckpoint.Builder instanceStateBuilder =
           CheckpointManager.InstanceStateCheckpoint.newBuilder()
               .setCheckpointId(checkpointId)
-              .setState(ByteString.copyFrom(serializedState))
-              .build();
+              .setState(ByteString.copyFrom(serializedState));
+      if (baseCheckpointId != null) {
+        instanceStateBuilder.setBaseCheckpointId(baseCheckpointId);
+      }
+      CheckpointManager.InstanceStateCheckpoint instanceState = instanceStateBuilder.build();
+
+      if (trackedState != null) {
+        trackedState.checkpointed(checkpointId, baseCheckpointId != null);
+      }
 
       CheckpointManager.StoreInstanceStateCheckpoint storeRequest =
           CheckpointManager.StoreInstanceStateCheckpoint.newBuilder()
@@ -24,16 +24,19 @@ import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import com.google.protobuf.ByteString;
 import com.google.protobuf.Message;
 
 import org.apache.heron.api.Config;
 import org.apache.heron.api.generated.TopologyAPI;
 import org.apache.heron.api.serializer.IPluggableSerializer;
+import org.apache.heron.api.state.ChangeTrackingHashMapState;
 import org.apache.heron.api.state.HashMapState;
 import org.apache.heron.api.state.State;
 import org.apache.heron.common.basics.Communicator;
 import org.apache.heron.common.basics.SingletonRegistry;
 import org.apache.heron.common.basics.SlaveLooper;
+import org.apache.heron.common.basics.TypeUtils;
 import org.apache.heron.common.config.SystemConfig;
 import org.apache.heron.common.utils.metrics.MetricsCollector;
 import org.apache.heron.common.utils.misc.PhysicalPlanHelper;
@@ -61,6 +64,8 @@ public class Slave implements Runnable, AutoCloseable {
   private final Communicator<Message> streamOutCommunicator;
   private final Communicator<InstanceControlMsg> inControlQueue;
   private final Communicator<Metrics.MetricPublisherPublishMessage> metricsOutCommunicator;
+  // The name of the thread running this slave
+  private final String threadName;
   private IPluggableSerializer serializer;
   private IInstance instance;
   private PhysicalPlanHelper helper;
@@ -69,6 +74,10 @@ public class Slave implements Runnable, AutoCloseable {
   private boolean isInstanceStarted;
 
   private State<Serializable, Serializable> instanceState;
+  // The checkpoint instanceState was restored from, until the instance is initialized with it
+  private String restoredCheckpointId;
+  // The number of deltas in the chain of the restored checkpoint
+  private int restoredCheckpointDeltas;
   private boolean isStatefulProcessingStarted;
 
   public Slave(SlaveLooper slaveLooper,
@@ -76,7 +85,18 @@ public class Slave implements Runnable, AutoCloseable {
                final Communicator<Message> streamOutCommunicator,
                final Communicator<InstanceControlMsg> inControlQueue,
                final Communicator<Metrics.MetricPublisherPublishMessage> metricsOutCommunicator) {
+    this(slaveLooper, streamInCommunicator, streamOutCommunicator, inControlQueue,
+        metricsOutCommunicator, ThreadNames.THREAD_SLAVE_NAME);
+  }
+
+  public Slave(SlaveLooper slaveLooper,
+               final Communicator<Message> streamInCommunicator,
+               final Communicator<Message> streamOutCommunicator,
+               final Communicator<InstanceControlMsg> inControlQueue,
+               final Communicator<Metrics.MetricPublisherPublishMessage> metricsOutCommunicator,
+               String threadName) {
     this.slaveLooper = slaveLooper;
+    this.threadName = threadName;
     this.streamInCommunicator = streamInCommunicator;
     this.streamOutCommunicator = streamOutCommunicator;
     this.inControlQueue = inControlQueue;
@@ -118,6 +138,11 @@ public class Slave implements Runnable, AutoCloseable {
             handleRestoreInstanceStateRequest(instanceControlMsg);
           }
 
+          // Handle the notification that a checkpoint of the instance state was saved
+          if (instanceControlMsg.isInstanceStateCheckpointSaved()) {
+            handleInstanceStateCheckpointSaved(instanceControlMsg);
+          }
+
           // Handle New Physical Plan
           if (instanceControlMsg.isNewPhysicalPlanHelper()) {
             handleNewPhysicalPlan(instanceControlMsg);
@@ -180,7 +205,7 @@ public class Slave implements Runnable, AutoCloseable {
 
   @Override
   public void run() {
-    Thread.currentThread().setName(ThreadNames.THREAD_SLAVE_NAME);
+    Thread.currentThread().setName(threadName);
 
     slaveLooper.loop();
   }
@@ -210,6 +235,11 @@ public class Slave implements Runnable, AutoCloseable {
       // For stateful topology, `init(state)` will be invoked
       // when a RestoreInstanceStateRequest is received
       if (isStatefulProcessingStarted) {
+        if (restoredCheckpointId != null) {
+          instanceState = trackStateChanges(instanceState, topoConf, restoredCheckpointId,
+              restoredCheckpointDeltas);
+          restoredCheckpointId = null;
+        }
         instance.init(instanceState);
         // Deactivate the instance if start with deactivated mode
         if (TopologyAPI.TopologyState.PAUSED.equals(helper.getTopologyState())) {
@@ -261,6 +291,48 @@ public class Slave implements Runnable, AutoCloseable {
     startInstanceIfNeeded();
   }
 
+  @SuppressWarnings("unchecked")
+  private void handleInstanceStateCheckpointSaved(InstanceControlMsg instanceControlMsg) {
+    // A saved checkpoint can be the base of the next delta checkpoint
+    if (instanceState instanceof ChangeTrackingHashMapState) {
+      ((ChangeTrackingHashMapState<Serializable, Serializable>) instanceState).checkpointSaved(
+          instanceControlMsg.getInstanceStateCheckpointSaved().getCheckpointId());
+    }
+  }
+
+  /**
+   * Make the state record its changes if the topology checkpoints deltas between full snapshots
+   */
+  private static State<Serializable, Serializable> trackStateChanges(
+      State<Serializable, Serializable> state,
+      Map<String, Object> topoConf,
+      String checkpointId,
+      int deltasInCheckpoint) {
+    int interval = TypeUtils.getInteger(
+        topoConf.getOrDefault(Config.TOPOLOGY_STATEFUL_FULL_CHECKPOINT_INTERVAL, 1));
+    if (interval <= 1) {
+      return state;
+    }
+    if (interval > Config.MAX_STATEFUL_FULL_CHECKPOINT_INTERVAL) {
+      // Older checkpoints are disposed, and a delta chain must not outlive its full snapshot
+      LOG.warning(Config.TOPOLOGY_STATEFUL_FULL_CHECKPOINT_INTERVAL + " " + interval
+          + " is more than the " + Config.MAX_STATEFUL_FULL_CHECKPOINT_INTERVAL
+          + " checkpoints retained by the topology master. Using "
+          + Config.MAX_STATEFUL_FULL_CHECKPOINT_INTERVAL + " instead");
+      interval = Config.MAX_STATEFUL_FULL_CHECKPOINT_INTERVAL;
+    }
+
+    ChangeTrackingHashMapState<Serializable, Serializable> trackedState;
+    if (state instanceof ChangeTrackingHashMapState) {
+      trackedState = (ChangeTrackingHashMapState<Serializable, Serializable>) state;
+    } else {
+      LOG.info("Copying the instance state to track its changes");
+      trackedState = new ChangeTrackingHashMapState<>(state);
+    }
+    trackedState.startTracking(checkpointId, deltasInCheckpoint, interval);
+    return trackedState;
+  }
+
   private void cleanAndStopSlave() {
     // Clear all queues
     streamInCommunicator.clear();
@@ -310,6 +382,15 @@ public class Slave implements Runnable, AutoCloseable {
           (State<Serializable, Serializable>) serializer.deserialize(
               request.getState().getState().toByteArray());
 
+      // Apply the chain of delta checkpoints on top of the full snapshot, oldest first
+      for (ByteString delta : request.getState().getDeltasList()) {
+        @SuppressWarnings("unchecked")
+        ChangeTrackingHashMapState.Delta<Serializable, Serializable> changes =
+            (ChangeTrackingHashMapState.Delta<Serializable, Serializable>)
+                serializer.deserialize(delta.toByteArray());
+        changes.applyTo(stateToRestore);
+      }
+
       instanceState = stateToRestore;
     } else {
       LOG.info("The restore request does not have an actual state");
@@ -319,6 +400,8 @@ public class Slave implements Runnable, AutoCloseable {
     if (instanceState == null) {
       instanceState = new HashMapState<>();
     }
+    restoredCheckpointId = request.getState().getCheckpointId();
+    restoredCheckpointDeltas = request.getState().getDeltasCount();
 
     LOG.info("Instance state restored for checkpoint id: "
         + request.getState().getCheckpointId());
@@ -25,8 +25,12 @@ import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.function.LongConsumer;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import com.google.protobuf.ByteString;
+import com.google.protobuf.InvalidProtocolBufferException;
 import com.google.protobuf.Message;
 
 import org.apache.heron.api.Config;
@@ -49,6 +53,7 @@ import org.apache.heron.common.utils.metrics.FullBoltMetrics;
 import org.apache.heron.common.utils.misc.PhysicalPlanHelper;
 import org.apache.heron.common.utils.misc.SerializeDeSerializeHelper;
 import org.apache.heron.common.utils.topology.TopologyContextImpl;
+import org.apache.heron.common.utils.tuple.LazyDeserializedValues;
 import org.apache.heron.common.utils.tuple.TickTuple;
 import org.apache.heron.common.utils.tuple.TupleImpl;
 import org.apache.heron.instance.IInstance;
@@ -69,6 +74,9 @@ public class BoltInstance implements IInstance {
 
   private final boolean isTopologyStateful;
 
+  // Whether tuple values are deserialized on first access rather than before execute()
+  private final boolean isLazyTupleDeserialization;
+
   private State<Serializable, Serializable> instanceState;
 
   private final SlaveLooper looper;
@@ -95,6 +103,9 @@ public class BoltInstance implements IInstance {
 
     LOG.info("Is this topology stateful: " + isTopologyStateful);
 
+    this.isLazyTupleDeserialization = Boolean.parseBoolean(
+        String.valueOf(config.get(Config.TOPOLOGY_LAZY_TUPLE_DESERIALIZATION)));
+
     if (helper.getMyBolt() == null) {
       throw new RuntimeException("HeronBoltInstance has no bolt in physical plan.");
     }
@@ -256,8 +267,8 @@ public class BoltInstance implements IInstance {
         persistState(checkpointId);
       }
 
-      if (msg instanceof HeronTuples.HeronTupleSet) {
-        HeronTuples.HeronTupleSet tuples = (HeronTuples.HeronTupleSet) msg;
+      if (msg instanceof HeronTuples.HeronTupleSet2) {
+        HeronTuples.HeronTupleSet2 tuples = (HeronTuples.HeronTupleSet2) msg;
         // Handle the tuples
         if (tuples.hasControl()) {
           throw new RuntimeException("Bolt cannot get acks/fails from other components");
@@ -268,32 +279,50 @@ public class BoltInstance implements IInstance {
         int nValues = topologyContext.getComponentOutputFields(
             stream.getComponentName(), stream.getId()).size();
         int sourceTaskId = tuples.getSrcTaskId();
-
-        for (HeronTuples.HeronDataTuple dataTuple : tuples.getData().getTuplesList()) {
-          long startExecuteTuple = System.nanoTime();
-          // Create the value list and fill the value
-          List<Object> values = new ArrayList<>(nValues);
-          for (int i = 0; i < nValues; i++) {
-            values.add(serializer.deserialize(dataTuple.getValues(i).toByteArray()));
+        int streamIndex =
+            boltMetrics.getInputStreamIndex(stream.getId(), stream.getComponentName());
+        LongConsumer deserializationTimeNs = latency ->
+            boltMetrics.deserializeDataTuple(streamIndex, latency);
+
+        // The gateway hands over the tuples as they came from the stream manager,
+        // so each one is decoded here, on the slave thread, right before it is executed
+        for (ByteString serializedTuple : tuples.getData().getTuplesList()) {
+          HeronTuples.HeronDataTuple dataTuple;
+          try {
+            dataTuple = HeronTuples.HeronDataTuple.parseFrom(serializedTuple);
+          } catch (InvalidProtocolBufferException e) {
+            LOG.log(Level.SEVERE, "Failed to parse protobuf", e);
+            break;
           }
+          executeDataTuple(topologyContext, stream, streamIndex, nValues, sourceTaskId,
+              dataTuple, deserializationTimeNs);
+        }
 
-          // Decode the tuple
-          TupleImpl t = new TupleImpl(topologyContext, stream, dataTuple.getKey(),
-              dataTuple.getRootsList(), values, startExecuteTuple, false, sourceTaskId);
-
-          // Delegate to the use defined bolt
-          bolt.execute(t);
-
-          // record the end of a tuple execution
-          long endExecuteTuple = System.nanoTime();
-
-          long executeLatency = endExecuteTuple - startExecuteTuple;
+        // To avoid spending too much time
+        long currentTime = System.nanoTime();
+        if (currentTime - startOfCycle - instanceExecuteBatchTime.toNanos() > 0) {
+          break;
+        }
+      } else if (msg instanceof HeronTuples.HeronTupleSet) {
+        HeronTuples.HeronTupleSet tuples = (HeronTuples.HeronTupleSet) msg;
+        // Handle the tuples
+        if (tuples.hasControl()) {
+          throw new RuntimeException("Bolt cannot get acks/fails from other components");
+        }
 
-          // Invoke user-defined execute task hook
-          topologyContext.invokeHookBoltExecute(t, Duration.ofNanos(executeLatency));
+        // Get meta data of tuples
+        TopologyAPI.StreamId stream = tuples.getData().getStream();
+        int nValues = topologyContext.getComponentOutputFields(
+            stream.getComponentName(), stream.getId()).size();
+        int sourceTaskId = tuples.getSrcTaskId();
+        int streamIndex =
+            boltMetrics.getInputStreamIndex(stream.getId(), stream.getComponentName());
+        LongConsumer deserializationTimeNs = latency ->
+            boltMetrics.deserializeDataTuple(streamIndex, latency);
 
-          // Update metrics
-          boltMetrics.executeTuple(stream.getId(), stream.getComponentName(), executeLatency);
+        for (HeronTuples.HeronDataTuple dataTuple : tuples.getData().getTuplesList()) {
+          executeDataTuple(topologyContext, stream, streamIndex, nValues, sourceTaskId,
+              dataTuple, deserializationTimeNs);
         }
 
         // To avoid spending too much time
@@ -305,6 +334,47 @@ public class BoltInstance implements IInstance {
     }
   }
 
+  private void executeDataTuple(TopologyContextImpl topologyContext,
+                                TopologyAPI.StreamId stream,
+                                int streamIndex,
+                                int nValues,
+                                int sourceTaskId,
+                                HeronTuples.HeronDataTuple dataTuple,
+                                LongConsumer deserializationTimeNs) {
+    long startExecuteTuple = System.nanoTime();
+    // Create the value list and fill the value
+    List<Object> values;
+    if (isLazyTupleDeserialization) {
+      // Values are deserialized when the bolt reads them, and timed per field
+      values = new LazyDeserializedValues(
+          dataTuple.getValuesList(), serializer, deserializationTimeNs);
+    } else {
+      values = new ArrayList<>(nValues);
+      for (int i = 0; i < nValues; i++) {
+        values.add(serializer.deserialize(dataTuple.getValues(i).toByteArray()));
+      }
+      deserializationTimeNs.accept(System.nanoTime() - startExecuteTuple);
+    }
+
+    // Decode the tuple
+    TupleImpl t = new TupleImpl(topologyContext, stream, dataTuple.getKey(),
+        dataTuple.getRootsList(), values, startExecuteTuple, false, sourceTaskId, streamIndex);
+
+    // Delegate to the use defined bolt
+    bolt.execute(t);
+
+    // record the end of a tuple execution
+    long endExecuteTuple = System.nanoTime();
+
+    long executeLatency = endExecuteTuple - startExecuteTuple;
+
+    // Invoke user-defined execute task hook
+    topologyContext.invokeHookBoltExecute(t, Duration.ofNanos(executeLatency));
+
+    // Update metrics
+    boltMetrics.executeTuple(streamIndex, executeLatency);
+  }
+
   @Override
   public void activate() {
   }
@@ -161,8 +161,7 @@ public class BoltOutputCollectorImpl extends AbstractOutputCollector implements
     // Invoke user-defined boltAck task hook
     getPhysicalPlanHelper().getTopologyContext().invokeHookBoltAck(tuple, latency);
 
-    boltMetrics.ackedTuple(
-        tuple.getSourceStreamId(), tuple.getSourceComponent(), latency.toNanos());
+    boltMetrics.ackedTuple(getInputStreamIndex(tuple), latency.toNanos());
   }
 
   private void admitFailTuple(Tuple tuple) {
@@ -189,7 +188,17 @@ public class BoltOutputCollectorImpl extends AbstractOutputCollector implements
     // Invoke user-defined boltFail task hook
     getPhysicalPlanHelper().getTopologyContext().invokeHookBoltFail(tuple, latency);
 
-    boltMetrics.failedTuple(
-        tuple.getSourceStreamId(), tuple.getSourceComponent(), latency.toNanos());
+    boltMetrics.failedTuple(getInputStreamIndex(tuple), latency.toNanos());
+  }
+
+  private int getInputStreamIndex(Tuple tuple) {
+    // Tuples created by the instance carry the index resolved when they were read
+    if (tuple instanceof TupleImpl) {
+      int streamIndex = ((TupleImpl) tuple).getStreamIndex();
+      if (streamIndex >= 0) {
+        return streamIndex;
+      }
+    }
+    return boltMetrics.getInputStreamIndex(tuple.getSourceStreamId(), tuple.getSourceComponent());
   }
 }
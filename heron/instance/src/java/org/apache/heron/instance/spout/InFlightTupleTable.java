@@ -0,0 +1,298 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.heron.instance.spout;
+
+import java.util.Arrays;
+
+/**
+ * InFlightTupleTable keeps the rooted tuples a spout is waiting acks for. It replaces a
+ * LinkedHashMap&lt;Long, RootTupleInfo&gt; with:
+ * 1. An open-addressing table from root id to slot, using linear probing and backward-shift
+ * deletion, so no boxed keys or map entries are allocated per tuple
+ * 2. Parallel arrays holding the stream id, message id and insertion time of every slot.
+ * Retired slots are pushed onto a free list and recycled by later emits
+ * 3. A hashed timing wheel of (nBuckets + 1) buckets, each a doubly linked list of slots.
+ * Every emit links its slot into the current bucket; advancing the wheel by one tick
+ * (timeout / nBuckets) only looks at the single bucket whose tuples are due to expire.
+ * <p>
+ * The table is not thread-safe; it is only accessed from the spout instance thread.
+ */
+final class InFlightTupleTable {
+  private static final int NONE = -1;
+
+  /**
+   * Callback of a retired in-flight tuple. The slot is recycled before the callback is invoked,
+   * so the callback is free to emit new tuples.
+   */
+  interface RetiredTupleHandler {
+    void retired(String streamId, Object messageId, long insertionTime);
+  }
+
+  // Open-addressing index from root id to slot; its length is twice the slot capacity
+  private int[] index;
+  private int indexMask;
+
+  // Per-slot state
+  private long[] rootIds;
+  private String[] streamIds;
+  private Object[] messageIds;
+  private long[] insertionTimes;
+  // Links of the wheel bucket list a slot belongs to; next also chains the free slots
+  private int[] next;
+  private int[] prev;
+  private int[] bucketOf;
+
+  private int freeHead;
+  private int nextUnusedSlot;
+  private int size;
+
+  // The timing wheel
+  private final int[] wheel;
+  private int cursor;
+  private long lastTickTime;
+
+  InFlightTupleTable(int initialCapacity, int nBuckets) {
+    if (nBuckets <= 0) {
+      throw new IllegalArgumentException("Number of buckets must be positive: " + nBuckets);
+    }
+    int capacity = Integer.highestOneBit(Math.max(16, initialCapacity) - 1) << 1;
+    allocate(capacity);
+    this.freeHead = NONE;
+    this.wheel = new int[nBuckets + 1];
+    Arrays.fill(wheel, NONE);
+    this.cursor = 0;
+    this.lastTickTime = System.nanoTime();
+  }
+
+  int size() {
+    return size;
+  }
+
+  /**
+   * Add a tuple emitted at insertionTime; an existing entry with the same root id is replaced
+   */
+  void put(long rootId, String streamId, Object messageId, long insertionTime) {
+    int pos = find(rootId);
+    int slot;
+    if (pos != NONE) {
+      slot = index[pos];
+      unlink(slot);
+    } else {
+      if (size == rootIds.length) {
+        grow();
+      }
+      slot = allocateSlot();
+      insertIndex(rootId, slot);
+      size++;
+    }
+    rootIds[slot] = rootId;
+    streamIds[slot] = streamId;
+    messageIds[slot] = messageId;
+    insertionTimes[slot] = insertionTime;
+    link(slot, cursor);
+  }
+
+  /**
+   * Remove the tuple with the given root id and pass it to the handler
+   *
+   * @return false if there is no such tuple, e.g. it has already timed out
+   */
+  boolean retire(long rootId, RetiredTupleHandler handler) {
+    int pos = find(rootId);
+    if (pos == NONE) {
+      return false;
+    }
+    int slot = index[pos];
+    deleteIndex(pos);
+    unlink(slot);
+    release(slot, handler);
+    return true;
+  }
+
+  /**
+   * Advance the wheel by the number of ticks elapsed since the last call and retire the tuples
+   * that are at least timeoutInNs old.
+   *
+   * @return the number of retired tuples
+   */
+  int retireExpired(long curTime, long timeoutInNs, RetiredTupleHandler handler) {
+    int nBuckets = wheel.length - 1;
+    long tick = Math.max(1, timeoutInNs / nBuckets);
+    long ticks = (curTime - lastTickTime) / tick;
+    if (ticks <= 0) {
+      return 0;
+    }
+    lastTickTime += ticks * tick;
+
+    int retired = 0;
+    for (long i = Math.min(ticks, wheel.length); i > 0; i--) {
+      cursor = (cursor + 1) % wheel.length;
+      // Detach the bucket first: tuples emitted by the handler go into the fresh current bucket
+      int slot = wheel[cursor];
+      wheel[cursor] = NONE;
+      int dueNext = (cursor + 1) % wheel.length;
+      while (slot != NONE) {
+        int following = next[slot];
+        if (insertionTimes[slot] + timeoutInNs - curTime <= 0) {
+          deleteIndex(find(rootIds[slot]));
+          release(slot, handler);
+          retired++;
+        } else {
+          // Not old enough because of tick rounding; look at it again on the next tick
+          link(slot, dueNext);
+        }
+        slot = following;
+      }
+    }
+    return retired;
+  }
+
+  /////////////////////////////////////////////////////////
+  // Slots and the timing wheel
+  /////////////////////////////////////////////////////////
+
+  private void allocate(int capacity) {
+    rootIds = new long[capacity];
+    streamIds = new String[capacity];
+    messageIds = new Object[capacity];
+    insertionTimes = new long[capacity];
+    next = new int[capacity];
+    prev = new int[capacity];
+    bucketOf = new int[capacity];
+    index = new int[capacity * 2];
+    Arrays.fill(index, NONE);
+    indexMask = index.length - 1;
+  }
+
+  private void grow() {
+    int oldCapacity = rootIds.length;
+    int capacity = oldCapacity * 2;
+    rootIds = Arrays.copyOf(rootIds, capacity);
+    streamIds = Arrays.copyOf(streamIds, capacity);
+    messageIds = Arrays.copyOf(messageIds, capacity);
+    insertionTimes = Arrays.copyOf(insertionTimes, capacity);
+    next = Arrays.copyOf(next, capacity);
+    prev = Arrays.copyOf(prev, capacity);
+    bucketOf = Arrays.copyOf(bucketOf, capacity);
+
+    // The table is only full when no slot is free, so every old slot is live
+    index = new int[capacity * 2];
+    Arrays.fill(index, NONE);
+    indexMask = index.length - 1;
+    for (int slot = 0; slot < oldCapacity; slot++) {
+      insertIndex(rootIds[slot], slot);
+    }
+  }
+
+  private int allocateSlot() {
+    if (freeHead != NONE) {
+      int slot = freeHead;
+      freeHead = next[slot];
+      return slot;
+    }
+    return nextUnusedSlot++;
+  }
+
+  private void release(int slot, RetiredTupleHandler handler) {
+    String streamId = streamIds[slot];
+    Object messageId = messageIds[slot];
+    long insertionTime = insertionTimes[slot];
+
+    streamIds[slot] = null;
+    messageIds[slot] = null;
+    next[slot] = freeHead;
+    freeHead = slot;
+    size--;
+
+    handler.retired(streamId, messageId, insertionTime);
+  }
+
+  private void link(int slot, int bucket) {
+    int head = wheel[bucket];
+    next[slot] = head;
+    prev[slot] = NONE;
+    if (head != NONE) {
+      prev[head] = slot;
+    }
+    wheel[bucket] = slot;
+    bucketOf[slot] = bucket;
+  }
+
+  private void unlink(int slot) {
+    if (prev[slot] != NONE) {
+      next[prev[slot]] = next[slot];
+    } else {
+      wheel[bucketOf[slot]] = next[slot];
+    }
+    if (next[slot] != NONE) {
+      prev[next[slot]] = prev[slot];
+    }
+  }
+
+  /////////////////////////////////////////////////////////
+  // The open-addressing index
+  /////////////////////////////////////////////////////////
+
+  private static int hash(long key) {
+    // The finalizer of MurmurHash3, so that nearby keys do not cluster
+    long h = key;
+    h ^= h >>> 33;
+    h *= 0xff51afd7ed558ccdL;
+    h ^= h >>> 33;
+    h *= 0xc4ceb9fe1a85ec53L;
+    h ^= h >>> 33;
+    return (int) h;
+  }
+
+  private int find(long rootId) {
+    int pos = hash(rootId) & indexMask;
+    while (index[pos] != NONE) {
+      if (rootIds[index[pos]] == rootId) {
+        return pos;
+      }
+      pos = (pos + 1) & indexMask;
+    }
+    return NONE;
+  }
+
+  private void insertIndex(long rootId, int slot) {
+    int pos = hash(rootId) & indexMask;
+    while (index[pos] != NONE) {
+      pos = (pos + 1) & indexMask;
+    }
+    index[pos] = slot;
+  }
+
+  private void deleteIndex(int pos) {
+    // Shift back the following entries of the probe sequence instead of leaving a tombstone
+    int hole = pos;
+    int cur = (pos + 1) & indexMask;
+    while (index[cur] != NONE) {
+      int home = hash(rootIds[index[cur]]) & indexMask;
+      // Move the entry if its home position is not within (hole, cur]
+      if (((cur - home) & indexMask) >= ((cur - hole) & indexMask)) {
+        index[hole] = index[cur];
+        hole = cur;
+      }
+      cur = (cur + 1) & indexMask;
+    }
+    index[hole] = NONE;
+  }
+}
@@ -22,7 +22,6 @@ package org.apache.heron.instance.spout;
 import java.io.Serializable;
 import java.time.Duration;
 import java.time.temporal.ChronoUnit;
-import java.util.List;
 import java.util.Map;
 import java.util.logging.Logger;
 
@@ -78,6 +77,14 @@ public class SpoutInstance implements IInstance {
 
   private PhysicalPlanHelper helper;
 
+  // Handlers of the in-flight tuples retired by acks and fails from downstream
+  private final InFlightTupleTable.RetiredTupleHandler ackedTupleHandler =
+      (streamId, messageId, insertionTime) ->
+          invokeAck(messageId, streamId, latencySince(insertionTime));
+  private final InFlightTupleTable.RetiredTupleHandler failedTupleHandler =
+      (streamId, messageId, insertionTime) ->
+          invokeFail(messageId, streamId, latencySince(insertionTime));
+
   /**
    * Construct a SpoutInstance basing on given arguments
    */
@@ -368,35 +375,29 @@ public class SpoutInstance implements IInstance {
             rt.getTaskid(), helper.getMyTaskId()));
       } else {
         long rootId = rt.getKey();
-        RootTupleInfo rootTupleInfo = collector.retireInFlight(rootId);
+        boolean retired = collector.retireInFlight(rootId,
+            isSuccess ? ackedTupleHandler : failedTupleHandler);
 
         // This tuple has been removed due to time-out
-        if (rootTupleInfo == null) {
+        if (!retired) {
           return;
         }
-        Object messageId = rootTupleInfo.getMessageId();
-        if (messageId != null) {
-          Duration latency = Duration.ofNanos(System.nanoTime())
-              .minusNanos(rootTupleInfo.getInsertionTime());
-          if (isSuccess) {
-            invokeAck(messageId, rootTupleInfo.getStreamId(), latency);
-          } else {
-            invokeFail(messageId, rootTupleInfo.getStreamId(), latency);
-          }
-        }
       }
     }
   }
 
+  private static Duration latencySince(long insertionTime) {
+    return Duration.ofNanos(System.nanoTime()).minusNanos(insertionTime);
+  }
+
   private void lookForTimeouts() {
     Duration timeout = TypeUtils.getDuration(
         config.get(Config.TOPOLOGY_MESSAGE_TIMEOUT_SECS), ChronoUnit.SECONDS);
     int nBucket = systemConfig.getInstanceAcknowledgementNbuckets();
-    List<RootTupleInfo> expiredObjects = collector.retireExpired(timeout);
-    for (RootTupleInfo rootTupleInfo : expiredObjects) {
-      spoutMetrics.timeoutTuple(rootTupleInfo.getStreamId());
-      invokeFail(rootTupleInfo.getMessageId(), rootTupleInfo.getStreamId(), timeout);
-    }
+    collector.retireExpired(timeout, (streamId, messageId, insertionTime) -> {
+      spoutMetrics.timeoutTuple(streamId);
+      invokeFail(messageId, streamId, timeout);
+    });
 
     Runnable lookForTimeoutsTask = new Runnable() {
       @Override
@@ -419,6 +420,21 @@ public class SpoutInstance implements IInstance {
       if (msg instanceof CheckpointManager.InitiateStatefulCheckpoint) {
         String checkpintId = ((CheckpointManager.InitiateStatefulCheckpoint) msg).getCheckpointId();
         persistState(checkpintId);
+      } else if (msg instanceof HeronTuples.HeronTupleSet2) {
+        HeronTuples.HeronTupleSet2 tuples = (HeronTuples.HeronTupleSet2) msg;
+        // For spout, it should read only control tuples(ack&fail)
+        if (tuples.hasData()) {
+          throw new RuntimeException("Spout cannot get incoming data tuples from other components");
+        }
+
+        if (tuples.hasControl()) {
+          handleControlTuples(tuples.getControl());
+        }
+
+        // To avoid spending too much time
+        if (System.nanoTime() - startOfCycle - spoutAckBatchTime.toNanos() > 0) {
+          break;
+        }
       } else if (msg instanceof HeronTuples.HeronTupleSet) {
         HeronTuples.HeronTupleSet tuples = (HeronTuples.HeronTupleSet) msg;
         // For spout, it should read only control tuples(ack&fail)
@@ -427,12 +443,7 @@ public class SpoutInstance implements IInstance {
         }
 
         if (tuples.hasControl()) {
-          for (HeronTuples.AckTuple aT : tuples.getControl().getAcksList()) {
-            handleAckTuple(aT, true);
-          }
-          for (HeronTuples.AckTuple aT : tuples.getControl().getFailsList()) {
-            handleAckTuple(aT, false);
-          }
+          handleControlTuples(tuples.getControl());
         }
 
         // To avoid spending too much time
@@ -446,6 +457,15 @@ public class SpoutInstance implements IInstance {
     }
   }
 
+  private void handleControlTuples(HeronTuples.HeronControlTupleSet control) {
+    for (HeronTuples.AckTuple aT : control.getAcksList()) {
+      handleAckTuple(aT, true);
+    }
+    for (HeronTuples.AckTuple aT : control.getFailsList()) {
+      handleAckTuple(aT, false);
+    }
+  }
+
   private void doImmediateAcks() {
     // In this iteration, we will only look at the immediateAcks size
     // Otherwise, it could be that eveytime we do an ack, the spout is
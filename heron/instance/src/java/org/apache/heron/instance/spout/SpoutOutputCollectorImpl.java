@@ -21,9 +21,6 @@ package org.apache.heron.instance.spout;
 
 import java.time.Duration;
 import java.util.ArrayDeque;
-import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Queue;
 import java.util.logging.Level;
@@ -34,6 +31,8 @@ import com.google.protobuf.Message;
 import org.apache.heron.api.serializer.IPluggableSerializer;
 import org.apache.heron.api.spout.ISpoutOutputCollector;
 import org.apache.heron.common.basics.Communicator;
+import org.apache.heron.common.basics.SingletonRegistry;
+import org.apache.heron.common.config.SystemConfig;
 import org.apache.heron.common.utils.metrics.ComponentMetrics;
 import org.apache.heron.common.utils.misc.PhysicalPlanHelper;
 import org.apache.heron.common.utils.misc.TupleKeyGenerator;
@@ -57,8 +56,11 @@ public class SpoutOutputCollectorImpl
     extends AbstractOutputCollector implements ISpoutOutputCollector {
   private static final Logger LOG = Logger.getLogger(SpoutOutputCollectorImpl.class.getName());
 
-  // Map from tuple key to composite object with insertion-order, i.e. ordered by time
-  private final LinkedHashMap<Long, RootTupleInfo> inFlightTuples;
+  // The initial number of slots of the in-flight table; it grows on demand
+  private static final int INITIAL_IN_FLIGHT_CAPACITY = 1024;
+
+  // Table from tuple key to the emitted tuple's info, with a timing wheel to expire them
+  private final InFlightTupleTable inFlightTuples;
 
   private final TupleKeyGenerator keyGenerator;
 
@@ -77,8 +79,10 @@ public class SpoutOutputCollectorImpl
 
     this.keyGenerator = new TupleKeyGenerator();
 
-    // with default capacity, load factor and insertion order
-    inFlightTuples = new LinkedHashMap<>();
+    SystemConfig systemConfig =
+        (SystemConfig) SingletonRegistry.INSTANCE.getSingleton(SystemConfig.HERON_SYSTEM_CONFIG);
+    inFlightTuples = new InFlightTupleTable(INITIAL_IN_FLIGHT_CAPACITY,
+        systemConfig.getInstanceAcknowledgementNbuckets());
 
     if (!ackEnabled) {
       immediateAcks = new ArrayDeque<>();
@@ -120,29 +124,23 @@ public class SpoutOutputCollectorImpl
     return immediateAcks;
   }
 
-  RootTupleInfo retireInFlight(long rootId) {
-    return inFlightTuples.remove(rootId);
+  /**
+   * Retire the in-flight tuple with the given root id, passing it to the handler
+   *
+   * @return false if there is no such tuple, i.e. it has been removed due to time-out
+   */
+  boolean retireInFlight(long rootId, InFlightTupleTable.RetiredTupleHandler handler) {
+    return inFlightTuples.retire(rootId, handler);
   }
 
-  List<RootTupleInfo> retireExpired(Duration timeout) {
-    List<RootTupleInfo> retval = new ArrayList<>();
-    long curTime = System.nanoTime();
-
-    // The LinkedHashMap is ordered by insertion order, i.e. ordered by time
-    // So we want need to iterate from the start and remove all items until
-    // we meet the RootTupleInfo no need to expire
-    Iterator<RootTupleInfo> iterator = inFlightTuples.values().iterator();
-    while (iterator.hasNext()) {
-      RootTupleInfo rootTupleInfo = iterator.next();
-      if (rootTupleInfo.isExpired(curTime, timeout.toNanos())) {
-        retval.add(rootTupleInfo);
-        iterator.remove();
-      } else {
-        break;
-      }
-    }
-
-    return retval;
+  /**
+   * Retire the in-flight tuples older than the timeout, passing each one to the handler.
+   * Expected to be called every timeout / nBuckets; see InFlightTupleTable.
+   *
+   * @return the number of expired tuples
+   */
+  int retireExpired(Duration timeout, InFlightTupleTable.RetiredTupleHandler handler) {
+    return inFlightTuples.retireExpired(System.nanoTime(), timeout.toNanos(), handler);
   }
 
   /////////////////////////////////////////////////////////
@@ -160,13 +158,12 @@ public class SpoutOutputCollectorImpl
     HeronTuples.HeronDataTuple.Builder bldr = initTupleBuilder(streamId, tuple, emitDirectTaskId);
 
     if (messageId != null) {
-      RootTupleInfo tupleInfo = new RootTupleInfo(streamId, messageId);
       if (ackEnabled) {
         // This message is rooted
-        HeronTuples.RootId.Builder rtbldr = establishRootId(tupleInfo);
+        HeronTuples.RootId.Builder rtbldr = establishRootId(streamId, messageId);
         bldr.addRoots(rtbldr);
       } else {
-        immediateAcks.offer(tupleInfo);
+        immediateAcks.offer(new RootTupleInfo(streamId, messageId));
       }
     }
 
@@ -176,13 +173,13 @@ public class SpoutOutputCollectorImpl
     return null;
   }
 
-  private HeronTuples.RootId.Builder establishRootId(RootTupleInfo tupleInfo) {
+  private HeronTuples.RootId.Builder establishRootId(String streamId, Object messageId) {
     // This message is rooted
     long rootId = keyGenerator.next();
     HeronTuples.RootId.Builder rtbldr = HeronTuples.RootId.newBuilder();
     rtbldr.setTaskid(getPhysicalPlanHelper().getMyTaskId());
     rtbldr.setKey(rootId);
-    inFlightTuples.put(rootId, tupleInfo);
+    inFlightTuples.put(rootId, streamId, messageId, System.nanoTime());
     return rtbldr;
   }
 }
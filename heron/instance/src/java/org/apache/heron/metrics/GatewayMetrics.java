@@ -22,6 +22,7 @@ package org.apache.heron.metrics;
 import org.apache.heron.api.metric.CountMetric;
 import org.apache.heron.api.metric.MeanReducer;
 import org.apache.heron.api.metric.MeanReducerState;
+import org.apache.heron.api.metric.MultiCountMetric;
 import org.apache.heron.api.metric.ReducedMetric;
 import org.apache.heron.common.basics.SingletonRegistry;
 import org.apache.heron.common.config.SystemConfig;
@@ -60,6 +61,18 @@ public class GatewayMetrics {
   // receive more tuples from stream manager
   private final CountMetric inQueueFullCount;
 
+  // The # of packet buffers served from / not served from the buffer pool, per connection
+  private final MultiCountMetric bufferPoolHitCount;
+  private final MultiCountMetric bufferPoolMissCount;
+
+  // The # of socket write calls saved by gathering several packets per call, per connection
+  private final MultiCountMetric writeCallsSaved;
+
+  // How the instance's loopers waited, per looper, see WaitStrategy
+  private final MultiCountMetric looperWakeUpCount;
+  private final MultiCountMetric looperSpinCount;
+  private final MultiCountMetric looperParkCount;
+
   public GatewayMetrics() {
     receivedPacketsCount = new CountMetric();
     sentPacketsCount = new CountMetric();
@@ -77,6 +90,15 @@ public class GatewayMetrics {
     outStreamQueueExpectedCapacity = new ReducedMetric<>(new MeanReducer());
 
     inQueueFullCount = new CountMetric();
+
+    bufferPoolHitCount = new MultiCountMetric();
+    bufferPoolMissCount = new MultiCountMetric();
+
+    writeCallsSaved = new MultiCountMetric();
+
+    looperWakeUpCount = new MultiCountMetric();
+    looperSpinCount = new MultiCountMetric();
+    looperParkCount = new MultiCountMetric();
   }
 
   /**
@@ -132,6 +154,27 @@ public class GatewayMetrics {
     metricsCollector.registerMetric("__gateway-in-queue-full-count",
         inQueueFullCount,
         interval);
+
+    metricsCollector.registerMetric("__gateway-buffer-pool-hit-count",
+        bufferPoolHitCount,
+        interval);
+    metricsCollector.registerMetric("__gateway-buffer-pool-miss-count",
+        bufferPoolMissCount,
+        interval);
+
+    metricsCollector.registerMetric("__gateway-write-calls-saved",
+        writeCallsSaved,
+        interval);
+
+    metricsCollector.registerMetric("__gateway-looper-wakeup-count",
+        looperWakeUpCount,
+        interval);
+    metricsCollector.registerMetric("__gateway-looper-spin-count",
+        looperSpinCount,
+        interval);
+    metricsCollector.registerMetric("__gateway-looper-park-count",
+        looperParkCount,
+        interval);
   }
 
   public void updateReceivedPacketsCount(long count) {
@@ -179,4 +222,19 @@ public class GatewayMetrics {
   public void updateInQueueFullCount() {
     inQueueFullCount.incr();
   }
+
+  public void updateBufferPoolCount(String connection, long hits, long misses) {
+    bufferPoolHitCount.scope(connection).incrBy(hits);
+    bufferPoolMissCount.scope(connection).incrBy(misses);
+  }
+
+  public void updateWriteCallsSaved(String connection, long count) {
+    writeCallsSaved.scope(connection).incrBy(count);
+  }
+
+  public void updateLooperCounts(String looper, long wakeUps, long spins, long parks) {
+    looperWakeUpCount.scope(looper).incrBy(wakeUps);
+    looperSpinCount.scope(looper).incrBy(spins);
+    looperParkCount.scope(looper).incrBy(parks);
+  }
 }
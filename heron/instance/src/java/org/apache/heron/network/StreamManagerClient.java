@@ -22,8 +22,6 @@ package org.apache.heron.network;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
-import com.google.protobuf.ByteString;
-import com.google.protobuf.InvalidProtocolBufferException;
 import com.google.protobuf.Message;
 
 import org.apache.heron.common.basics.Communicator;
@@ -120,6 +118,7 @@ public class StreamManagerClient extends HeronClient {
     registerOnMessage(CheckpointManager.InitiateStatefulCheckpoint.newBuilder());
     registerOnMessage(CheckpointManager.RestoreInstanceStateRequest.newBuilder());
     registerOnMessage(CheckpointManager.StartInstanceStatefulProcessing.newBuilder());
+    registerOnMessage(CheckpointManager.InstanceStateCheckpointSaved.newBuilder());
   }
 
 
@@ -205,6 +204,8 @@ public class StreamManagerClient extends HeronClient {
       handleRestoreInstanceStateRequest((CheckpointManager.RestoreInstanceStateRequest) message);
     } else if (message instanceof CheckpointManager.StartInstanceStatefulProcessing) {
       handleStartStatefulRequest((CheckpointManager.StartInstanceStatefulProcessing) message);
+    } else if (message instanceof CheckpointManager.InstanceStateCheckpointSaved) {
+      handleInstanceStateCheckpointSaved((CheckpointManager.InstanceStateCheckpointSaved) message);
     } else {
       throw new RuntimeException("Unknown kind of message received from Stream Manager");
     }
@@ -286,6 +287,16 @@ public class StreamManagerClient extends HeronClient {
     inControlQueue.offer(instanceControlMsg);
   }
 
+  private void handleInstanceStateCheckpointSaved(
+      CheckpointManager.InstanceStateCheckpointSaved message) {
+    LOG.info("Instance state saved for checkpoint id: " + message.getCheckpointId());
+
+    InstanceControlMsg instanceControlMsg = InstanceControlMsg.newBuilder()
+        .setInstanceStateCheckpointSaved(message)
+        .build();
+    inControlQueue.offer(instanceControlMsg);
+  }
+
   private void handleRestoreInstanceStateRequest(
       CheckpointManager.RestoreInstanceStateRequest request) {
     LOG.info("Received a RestoreInstanceState request with checkpoint id: "
@@ -316,28 +327,9 @@ public class StreamManagerClient extends HeronClient {
   }
 
   private void handleNewTuples2(HeronTuples.HeronTupleSet2 set) {
-    HeronTuples.HeronTupleSet.Builder toFeed = HeronTuples.HeronTupleSet.newBuilder();
-    // Set the source task id
-    toFeed.setSrcTaskId(set.getSrcTaskId());
-
-    if (set.hasControl()) {
-      toFeed.setControl(set.getControl());
-    } else {
-      // Either control or data
-      HeronTuples.HeronDataTupleSet.Builder builder = HeronTuples.HeronDataTupleSet.newBuilder();
-      builder.setStream(set.getData().getStream());
-      try {
-        for (ByteString bs : set.getData().getTuplesList()) {
-          builder.addTuples(HeronTuples.HeronDataTuple.parseFrom(bs));
-        }
-      } catch (InvalidProtocolBufferException e) {
-        LOG.log(Level.SEVERE, "Failed to parse protobuf", e);
-      }
-      toFeed.setData(builder);
-    }
-
-    HeronTuples.HeronTupleSet s = toFeed.build();
-    inStreamQueue.offer(s);
+    // The data tuples are still serialized inside the set; the slave decodes them one by one
+    // when executing, so the gateway thread does not parse or copy them
+    inStreamQueue.offer(set);
   }
 
   private void handleAssignmentMessage(PhysicalPlans.PhysicalPlan pplan) {
@@ -92,6 +92,9 @@ class SingleThreadStmgrClient(HeronClient):
         self._handle_restore_instance_state(message)
       elif isinstance(message, ckptmgr_pb2.InitiateStatefulCheckpoint):
         self._handle_initiate_stateful_checkpoint(message)
+      elif isinstance(message, ckptmgr_pb2.InstanceStateCheckpointSaved):
+        # The python instance always checkpoints its full state, which needs no base
+        Log.debug("Instance state saved for checkpoint %s", message.checkpoint_id)
       else:
         raise RuntimeError("Unknown kind of message received from Stream Manager")
     except Exception as e:
@@ -111,11 +114,13 @@ class SingleThreadStmgrClient(HeronClient):
     stateful_start_msg_builder = lambda: ckptmgr_pb2.StartInstanceStatefulProcessing()
     stateful_restore_msg_builder = lambda: ckptmgr_pb2.RestoreInstanceStateRequest()
     stateful_initiate_msg_builder = lambda: ckptmgr_pb2.InitiateStatefulCheckpoint()
+    stateful_saved_msg_builder = lambda: ckptmgr_pb2.InstanceStateCheckpointSaved()
     self.register_on_message(new_instance_builder)
     self.register_on_message(hts2_msg_builder)
     self.register_on_message(stateful_start_msg_builder)
     self.register_on_message(stateful_restore_msg_builder)
     self.register_on_message(stateful_initiate_msg_builder)
+    self.register_on_message(stateful_saved_msg_builder)
 
   def _send_register_req(self):
     request = stmgr_pb2.RegisterInstanceRequest()
@@ -0,0 +1,184 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.heron.instance;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.Message;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.apache.heron.api.Config;
+import org.apache.heron.api.serializer.IPluggableSerializer;
+import org.apache.heron.api.serializer.JavaSerializer;
+import org.apache.heron.api.state.ChangeTrackingHashMapState;
+import org.apache.heron.api.state.HashMapState;
+import org.apache.heron.api.state.State;
+import org.apache.heron.api.topology.IStatefulComponent;
+import org.apache.heron.common.utils.misc.PhysicalPlanHelper;
+import org.apache.heron.proto.ckptmgr.CheckpointManager;
+import org.apache.heron.resource.Constants;
+import org.apache.heron.resource.TestSpout;
+import org.apache.heron.resource.UnitTestHelper;
+
+/**
+ * To test that the Slave keeps the chains of delta checkpoints within the full checkpoint
+ * interval when the instance state is restored from a delta checkpoint, and only takes deltas
+ * of checkpoints that are saved
+ */
+public class DeltaCheckpointTest {
+  private static final String SPOUT_INSTANCE_ID = "spout-id";
+  private static final int FULL_CHECKPOINT_INTERVAL = 3;
+  private static IPluggableSerializer serializer = new JavaSerializer();
+
+  private SlaveTester slaveTester;
+
+  static {
+    serializer.initialize(null);
+  }
+
+  /**
+   * A spout counting the words it emits in its state
+   */
+  private static final class StatefulTestSpout extends TestSpout
+      implements IStatefulComponent<String, Integer> {
+    private static final long serialVersionUID = -2693125482163208743L;
+    private State<String, Integer> state;
+
+    @Override
+    public void initState(State<String, Integer> initialState) {
+      this.state = initialState;
+    }
+
+    @Override
+    public void preSave(String checkpointId) {
+    }
+
+    @Override
+    public void nextTuple() {
+      state.merge("emitted", 1, Integer::sum);
+      super.nextTuple();
+    }
+  }
+
+  @Before
+  public void before() {
+    slaveTester = new SlaveTester();
+    slaveTester.start();
+  }
+
+  @After
+  public void after() throws NoSuchFieldException, IllegalAccessException {
+    slaveTester.stop();
+  }
+
+  /**
+   * Restore from the second delta of a chain, whose next checkpoint must be a full snapshot
+   */
+  @Test
+  public void testRestoreFromDelta() throws Exception {
+    Map<String, Object> topologyConfig = new HashMap<>();
+    topologyConfig.put(Config.TOPOLOGY_STATEFUL_FULL_CHECKPOINT_INTERVAL,
+        FULL_CHECKPOINT_INTERVAL);
+    PhysicalPlanHelper physicalPlanHelper = new PhysicalPlanHelper(
+        UnitTestHelper.getStatefulPhysicalPlan(new StatefulTestSpout(), topologyConfig),
+        SPOUT_INSTANCE_ID);
+    slaveTester.getInControlQueue().offer(InstanceControlMsg.newBuilder()
+        .setNewPhysicalPlanHelper(physicalPlanHelper)
+        .build());
+
+    // A full snapshot at ckpt-1, followed by deltas at ckpt-2 and ckpt-3
+    HashMapState<Serializable, Serializable> snapshot = new HashMapState<>();
+    snapshot.put("emitted", 1);
+    ChangeTrackingHashMapState<Serializable, Serializable> changes =
+        new ChangeTrackingHashMapState<>(snapshot);
+    changes.startTracking("ckpt-1", 0, FULL_CHECKPOINT_INTERVAL);
+    changes.put("emitted", 2);
+    CheckpointManager.InstanceStateCheckpoint restored =
+        CheckpointManager.InstanceStateCheckpoint.newBuilder()
+            .setCheckpointId("ckpt-3")
+            .setState(ByteString.copyFrom(serializer.serialize(snapshot)))
+            .addDeltas(ByteString.copyFrom(serializer.serialize(changes.getDelta())))
+            .addDeltas(ByteString.copyFrom(serializer.serialize(changes.getDelta())))
+            .build();
+    slaveTester.getInControlQueue().offer(InstanceControlMsg.newBuilder()
+        .setRestoreInstanceStateRequest(CheckpointManager.RestoreInstanceStateRequest.newBuilder()
+            .setState(restored)
+            .build())
+        .build());
+    slaveTester.getInControlQueue().offer(InstanceControlMsg.newBuilder()
+        .setStartInstanceStatefulProcessing(
+            CheckpointManager.StartInstanceStatefulProcessing.newBuilder()
+                .setCheckpointId("ckpt-3")
+                .build())
+        .build());
+
+    CheckpointManager.InstanceStateCheckpoint checkpoint = checkpoint("ckpt-4");
+    Assert.assertFalse(checkpoint.hasBaseCheckpointId());
+    Object state = serializer.deserialize(checkpoint.getState().toByteArray());
+    Assert.assertTrue(state instanceof ChangeTrackingHashMapState);
+    Assert.assertTrue((Integer) ((State<?, ?>) state).get("emitted") >= 2);
+
+    // A checkpoint is the base of a delta only once it is saved
+    Assert.assertFalse(checkpoint("ckpt-5").hasBaseCheckpointId());
+    saved("ckpt-5");
+    Assert.assertEquals("ckpt-5", checkpoint("ckpt-6").getBaseCheckpointId());
+  }
+
+  private void saved(String checkpointId) throws InterruptedException {
+    slaveTester.getInControlQueue().offer(InstanceControlMsg.newBuilder()
+        .setInstanceStateCheckpointSaved(
+            CheckpointManager.InstanceStateCheckpointSaved.newBuilder()
+                .setCheckpointId(checkpointId)
+                .build())
+        .build());
+    while (!slaveTester.getInControlQueue().isEmpty()) {
+      Thread.sleep(10);
+    }
+  }
+
+  private CheckpointManager.InstanceStateCheckpoint checkpoint(String checkpointId)
+      throws InterruptedException {
+    slaveTester.getInStreamQueue().offer(CheckpointManager.InitiateStatefulCheckpoint.newBuilder()
+        .setCheckpointId(checkpointId)
+        .build());
+
+    long deadline = System.currentTimeMillis() + Constants.TEST_WAIT_TIME.toMillis();
+    while (System.currentTimeMillis() < deadline) {
+      Message msg = slaveTester.getOutStreamQueue().poll();
+      if (msg instanceof CheckpointManager.StoreInstanceStateCheckpoint) {
+        CheckpointManager.InstanceStateCheckpoint checkpoint =
+            ((CheckpointManager.StoreInstanceStateCheckpoint) msg).getState();
+        Assert.assertEquals(checkpointId, checkpoint.getCheckpointId());
+        return checkpoint;
+      } else if (msg == null) {
+        Thread.sleep(10);
+      }
+    }
+    Assert.fail("No checkpoint stored for " + checkpointId);
+    return null;
+  }
+}
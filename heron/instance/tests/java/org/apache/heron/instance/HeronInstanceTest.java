@@ -0,0 +1,83 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.heron.instance;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.apache.heron.common.basics.SysUtils;
+import org.apache.heron.proto.system.PhysicalPlans;
+import org.apache.heron.resource.UnitTestHelper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test a HeronInstance hosting several tasks of a component
+ */
+public class HeronInstanceTest {
+  private static final List<PhysicalPlans.Instance> INSTANCES = Arrays.asList(
+      newInstance("container_1_word_3", 3),
+      newInstance("container_1_word_4", 4),
+      newInstance("container_1_word_5", 5));
+
+  @Before
+  public void before() {
+    UnitTestHelper.addSystemConfigToSingleton();
+  }
+
+  @After
+  public void after() throws NoSuchFieldException, IllegalAccessException {
+    UnitTestHelper.clearSingletonRegistry();
+  }
+
+  @Test
+  public void testProcessName() {
+    assertEquals("container_1_word_3",
+        HeronInstance.getProcessName(Collections.singletonList(INSTANCES.get(0))));
+    assertEquals("container_1_word_3+4+5", HeronInstance.getProcessName(INSTANCES));
+  }
+
+  /**
+   * The slaves of all the tasks are closed, e.g. when one of them fails
+   */
+  @Test
+  public void testCloseSlaves() throws IOException, InterruptedException {
+    HeronInstance heronInstance = new HeronInstance("topology-name", "topologyId",
+        INSTANCES, SysUtils.getFreePort(), SysUtils.getFreePort());
+    heronInstance.start();
+
+    assertTrue(heronInstance.closeSlaves(Thread.currentThread(), Duration.ofSeconds(10)));
+  }
+
+  private static PhysicalPlans.Instance newInstance(String instanceId, int taskId) {
+    PhysicalPlans.InstanceInfo instanceInfo = PhysicalPlans.InstanceInfo.newBuilder()
+        .setTaskId(taskId).setComponentIndex(taskId - 3).setComponentName("word").build();
+    return PhysicalPlans.Instance.newBuilder()
+        .setInstanceId(instanceId).setStmgrId("stream_id").setInfo(instanceInfo).build();
+  }
+}
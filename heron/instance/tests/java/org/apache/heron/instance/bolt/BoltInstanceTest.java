@@ -90,6 +90,52 @@ public class BoltInstanceTest {
    */
   @Test
   public void testReadTupleAndExecute() {
+    final int expectedTuples = 10;
+    CountDownLatch executeLatch = startBolt(expectedTuples);
+
+    // Send tuples to bolt instance
+    HeronTuples.HeronTupleSet.Builder heronTupleSet = HeronTuples.HeronTupleSet.newBuilder();
+    heronTupleSet.setSrcTaskId(SRC_TASK_ID);
+    HeronTuples.HeronDataTupleSet.Builder dataTupleSet = HeronTuples.HeronDataTupleSet.newBuilder();
+    dataTupleSet.setStream(getStreamId());
+
+    // We will add 10 tuples to the set
+    for (int i = 0; i < expectedTuples; i++) {
+      dataTupleSet.addTuples(getDataTuple(i));
+    }
+
+    heronTupleSet.setData(dataTupleSet);
+    slaveTester.getInStreamQueue().offer(heronTupleSet.build());
+
+    // Wait the bolt's finishing
+    assertExecuted(expectedTuples, executeLatch);
+  }
+
+  /**
+   * Test executing tuples queued as received from the stream manager, still serialized
+   */
+  @Test
+  public void testReadSerializedTupleAndExecute() {
+    final int expectedTuples = 10;
+    CountDownLatch executeLatch = startBolt(expectedTuples);
+
+    HeronTuples.HeronTupleSet2.Builder heronTupleSet = HeronTuples.HeronTupleSet2.newBuilder();
+    heronTupleSet.setSrcTaskId(SRC_TASK_ID);
+    HeronTuples.HeronDataTupleSet2.Builder dataTupleSet =
+        HeronTuples.HeronDataTupleSet2.newBuilder();
+    dataTupleSet.setStream(getStreamId());
+
+    for (int i = 0; i < expectedTuples; i++) {
+      dataTupleSet.addTuples(getDataTuple(i).build().toByteString());
+    }
+
+    heronTupleSet.setData(dataTupleSet);
+    slaveTester.getInStreamQueue().offer(heronTupleSet.build());
+
+    assertExecuted(expectedTuples, executeLatch);
+  }
+
+  private CountDownLatch startBolt(int expectedTuples) {
     PhysicalPlans.PhysicalPlan physicalPlan = UnitTestHelper.getPhysicalPlan(false, -1);
 
     PhysicalPlanHelper physicalPlanHelper = new PhysicalPlanHelper(physicalPlan, BOLT_INSTANCE_ID);
@@ -99,43 +145,37 @@ public class BoltInstanceTest {
 
     slaveTester.getInControlQueue().offer(instanceControlMsg);
 
-    final int expectedTuples = 10;
     CountDownLatch executeLatch = new CountDownLatch(expectedTuples);
     SingletonRegistry.INSTANCE.registerSingleton(Constants.ACK_COUNT, ackCount);
     SingletonRegistry.INSTANCE.registerSingleton(Constants.FAIL_COUNT, failCount);
     SingletonRegistry.INSTANCE.registerSingleton(Constants.EXECUTE_COUNT, tupleExecutedCount);
     SingletonRegistry.INSTANCE.registerSingleton(Constants.EXECUTE_LATCH, executeLatch);
     SingletonRegistry.INSTANCE.registerSingleton(Constants.RECEIVED_STRING_LIST, receivedStrings);
+    return executeLatch;
+  }
 
-    // Send tuples to bolt instance
-    HeronTuples.HeronTupleSet.Builder heronTupleSet = HeronTuples.HeronTupleSet.newBuilder();
-    heronTupleSet.setSrcTaskId(SRC_TASK_ID);
-    HeronTuples.HeronDataTupleSet.Builder dataTupleSet = HeronTuples.HeronDataTupleSet.newBuilder();
+  private static TopologyAPI.StreamId.Builder getStreamId() {
     TopologyAPI.StreamId.Builder streamId = TopologyAPI.StreamId.newBuilder();
     streamId.setComponentName("test-spout");
     streamId.setId("default");
-    dataTupleSet.setStream(streamId);
-
-    // We will add 10 tuples to the set
-    for (int i = 0; i < expectedTuples; i++) {
-      HeronTuples.HeronDataTuple.Builder dataTuple = HeronTuples.HeronDataTuple.newBuilder();
-      dataTuple.setKey(19901017 + i);
-
-      HeronTuples.RootId.Builder rootId = HeronTuples.RootId.newBuilder();
-      rootId.setKey(19901017 + i);
-      rootId.setTaskid(0);
-      dataTuple.addRoots(rootId);
+    return streamId;
+  }
 
-      String tupleValue = (i & 1) == 0 ? "A" : "B";
-      dataTuple.addValues(ByteString.copyFrom(serializer.serialize(tupleValue)));
+  private static HeronTuples.HeronDataTuple.Builder getDataTuple(int i) {
+    HeronTuples.HeronDataTuple.Builder dataTuple = HeronTuples.HeronDataTuple.newBuilder();
+    dataTuple.setKey(19901017 + i);
 
-      dataTupleSet.addTuples(dataTuple);
-    }
+    HeronTuples.RootId.Builder rootId = HeronTuples.RootId.newBuilder();
+    rootId.setKey(19901017 + i);
+    rootId.setTaskid(0);
+    dataTuple.addRoots(rootId);
 
-    heronTupleSet.setData(dataTupleSet);
-    slaveTester.getInStreamQueue().offer(heronTupleSet.build());
+    String tupleValue = (i & 1) == 0 ? "A" : "B";
+    dataTuple.addValues(ByteString.copyFrom(serializer.serialize(tupleValue)));
+    return dataTuple;
+  }
 
-    // Wait the bolt's finishing
+  private void assertExecuted(int expectedTuples, CountDownLatch executeLatch) {
     HeronServerTester.await(executeLatch);
     Assert.assertEquals(expectedTuples, tupleExecutedCount.intValue());
     Assert.assertEquals(expectedTuples / 2, ackCount.intValue());
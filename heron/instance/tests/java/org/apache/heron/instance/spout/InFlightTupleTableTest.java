@@ -0,0 +1,133 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.heron.instance.spout;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class InFlightTupleTableTest {
+  private static final long TIMEOUT = 10_000;
+  private static final int N_BUCKETS = 10;
+
+  private final List<Object> retired = new ArrayList<>();
+  private final InFlightTupleTable.RetiredTupleHandler collect =
+      (streamId, messageId, insertionTime) -> retired.add(messageId);
+
+  /**
+   * Test that tuples are retired by root id, including after the table grows
+   */
+  @Test
+  public void testPutAndRetire() {
+    InFlightTupleTable table = new InFlightTupleTable(16, N_BUCKETS);
+    Random random = new Random(7);
+    Map<Long, Integer> expected = new HashMap<>();
+    for (int i = 0; i < 1000; i++) {
+      long rootId = random.nextLong();
+      table.put(rootId, "default", i, 0);
+      expected.put(rootId, i);
+    }
+    Assert.assertEquals(expected.size(), table.size());
+
+    for (Map.Entry<Long, Integer> entry : expected.entrySet()) {
+      retired.clear();
+      Assert.assertTrue(table.retire(entry.getKey(), collect));
+      Assert.assertEquals(entry.getValue(), retired.get(0));
+      Assert.assertFalse(table.retire(entry.getKey(), collect));
+    }
+    Assert.assertEquals(0, table.size());
+  }
+
+  /**
+   * Test that keys sharing a probe sequence stay reachable when one of them is removed
+   */
+  @Test
+  public void testRetireWithCollidingKeys() {
+    InFlightTupleTable table = new InFlightTupleTable(16, N_BUCKETS);
+    for (long rootId = 0; rootId < 16; rootId++) {
+      table.put(rootId, "default", rootId, 0);
+    }
+    for (long rootId = 0; rootId < 16; rootId += 2) {
+      Assert.assertTrue(table.retire(rootId, collect));
+    }
+    for (long rootId = 1; rootId < 16; rootId += 2) {
+      Assert.assertTrue(table.retire(rootId, collect));
+    }
+    Assert.assertEquals(0, table.size());
+  }
+
+  /**
+   * Test that the timing wheel only expires tuples once they are older than the timeout
+   */
+  @Test
+  public void testRetireExpired() {
+    InFlightTupleTable table = new InFlightTupleTable(16, N_BUCKETS);
+    long tick = TIMEOUT / N_BUCKETS;
+    long now = System.nanoTime();
+    long start = now;
+
+    table.put(1, "default", "first", now);
+    now += tick;
+    Assert.assertEquals(0, table.retireExpired(now, TIMEOUT, collect));
+    table.put(2, "default", "second", now);
+    Assert.assertTrue(table.retire(2, collect));
+    retired.clear();
+    table.put(3, "default", "third", now);
+
+    while (now - start < TIMEOUT - tick) {
+      now += tick;
+      Assert.assertEquals(0, table.retireExpired(now, TIMEOUT, collect));
+    }
+    now = start + TIMEOUT + tick;
+    Assert.assertEquals(1, table.retireExpired(now, TIMEOUT, collect));
+    Assert.assertEquals("first", retired.get(0));
+
+    now += tick;
+    Assert.assertEquals(1, table.retireExpired(now, TIMEOUT, collect));
+    Assert.assertEquals("third", retired.get(1));
+    Assert.assertEquals(0, table.size());
+  }
+
+  /**
+   * Test that the handler of an expired tuple may emit new tuples into the table
+   */
+  @Test
+  public void testEmitWhileExpiring() {
+    InFlightTupleTable table = new InFlightTupleTable(16, N_BUCKETS);
+    long now = System.nanoTime();
+    for (long rootId = 0; rootId < 16; rootId++) {
+      table.put(rootId, "default", rootId, now);
+    }
+    long later = now + 2 * TIMEOUT;
+    int expired = table.retireExpired(later, TIMEOUT, (streamId, messageId, insertionTime) ->
+        table.put((Long) messageId + 100, streamId, messageId, later));
+
+    Assert.assertEquals(16, expired);
+    Assert.assertEquals(16, table.size());
+    for (long rootId = 100; rootId < 116; rootId++) {
+      Assert.assertTrue(table.retire(rootId, collect));
+    }
+  }
+}
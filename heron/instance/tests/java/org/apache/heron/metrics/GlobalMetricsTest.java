@@ -27,6 +27,8 @@ import org.junit.Test;
 
 import org.apache.heron.api.generated.TopologyAPI;
 import org.apache.heron.api.metric.GlobalMetrics;
+import org.apache.heron.api.metric.IMetric;
+import org.apache.heron.api.metric.IMetricsRegister;
 import org.apache.heron.api.topology.TopologyContext;
 import org.apache.heron.common.basics.WakeableLooper;
 import org.apache.heron.common.utils.metrics.MetricsCollector;
@@ -68,6 +70,60 @@ public class GlobalMetricsTest {
     assertEquals(new Long(2), metricsContent.get("mycounter1"));
   }
 
+  @Test
+  public void testCountersPerTask() throws InterruptedException {
+    FakeMetricsRegister register1 = new FakeMetricsRegister();
+    FakeMetricsRegister register2 = new FakeMetricsRegister();
+    runInThread(() -> {
+      GlobalMetrics.init(register1, Duration.ofSeconds(5));
+      GlobalMetrics.init(register1, Duration.ofSeconds(5));
+      GlobalMetrics.incr("mycounter");
+    });
+    runInThread(() -> {
+      GlobalMetrics.init(register2, Duration.ofSeconds(5));
+      GlobalMetrics.incrBy("mycounter", 2);
+    });
+
+    // Every task reports its own increments, and is registered once
+    assertEquals(1, register1.registrations);
+    assertEquals(1, register2.registrations);
+    assertEquals(new Long(1), register1.getValueAndReset().get("mycounter"));
+    assertEquals(new Long(2), register2.getValueAndReset().get("mycounter"));
+
+    // The increments of the other threads are shared
+    Map<String, Map<String, Long>> shared = new HashMap<>();
+    runInThread(() -> {
+      GlobalMetrics.incr("mycounter");
+      shared.put("value", GlobalMetrics.getUnderlyingCounter().getValueAndReset());
+    });
+    assertEquals(new Long(1), shared.get("value").get("mycounter"));
+  }
+
+  private static void runInThread(Runnable runnable) throws InterruptedException {
+    Thread thread = new Thread(runnable);
+    thread.start();
+    thread.join();
+  }
+
+  private static class FakeMetricsRegister implements IMetricsRegister {
+    private IMetric<?> metric;
+    private int registrations;
+
+    @Override
+    public <T extends IMetric<U>, U> T registerMetric(String name, T newMetric,
+                                                      int timeBucketSizeInSecs) {
+      assertEquals(GlobalMetrics.ROOT_NAME, name);
+      metric = newMetric;
+      registrations++;
+      return newMetric;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Long> getValueAndReset() {
+      return (Map<String, Long>) metric.getValueAndReset();
+    }
+  }
+
   // TODO: Use JMock framework for mock. (Needs extra jar)
   private static class FakeWakeableLooper extends WakeableLooper {
     protected void doWait() {
@@ -81,20 +81,23 @@ public class HandleReadTest extends AbstractNetworkTest {
       Assert.assertEquals(1, getInStreamQueue().size());
 
       Message msg = getInStreamQueue().poll();
-      Assert.assertTrue(msg instanceof HeronTuples.HeronTupleSet);
+      // The tuple set is queued as received, with the data tuples still serialized
+      Assert.assertTrue(msg instanceof HeronTuples.HeronTupleSet2);
 
-      HeronTuples.HeronTupleSet heronTupleSet = (HeronTuples.HeronTupleSet) msg;
+      HeronTuples.HeronTupleSet2 heronTupleSet = (HeronTuples.HeronTupleSet2) msg;
 
       Assert.assertTrue(heronTupleSet.hasData());
       Assert.assertFalse(heronTupleSet.hasControl());
 
-      HeronTuples.HeronDataTupleSet heronDataTupleSet = heronTupleSet.getData();
+      HeronTuples.HeronDataTupleSet2 heronDataTupleSet = heronTupleSet.getData();
 
       Assert.assertEquals("test-spout", heronDataTupleSet.getStream().getComponentName());
       Assert.assertEquals("default", heronDataTupleSet.getStream().getId());
 
       StringBuilder response = new StringBuilder();
-      for (HeronTuples.HeronDataTuple heronDataTuple : heronDataTupleSet.getTuplesList()) {
+      for (ByteString serializedTuple : heronDataTupleSet.getTuplesList()) {
+        HeronTuples.HeronDataTuple heronDataTuple =
+            HeronTuples.HeronDataTuple.parseFrom(serializedTuple);
         response.append(heronDataTuple.getValues(0).toStringUtf8());
         Assert.assertEquals(1, heronDataTuple.getRootsCount());
       }
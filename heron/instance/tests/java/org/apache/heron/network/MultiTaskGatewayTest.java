@@ -0,0 +1,148 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.heron.network;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+import com.google.protobuf.Message;
+
+import org.junit.Test;
+
+import org.apache.heron.common.basics.Communicator;
+import org.apache.heron.common.basics.NIOLooper;
+import org.apache.heron.common.basics.SlaveLooper;
+import org.apache.heron.common.basics.SysUtils;
+import org.apache.heron.common.basics.WakeableLooper;
+import org.apache.heron.common.network.IncomingPacket;
+import org.apache.heron.common.network.OutgoingPacket;
+import org.apache.heron.common.network.REQID;
+import org.apache.heron.common.testhelpers.CommunicatorTestHelper;
+import org.apache.heron.common.testhelpers.HeronServerTester;
+import org.apache.heron.instance.Gateway;
+import org.apache.heron.instance.InstanceControlMsg;
+import org.apache.heron.proto.stmgr.StreamManager;
+import org.apache.heron.proto.system.Metrics;
+import org.apache.heron.resource.Constants;
+import org.apache.heron.resource.UnitTestHelper;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * To test whether a Gateway hosting two tasks registers each of them with the stream manager.
+ * It will have a mock stream manager, which will:
+ * 1. Accept a connection per task, and read the RegisterInstanceRequest sent on each
+ * 2. Send back a mock RegisterInstanceResponse with Physical Plan on each
+ * 3. Check whether each task gets the Physical Plan helper of its own instance
+ */
+public class MultiTaskGatewayTest extends AbstractNetworkTest {
+  private static final List<String> INSTANCE_IDS = Arrays.asList("spout-id", "bolt-id");
+
+  @Test
+  public void testAddTask() throws IOException {
+    NIOLooper gatewayLooper = new NIOLooper();
+    SlaveLooper slaveLooper = new SlaveLooper();
+
+    List<CountDownLatch> inControlQueueOfferLatches = new ArrayList<>();
+    List<Communicator<InstanceControlMsg>> inControlQueues = new ArrayList<>();
+    List<Communicator<Metrics.MetricPublisherPublishMessage>> outMetricsQueues =
+        new ArrayList<>();
+    outMetricsQueues.add(newCommunicator(gatewayLooper, gatewayLooper));
+    Gateway gateway = null;
+    for (String instanceId : INSTANCE_IDS) {
+      CountDownLatch inControlQueueOfferLatch = new CountDownLatch(1);
+      Communicator<InstanceControlMsg> inControlQueue = CommunicatorTestHelper.spyCommunicator(
+          newCommunicator(gatewayLooper, slaveLooper), inControlQueueOfferLatch);
+      Communicator<Message> inStreamQueue = newCommunicator(gatewayLooper, slaveLooper);
+      Communicator<Message> outStreamQueue = newCommunicator(slaveLooper, gatewayLooper);
+      Communicator<Metrics.MetricPublisherPublishMessage> outMetricsQueue =
+          newCommunicator(slaveLooper, gatewayLooper);
+      if (gateway == null) {
+        outMetricsQueues.add(outMetricsQueue);
+        gateway = new Gateway("topology-name", "topologyId",
+            UnitTestHelper.getInstance(instanceId), getServerPort(), SysUtils.getFreePort(),
+            gatewayLooper, inStreamQueue, outStreamQueue, inControlQueue, outMetricsQueues);
+      } else {
+        gateway.addTask(UnitTestHelper.getInstance(instanceId),
+            inStreamQueue, outStreamQueue, inControlQueue, outMetricsQueue);
+      }
+      inControlQueueOfferLatches.add(inControlQueueOfferLatch);
+      inControlQueues.add(inControlQueue);
+    }
+
+    ServerSocketChannel serverSocketChannel = ServerSocketChannel.open();
+    serverSocketChannel.socket().bind(new InetSocketAddress(HOST, getServerPort()));
+
+    List<SocketChannel> socketChannels = new ArrayList<>();
+    try {
+      getThreadPool().execute(gateway);
+
+      // Each task connects as its own instance
+      Set<String> registeredInstances = new HashSet<>();
+      for (int i = 0; i < INSTANCE_IDS.size(); i++) {
+        SocketChannel socketChannel = serverSocketChannel.accept();
+        socketChannel.configureBlocking(false);
+        socketChannels.add(socketChannel);
+
+        IncomingPacket incomingPacket = readIncomingPacket(socketChannel);
+        REQID rid = incomingPacket.unpackREQID();
+        StreamManager.RegisterInstanceRequest.Builder request =
+            StreamManager.RegisterInstanceRequest.newBuilder();
+        incomingPacket.unpackMessage(request);
+        registeredInstances.add(request.getInstance().getInstanceId());
+
+        OutgoingPacket outgoingPacket
+            = new OutgoingPacket(rid, UnitTestHelper.getRegisterInstanceResponse());
+        outgoingPacket.writeToChannel(socketChannel);
+      }
+      assertEquals(new HashSet<>(INSTANCE_IDS), registeredInstances);
+
+      // And each task gets the physical plan as its own instance
+      for (int i = 0; i < INSTANCE_IDS.size(); i++) {
+        HeronServerTester.await(inControlQueueOfferLatches.get(i));
+        InstanceControlMsg instanceControlMsg = inControlQueues.get(i).poll();
+        assertEquals(INSTANCE_IDS.get(i),
+            instanceControlMsg.getNewPhysicalPlanHelper().getMyInstanceId());
+        assertEquals(i, instanceControlMsg.getNewPhysicalPlanHelper().getMyTaskId());
+      }
+    } finally {
+      gatewayLooper.exitLoop();
+      for (SocketChannel socketChannel : socketChannels) {
+        close(socketChannel);
+      }
+      close(serverSocketChannel);
+    }
+  }
+
+  private static <T> Communicator<T> newCommunicator(WakeableLooper producer,
+                                                   WakeableLooper consumer) {
+    Communicator<T> communicator = new Communicator<>(producer, consumer);
+    communicator.init(Constants.QUEUE_BUFFER_SIZE, Constants.QUEUE_BUFFER_SIZE, 0.5);
+    return communicator;
+  }
+}
@@ -21,12 +21,14 @@ package org.apache.heron.resource;
 
 import java.lang.reflect.Field;
 import java.nio.file.Paths;
+import java.util.Collections;
 import java.util.Map;
 
 import org.junit.Ignore;
 
 import org.apache.heron.api.Config;
 import org.apache.heron.api.generated.TopologyAPI;
+import org.apache.heron.api.spout.IRichSpout;
 import org.apache.heron.api.topology.TopologyBuilder;
 import org.apache.heron.common.basics.SingletonRegistry;
 import org.apache.heron.common.config.SystemConfig;
@@ -63,7 +65,32 @@ public final class UnitTestHelper {
       TopologyAPI.TopologyState topologyState) {
     PhysicalPlans.PhysicalPlan.Builder pPlan = PhysicalPlans.PhysicalPlan.newBuilder();
 
-    setTopology(pPlan, ackEnabled, messageTimeout, topologyState);
+    setTopology(pPlan, new TestSpout(), ackEnabled
+            ? Config.TopologyReliabilityMode.ATLEAST_ONCE
+            : Config.TopologyReliabilityMode.ATMOST_ONCE,
+        messageTimeout, topologyState, Collections.emptyMap());
+
+    setInstances(pPlan);
+
+    setStMgr(pPlan);
+
+    return pPlan.build();
+  }
+
+  /**
+   * Construct the physical plan of an effectively once topology with basic setting.
+   *
+   * @param spout the spout of the topology
+   * @param topologyConfig the config to set on top of the basic setting
+   * @return the corresponding Physical Plan
+   */
+  public static PhysicalPlans.PhysicalPlan getStatefulPhysicalPlan(
+      IRichSpout spout,
+      Map<String, Object> topologyConfig) {
+    PhysicalPlans.PhysicalPlan.Builder pPlan = PhysicalPlans.PhysicalPlan.newBuilder();
+
+    setTopology(pPlan, spout, Config.TopologyReliabilityMode.EFFECTIVELY_ONCE, -1,
+        TopologyAPI.TopologyState.RUNNING, topologyConfig);
 
     setInstances(pPlan);
 
@@ -76,10 +103,12 @@ public final class UnitTestHelper {
     return getPhysicalPlan(ackEnabled, messageTimeout, TopologyAPI.TopologyState.RUNNING);
   }
 
-  private static void setTopology(PhysicalPlans.PhysicalPlan.Builder pPlan, boolean ackEnabled,
-                                  int messageTimeout, TopologyAPI.TopologyState topologyState) {
+  private static void setTopology(PhysicalPlans.PhysicalPlan.Builder pPlan, IRichSpout spout,
+                                  Config.TopologyReliabilityMode reliabilityMode,
+                                  int messageTimeout, TopologyAPI.TopologyState topologyState,
+                                  Map<String, Object> topologyConfig) {
     TopologyBuilder topologyBuilder = new TopologyBuilder();
-    topologyBuilder.setSpout("test-spout", new TestSpout(), 1);
+    topologyBuilder.setSpout("test-spout", spout, 1);
     // Here we need case switch to corresponding grouping
     topologyBuilder.setBolt("test-bolt", new TestBolt(), 1).shuffleGrouping("test-spout");
 
@@ -89,15 +118,12 @@ public final class UnitTestHelper {
     conf.setTopologyProjectName("heron-integration-test");
     conf.setNumStmgrs(1);
     conf.setMaxSpoutPending(100);
-    if (ackEnabled) {
-      conf.setTopologyReliabilityMode(Config.TopologyReliabilityMode.ATLEAST_ONCE);
-    } else {
-      conf.setTopologyReliabilityMode(Config.TopologyReliabilityMode.ATMOST_ONCE);
-    }
+    conf.setTopologyReliabilityMode(reliabilityMode);
     if (messageTimeout != -1) {
       conf.setMessageTimeoutSecs(messageTimeout);
       conf.put("topology.enable.message.timeouts", "true");
     }
+    conf.putAll(topologyConfig);
 
     TopologyAPI.Topology fTopology =
         topologyBuilder.createTopology().
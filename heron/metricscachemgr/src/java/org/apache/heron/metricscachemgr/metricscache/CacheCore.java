@@ -27,6 +27,11 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.logging.Logger;
 
 import com.google.common.annotations.VisibleForTesting;
@@ -41,45 +46,60 @@ import org.apache.heron.metricscachemgr.metricscache.query.MetricRequest;
 import org.apache.heron.metricscachemgr.metricscache.query.MetricResponse;
 import org.apache.heron.metricscachemgr.metricscache.query.MetricTimeRangeValue;
 import org.apache.heron.metricscachemgr.metricscache.store.ExceptionDatapoint;
-import org.apache.heron.metricscachemgr.metricscache.store.MetricDatapoint;
+import org.apache.heron.metricscachemgr.metricscache.store.MetricBucket;
+import org.apache.heron.metricscachemgr.metricscache.store.MetricSeries;
 import org.apache.heron.proto.tmaster.TopologyMaster;
 import org.apache.heron.spi.metricsmgr.metrics.MetricsFilter;
 
 /**
  * Cache Engine to store metrics and exceptions in memory and to respond to query,
  * implementing insertion and selection methods:
- * 1. Storage for metrics: timestamp_start -(tree)-&gt; [sparse: bucket_id -(map)-&gt; metric bucket]
- * 2. Storage for exceptions: idxComponentInstance -(hash)-&gt; exception bucket
- * 3. Index for metrics:
+ * 1. Time windows for metrics: timestamp_start -(tree)-&gt; window (long: sequence number)
+ * 2. Storage for metrics: bucket_id -(hash)-&gt; metric series -(ring)-&gt; window -&gt; bucket
+ * a bucket holds primitive timestamp and value arrays, and their pre-aggregation
+ * 3. Storage for exceptions: idxComponentInstance -(hash)-&gt; exception bucket
+ * 4. Index for metrics:
  * a. metricName -(map)-&gt; idxMetricName (int: locator)
  * b. component -(map)-&gt; instance -(map)-&gt; idxComponentInstance (int: locator)
  * bucket_id is Long from idxComponentInstance Integer and idxMetricName Integer combined
- * 4. Index for exceptions:
+ * 5. Index for exceptions:
  * component -(map)-&gt; instance -(map)-&gt; idxComponentInstance (int: locator)
- * 5. Query pattern: component-instance (equality), metricName (equality), timestamp (range)
+ * 6. Query pattern: component-instance (equality), metricName (equality), timestamp (range)
  * Different from tmaster:
  * 1. order bucket by metric timestamp rather than metric message arriving time
  * 2. free buckets for instances that are gone during scaling process
- * 3. lock for multiple threads
+ * 3. lock for multiple threads: the time windows, each stripe of metric series
+ * and the exceptions are guarded by separate locks
  * Same as tmaster:
  * 1. support same protobuf message/request format
  */
 public class CacheCore {
   private static final Logger LOG = Logger.getLogger(CacheCore.class.getName());
 
+  // # of locks guarding the metric series, must be a power of 2
+  private static final int METRIC_LOCK_STRIPES = 64;
+
   // index id generators
-  private static int componentInstanceCount = 0;
-  private static int metricNameCount = 0;
+  private final AtomicInteger componentInstanceCount = new AtomicInteger();
+  private final AtomicInteger metricNameCount = new AtomicInteger();
 
   // index id map: componentName -(map)-&gt; instanceId -(map)-&gt; locator:int
-  private final Map<String, Map<String, Integer>> idxComponentInstance;
+  private final ConcurrentMap<String, ConcurrentMap<String, Integer>> idxComponentInstance;
   // index id map: metricName -(map)-&gt; locator:int
-  private final Map<String, Integer> idxMetricName;
+  private final ConcurrentMap<String, Integer> idxMetricName;
 
-  // exception store: following component-instance hierarchy
+  // exception store: following component-instance hierarchy, guarded by itself
   private final HashMap<Integer, LinkedList<ExceptionDatapoint>> cacheException;
-  // metric store
-  private final TreeMap<Long, Map<Long, LinkedList<MetricDatapoint>>> cacheMetric;
+
+  // time windows: timestamp_start -(tree)-&gt; sequence number, guarded by windowLock
+  private final TreeMap<Long, Long> cacheWindow;
+  private final ReadWriteLock windowLock;
+  private long nextWindow;
+  // metric store: each series guarded by the lock of its stripe
+  private final ConcurrentMap<Long, MetricSeries> cacheMetric;
+  private final ReadWriteLock[] metricLocks;
+  // # of live time windows, to size the ring of a new series
+  private final int windowCount;
 
   // looper for purge
   private WakeableLooper looper = null;
@@ -111,24 +131,31 @@ public class CacheCore {
     this.ticker = ticker;
 
     cacheException = new HashMap<>();
-    cacheMetric = new TreeMap<>();
+
+    cacheWindow = new TreeMap<>();
+    windowLock = new ReentrantReadWriteLock();
+    nextWindow = 0;
     long now = ticker.read();
     for (long i = now - this.maxInterval.toMillis(); i < now; i += this.interval.toMillis()) {
-      cacheMetric.put(i, new HashMap<Long, LinkedList<MetricDatapoint>>());
+      cacheWindow.put(i, nextWindow++);
+    }
+    // purge keeps the windows in [now - maxInterval, now] and adds one
+    windowCount = (int) (this.maxInterval.toMillis() / this.interval.toMillis()) + 2;
+
+    cacheMetric = new ConcurrentHashMap<>();
+    metricLocks = new ReadWriteLock[METRIC_LOCK_STRIPES];
+    for (int i = 0; i < METRIC_LOCK_STRIPES; i++) {
+      metricLocks[i] = new ReentrantReadWriteLock();
     }
 
-    idxComponentInstance = new HashMap<>();
-    idxMetricName = new HashMap<>();
+    idxComponentInstance = new ConcurrentHashMap<>();
+    idxMetricName = new ConcurrentHashMap<>();
   }
 
-  private void assureComponentInstance(String componentName, String instanceId) {
-    if (!idxComponentInstance.containsKey(componentName)) {
-      idxComponentInstance.put(componentName, new HashMap<String, Integer>());
-    }
-    Map<String, Integer> map = idxComponentInstance.get(componentName);
-    if (!map.containsKey(instanceId)) {
-      map.put(instanceId, componentInstanceCount++);
-    }
+  private int assureComponentInstance(String componentName, String instanceId) {
+    return idxComponentInstance
+        .computeIfAbsent(componentName, k -> new ConcurrentHashMap<>())
+        .computeIfAbsent(instanceId, k -> componentInstanceCount.getAndIncrement());
   }
 
   public boolean componentInstanceExists(String componentName, String instanceId) {
@@ -147,10 +174,8 @@ public class CacheCore {
     return idxMetricName.containsKey(name);
   }
 
-  private void assureMetricName(String name) {
-    if (!idxMetricName.containsKey(name)) {
-      idxMetricName.put(name, metricNameCount++);
-    }
+  private int assureMetricName(String name) {
+    return idxMetricName.computeIfAbsent(name, k -> metricNameCount.getAndIncrement());
   }
 
   /**
@@ -158,10 +183,10 @@ public class CacheCore {
    * @param metrics The metrics to be added
    */
   public void addMetricException(TopologyMaster.PublishMetrics metrics) {
-    synchronized (CacheCore.class) {
-      for (TopologyMaster.MetricDatum metricDatum : metrics.getMetricsList()) {
-        addMetric(metricDatum);
-      }
+    for (TopologyMaster.MetricDatum metricDatum : metrics.getMetricsList()) {
+      addMetric(metricDatum);
+    }
+    synchronized (cacheException) {
       for (TopologyMaster.TmasterExceptionLog exceptionLog : metrics.getExceptionsList()) {
         addException(exceptionLog);
       }
@@ -183,14 +208,19 @@ public class CacheCore {
     return (((long) hi) << 32) | (lo & 0xffffffffL);
   }
 
+  private ReadWriteLock getMetricLock(long bucketId) {
+    return metricLocks[(int) (bucketId ^ (bucketId >>> 32)) & (METRIC_LOCK_STRIPES - 1)];
+  }
+
   /**
-   * The 'cacheMetric' is a tree map organized by timestamp.
+   * The 'cacheWindow' is a tree map organized by timestamp.
    * The key indicates the startTime of the time window.
    * <p>
    * The insertion procedure:
-   * 1. find the leaf according to the metric timestamp. TreeMap.floorEntry finds the leaf whose
-   * time window contains the given timestamp
-   * 2. if the leaf is null, a new bucket is created; else insert into existing bucket.
+   * 1. find the time window according to the metric timestamp. TreeMap.floorEntry finds the
+   * window which contains the given timestamp
+   * 2. if the window is null, the metric is dropped; else insert into the bucket of the window
+   * in the metric series, which is created if absent.
    *
    * @param metricDatum the metric to be inserted
    */
@@ -199,37 +229,60 @@ public class CacheCore {
     String instanceId = metricDatum.getInstanceId();
     String metricName = metricDatum.getName();
 
-    assureComponentInstance(componentName, instanceId);
-    assureMetricName(metricName);
     // calc bucket idx
-    int idx1 = idxComponentInstance.get(componentName).get(instanceId);
-    int idx2 = idxMetricName.get(metricName);
+    int idx1 = assureComponentInstance(componentName, instanceId);
+    int idx2 = assureMetricName(metricName);
     long bucketId = makeBucketId(idx1, idx2);
 
-    // fetch the bucket
-    Map.Entry<Long, Map<Long, LinkedList<MetricDatapoint>>> entry =
-        cacheMetric.floorEntry(metricDatum.getTimestamp());
-    if (entry != null) {
-      Map<Long, LinkedList<MetricDatapoint>> locator = entry.getValue();
-      if (!locator.containsKey(bucketId)) {
-        locator.put(bucketId, new LinkedList<MetricDatapoint>());
-      }
-      LinkedList<MetricDatapoint> bucket = locator.get(bucketId);
-      // store the metric
-      MetricDatapoint datum =
-          new MetricDatapoint(metricDatum.getTimestamp(), metricDatum.getValue());
-      bucket.offerFirst(datum);
+    // we assume the metric value is Double: compatible with tmaster
+    double value;
+    if (metricDatum.hasDoubleValue()) {
+      value = metricDatum.getDoubleValue();
     } else {
-      LOG.warning("too old metric, out of cache timestamp window, drop it: " + metricDatum);
+      try {
+        value = Double.parseDouble(metricDatum.getValue());
+      } catch (NumberFormatException e) {
+        LOG.warning("metric value is not a number, drop it: " + metricDatum);
+        return;
+      }
+    }
+
+    // fetch the time window
+    long window;
+    long oldestWindow;
+    windowLock.readLock().lock();
+    try {
+      Map.Entry<Long, Long> entry = cacheWindow.floorEntry(metricDatum.getTimestamp());
+      if (entry == null) {
+        LOG.warning("too old metric, out of cache timestamp window, drop it: " + metricDatum);
+        return;
+      }
+      window = entry.getValue();
+      oldestWindow = cacheWindow.firstEntry().getValue();
+    } finally {
+      windowLock.readLock().unlock();
+    }
+
+    // store the metric
+    ReadWriteLock lock = getMetricLock(bucketId);
+    lock.writeLock().lock();
+    try {
+      MetricSeries series = cacheMetric.get(bucketId);
+      if (series == null) {
+        series = new MetricSeries(windowCount);
+        cacheMetric.put(bucketId, series);
+      }
+      series.add(window, oldestWindow, metricDatum.getTimestamp(), value);
+    } finally {
+      lock.writeLock().unlock();
     }
   }
 
   private void addException(TopologyMaster.TmasterExceptionLog exceptionLog) {
     String componentName = exceptionLog.getComponentName();
     String instanceId = exceptionLog.getInstanceId();
-    assureComponentInstance(componentName, instanceId);
     // get exception idx
-    int idx = idxComponentInstance.get(componentName).get(instanceId);
+    int idx = assureComponentInstance(componentName, instanceId);
     // fetch the bucket
     if (!cacheException.containsKey(idx)) {
       cacheException.put(idx, new LinkedList<ExceptionDatapoint>());
@@ -270,180 +323,233 @@ public class CacheCore {
   public MetricResponse getMetrics(
       MetricRequest request, MetricsFilter metricNameType) {
     LOG.fine("received query: " + request.toString());
-    synchronized (CacheCore.class) {
-      List<MetricDatum> response = new LinkedList<>();
-
-      // candidate metric names
-      Set<String> metricNameFilter = request.getMetricNames();
-      if (metricNameFilter == null) {
-        metricNameFilter = idxMetricName.keySet();
+    List<MetricDatum> response = new LinkedList<>();
+
+    // time windows overlapping [startTime, endTime]
+    long firstWindow;
+    long lastWindow;
+    windowLock.readLock().lock();
+    try {
+      Map.Entry<Long, Long> first = cacheWindow.floorEntry(request.getStartTime());
+      if (first == null) {
+        first = cacheWindow.firstEntry();
       }
+      Map.Entry<Long, Long> last = cacheWindow.floorEntry(request.getEndTime());
+      firstWindow = first != null ? first.getValue() : 0;
+      // the range is empty if no window starts before the end time
+      lastWindow = last != null ? last.getValue() : firstWindow - 1;
+    } finally {
+      windowLock.readLock().unlock();
+    }
 
-      // candidate component names
-      Map<String, Set<String>> componentInstanceMap = request.getComponentNameInstanceId();
-      Set<String> componentNameFilter;
-      if (componentInstanceMap == null) {
-        componentNameFilter = idxComponentInstance.keySet();
-      } else {
-        componentNameFilter = componentInstanceMap.keySet();
-      }
+    // candidate metric names
+    Set<String> metricNameFilter = request.getMetricNames();
+    if (metricNameFilter == null) {
+      metricNameFilter = idxMetricName.keySet();
+    }
 
-      for (String metricName : metricNameFilter) {
-        if (!metricExists(metricName)) {
-          continue;
-        }
-        MetricsFilter.MetricAggregationType type = metricNameType.getAggregationType(metricName);
-        for (String componentName : componentNameFilter) {
-          // candidate instance ids
-          Set<String> instanceIdFilter;
-          if (componentInstanceMap == null
-              || componentInstanceMap.get(componentName) == null) {
-            instanceIdFilter = idxComponentInstance.get(componentName).keySet();
-          } else {
-            instanceIdFilter = componentInstanceMap.get(componentName);
-          }
+    // candidate component names
+    Map<String, Set<String>> componentInstanceMap = request.getComponentNameInstanceId();
+    Set<String> componentNameFilter;
+    if (componentInstanceMap == null) {
+      componentNameFilter = idxComponentInstance.keySet();
+    } else {
+      componentNameFilter = componentInstanceMap.keySet();
+    }
 
-          for (String instanceId : instanceIdFilter) {
-            LOG.fine(componentName + "; " + instanceId + "; " + metricName + "; " + type);
-            // get bucket_id
-            int idx1 = idxComponentInstance.get(componentName).get(instanceId);
-            int idx2 = idxMetricName.get(metricName);
-            long bucketId = makeBucketId(idx1, idx2);
+    for (String metricName : metricNameFilter) {
+      if (!metricExists(metricName)) {
+        continue;
+      }
+      MetricsFilter.MetricAggregationType type = metricNameType.getAggregationType(metricName);
+      for (String componentName : componentNameFilter) {
+        // candidate instance ids
+        Set<String> instanceIdFilter;
+        if (componentInstanceMap == null
+            || componentInstanceMap.get(componentName) == null) {
+          instanceIdFilter = idxComponentInstance.get(componentName).keySet();
+        } else {
+          instanceIdFilter = componentInstanceMap.get(componentName);
+        }
 
-            // iterate buckets: the result may be empty due to the bucketId/hash filter
-            List<MetricTimeRangeValue> metricValue = new LinkedList<>();
+        for (String instanceId : instanceIdFilter) {
+          LOG.fine(componentName + "; " + instanceId + "; " + metricName + "; " + type);
+          // get bucket_id
+          int idx1 = idxComponentInstance.get(componentName).get(instanceId);
+          int idx2 = idxMetricName.get(metricName);
+          long bucketId = makeBucketId(idx1, idx2);
+
+          // iterate buckets: the result may be empty due to the bucketId/hash filter
+          List<MetricTimeRangeValue> metricValue = new LinkedList<>();
+          ReadWriteLock lock = getMetricLock(bucketId);
+          lock.readLock().lock();
+          try {
+            MetricSeries series = cacheMetric.get(bucketId);
             switch (request.getAggregationGranularity()) {
               case AGGREGATE_ALL_METRICS:
               case AGGREGATE_BY_BUCKET:
                 getAggregatedMetrics(metricValue,
                     request.getStartTime()/*when*/, request.getEndTime()/*when*/,
-                    bucketId/*where*/, type/*how*/, request.getAggregationGranularity());
+                    firstWindow, lastWindow, series/*where*/, type/*how*/,
+                    request.getAggregationGranularity());
                 break;
               case RAW:
-                getRawMetrics(metricValue,
-                    request.getStartTime(), request.getEndTime(), bucketId, type);
+                getRawMetrics(metricValue, request.getStartTime(), request.getEndTime(),
+                    firstWindow, lastWindow, series);
                 break;
               default:
                 LOG.warning("unknown aggregationGranularity type "
                     + request.getAggregationGranularity());
             }
+          } finally {
+            lock.readLock().unlock();
+          }
 
-            // make metric list in response
-            response.add(new MetricDatum(componentName, instanceId, metricName, metricValue));
-          } // end for: instance
-        } // end for: component
-      } // end for: metric
-      return new MetricResponse(response);
-    }
+          // make metric list in response
+          response.add(new MetricDatum(componentName, instanceId, metricName, metricValue));
+        } // end for: instance
+      } // end for: component
+    } // end for: metric
+    return new MetricResponse(response);
   }
 
   private void getRawMetrics(List<MetricTimeRangeValue> metricValue,
-                             long startTime, long endTime, long bucketId,
-                             MetricsFilter.MetricAggregationType type) {
+                             long startTime, long endTime,
+                             long firstWindow, long lastWindow, MetricSeries series) {
     LOG.fine("getRawMetrics " + startTime + " " + endTime);
-    Long startKey = cacheMetric.floorKey(startTime);
-    for (Long key = startKey != null ? startKey : cacheMetric.firstKey();
-         key != null && key <= endTime;
-         key = cacheMetric.higherKey(key)) {
-      LinkedList<MetricDatapoint> bucket = cacheMetric.get(key).get(bucketId);
+    if (series == null) {
+      return;
+    }
+    for (long window = firstWindow; window <= lastWindow; window++) {
+      MetricBucket bucket = series.getBucket(window);
 
       if (bucket != null) {
-        for (MetricDatapoint datapoint : bucket) {
-          if (datapoint.inRange(startTime, endTime)) {
+        // latest inserted first
+        for (int i = bucket.size() - 1; i >= 0; i--) {
+          long timestamp = bucket.getTimestamp(i);
+          if (startTime <= timestamp && timestamp <= endTime) {
             // per data point
-            metricValue.add(new MetricTimeRangeValue(datapoint));
+            metricValue.add(new MetricTimeRangeValue(
+                timestamp, timestamp, formatValue(bucket.getValue(i))));
           }
         } // end bucket
       }
 
-    } // end tree
+    } // end windows
   }
 
   // we assume the metric value is Double: compatible with tmaster
-  @SuppressWarnings("fallthrough")
   private void getAggregatedMetrics(List<MetricTimeRangeValue> metricValue,
-                                    long startTime, long endTime, long bucketId,
+                                    long startTime, long endTime,
+                                    long firstWindow, long lastWindow, MetricSeries series,
                                     MetricsFilter.MetricAggregationType type,
                                     MetricGranularity granularity) {
     LOG.fine("getAggregatedMetrics " + startTime + " " + endTime);
+    switch (type) {
+      case AVG:
+      case SUM:
+      case LAST:
+        break;
+      case UNKNOWN:
+      default:
+        LOG.warning("Unknown metric type, CacheCore does not know how to aggregate " + type);
+        return;
+    }
+
     // per request
-    long outterCountAvg = 0;
+    long outterCount = 0;
+    double outterResult = 0;
+    double outterLast = 0;
 
     // prepare range value
     long outterStartTime = Long.MAX_VALUE;
     long outterEndTime = 0;
-    String outterValue = null;
 
-    double outterResult = 0;
-    Long startKey = cacheMetric.floorKey(startTime);
-    for (Long key = startKey != null ? startKey : cacheMetric.firstKey();
-         key != null && key <= endTime;
-         key = cacheMetric.higherKey(key)) {
-      LinkedList<MetricDatapoint> bucket = cacheMetric.get(key).get(bucketId);
+    for (long window = firstWindow; series != null && window <= lastWindow; window++) {
+      MetricBucket bucket = series.getBucket(window);
 
       if (bucket != null) {
         // per bucket
-        long innerCountAvg = 0;
+        long innerCount = 0;
+        double innerResult = 0;
+        double innerLast = 0;
 
         // prepare range value
         long innerStartTime = Long.MAX_VALUE;
         long innerEndTime = 0;
-        String innerValue = null;
 
-        double innerResult = 0;
-        for (MetricDatapoint datapoint : bucket) {
-          if (datapoint.inRange(startTime, endTime)) {
-            switch (type) {
-              case AVG:
-                outterCountAvg++;
-                innerCountAvg++;
-              case SUM:
-                outterResult += Double.parseDouble(datapoint.getValue());
-                innerResult += Double.parseDouble(datapoint.getValue());
-                break;
-              case LAST:
-                if (outterEndTime < datapoint.getTimestamp()) {
-                  outterValue = datapoint.getValue();
-                }
-                if (innerEndTime < datapoint.getTimestamp()) {
-                  innerValue = datapoint.getValue();
-                }
-                break;
-              case UNKNOWN:
-              default:
-                LOG.warning(
-                    "Unknown metric type, CacheCore does not know how to aggregate " + type);
-                return;
+        if (bucket.inRange(startTime, endTime)) {
+          // the whole bucket is in range: take the pre-aggregation
+          innerCount = bucket.size();
+          innerResult = bucket.getSum();
+          innerLast = bucket.getLastValue();
+          innerStartTime = bucket.getStartTime();
+          innerEndTime = bucket.getEndTime();
+        } else {
+          // latest inserted first, so that it wins if the timestamps are equal
+          for (int i = bucket.size() - 1; i >= 0; i--) {
+            long timestamp = bucket.getTimestamp(i);
+            if (startTime <= timestamp && timestamp <= endTime) {
+              if (innerCount == 0 || innerEndTime < timestamp) {
+                innerLast = bucket.getValue(i);
+              }
+              innerCount++;
+              innerResult += bucket.getValue(i);
+              innerStartTime = Math.min(innerStartTime, timestamp);
+              innerEndTime = Math.max(innerEndTime, timestamp);
             }
-            outterStartTime = Math.min(outterStartTime, datapoint.getTimestamp());
-            outterEndTime = Math.max(outterEndTime, datapoint.getTimestamp());
-            innerStartTime = Math.min(innerStartTime, datapoint.getTimestamp());
-            innerEndTime = Math.max(innerEndTime, datapoint.getTimestamp());
-          }
-        } // end bucket
+          } // end bucket
+        }
 
-        if (type.equals(MetricsFilter.MetricAggregationType.AVG) && innerCountAvg > 0) {
-          innerValue = String.valueOf(innerResult / innerCountAvg);
-        } else if (type.equals(MetricsFilter.MetricAggregationType.SUM)) {
-          innerValue = String.valueOf(innerResult);
+        if (innerCount > 0) {
+          if (outterCount == 0 || outterEndTime < innerEndTime) {
+            outterLast = innerLast;
+          }
+          outterCount += innerCount;
+          outterResult += innerResult;
+          outterStartTime = Math.min(outterStartTime, innerStartTime);
+          outterEndTime = Math.max(outterEndTime, innerEndTime);
         }
+
+        String innerValue = getAggregatedValue(type, innerCount, innerResult, innerLast);
         if (innerValue != null && granularity.equals(MetricGranularity.AGGREGATE_BY_BUCKET)) {
           metricValue.add(new MetricTimeRangeValue(innerStartTime, innerEndTime, innerValue));
         }
       }
 
-    } // end tree
+    } // end windows
 
-    if (type.equals(MetricsFilter.MetricAggregationType.AVG) && outterCountAvg > 0) {
-      outterValue = String.valueOf(outterResult / outterCountAvg);
-    } else if (type.equals(MetricsFilter.MetricAggregationType.SUM)) {
-      outterValue = String.valueOf(outterResult);
-    }
+    String outterValue = getAggregatedValue(type, outterCount, outterResult, outterLast);
     if (outterValue != null && granularity.equals(MetricGranularity.AGGREGATE_ALL_METRICS)) {
       metricValue.add(new MetricTimeRangeValue(outterStartTime, outterEndTime, outterValue));
     }
   }
 
+  private static String getAggregatedValue(MetricsFilter.MetricAggregationType type,
+                                           long count, double sum, double last) {
+    switch (type) {
+      case AVG:
+        return count > 0 ? String.valueOf(sum / count) : null;
+      case SUM:
+        return String.valueOf(sum);
+      case LAST:
+        return count > 0 ? formatValue(last) : null;
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * Format a stored value for raw data points and LAST, which used to be returned as
+   * they were published: integral values, e.g. counts, are formatted without fraction.
+   */
+  private static String formatValue(double value) {
+    if (value == Math.rint(value) && Math.abs(value) < (1L << 53)) {
+      return String.valueOf((long) value);
+    }
+    return String.valueOf(value);
+  }
+
   /**
    * for internal process use
    *
@@ -458,7 +564,7 @@ public class CacheCore {
    */
   public ExceptionResponse getExceptions(
       ExceptionRequest request) {
-    synchronized (CacheCore.class) {
+    synchronized (cacheException) {
       List<ExceptionDatum> response = new ArrayList<>();
 
       Map<String, Set<String>> componentNameInstanceId = request.getComponentNameInstanceId();
@@ -483,7 +589,12 @@ public class CacheCore {
 
         for (String instanceId : instanceIdFilter) {
           int idx = idxComponentInstance.get(componentName).get(instanceId);
-          for (ExceptionDatapoint exceptionDatapoint : cacheException.get(idx)) {
+          LinkedList<ExceptionDatapoint> bucket = cacheException.get(idx);
+          if (bucket == null) {
+            // the instance has published metrics only
+            continue;
+          }
+          for (ExceptionDatapoint exceptionDatapoint : bucket) {
             response.add(new ExceptionDatum(componentName, instanceId, exceptionDatapoint));
           }
         }
@@ -495,17 +606,41 @@ public class CacheCore {
 
   public void purge() {
     long now = ticker.read();
-    synchronized (CacheCore.class) {
+    long oldestWindow;
+    windowLock.writeLock().lock();
+    try {
       // remove old
-      while (!cacheMetric.isEmpty()) {
-        Long firstKey = cacheMetric.firstKey();
+      while (!cacheWindow.isEmpty()) {
+        Long firstKey = cacheWindow.firstKey();
         if (firstKey >= now - maxInterval.toMillis()) {
           break;
         }
-        cacheMetric.remove(firstKey);
+        cacheWindow.remove(firstKey);
       }
       // add new
-      cacheMetric.put(now, new HashMap<Long, LinkedList<MetricDatapoint>>());
+      if (cacheWindow.isEmpty() || cacheWindow.lastKey() < now) {
+        cacheWindow.put(now, nextWindow++);
+      }
+      oldestWindow = cacheWindow.firstEntry().getValue();
+    } finally {
+      windowLock.writeLock().unlock();
+    }
+
+    // free the series which have no data in the live windows, e.g. of instances
+    // that are gone; the buckets of the removed windows are reused by the others
+    for (Map.Entry<Long, MetricSeries> entry : cacheMetric.entrySet()) {
+      ReadWriteLock lock = getMetricLock(entry.getKey());
+      lock.writeLock().lock();
+      try {
+        if (entry.getValue().isStale(oldestWindow)) {
+          cacheMetric.remove(entry.getKey(), entry.getValue());
+        }
+      } finally {
+        lock.writeLock().unlock();
+      }
+    }
+
+    synchronized (this) {
       // next timer task
       if (looper != null) {
         looper.registerTimerEvent(interval, new Runnable() {
@@ -523,7 +658,7 @@ public class CacheCore {
    * @param wakeableLooper the looper to run timer
    */
   public void startPurge(WakeableLooper wakeableLooper) {
-    synchronized (CacheCore.class) {
+    synchronized (this) {
       if (looper == null) {
         looper = wakeableLooper;
       }
@@ -541,7 +676,7 @@ public class CacheCore {
    * stop metric purge looper
    */
   public void stopPurge() {
-    synchronized (CacheCore.class) {
+    synchronized (this) {
       if (looper != null) {
         looper = null;
       }
@@ -552,16 +687,27 @@ public class CacheCore {
   public String toString() {
     StringBuilder sb = new StringBuilder();
     sb.append("{");
-    for (Long k = cacheMetric.firstKey(); k != null; k = cacheMetric.higherKey(k)) {
-      sb.append("[").append(k).append(":");
-      for (Long idx : cacheMetric.get(k).keySet()) {
-        sb.append("<").append(Long.toHexString(idx)).append("->");
-        for (MetricDatapoint dp : cacheMetric.get(k).get(idx)) {
-          sb.append(dp.toString());
+    windowLock.readLock().lock();
+    try {
+      for (Map.Entry<Long, Long> window : cacheWindow.entrySet()) {
+        sb.append("[").append(window.getKey()).append(":");
+        for (Map.Entry<Long, MetricSeries> entry : cacheMetric.entrySet()) {
+          ReadWriteLock lock = getMetricLock(entry.getKey());
+          lock.readLock().lock();
+          try {
+            MetricBucket bucket = entry.getValue().getBucket(window.getValue());
+            if (bucket != null) {
+              sb.append("<").append(Long.toHexString(entry.getKey())).append("->")
+                  .append(bucket.toString()).append(">");
+            }
+          } finally {
+            lock.readLock().unlock();
+          }
         }
-        sb.append(">");
+        sb.append("]");
       }
-      sb.append("]");
+    } finally {
+      windowLock.readLock().unlock();
     }
     sb.append("}");
     return sb.toString();
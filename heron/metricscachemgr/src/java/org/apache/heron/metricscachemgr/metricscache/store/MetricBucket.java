@@ -0,0 +1,145 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.heron.metricscachemgr.metricscache.store;
+
+import java.util.Arrays;
+
+/**
+ * columnar metric data of one [component-instance, metricName] in one time window:
+ * timestamps and values are kept in primitive arrays in insertion order, and
+ * count/sum/start/end/last are aggregated as they are inserted, so a query covering
+ * the whole window does not need to visit the data points.
+ * A bucket is reused once its time window is purged, to avoid java gc.
+ */
+public final class MetricBucket {
+  private static final int INITIAL_CAPACITY = 4;
+
+  // sequence number of the time window
+  private long window;
+
+  private long[] timestamps;
+  private double[] values;
+  private int size;
+
+  // pre-aggregation
+  private double sum;
+  private long startTime;
+  private long endTime;
+  private double lastValue;
+
+  public MetricBucket(long window) {
+    this.timestamps = new long[INITIAL_CAPACITY];
+    this.values = new double[INITIAL_CAPACITY];
+    reset(window);
+  }
+
+  /**
+   * drop all data points and assign the bucket to another time window
+   *
+   * @param newWindow sequence number of the time window
+   */
+  public void reset(long newWindow) {
+    this.window = newWindow;
+    this.size = 0;
+    this.sum = 0;
+    this.startTime = Long.MAX_VALUE;
+    this.endTime = Long.MIN_VALUE;
+    this.lastValue = 0;
+  }
+
+  public void add(long timestamp, double value) {
+    if (size == timestamps.length) {
+      timestamps = Arrays.copyOf(timestamps, size * 2);
+      values = Arrays.copyOf(values, size * 2);
+    }
+    timestamps[size] = timestamp;
+    values[size] = value;
+    size++;
+
+    sum += value;
+    startTime = Math.min(startTime, timestamp);
+    // the latest inserted one wins if the timestamps are equal
+    if (timestamp >= endTime) {
+      endTime = timestamp;
+      lastValue = value;
+    }
+  }
+
+  public long getWindow() {
+    return window;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public long getTimestamp(int index) {
+    return timestamps[index];
+  }
+
+  public double getValue(int index) {
+    return values[index];
+  }
+
+  public double getSum() {
+    return sum;
+  }
+
+  /**
+   * @return the smallest timestamp in the bucket, undefined if the bucket is empty
+   */
+  public long getStartTime() {
+    return startTime;
+  }
+
+  /**
+   * @return the largest timestamp in the bucket, undefined if the bucket is empty
+   */
+  public long getEndTime() {
+    return endTime;
+  }
+
+  /**
+   * @return the value with the largest timestamp, undefined if the bucket is empty
+   */
+  public double getLastValue() {
+    return lastValue;
+  }
+
+  /**
+   * test if all the data points are in the given time window [start, end]
+   *
+   * @param start time window start
+   * @param end time window end
+   * @return boolean test result
+   */
+  public boolean inRange(long start, long end) {
+    return size > 0 && start <= startTime && endTime <= end;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder();
+    for (int i = size - 1; i >= 0; i--) {
+      sb.append("(").append(timestamps[i]).append(", ").append(values[i]).append(")");
+    }
+    return sb.toString();
+  }
+}
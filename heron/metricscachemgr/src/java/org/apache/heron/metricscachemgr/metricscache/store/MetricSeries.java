@@ -0,0 +1,101 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.heron.metricscachemgr.metricscache.store;
+
+/**
+ * metric data of one [component-instance, metricName]: a ring of buckets indexed by
+ * the sequence number of their time window. The time windows are shared by all series and
+ * live windows always have consecutive sequence numbers, so a window maps to the slot
+ * (window % ring size) as long as the ring is larger than the number of live windows.
+ * The ring grows if it is not.
+ * Not thread safe: the caller is supposed to guard the series.
+ */
+public final class MetricSeries {
+  private MetricBucket[] buckets;
+
+  public MetricSeries(int ringSize) {
+    this.buckets = new MetricBucket[Math.max(1, ringSize)];
+  }
+
+  /**
+   * store a data point
+   *
+   * @param window sequence number of the time window the timestamp falls in
+   * @param oldestWindow sequence number of the oldest live time window
+   * @param timestamp timestamp of the data point
+   * @param value value of the data point
+   */
+  public void add(long window, long oldestWindow, long timestamp, double value) {
+    MetricBucket bucket = buckets[slot(window)];
+    if (bucket == null) {
+      bucket = new MetricBucket(window);
+      buckets[slot(window)] = bucket;
+    } else if (bucket.getWindow() != window) {
+      if (bucket.getWindow() >= oldestWindow) {
+        // the slot is still taken by a live window
+        grow(window - oldestWindow + 1, oldestWindow);
+        add(window, oldestWindow, timestamp, value);
+        return;
+      }
+      // the window of the bucket was purged: reuse it
+      bucket.reset(window);
+    }
+    bucket.add(timestamp, value);
+  }
+
+  /**
+   * @param window sequence number of the time window
+   * @return the bucket of the time window, or null if there is no data point in the window
+   */
+  public MetricBucket getBucket(long window) {
+    MetricBucket bucket = buckets[slot(window)];
+    if (bucket == null || bucket.getWindow() != window) {
+      return null;
+    }
+    return bucket;
+  }
+
+  /**
+   * @param oldestWindow sequence number of the oldest live time window
+   * @return true if the series has no data point in any live time window
+   */
+  public boolean isStale(long oldestWindow) {
+    for (MetricBucket bucket : buckets) {
+      if (bucket != null && bucket.getWindow() >= oldestWindow) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private int slot(long window) {
+    return (int) (window % buckets.length);
+  }
+
+  private void grow(long liveWindows, long oldestWindow) {
+    MetricBucket[] old = buckets;
+    buckets = new MetricBucket[(int) Math.max(old.length * 2L, liveWindows)];
+    for (MetricBucket bucket : old) {
+      if (bucket != null && bucket.getWindow() >= oldestWindow) {
+        buckets[slot(bucket.getWindow())] = bucket;
+      }
+    }
+  }
+}
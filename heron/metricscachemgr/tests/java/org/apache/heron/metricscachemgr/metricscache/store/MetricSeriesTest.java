@@ -0,0 +1,102 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.heron.metricscachemgr.metricscache.store;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class MetricSeriesTest {
+
+  @Test
+  public void testBucketPreAggregation() {
+    MetricBucket bucket = new MetricBucket(0);
+    // more data points than the initial capacity
+    for (int i = 0; i < 10; i++) {
+      bucket.add(100 - i, i);
+    }
+    bucket.add(100, 20);
+
+    assertEquals(11, bucket.size());
+    assertEquals(65.0, bucket.getSum(), 0);
+    assertEquals(91, bucket.getStartTime());
+    assertEquals(100, bucket.getEndTime());
+    // the latest inserted wins if the timestamps are equal
+    assertEquals(20.0, bucket.getLastValue(), 0);
+    assertEquals(95, bucket.getTimestamp(5));
+    assertEquals(5.0, bucket.getValue(5), 0);
+
+    assertTrue(bucket.inRange(91, 100));
+    assertFalse(bucket.inRange(92, 100));
+    assertFalse(bucket.inRange(91, 99));
+
+    bucket.reset(1);
+    assertEquals(1, bucket.getWindow());
+    assertEquals(0, bucket.size());
+    assertEquals(0.0, bucket.getSum(), 0);
+    assertFalse(bucket.inRange(Long.MIN_VALUE, Long.MAX_VALUE));
+  }
+
+  @Test
+  public void testReuseBucketOfPurgedWindow() {
+    MetricSeries series = new MetricSeries(2);
+    series.add(0, 0, 10, 1);
+    series.add(1, 0, 20, 2);
+    MetricBucket bucket = series.getBucket(0);
+
+    // window 0 is purged, window 2 takes its slot
+    series.add(2, 1, 30, 3);
+    assertNull(series.getBucket(0));
+    assertSame(bucket, series.getBucket(2));
+    assertEquals(1, series.getBucket(2).size());
+    assertEquals(3.0, series.getBucket(2).getSum(), 0);
+    assertEquals(2.0, series.getBucket(1).getSum(), 0);
+  }
+
+  @Test
+  public void testGrowWithLiveWindows() {
+    MetricSeries series = new MetricSeries(2);
+    series.add(0, 0, 10, 1);
+    series.add(1, 0, 20, 2);
+    MetricBucket bucket = series.getBucket(0);
+
+    // window 0 is still live, so window 2 must not take its slot
+    series.add(2, 0, 30, 3);
+    assertSame(bucket, series.getBucket(0));
+    assertEquals(1.0, series.getBucket(0).getSum(), 0);
+    assertEquals(2.0, series.getBucket(1).getSum(), 0);
+    assertEquals(3.0, series.getBucket(2).getSum(), 0);
+    assertNotSame(series.getBucket(0), series.getBucket(2));
+  }
+
+  @Test
+  public void testStale() {
+    MetricSeries series = new MetricSeries(4);
+    assertTrue(series.isStale(0));
+    series.add(3, 0, 10, 1);
+    assertFalse(series.isStale(3));
+    assertTrue(series.isStale(4));
+  }
+}
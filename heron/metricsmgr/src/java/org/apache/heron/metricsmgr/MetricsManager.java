@@ -51,10 +51,10 @@ import org.apache.heron.common.utils.logging.ErrorReportLoggingHandler;
 import org.apache.heron.common.utils.logging.LoggingHelper;
 import org.apache.heron.common.utils.metrics.JVMMetrics;
 import org.apache.heron.common.utils.metrics.MetricsCollector;
+import org.apache.heron.metricsmgr.executor.SinkCommunicator;
 import org.apache.heron.metricsmgr.executor.SinkExecutor;
 import org.apache.heron.metricsmgr.sink.SinkContextImpl;
 import org.apache.heron.proto.system.Metrics;
-import org.apache.heron.spi.metricsmgr.metrics.MetricsRecord;
 import org.apache.heron.spi.metricsmgr.sink.IMetricsSink;
 import org.apache.heron.spi.metricsmgr.sink.SinkContext;
 
@@ -442,8 +442,15 @@ public class MetricsManager {
       throw new RuntimeException(e + " IMetricsSink class must be a class path.");
     }
     SlaveLooper sinkExecutorLoop = new SlaveLooper();
-    Communicator<MetricsRecord> executorInMetricsQueue =
-        new Communicator<MetricsRecord>(null, sinkExecutorLoop);
+    Map<String, Object> sinkConfig = config.getConfigForSink(sinkId);
+    Object capacityObj = sinkConfig.get(MetricsSinksConfig.CONFIG_KEY_SINK_QUEUE_CAPACITY);
+    Object policyObj = sinkConfig.get(MetricsSinksConfig.CONFIG_KEY_SINK_QUEUE_OVERFLOW_POLICY);
+    SinkCommunicator executorInMetricsQueue = new SinkCommunicator(sinkExecutorLoop,
+        capacityObj == null
+            ? MetricsSinksConfig.DEFAULT_SINK_QUEUE_CAPACITY : TypeUtils.getInteger(capacityObj),
+        SinkCommunicator.OverflowPolicy.fromConfig(policyObj == null
+            ? MetricsSinksConfig.DEFAULT_SINK_QUEUE_OVERFLOW_POLICY : policyObj.toString()),
+        config.getMetricsTypesForSink(sinkId));
 
     // Since MetricsCollector is not thread-safe,
     // we need to specify individual MetricsCollector and MultiCountMetric
@@ -452,6 +459,10 @@ public class MetricsManager {
     MultiCountMetric internalCounters = new MultiCountMetric();
     sinkMetricsCollector
         .registerMetric(sinkId, internalCounters, (int) heronMetricsExportInterval.getSeconds());
+    // The metrics of the queue are updated by the Metrics Manager Server too,
+    // but they are thread-safe
+    sinkMetricsCollector.registerMetric(sinkId + "-queue",
+        executorInMetricsQueue.getQueueMetrics(), (int) heronMetricsExportInterval.getSeconds());
 
     // Set up the SinkContext
     SinkContext sinkContext =
@@ -460,7 +471,7 @@ public class MetricsManager {
 
     SinkExecutor sinkExecutor =
         new SinkExecutor(sinkId, sink, sinkExecutorLoop, executorInMetricsQueue, sinkContext);
-    sinkExecutor.setPropertyMap(config.getConfigForSink(sinkId));
+    sinkExecutor.setPropertyMap(sinkConfig);
 
     return sinkExecutor;
   }
@@ -42,6 +42,7 @@ import org.apache.heron.proto.system.Common;
 import org.apache.heron.proto.system.Metrics;
 import org.apache.heron.proto.tmaster.TopologyMaster;
 import org.apache.heron.spi.metricsmgr.metrics.ExceptionInfo;
+import org.apache.heron.spi.metricsmgr.metrics.HistogramValue;
 import org.apache.heron.spi.metricsmgr.metrics.MetricsInfo;
 import org.apache.heron.spi.metricsmgr.metrics.MetricsRecord;
 
@@ -253,8 +254,7 @@ public class MetricsManagerServer extends HeronServer {
 
     List<MetricsInfo> metricsInfos = new ArrayList<MetricsInfo>(message.getMetricsCount());
     for (Metrics.MetricDatum metricDatum : message.getMetricsList()) {
-      MetricsInfo info = new MetricsInfo(metricDatum.getName(), metricDatum.getValue());
-      metricsInfos.add(info);
+      metricsInfos.add(toMetricsInfo(metricDatum));
     }
 
     List<ExceptionInfo> exceptionInfos = new ArrayList<ExceptionInfo>(message.getExceptionsCount());
@@ -284,6 +284,29 @@ public class MetricsManagerServer extends HeronServer {
     }
   }
 
+  // Keep the type of the value, only the metrics sent as text stay a String
+  static MetricsInfo toMetricsInfo(Metrics.MetricDatum metricDatum) {
+    String name = metricDatum.getName();
+    if (metricDatum.hasLongValue()) {
+      return new MetricsInfo(name, metricDatum.getLongValue());
+    } else if (metricDatum.hasDoubleValue()) {
+      return new MetricsInfo(name, metricDatum.getDoubleValue());
+    } else if (metricDatum.hasHistogramValue()) {
+      Metrics.HistogramDatum histogram = metricDatum.getHistogramValue();
+      double[] bucketBounds = new double[histogram.getBucketBoundsCount()];
+      long[] bucketCounts = new long[histogram.getBucketCountsCount()];
+      for (int i = 0; i < bucketBounds.length; i++) {
+        bucketBounds[i] = histogram.getBucketBounds(i);
+      }
+      for (int i = 0; i < bucketCounts.length; i++) {
+        bucketCounts[i] = histogram.getBucketCounts(i);
+      }
+      return new MetricsInfo(name, new HistogramValue(bucketBounds, bucketCounts,
+          histogram.getSum(), histogram.getMin(), histogram.getMax()));
+    }
+    return new MetricsInfo(name, metricDatum.getValue());
+  }
+
   // TMasterLocationRefreshMessage handler
   private void handleTMasterLocationRefreshMessage(
       Metrics.MetricPublisher request,
@@ -31,6 +31,7 @@ import org.yaml.snakeyaml.Yaml;
 
 import org.apache.heron.common.basics.SysUtils;
 import org.apache.heron.common.basics.TypeUtils;
+import org.apache.heron.spi.metricsmgr.metrics.MetricsFilter;
 
 public class MetricsSinksConfig {
   public static final String CONFIG_KEY_METRICS_SINKS = "sinks";
@@ -38,6 +39,14 @@ public class MetricsSinksConfig {
   public static final String CONFIG_KEY_FLUSH_FREQUENCY_MS = "flush-frequency-ms";
   public static final String CONFIG_KEY_SINK_RESTART_ATTEMPTS = "sink-restart-attempts";
   public static final int DEFAULT_SINK_RESTART_ATTEMPTS = 0;
+  public static final String CONFIG_KEY_SINK_QUEUE_CAPACITY = "sink-queue-capacity";
+  public static final String CONFIG_KEY_SINK_QUEUE_OVERFLOW_POLICY = "sink-queue-overflow-policy";
+  public static final String CONFIG_KEY_SINK_WORKER_THREADS = "sink-worker-threads";
+  public static final int DEFAULT_SINK_QUEUE_CAPACITY = 1024;
+  public static final String DEFAULT_SINK_QUEUE_OVERFLOW_POLICY = "drop-oldest";
+  public static final int DEFAULT_SINK_WORKER_THREADS = 1;
+  // The suffix of the keys of the aggregation types of the metrics, e.g. tmaster-metrics-type
+  public static final String CONFIG_KEY_SUFFIX_METRICS_TYPE = "-metrics-type";
 
   private final Map<String, Map<String, Object>> sinksConfigs = new HashMap<>();
 
@@ -82,4 +91,25 @@ public class MetricsSinksConfig {
   public List<String> getSinkIds() {
     return new ArrayList<>(sinksConfigs.keySet());
   }
+
+  /**
+   * Get the aggregation types of the metrics a sink declares, under any key ending with
+   * "-metrics-type", e.g. the tmaster-metrics-type of the tmaster-sink
+   *
+   * @param sinkId the id of the sink
+   * @return the aggregation type of every metric prefix, empty if the sink declares none
+   */
+  public MetricsFilter getMetricsTypesForSink(String sinkId) {
+    MetricsFilter metricsTypes = new MetricsFilter();
+    for (Map.Entry<String, Object> entry : sinksConfigs.get(sinkId).entrySet()) {
+      if (entry.getKey().endsWith(CONFIG_KEY_SUFFIX_METRICS_TYPE)
+          && entry.getValue() instanceof Map) {
+        for (Map.Entry<?, ?> metricToType : ((Map<?, ?>) entry.getValue()).entrySet()) {
+          metricsTypes.setPrefixToType(metricToType.getKey().toString(),
+              MetricsFilter.MetricAggregationType.valueOf(metricToType.getValue().toString()));
+        }
+      }
+    }
+    return metricsTypes;
+  }
 }
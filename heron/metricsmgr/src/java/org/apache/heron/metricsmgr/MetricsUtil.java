@@ -19,6 +19,10 @@
 
 package org.apache.heron.metricsmgr;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.heron.spi.metricsmgr.metrics.HistogramValue;
 import org.apache.heron.spi.metricsmgr.metrics.MetricsRecord;
 
 public final class MetricsUtil {
@@ -27,6 +31,10 @@ public final class MetricsUtil {
 
   private static final String SOURCE_FORMAT = "%s:%d/%s/%s";
 
+  // The quantiles of the histograms exported by the sinks, and the suffix of each of them
+  private static final double[] EXPORTED_QUANTILES = {0.5, 0.99, 0.999};
+  private static final String[] EXPORTED_QUANTILE_SUFFIXES = {"/p50", "/p99", "/p999"};
+
   static String createSource(String host, int port, String component, String instance) {
     return String.format(SOURCE_FORMAT, host, port, component, instance);
   }
@@ -42,6 +50,22 @@ public final class MetricsUtil {
     return record.getSource().split(SOURCE_DELIMITER);
   }
 
+  /**
+   * The quantiles of a histogram exported by the sinks keeping numbers, named after the
+   * histogram, e.g. "__histogram-execute-latency/default/p99"
+   * @param name the name of the histogram metric
+   * @param histogram the histogram
+   * @return the name of every quantile -> its value
+   */
+  public static Map<String, Double> getExportedQuantiles(String name, HistogramValue histogram) {
+    Map<String, Double> quantiles = new LinkedHashMap<>();
+    for (int i = 0; i < EXPORTED_QUANTILES.length; i++) {
+      quantiles.put(name + EXPORTED_QUANTILE_SUFFIXES[i],
+          histogram.getQuantile(EXPORTED_QUANTILES[i]));
+    }
+    return quantiles;
+  }
+
   private MetricsUtil() {
   }
 }
@@ -0,0 +1,282 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.apache.heron.metricsmgr.executor;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.heron.api.metric.IMetric;
+import org.apache.heron.common.basics.Communicator;
+import org.apache.heron.common.basics.WakeableLooper;
+import org.apache.heron.spi.metricsmgr.metrics.ExceptionInfo;
+import org.apache.heron.spi.metricsmgr.metrics.HistogramValue;
+import org.apache.heron.spi.metricsmgr.metrics.MetricsFilter;
+import org.apache.heron.spi.metricsmgr.metrics.MetricsInfo;
+import org.apache.heron.spi.metricsmgr.metrics.MetricsRecord;
+
+/**
+ * The bounded queue of MetricsRecord from the Metrics Manager Server to one SinkExecutor,
+ * so that a slow or stuck sink could not make the Metrics Manager run out of memory.
+ * Once maxRecords records are queued, new records are handled by the OverflowPolicy:
+ * <p>
+ * -- DROP_OLDEST: the oldest queued record is dropped to make room for the new one.
+ * <p>
+ * -- COALESCE_BY_SOURCE: the new records are set aside, at most one per source, until the
+ * sink catches up. A new record from a source already set aside is merged into it: the values
+ * of the metrics typed SUM by the sink, i.e. the counts over an interval, are summed, the values
+ * of the other metrics are replaced by the newer ones, and the exceptions are appended.
+ * Hence the other metrics, e.g. the AVG latencies, only keep their latest value, which is right
+ * for the sinks serving the latest value of every metric, such as the PrometheusSink.
+ * Since the # of sources of a Metrics Manager is bounded, so is the memory.
+ * <p>
+ * There is exactly one producer, the thread of Metrics Manager Server, and one consumer,
+ * the thread of the SinkExecutor.
+ */
+public class SinkCommunicator extends Communicator<MetricsRecord> {
+  // The most exceptions kept by a coalesced record, the latest ones
+  private static final int MAX_COALESCED_EXCEPTIONS = 1024;
+
+  private static final String RECORDS_QUEUED = "records-queued";
+  private static final String RECORDS_DROPPED = "records-dropped-count";
+  private static final String RECORDS_COALESCED = "records-coalesced-count";
+
+  public enum OverflowPolicy {
+    DROP_OLDEST,
+    COALESCE_BY_SOURCE;
+
+    /**
+     * Parse the policy from its name in the sinks config, e.g. "drop-oldest"
+     */
+    public static OverflowPolicy fromConfig(String value) {
+      return valueOf(value.trim().toUpperCase().replace('-', '_'));
+    }
+  }
+
+  private final int maxRecords;
+  private final OverflowPolicy overflowPolicy;
+  // The aggregation types of the metrics, telling which ones are summed when coalesced
+  private final MetricsFilter metricsTypes;
+
+  // The # of records in the queue underneath, since its size() is not constant-time
+  private final AtomicInteger queuedRecords = new AtomicInteger();
+  // The records set aside by COALESCE_BY_SOURCE, by source. Guarded by itself.
+  private final Map<String, MetricsRecord> coalescedRecords = new LinkedHashMap<>();
+
+  private final AtomicLong droppedCount = new AtomicLong();
+  private final AtomicLong coalescedCount = new AtomicLong();
+
+  /**
+   * @param consumer would be waken up when records are offered
+   * @param maxRecords the # of records queued before applying the overflowPolicy
+   * @param overflowPolicy what to do with new records once the queue is full
+   */
+  public SinkCommunicator(WakeableLooper consumer, int maxRecords,
+                          OverflowPolicy overflowPolicy) {
+    this(consumer, maxRecords, overflowPolicy, new MetricsFilter());
+  }
+
+  /**
+   * @param consumer would be waken up when records are offered
+   * @param maxRecords the # of records queued before applying the overflowPolicy
+   * @param overflowPolicy what to do with new records once the queue is full
+   * @param metricsTypes the aggregation types of the metrics, the ones typed SUM are summed
+   * when records are coalesced
+   */
+  public SinkCommunicator(WakeableLooper consumer, int maxRecords,
+                          OverflowPolicy overflowPolicy, MetricsFilter metricsTypes) {
+    super(null, consumer);
+    if (maxRecords <= 0) {
+      throw new IllegalArgumentException("Sink queue capacity must be positive: " + maxRecords);
+    }
+    this.maxRecords = maxRecords;
+    this.overflowPolicy = overflowPolicy;
+    this.metricsTypes = metricsTypes;
+  }
+
+  @Override
+  public boolean offer(MetricsRecord record) {
+    if (overflowPolicy == OverflowPolicy.COALESCE_BY_SOURCE) {
+      synchronized (coalescedRecords) {
+        // Once records are set aside, the new ones have to be set aside too, so that they
+        // are not processed before the older records of the same source
+        if (!coalescedRecords.isEmpty() || queuedRecords.get() >= maxRecords) {
+          MetricsRecord pending = coalescedRecords.get(record.getSource());
+          if (pending == null) {
+            coalescedRecords.put(record.getSource(), record);
+          } else {
+            coalescedRecords.put(record.getSource(), coalesce(pending, record));
+            coalescedCount.incrementAndGet();
+          }
+          informConsumer();
+          return true;
+        }
+      }
+    } else if (queuedRecords.get() >= maxRecords) {
+      // The consumer might have taken the oldest record in the meantime
+      if (super.poll() != null) {
+        queuedRecords.decrementAndGet();
+        droppedCount.incrementAndGet();
+      }
+    }
+
+    queuedRecords.incrementAndGet();
+    return super.offer(record);
+  }
+
+  @Override
+  public MetricsRecord poll() {
+    MetricsRecord record = super.poll();
+    if (record != null) {
+      queuedRecords.decrementAndGet();
+      return record;
+    }
+    synchronized (coalescedRecords) {
+      Iterator<MetricsRecord> it = coalescedRecords.values().iterator();
+      if (!it.hasNext()) {
+        return null;
+      }
+      record = it.next();
+      it.remove();
+      return record;
+    }
+  }
+
+  @Override
+  public int drainTo(Collection<? super MetricsRecord> c, int maxElements) {
+    int drained = super.drainTo(c, maxElements);
+    queuedRecords.addAndGet(-drained);
+    synchronized (coalescedRecords) {
+      Iterator<MetricsRecord> it = coalescedRecords.values().iterator();
+      while (drained < maxElements && it.hasNext()) {
+        c.add(it.next());
+        it.remove();
+        drained++;
+      }
+    }
+    return drained;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    if (!super.isEmpty()) {
+      return false;
+    }
+    synchronized (coalescedRecords) {
+      return coalescedRecords.isEmpty();
+    }
+  }
+
+  @Override
+  public int size() {
+    synchronized (coalescedRecords) {
+      return queuedRecords.get() + coalescedRecords.size();
+    }
+  }
+
+  @Override
+  public void clear() {
+    super.clear();
+    queuedRecords.set(0);
+    synchronized (coalescedRecords) {
+      coalescedRecords.clear();
+    }
+  }
+
+  /**
+   * The metrics of this queue: the # of records queued, and the # of records dropped or
+   * coalesced since the last time they were gathered
+   */
+  public IMetric<Map<String, Long>> getQueueMetrics() {
+    return new IMetric<Map<String, Long>>() {
+      @Override
+      public Map<String, Long> getValueAndReset() {
+        Map<String, Long> ret = new HashMap<>();
+        ret.put(RECORDS_QUEUED, (long) size());
+        ret.put(RECORDS_DROPPED, droppedCount.getAndSet(0));
+        ret.put(RECORDS_COALESCED, coalescedCount.getAndSet(0));
+        return ret;
+      }
+    };
+  }
+
+  private MetricsRecord coalesce(MetricsRecord older, MetricsRecord newer) {
+    Map<String, MetricsInfo> metrics = new LinkedHashMap<>();
+    for (MetricsInfo metricsInfo : older.getMetrics()) {
+      metrics.put(metricsInfo.getName(), metricsInfo);
+    }
+    for (MetricsInfo metricsInfo : newer.getMetrics()) {
+      MetricsInfo olderInfo = metrics.get(metricsInfo.getName());
+      if (olderInfo != null && metricsTypes.getAggregationType(metricsInfo.getName())
+          == MetricsFilter.MetricAggregationType.SUM) {
+        metrics.put(metricsInfo.getName(), sum(olderInfo, metricsInfo));
+      } else {
+        metrics.put(metricsInfo.getName(), metricsInfo);
+      }
+    }
+
+    List<ExceptionInfo> exceptions = new ArrayList<>();
+    for (ExceptionInfo exceptionInfo : older.getExceptions()) {
+      exceptions.add(exceptionInfo);
+    }
+    for (ExceptionInfo exceptionInfo : newer.getExceptions()) {
+      exceptions.add(exceptionInfo);
+    }
+    if (exceptions.size() > MAX_COALESCED_EXCEPTIONS) {
+      exceptions = new ArrayList<>(
+          exceptions.subList(exceptions.size() - MAX_COALESCED_EXCEPTIONS, exceptions.size()));
+    }
+
+    return new MetricsRecord(newer.getTimestamp(), newer.getSource(),
+        new ArrayList<>(metrics.values()), exceptions, newer.getContext());
+  }
+
+  /**
+   * Sum the values of a metric over two intervals, or keep the newer one if they are not numbers
+   */
+  private static MetricsInfo sum(MetricsInfo older, MetricsInfo newer) {
+    String name = newer.getName();
+    if (older.getType() == MetricsInfo.Type.HISTOGRAM
+        && newer.getType() == MetricsInfo.Type.HISTOGRAM) {
+      return new MetricsInfo(name,
+          HistogramValue.merge(older.getHistogramValue(), newer.getHistogramValue()));
+    }
+    try {
+      if (older.getType() != MetricsInfo.Type.DOUBLE
+          && newer.getType() != MetricsInfo.Type.DOUBLE) {
+        try {
+          return new MetricsInfo(name, older.getLongValue() + newer.getLongValue());
+        } catch (NumberFormatException e) {
+          // Not longs, try doubles
+        }
+      }
+      return new MetricsInfo(name, older.getDoubleValue() + newer.getDoubleValue());
+    } catch (NumberFormatException e) {
+      return newer;
+    }
+  }
+}
@@ -21,9 +21,16 @@ package org.apache.heron.metricsmgr.executor;
 
 import java.time.Duration;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.heron.common.basics.Communicator;
 import org.apache.heron.common.basics.SlaveLooper;
@@ -43,8 +50,16 @@ import org.apache.heron.spi.metricsmgr.sink.SinkContext;
  * The thread of SinkExecutor would be blocked to save resources except:
  * 1. New MetricsRecord comes and notify the SinkExecutor to wake up to process it
  * 2. The time interval to invoke flush() is met so SinkExecutor would wake up to invoke flush()
+ * <p>
+ * The records queued are handed to the IMetricsSink in batches. If the IMetricsSink is
+ * thread-safe and sink-worker-threads is more than 1, every batch is split between a pool of
+ * worker threads, and the SinkExecutor waits for all of them before going on.
  */
 public class SinkExecutor implements Runnable, AutoCloseable {
+  // The metrics of the records delivered to the sink
+  private static final String RECORDS_PROCESSED_COUNT = "records-processed-count";
+  private static final String RECORDS_LAG_MS = "records-lag-ms";
+
   private final IMetricsSink metricsSink;
   private final SlaveLooper slaveLooper;
 
@@ -60,6 +75,10 @@ public class SinkExecutor implements Runnable, AutoCloseable {
   // The name of Executor, would be used as the name of running thread
   private final String executorName;
 
+  // The pool processing the batches of a thread-safe sink, null if there is none
+  private ExecutorService workers;
+  private int numWorkers;
+
   /**
    * Construct a SinkExecutor, which is a Runnable
    *
@@ -93,6 +112,9 @@ public class SinkExecutor implements Runnable, AutoCloseable {
 
   @Override
   public void close() {
+    if (workers != null) {
+      workers.shutdownNow();
+    }
     SysUtils.closeIgnoringExceptions(metricsSink);
   }
 
@@ -100,6 +122,7 @@ public class SinkExecutor implements Runnable, AutoCloseable {
   public void run() {
     // Set current running thread's name as executorName
     Thread.currentThread().setName(executorName);
+    startWorkers();
     // Add task to invoke processRecord method when the WakeableLooper is waken up
     addSinkTasks();
 
@@ -116,8 +139,11 @@ public class SinkExecutor implements Runnable, AutoCloseable {
     Runnable sinkTasks = new Runnable() {
       @Override
       public void run() {
+        List<MetricsRecord> batch = new ArrayList<>();
         while (!metricsInSinkQueue.isEmpty()) {
-          metricsSink.processRecord(metricsInSinkQueue.poll());
+          metricsInSinkQueue.drainTo(batch);
+          processRecords(batch);
+          batch.clear();
         }
       }
     };
@@ -125,6 +151,66 @@ public class SinkExecutor implements Runnable, AutoCloseable {
     slaveLooper.addTasksOnWakeup(sinkTasks);
   }
 
+  private void processRecords(List<MetricsRecord> batch) {
+    if (batch.isEmpty()) {
+      return;
+    }
+    // How long the records waited for the sink, since the Metrics Manager received them
+    long now = System.currentTimeMillis();
+    long lagMs = 0;
+    for (MetricsRecord record : batch) {
+      lagMs += Math.max(0, now - record.getTimestamp());
+    }
+
+    if (workers == null || batch.size() == 1) {
+      metricsSink.processRecords(batch);
+    } else {
+      processRecordsInParallel(batch);
+    }
+
+    sinkContext.exportCountMetric(RECORDS_PROCESSED_COUNT, batch.size());
+    sinkContext.exportCountMetric(RECORDS_LAG_MS, lagMs);
+  }
+
+  private void processRecordsInParallel(List<MetricsRecord> batch) {
+    int chunkSize = (batch.size() + numWorkers - 1) / numWorkers;
+    List<Future<?>> results = new ArrayList<>(numWorkers);
+    for (int i = 0; i < batch.size(); i += chunkSize) {
+      final List<MetricsRecord> chunk =
+          new ArrayList<>(batch.subList(i, Math.min(i + chunkSize, batch.size())));
+      results.add(workers.submit(() -> metricsSink.processRecords(chunk)));
+    }
+
+    // Wait for the whole batch, so that flush() is not invoked while it is processed, and
+    // rethrow the failures in this thread, so that the sink is restarted as usual
+    for (Future<?> result : results) {
+      try {
+        result.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new RuntimeException("Interrupted while processing records in " + executorName, e);
+      } catch (ExecutionException e) {
+        throw new RuntimeException("Failed to process records in " + executorName, e.getCause());
+      }
+    }
+  }
+
+  // Start the pool of workers if the sink is thread-safe and asks for more than one thread
+  private void startWorkers() {
+    Object workersObj = sinkConfig.get(MetricsSinksConfig.CONFIG_KEY_SINK_WORKER_THREADS);
+    numWorkers = workersObj == null
+        ? MetricsSinksConfig.DEFAULT_SINK_WORKER_THREADS : TypeUtils.getInteger(workersObj);
+    if (numWorkers > 1 && metricsSink.isThreadSafe()) {
+      final AtomicInteger workerIndex = new AtomicInteger();
+      workers = Executors.newFixedThreadPool(numWorkers, runnable -> {
+        Thread thread =
+            new Thread(runnable, executorName + "-worker-" + workerIndex.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+  }
+
   // Add TimerTask to invoke flush() in IMetricsSink
   private void flushSinkAtInterval() {
     Object flushIntervalObj = sinkConfig.get(MetricsSinksConfig.CONFIG_KEY_FLUSH_FREQUENCY_MS);
@@ -20,6 +20,7 @@
 
 package org.apache.heron.metricsmgr.sink;
 
+import java.io.BufferedOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.net.InetSocketAddress;
@@ -30,12 +31,14 @@ import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Strings;
 import com.google.common.base.Ticker;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpServer;
 
 import org.apache.heron.common.basics.TypeUtils;
@@ -50,6 +53,9 @@ abstract class AbstractWebSink implements IMetricsSink {
   private static final Logger LOG = Logger.getLogger(AbstractWebSink.class.getName());
 
   private static final int HTTP_STATUS_OK = 200;
+  // The response is written in chunks, since its length is not known upfront
+  private static final int HTTP_CHUNKED_RESPONSE = 0;
+  private static final int RESPONSE_BUFFER_SIZE = 64 * 1024;
 
   // Metrics will be published on http://host:port/path, the port
   private static final String KEY_PORT = "port";
@@ -69,10 +75,14 @@ abstract class AbstractWebSink implements IMetricsSink {
   private static final String KEY_METRICS_CACHE_TTL_SEC = "metrics-cache-ttl-sec";
   private static final long DEFAULT_CACHE_TTL_SECONDS = 600;
 
+  // Whether to gzip the responses to the requests accepting it
+  private static final String KEY_GZIP_RESPONSE = "gzip-response";
+
   private HttpServer httpServer;
   private String topologyName;
   private long cacheMaxSize;
   private long cacheTtlSeconds;
+  private boolean gzipResponse;
   private final Ticker cacheTicker;
 
   AbstractWebSink() {
@@ -95,6 +105,8 @@ abstract class AbstractWebSink implements IMetricsSink {
     cacheTtlSeconds = TypeUtils.getLong(conf.getOrDefault(KEY_METRICS_CACHE_TTL_SEC,
         DEFAULT_CACHE_TTL_SECONDS));
 
+    gzipResponse = TypeUtils.getBoolean(conf.getOrDefault(KEY_GZIP_RESPONSE, false));
+
     topologyName = context.getTopologyName();
 
     // initialize child classes
@@ -130,11 +142,16 @@ abstract class AbstractWebSink implements IMetricsSink {
     try {
       httpServer = HttpServer.create(new InetSocketAddress(port), 0);
       httpServer.createContext(path, httpExchange -> {
-        byte[] response = generateResponse();
-        httpExchange.sendResponseHeaders(HTTP_STATUS_OK, response.length);
-        OutputStream os = httpExchange.getResponseBody();
-        os.write(response);
-        os.close();
+        boolean gzip = gzipResponse && acceptsGzip(httpExchange);
+        if (gzip) {
+          httpExchange.getResponseHeaders().set("Content-Encoding", "gzip");
+        }
+        httpExchange.sendResponseHeaders(HTTP_STATUS_OK, HTTP_CHUNKED_RESPONSE);
+        try (OutputStream os = gzip
+            ? new GZIPOutputStream(httpExchange.getResponseBody(), RESPONSE_BUFFER_SIZE)
+            : new BufferedOutputStream(httpExchange.getResponseBody(), RESPONSE_BUFFER_SIZE)) {
+          writeResponse(os);
+        }
         LOG.log(Level.INFO, "Received metrics request.");
       });
       LOG.info("Starting web sink server on port: " + port);
@@ -157,8 +174,23 @@ abstract class AbstractWebSink implements IMetricsSink {
     return topologyName;
   }
 
+  private static boolean acceptsGzip(HttpExchange httpExchange) {
+    String acceptEncoding = httpExchange.getRequestHeaders().getFirst("Accept-Encoding");
+    return acceptEncoding != null && acceptEncoding.contains("gzip");
+  }
+
   abstract byte[] generateResponse() throws IOException;
 
+  /**
+   * Write the response to a metrics request. Sinks could override it to stream the response
+   * rather than build it in memory.
+   *
+   * @param out the body of the response, it is closed by the caller
+   */
+  void writeResponse(OutputStream out) throws IOException {
+    out.write(generateResponse());
+  }
+
   abstract void initialize(Map<String, Object> configuration, SinkContext context);
 
   @Override
@@ -110,11 +110,21 @@ public class GraphiteSink implements IMetricsSink {
     // {metricsPrefix}.{topologyName}.{host:port/componentName/instanceId}.{metricName}
     //    {metricValue} {timestamp} \n
     for (MetricsInfo metricsInfo : record.getMetrics()) {
-      lines.append(
-          metricsPathPrefix.toString() + "."
-              + metricsInfo.getName().replace(' ', '.')).append(" ")
-          .append(metricsInfo.getValue()).append(" ").append(timestamp)
-          .append("\n");
+      // Graphite only takes numbers
+      if (metricsInfo.getType() == MetricsInfo.Type.HISTOGRAM) {
+        continue;
+      }
+      lines.append(metricsPathPrefix).append(".")
+          .append(metricsInfo.getName().replace(' ', '.')).append(" ");
+      // The typed values are appended as they are, without formatting them to a String first
+      if (metricsInfo.getType() == MetricsInfo.Type.LONG) {
+        lines.append(metricsInfo.getLongValue());
+      } else if (metricsInfo.getType() == MetricsInfo.Type.DOUBLE) {
+        lines.append(metricsInfo.getDoubleValue());
+      } else {
+        lines.append(metricsInfo.getValue());
+      }
+      lines.append(" ").append(timestamp).append("\n");
     }
 
     try {
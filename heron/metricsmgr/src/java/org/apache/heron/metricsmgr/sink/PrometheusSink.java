@@ -19,9 +19,15 @@
 
 package org.apache.heron.metricsmgr.sink;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Objects;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.regex.Pattern;
@@ -41,6 +47,10 @@ import org.apache.heron.spi.metricsmgr.sink.SinkContext;
  *
  * metrics format:
  * heron_metric{topology="topology-name",component="component-id",instance="instance-id"} value timestamp
+ * <p>
+ * The name and labels of every metric are formatted when the metric is first received, and the
+ * response to a scrape is streamed from them, see writeResponse(). It could be gzipped with
+ * the gzip-response option.
  */
 public class PrometheusSink extends AbstractWebSink {
   private static final Logger LOG = Logger.getLogger(PrometheusSink.class.getName());
@@ -55,12 +65,11 @@ public class PrometheusSink extends AbstractWebSink {
   // spout metric
   private static final String METRIC_NEXT_TUPLE_COUNT = "__next-tuple-count";
 
-  // This is the cache that is used to serve the metrics
-  private Cache<String, Map<String, Double>> metricsCache;
+  // This is the cache that is used to serve the metrics, by source
+  private Cache<String, SourceMetrics> metricsCache;
 
-  private String cluster;
-  private String role;
-  private String environment;
+  // The cluster/role/env label of all the metrics, or null if they are not all known
+  private String clusterRoleEnv;
 
   public PrometheusSink() {
     super();
@@ -70,88 +79,38 @@ public class PrometheusSink extends AbstractWebSink {
   void initialize(Map<String, Object> configuration, SinkContext context) {
     metricsCache = createCache();
 
-    cluster = context.getCluster();
-    role = context.getRole();
-    environment = context.getEnvironment();
+    String cluster = context.getCluster();
+    String role = context.getRole();
+    String environment = context.getEnvironment();
+    clusterRoleEnv = hasClusterRoleEnvironment(cluster, role, environment)
+        ? String.format("%s/%s/%s", cluster, role, environment) : null;
   }
 
   @Override
   byte[] generateResponse() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    writeResponse(out);
+    return out.toByteArray();
+  }
+
+  /**
+   * Stream the latest sample of every metric. The name and the labels of every metric are
+   * formatted once, when the metric is first seen, so a scrape only has to append the values.
+   */
+  @Override
+  void writeResponse(OutputStream out) throws IOException {
     metricsCache.cleanUp();
-    final Map<String, Map<String, Double>> metrics = metricsCache.asMap();
-    final StringBuilder sb = new StringBuilder();
-
-    metrics.forEach((String source, Map<String, Double> sourceMetrics) -> {
-      String[] sources = source.split("/");
-      String topology = sources[0];
-      String component = sources[1];
-      String instance = sources[2];
-
-      final boolean componentIsStreamManger = component.contains("stmgr");
-      final String componentType = getComponentType(sourceMetrics);
-
-      String c = this.cluster;
-      String r = this.role;
-      String e = this.environment;
-      final String clusterRoleEnv = hasClusterRoleEnvironment(c, r, e)
-          ? String.format("%s/%s/%s", c, r, e) : null;
-
-      sourceMetrics.forEach((String metric, Double value) -> {
-
-        // some stream manager metrics in heron contain a instance id as part of the metric name
-        // this should be a label when exported to prometheus.
-        // Example: __connection_buffer_by_instanceid/container_1_word_5/packets or
-        // __time_spent_back_pressure_by_compid/container_1_exclaim1_1
-        // TODO convert to small classes for less string manipulation
-        final String metricName;
-        final String metricInstanceId;
-        if (componentIsStreamManger) {
-          final boolean metricHasInstanceId = metric.contains("_by_");
-          final String[] metricParts = metric.split("/");
-          if (metricHasInstanceId && metricParts.length == 3) {
-            metricName = String.format("%s_%s", metricParts[0], metricParts[2]);
-            metricInstanceId = metricParts[1];
-          } else if (metricHasInstanceId && metricParts.length == 2) {
-            metricName = metricParts[0];
-            metricInstanceId = metricParts[1];
-          } else {
-            metricName = metric;
-            metricInstanceId = null;
-          }
-
-        } else {
-          metricName = metric;
-          metricInstanceId = null;
-        }
-
-        String exportedMetricName = String.format("%s_%s", HERON_PREFIX,
-            metricName.replace("__", "").toLowerCase());
-        sb.append(Prometheus.sanitizeMetricName(exportedMetricName))
-            .append("{")
-            .append("topology=\"").append(topology).append("\",")
-            .append("component=\"").append(component).append("\",")
-            .append("instance_id=\"").append(instance).append("\"");
-
-        if (clusterRoleEnv != null) {
-          sb.append(",cluster_role_env=\"").append(clusterRoleEnv).append("\"");
-        }
-
-        if (componentType != null) {
-          sb.append(",component_type=\"").append(componentType).append("\"");
-        }
-
-        if (metricInstanceId != null) {
-          sb.append(",metric_instance_id=\"").append(metricInstanceId).append("\"");
-        }
-
-        sb.append("} ")
-            .append(Prometheus.doubleToGoString(value))
-            .append(" ").append(currentTimeMillis())
-            .append(DELIMITER);
-      });
-    });
-
-    return sb.toString().getBytes();
+    final String timestamp = " " + currentTimeMillis() + DELIMITER;
+    final Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+
+    for (SourceMetrics sourceMetrics : metricsCache.asMap().values()) {
+      for (Sample sample : sourceMetrics.samples.values()) {
+        writer.write(sample.metricWithLabels);
+        writer.write(Prometheus.doubleToGoString(sample.value));
+        writer.write(timestamp);
+      }
+    }
+    writer.flush();
   }
 
   @Override
@@ -161,20 +120,33 @@ public class PrometheusSink extends AbstractWebSink {
     if (sources.length > 2) {
       final String source = String.format("%s/%s/%s", getTopologyName(), sources[1], sources[2]);
 
-      Map<String, Double> sourceCache = metricsCache.getIfPresent(source);
-      if (sourceCache == null) {
-        final Cache<String, Double> newSourceCache = createCache();
-        sourceCache = newSourceCache.asMap();
-      }
+      // The cache of a source is created atomically, since records could be processed
+      // by several threads at once
+      SourceMetrics sourceMetrics = metricsCache.asMap().computeIfAbsent(source,
+          key -> new SourceMetrics(getTopologyName(), sources[1], sources[2]));
 
-      sourceCache.putAll(processMetrics(record.getMetrics()));
-      metricsCache.put(source, sourceCache);
+      Map<String, Double> metrics = processMetrics(record.getMetrics());
+      String componentType = getComponentType(metrics);
+      if (componentType != null) {
+        sourceMetrics.componentType = componentType;
+      }
+      for (Map.Entry<String, Double> metric : metrics.entrySet()) {
+        sourceMetrics.update(metric.getKey(), metric.getValue());
+      }
+      // Put it again to reset its time to live
+      metricsCache.put(source, sourceMetrics);
     } else {
       LOG.log(Level.SEVERE, "Unexpected metrics source: " + record.getSource());
     }
   }
 
-  Cache<String, Map<String, Double>> getMetricsCache() {
+  // The caches are concurrent, and they are read by the HTTP server's thread anyway
+  @Override
+  public boolean isThreadSafe() {
+    return true;
+  }
+
+  Cache<String, SourceMetrics> getMetricsCache() {
     return metricsCache;
   }
 
@@ -206,8 +178,14 @@ public class PrometheusSink extends AbstractWebSink {
   static Map<String, Double> processMetrics(Iterable<MetricsInfo> metrics) {
     Map<String, Double> map = new HashMap<>();
     for (MetricsInfo r : metrics) {
+      // Histograms are exported as their quantiles,
+      // e.g. heron_execute_latency_histogram_default_p99
+      if (r.getType() == MetricsInfo.Type.HISTOGRAM) {
+        map.putAll(MetricsUtil.getExportedQuantiles(r.getName(), r.getHistogramValue()));
+        continue;
+      }
       try {
-        map.put(r.getName(), Double.valueOf(r.getValue()));
+        map.put(r.getName(), r.getDoubleValue());
       } catch (NumberFormatException ne) {
         LOG.log(Level.SEVERE, "Could not parse metric, Name: "
             + r.getName() + " Value: " + r.getValue(), ne);
@@ -217,6 +195,103 @@ public class PrometheusSink extends AbstractWebSink {
     return map;
   }
 
+  /**
+   * The exported name and labels of a metric, up to its value:
+   * heron_metric{topology="topology-name",component="component-id",instance_id="instance-id"}
+   */
+  String formatMetricWithLabels(String topology, String component, String instance,
+                                String componentType, String metric) {
+    // some stream manager metrics in heron contain a instance id as part of the metric name
+    // this should be a label when exported to prometheus.
+    // Example: __connection_buffer_by_instanceid/container_1_word_5/packets or
+    // __time_spent_back_pressure_by_compid/container_1_exclaim1_1
+    final String metricName;
+    final String metricInstanceId;
+    if (component.contains("stmgr")) {
+      final boolean metricHasInstanceId = metric.contains("_by_");
+      final String[] metricParts = metric.split("/");
+      if (metricHasInstanceId && metricParts.length == 3) {
+        metricName = String.format("%s_%s", metricParts[0], metricParts[2]);
+        metricInstanceId = metricParts[1];
+      } else if (metricHasInstanceId && metricParts.length == 2) {
+        metricName = metricParts[0];
+        metricInstanceId = metricParts[1];
+      } else {
+        metricName = metric;
+        metricInstanceId = null;
+      }
+
+    } else {
+      metricName = metric;
+      metricInstanceId = null;
+    }
+
+    String exportedMetricName = String.format("%s_%s", HERON_PREFIX,
+        metricName.replace("__", "").toLowerCase());
+    StringBuilder sb = new StringBuilder();
+    sb.append(Prometheus.sanitizeMetricName(exportedMetricName))
+        .append("{")
+        .append("topology=\"").append(topology).append("\",")
+        .append("component=\"").append(component).append("\",")
+        .append("instance_id=\"").append(instance).append("\"");
+
+    if (clusterRoleEnv != null) {
+      sb.append(",cluster_role_env=\"").append(clusterRoleEnv).append("\"");
+    }
+
+    if (componentType != null) {
+      sb.append(",component_type=\"").append(componentType).append("\"");
+    }
+
+    if (metricInstanceId != null) {
+      sb.append(",metric_instance_id=\"").append(metricInstanceId).append("\"");
+    }
+
+    return sb.append("} ").toString();
+  }
+
+  /**
+   * The latest samples of the metrics of one source
+   */
+  final class SourceMetrics {
+    private final String topology;
+    private final String component;
+    private final String instance;
+    // The latest sample of every metric, expiring like the sources
+    private final Map<String, Sample> samples;
+    // The type of the component, once known from its metrics
+    private volatile String componentType;
+
+    SourceMetrics(String topology, String component, String instance) {
+      this.topology = topology;
+      this.component = component;
+      this.instance = instance;
+      this.samples = PrometheusSink.this.<String, Sample>createCache().asMap();
+    }
+
+    void update(String metric, double value) {
+      String type = componentType;
+      Sample previous = samples.get(metric);
+      // The name and labels of a metric only change when the type of the component is known
+      String metricWithLabels = previous != null && Objects.equals(previous.componentType, type)
+          ? previous.metricWithLabels
+          : formatMetricWithLabels(topology, component, instance, type, metric);
+      samples.put(metric, new Sample(metricWithLabels, type, value));
+    }
+  }
+
+  private static final class Sample {
+    private final String metricWithLabels;
+    private final String componentType;
+    private final double value;
+
+    Sample(String metricWithLabels, String componentType, double value) {
+      this.metricWithLabels = metricWithLabels;
+      this.componentType = componentType;
+      this.value = value;
+    }
+  }
+
   // code taken from prometheus java_client repo
   static final class Prometheus {
     private static final Pattern METRIC_NAME_RE = Pattern.compile("[a-zA-Z_:][a-zA-Z0-9_:]*");
@@ -135,8 +135,11 @@ public class WebSink extends AbstractWebSink  {
   static Map<String, Double> processMetrics(String prefix, Iterable<MetricsInfo> metrics) {
     Map<String, Double> map = new HashMap<>();
     for (MetricsInfo r : metrics) {
+      if (r.getType() == MetricsInfo.Type.HISTOGRAM) {
+        continue;
+      }
       try {
-        map.put(prefix + r.getName(), Double.valueOf(r.getValue()));
+        map.put(prefix + r.getName(), r.getDoubleValue());
       } catch (NumberFormatException ne) {
         LOG.log(Level.SEVERE, "Could not parse metric, Name: "
             + r.getName() + " Value: " + r.getValue(), ne);
@@ -206,9 +206,27 @@ public class MetricsCacheSink implements IMetricsSink {
 
     for (MetricsInfo metricsInfo : tMasterMetricsFilter.filter(record.getMetrics())) {
       // We would filter out unneeded metrics
-      TopologyMaster.MetricDatum metricDatum = TopologyMaster.MetricDatum.newBuilder().
+      if (metricsInfo.getType() == MetricsInfo.Type.HISTOGRAM) {
+        // The metricscache keeps one value per metric, so histograms are sent as their quantiles
+        Map<String, Double> quantiles = MetricsUtil.getExportedQuantiles(
+            metricsInfo.getName(), metricsInfo.getHistogramValue());
+        for (Map.Entry<String, Double> quantile : quantiles.entrySet()) {
+          publishMetrics.addMetrics(TopologyMaster.MetricDatum.newBuilder().
+              setComponentName(componentName).setInstanceId(instanceId).
+              setName(quantile.getKey()).setDoubleValue(quantile.getValue()).
+              setTimestamp(record.getTimestamp()));
+        }
+        continue;
+      }
+      TopologyMaster.MetricDatum.Builder metricDatum = TopologyMaster.MetricDatum.newBuilder().
           setComponentName(componentName).setInstanceId(instanceId).setName(metricsInfo.getName()).
-          setValue(metricsInfo.getValue()).setTimestamp(record.getTimestamp()).build();
+          setTimestamp(record.getTimestamp());
+      // The metricscache keeps doubles, so the numeric values are sent as they are
+      if (metricsInfo.isNumeric()) {
+        metricDatum.setDoubleValue(metricsInfo.getDoubleValue());
+      } else {
+        metricDatum.setValue(metricsInfo.getValue());
+      }
       publishMetrics.addMetrics(metricDatum);
     }
 
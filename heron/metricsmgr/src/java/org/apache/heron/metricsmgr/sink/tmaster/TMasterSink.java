@@ -208,6 +208,10 @@ public class TMasterSink implements IMetricsSink {
 
     for (MetricsInfo metricsInfo : tMasterMetricsFilter.filter(record.getMetrics())) {
       // We would filter out unneeded metrics
+      // The tmaster aggregates the values as text, so histograms go to the metricscache only
+      if (metricsInfo.getType() == MetricsInfo.Type.HISTOGRAM) {
+        continue;
+      }
       TopologyMaster.MetricDatum metricDatum = TopologyMaster.MetricDatum.newBuilder().
           setComponentName(componentName).setInstanceId(instanceId).setName(metricsInfo.getName()).
           setValue(metricsInfo.getValue()).setTimestamp(record.getTimestamp()).build();
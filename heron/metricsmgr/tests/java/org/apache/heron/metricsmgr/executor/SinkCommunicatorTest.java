@@ -0,0 +1,145 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.apache.heron.metricsmgr.executor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import org.apache.heron.spi.metricsmgr.metrics.ExceptionInfo;
+import org.apache.heron.spi.metricsmgr.metrics.MetricsFilter;
+import org.apache.heron.spi.metricsmgr.metrics.MetricsInfo;
+import org.apache.heron.spi.metricsmgr.metrics.MetricsRecord;
+
+public class SinkCommunicatorTest {
+
+  @Test
+  public void testDropOldest() {
+    SinkCommunicator communicator =
+        new SinkCommunicator(null, 2, SinkCommunicator.OverflowPolicy.DROP_OLDEST);
+    for (int i = 0; i < 5; i++) {
+      communicator.offer(newRecord("source", i, "metric", "value" + i));
+    }
+    Assert.assertEquals(2, communicator.size());
+
+    Map<String, Long> metrics = communicator.getQueueMetrics().getValueAndReset();
+    Assert.assertEquals(Long.valueOf(2), metrics.get("records-queued"));
+    Assert.assertEquals(Long.valueOf(3), metrics.get("records-dropped-count"));
+    Assert.assertEquals(Long.valueOf(0),
+        communicator.getQueueMetrics().getValueAndReset().get("records-dropped-count"));
+
+    Assert.assertEquals(3, communicator.poll().getTimestamp());
+    Assert.assertEquals(4, communicator.poll().getTimestamp());
+    Assert.assertNull(communicator.poll());
+    Assert.assertTrue(communicator.isEmpty());
+
+    // There is room again
+    communicator.offer(newRecord("source", 5, "metric", "value5"));
+    communicator.offer(newRecord("source", 6, "metric", "value6"));
+    Assert.assertEquals(2, communicator.size());
+  }
+
+  @Test
+  public void testCoalesceBySource() {
+    SinkCommunicator communicator =
+        new SinkCommunicator(null, 1, SinkCommunicator.OverflowPolicy.COALESCE_BY_SOURCE);
+    communicator.offer(newRecord("a", 1, "m1", "1"));
+    // The queue is full, these are set aside by source
+    communicator.offer(newRecord("a", 2, "m1", "2"));
+    communicator.offer(newRecord("b", 3, "m1", "3"));
+    communicator.offer(newRecord("a", 4, "m2", "4"));
+    Assert.assertEquals(3, communicator.size());
+    Assert.assertEquals(Long.valueOf(1),
+        communicator.getQueueMetrics().getValueAndReset().get("records-coalesced-count"));
+
+    // Drained in order: the queued record, then the coalesced ones
+    List<MetricsRecord> records = new ArrayList<>();
+    Assert.assertEquals(3, communicator.drainTo(records));
+    Assert.assertTrue(communicator.isEmpty());
+    Assert.assertEquals(1, records.get(0).getTimestamp());
+
+    MetricsRecord coalesced = records.get(1);
+    Assert.assertEquals("a", coalesced.getSource());
+    Assert.assertEquals(4, coalesced.getTimestamp());
+    List<String> values = new ArrayList<>();
+    for (MetricsInfo metricsInfo : coalesced.getMetrics()) {
+      values.add(metricsInfo.getName() + "=" + metricsInfo.getValue());
+    }
+    Assert.assertEquals(Arrays.asList("m1=2", "m2=4"), values);
+    int exceptions = 0;
+    for (ExceptionInfo exceptionInfo : coalesced.getExceptions()) {
+      exceptions++;
+    }
+    Assert.assertEquals(2, exceptions);
+
+    Assert.assertEquals("b", records.get(2).getSource());
+
+    // Once caught up, the records are queued again
+    communicator.offer(newRecord("a", 5, "m1", "5"));
+    Assert.assertEquals(5, communicator.poll().getTimestamp());
+  }
+
+  @Test
+  public void testCoalesceSumsCounts() {
+    MetricsFilter metricsTypes = new MetricsFilter();
+    metricsTypes.setPrefixToType("__emit-count", MetricsFilter.MetricAggregationType.SUM);
+    metricsTypes.setPrefixToType("__execute-latency", MetricsFilter.MetricAggregationType.AVG);
+    SinkCommunicator communicator = new SinkCommunicator(null, 1,
+        SinkCommunicator.OverflowPolicy.COALESCE_BY_SOURCE, metricsTypes);
+    communicator.offer(newRecord("a", 1, "__emit-count/default", "1"));
+    // The queue is full, these are coalesced
+    communicator.offer(newRecord("a", 2, "__emit-count/default", "2"));
+    communicator.offer(newRecord("a", 3, "__emit-count/default", "3"));
+    communicator.offer(newRecord("a", 4, "__execute-latency/default", "1.5"));
+    communicator.offer(newRecord("a", 5, "__execute-latency/default", "2.5"));
+
+    List<MetricsRecord> records = new ArrayList<>();
+    Assert.assertEquals(2, communicator.drainTo(records));
+    List<String> values = new ArrayList<>();
+    for (MetricsInfo metricsInfo : records.get(1).getMetrics()) {
+      values.add(metricsInfo.getName() + "=" + metricsInfo.getValue());
+    }
+    // The counts over the coalesced intervals are summed, the latency keeps its latest value
+    Assert.assertEquals(
+        Arrays.asList("__emit-count/default=5", "__execute-latency/default=2.5"), values);
+  }
+
+  @Test
+  public void testOverflowPolicyFromConfig() {
+    Assert.assertEquals(SinkCommunicator.OverflowPolicy.DROP_OLDEST,
+        SinkCommunicator.OverflowPolicy.fromConfig("drop-oldest"));
+    Assert.assertEquals(SinkCommunicator.OverflowPolicy.COALESCE_BY_SOURCE,
+        SinkCommunicator.OverflowPolicy.fromConfig("coalesce-by-source"));
+  }
+
+  private static MetricsRecord newRecord(String source, long timestamp,
+                                         String metric, String value) {
+    return new MetricsRecord(timestamp, source,
+        Collections.singletonList(new MetricsInfo(metric, value)),
+        Collections.singletonList(new ExceptionInfo("stackTrace", "last", "first", 1, "log")),
+        "default");
+  }
+}
@@ -22,9 +22,12 @@ package org.apache.heron.metricsmgr.executor;
 import java.lang.reflect.Field;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -160,6 +163,37 @@ public class SinkExecutorTest {
     threadsPool = null;
   }
 
+  /**
+   * Method: run(), with a thread-safe sink and a pool of workers
+   */
+  @Test
+  public void testRunWithWorkers() throws Exception {
+    ThreadSafeMetricsSink threadSafeSink = new ThreadSafeMetricsSink(EXPECTED_RECORDS);
+    SinkContext sinkContext =
+        new SinkContextImpl("topology-name", "cluster", "role", "environment",
+            "metricsmgr-id", "sink-id", new MultiCountMetric());
+    SinkExecutor executor =
+        new SinkExecutor("testSinkId", threadSafeSink, slaveLooper, communicator, sinkContext);
+    executor.setProperty(MetricsSinksConfig.CONFIG_KEY_SINK_WORKER_THREADS, 4);
+
+    // Queue the records before starting, so that they are processed as one batch
+    for (int i = 0; i < EXPECTED_RECORDS; i++) {
+      communicator.offer(constructMetricsRecord());
+    }
+    threadsPool = Executors.newSingleThreadExecutor();
+    threadsPool.execute(executor);
+
+    Assert.assertTrue(threadSafeSink.latch.await(5, TimeUnit.SECONDS));
+    Assert.assertEquals(4, threadSafeSink.threads.size());
+    for (String thread : threadSafeSink.threads) {
+      Assert.assertTrue(thread.startsWith("testSinkId-worker-"));
+    }
+
+    threadsPool.shutdownNow();
+    threadsPool = null;
+    executor.close();
+  }
+
   private void runSinkExecutor() {
     sinkExecutor.setProperty(MetricsSinksConfig.CONFIG_KEY_FLUSH_FREQUENCY_MS, FLUSH_INTERVAL_MS);
     threadsPool.execute(sinkExecutor);
@@ -187,6 +221,38 @@ public class SinkExecutorTest {
     return new MetricsRecord(RECORD_SOURCE, metricsInfos, exceptionInfos, RECORD_CONTEXT);
   }
 
+  private static final class ThreadSafeMetricsSink implements IMetricsSink {
+    private final CountDownLatch latch;
+    private final Set<String> threads = Collections.newSetFromMap(new ConcurrentHashMap<>());
+
+    private ThreadSafeMetricsSink(int expectedRecords) {
+      this.latch = new CountDownLatch(expectedRecords);
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+      return true;
+    }
+
+    @Override
+    public void init(Map<String, Object> map, SinkContext context) {
+    }
+
+    @Override
+    public void processRecord(MetricsRecord record) {
+      threads.add(Thread.currentThread().getName());
+      latch.countDown();
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+
   private final class DummyMetricsSink implements IMetricsSink {
 
     private final CountDownLatch recordProcessedLatch;
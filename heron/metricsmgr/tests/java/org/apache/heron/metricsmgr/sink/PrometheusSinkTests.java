@@ -19,7 +19,9 @@
 
 package org.apache.heron.metricsmgr.sink;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
@@ -33,6 +35,7 @@ import org.junit.Test;
 import org.mockito.Mockito;
 
 import org.apache.heron.spi.metricsmgr.metrics.ExceptionInfo;
+import org.apache.heron.spi.metricsmgr.metrics.HistogramValue;
 import org.apache.heron.spi.metricsmgr.metrics.MetricsInfo;
 import org.apache.heron.spi.metricsmgr.metrics.MetricsRecord;
 import org.apache.heron.spi.metricsmgr.sink.SinkContext;
@@ -55,7 +58,7 @@ public class PrometheusSinkTests {
       // no need to start the server for tests
     }
 
-    public Map<String, Map<String, Double>> getMetrics() {
+    public Map<String, ?> getMetrics() {
       return getMetricsCache().asMap();
     }
 
@@ -97,7 +100,7 @@ public class PrometheusSinkTests {
       sink.processRecord(r);
     }
 
-    final Map<String, Map<String, Double>> metrics = sink.getMetrics();
+    final Map<String, ?> metrics = sink.getMetrics();
     assertTrue(metrics.containsKey("testTopology/component/instance_1"));
     assertTrue(metrics.containsKey("testTopology/component/instance_2"));
   }
@@ -167,6 +170,51 @@ public class PrometheusSinkTests {
     });
   }
 
+  @Test
+  public void testResponseWithUpdatedMetrics() throws IOException {
+    PrometheusTestSink sink = new PrometheusTestSink();
+    sink.init(defaultConf, context);
+    for (MetricsRecord r : records) {
+      sink.processRecord(r);
+    }
+    // The latest values are served, and the component type is labeled once it is known
+    sink.processRecord(newRecord("machine/component/instance_1",
+        Arrays.asList(new MetricsInfo("metric_1", "3.0"),
+            new MetricsInfo("__next-tuple-count", "4.0")),
+        Collections.emptyList()));
+
+    final String labels = "{topology=\"testTopology\",component=\"component\","
+        + "instance_id=\"instance_1\",component_type=\"spout\"}";
+    final List<String> expectedLines = Arrays.asList(
+        String.format("heron_metric_1%s 3.0 %d", labels, NOW),
+        String.format("heron_next_tuple_count%s 4.0 %d", labels, NOW),
+        createMetric("testTopology", "component", "instance_1", "metric_2", "2.0"),
+        createMetric("testTopology", "component", "instance_2", "metric_1", "1.0"),
+        createMetric("testTopology", "component", "instance_2", "metric_2", "2.0")
+    );
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    sink.writeResponse(out);
+    final Set<String> generatedLines = new HashSet<>(
+        Arrays.asList(new String(out.toByteArray(), StandardCharsets.UTF_8).split("\n")));
+
+    assertEquals(new HashSet<>(expectedLines), generatedLines);
+  }
+
+  @Test
+  public void testHistogramQuantiles() {
+    // 98 values up to 10, 1 up to 100 and 1 up to 1000
+    HistogramValue histogram = new HistogramValue(
+        new double[] {10, 100, 1000}, new long[] {98, 1, 1}, 2000, 1, 900);
+    Map<String, Double> metrics = PrometheusSink.processMetrics(Arrays.asList(
+        new MetricsInfo("__histogram-execute-latency/default", histogram)));
+
+    assertEquals(3, metrics.size());
+    assertEquals(10, metrics.get("__histogram-execute-latency/default/p50"), 0);
+    assertEquals(100, metrics.get("__histogram-execute-latency/default/p99"), 0);
+    assertEquals(900, metrics.get("__histogram-execute-latency/default/p999"), 0);
+  }
+
   @Test
   public void testComponentType() {
     Map<String, Double> metrics = new HashMap<>();
@@ -0,0 +1,513 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.heron.packing.binpacking;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.logging.Logger;
+
+import org.apache.heron.api.generated.TopologyAPI;
+import org.apache.heron.api.utils.TopologyUtils;
+import org.apache.heron.common.basics.ByteAmount;
+import org.apache.heron.packing.ResourceExceededException;
+import org.apache.heron.packing.builder.Container;
+import org.apache.heron.packing.builder.ContainerIdScorer;
+import org.apache.heron.packing.builder.HomogeneityScorer;
+import org.apache.heron.packing.builder.InstanceCountScorer;
+import org.apache.heron.packing.builder.PackingPlanBuilder;
+import org.apache.heron.packing.builder.Scorer;
+import org.apache.heron.packing.builder.TrafficScorer;
+import org.apache.heron.packing.utils.PackingUtils;
+import org.apache.heron.spi.common.Config;
+import org.apache.heron.spi.common.Context;
+import org.apache.heron.spi.packing.IPacking;
+import org.apache.heron.spi.packing.IRepacking;
+import org.apache.heron.spi.packing.PackingException;
+import org.apache.heron.spi.packing.PackingPlan;
+import org.apache.heron.spi.packing.Resource;
+
+import static org.apache.heron.api.Config.TOPOLOGY_CONTAINER_MAX_CPU_HINT;
+import static org.apache.heron.api.Config.TOPOLOGY_CONTAINER_MAX_DISK_HINT;
+import static org.apache.heron.api.Config.TOPOLOGY_CONTAINER_MAX_RAM_HINT;
+import static org.apache.heron.api.Config.TOPOLOGY_CONTAINER_PADDING_PERCENTAGE;
+
+/**
+ * Traffic aware packing algorithm
+ * <p>
+ * This IPacking implementation packs the instances in as few containers as it can, like
+ * FirstFitDecreasingPacking, but it also places the instances exchanging the most tuples in
+ * the same containers, since every tuple sent to another container goes through two stream
+ * managers.
+ * <p>
+ * Following semantics are guaranteed:
+ * 1. The containers are sized like FirstFitDecreasingPacking does, from the
+ * org.apache.heron.api.Config.TOPOLOGY_CONTAINER_MAX_CPU_HINT,
+ * org.apache.heron.api.Config.TOPOLOGY_CONTAINER_MAX_RAM_HINT,
+ * org.apache.heron.api.Config.TOPOLOGY_CONTAINER_MAX_DISK_HINT and
+ * org.apache.heron.api.Config.TOPOLOGY_CONTAINER_PADDING_PERCENTAGE parameters.
+ * <p>
+ * 2. The CPU, RAM and disk required for one instance are the values of its component in
+ * org.apache.heron.api.Config.TOPOLOGY_COMPONENT_CPUMAP, TOPOLOGY_COMPONENT_RAMMAP and
+ * TOPOLOGY_COMPONENT_DISKMAP if they exist, otherwise the default values for one instance.
+ * No container exceeds its maximum CPU, RAM or disk.
+ * <p>
+ * 3. The traffic between the instances is estimated from the streams of the topology. A stream
+ * carries the emit rate of its source component, the value in
+ * org.apache.heron.api.Config.TOPOLOGY_COMPONENT_EMIT_RATEMAP if it exists (e.g. the rate
+ * observed in the metrics cache), otherwise 1. It is spread evenly over the instances of the
+ * source and the target components, except with all grouping where every target instance
+ * receives all the tuples.
+ * <p>
+ * 4. The containers are filled one at a time. An empty container gets the instance requiring
+ * the most resources relative to the container size. The instance added next is the one with
+ * the most traffic to the instances in the container, or with equal traffic, the one whose
+ * resources are the most aligned with the resources left in the container (i.e. the highest dot
+ * product of the two), until no more instance fits.
+ * <p>
+ * 5. When scaling up, an instance is added to the container with the most traffic to it where
+ * it fits, otherwise to a new container. When scaling down, instances are removed from the
+ * containers of a single component first, then from the containers with the least traffic to
+ * them.
+ */
+public class TrafficAwarePacking implements IPacking, IRepacking {
+
+  private static final int DEFAULT_CONTAINER_PADDING_PERCENTAGE = 10;
+  private static final int DEFAULT_NUMBER_INSTANCES_PER_CONTAINER = 4;
+  // Emit rate of the components without one in the emit rate map
+  private static final double DEFAULT_EMIT_RATE = 1;
+
+  private static final Logger LOG = Logger.getLogger(TrafficAwarePacking.class.getName());
+
+  private TopologyAPI.Topology topology;
+  private Resource defaultInstanceResources;
+  private Resource maxContainerResources;
+  private int paddingPercentage;
+  private Map<String, Double> componentCpuMap;
+  private Map<String, ByteAmount> componentRamMap;
+  private Map<String, ByteAmount> componentDiskMap;
+
+  private int numContainers = 0;
+
+  @Override
+  public void initialize(Config config, TopologyAPI.Topology inputTopology) {
+    this.topology = inputTopology;
+    setPackingConfigs(config);
+    LOG.info(String.format("Initalizing TrafficAwarePacking. "
+        + "CPU default: %f, RAM default: %s, DISK default: %s, Paddng percentage: %d, "
+        + "CPU max: %f, RAM max: %s, DISK max: %s.",
+        this.defaultInstanceResources.getCpu(),
+        this.defaultInstanceResources.getRam().toString(),
+        this.defaultInstanceResources.getDisk().toString(),
+        this.paddingPercentage,
+        this.maxContainerResources.getCpu(),
+        this.maxContainerResources.getRam().toString(),
+        this.maxContainerResources.getDisk().toString()));
+  }
+
+  /**
+   * Instatiate the packing algorithm parameters related to this topology.
+   */
+  private void setPackingConfigs(Config config) {
+    List<TopologyAPI.Config.KeyValue> topologyConfig = topology.getTopologyConfig().getKvsList();
+
+    this.defaultInstanceResources = new Resource(
+        Context.instanceCpu(config),
+        Context.instanceRam(config),
+        Context.instanceDisk(config));
+
+    this.paddingPercentage = TopologyUtils.getConfigWithDefault(topologyConfig,
+        TOPOLOGY_CONTAINER_PADDING_PERCENTAGE, DEFAULT_CONTAINER_PADDING_PERCENTAGE);
+
+    double defaultCpu = this.defaultInstanceResources.getCpu()
+        * DEFAULT_NUMBER_INSTANCES_PER_CONTAINER;
+    ByteAmount defaultRam = this.defaultInstanceResources.getRam()
+        .multiply(DEFAULT_NUMBER_INSTANCES_PER_CONTAINER);
+    ByteAmount defaultDisk = this.defaultInstanceResources.getDisk()
+        .multiply(DEFAULT_NUMBER_INSTANCES_PER_CONTAINER);
+
+    this.maxContainerResources = new Resource(
+        TopologyUtils.getConfigWithDefault(topologyConfig, TOPOLOGY_CONTAINER_MAX_CPU_HINT,
+            (double) Math.round(PackingUtils.increaseBy(defaultCpu, paddingPercentage))),
+        TopologyUtils.getConfigWithDefault(topologyConfig, TOPOLOGY_CONTAINER_MAX_RAM_HINT,
+            defaultRam.increaseBy(paddingPercentage)),
+        TopologyUtils.getConfigWithDefault(topologyConfig, TOPOLOGY_CONTAINER_MAX_DISK_HINT,
+            defaultDisk.increaseBy(paddingPercentage)));
+
+    this.componentCpuMap = TopologyUtils.getComponentCpuMapConfig(topology);
+    this.componentRamMap = TopologyUtils.getComponentRamMapConfig(topology);
+    this.componentDiskMap = TopologyUtils.getComponentDiskMapConfig(topology);
+  }
+
+  private PackingPlanBuilder newPackingPlanBuilder(PackingPlan existingPackingPlan) {
+    return new PackingPlanBuilder(topology.getId(), existingPackingPlan)
+        .setMaxContainerResource(maxContainerResources)
+        .setDefaultInstanceResource(defaultInstanceResources)
+        .setRequestedContainerPadding(paddingPercentage)
+        .setRequestedComponentCpu(componentCpuMap)
+        .setRequestedComponentRam(componentRamMap)
+        .setRequestedComponentDisk(componentDiskMap);
+  }
+
+  /**
+   * Get a packing plan co-locating the instances exchanging the most tuples
+   *
+   * @return packing plan
+   */
+  @Override
+  public PackingPlan pack() {
+    PackingPlanBuilder planBuilder = newPackingPlanBuilder(null);
+    Map<String, Integer> parallelismMap = TopologyUtils.getComponentParallelism(topology);
+
+    try {
+      fillContainers(planBuilder, parallelismMap, getTraffic(parallelismMap));
+    } catch (ResourceExceededException e) {
+      throw new PackingException("Could not allocate all instances to packing plan", e);
+    }
+
+    return planBuilder.build();
+  }
+
+  /**
+   * Get a new packing plan given an existing packing plan and component-level changes.
+   * @return new packing plan
+   */
+  @Override
+  public PackingPlan repack(PackingPlan currentPackingPlan, Map<String, Integer> componentChanges) {
+    PackingPlanBuilder planBuilder = newPackingPlanBuilder(currentPackingPlan);
+    this.numContainers = currentPackingPlan.getContainers().size();
+
+    // The traffic is estimated with the new parallelism of the components
+    Map<String, Integer> parallelismMap =
+        new HashMap<>(TopologyUtils.getComponentParallelism(topology));
+    for (Map.Entry<String, Integer> change : componentChanges.entrySet()) {
+      parallelismMap.merge(change.getKey(), change.getValue(), Integer::sum);
+    }
+    Map<String, Map<String, Double>> traffic = getTraffic(parallelismMap);
+
+    Map<String, Integer> componentsToScaleDown =
+        PackingUtils.getComponentsToScale(componentChanges, PackingUtils.ScalingDirection.DOWN);
+    Map<String, Integer> componentsToScaleUp =
+        PackingUtils.getComponentsToScale(componentChanges, PackingUtils.ScalingDirection.UP);
+
+    try {
+      if (!componentsToScaleDown.isEmpty()) {
+        removeInstancesFromContainers(planBuilder, componentsToScaleDown, traffic);
+      }
+
+      if (!componentsToScaleUp.isEmpty()) {
+        assignInstancesToContainers(planBuilder, componentsToScaleUp, traffic);
+      }
+    } catch (ResourceExceededException e) {
+      throw new PackingException("Could not repack instances into existing packing plan", e);
+    }
+
+    return planBuilder.build();
+  }
+
+  @Override
+  public void close() {
+
+  }
+
+  /**
+   * Estimate the traffic between an instance of each component and an instance of each other
+   * component, from the streams of the topology and the emit rates of their sources. The traffic
+   * is normalized so that the heaviest is 1.
+   *
+   * @return Map &lt; componentName, Map &lt; componentName, traffic &gt; &gt;
+   */
+  private Map<String, Map<String, Double>> getTraffic(Map<String, Integer> parallelismMap) {
+    Map<String, Double> emitRateMap = TopologyUtils.getComponentEmitRateMapConfig(topology);
+    Map<String, Map<String, Double>> traffic = new HashMap<>();
+
+    for (TopologyAPI.Bolt bolt : topology.getBoltsList()) {
+      String target = bolt.getComp().getName();
+      int targetParallelism = parallelismMap.getOrDefault(target, 0);
+      for (TopologyAPI.InputStream inputStream : bolt.getInputsList()) {
+        String source = inputStream.getStream().getComponentName();
+        int sourceParallelism = parallelismMap.getOrDefault(source, 0);
+        if (sourceParallelism <= 0 || targetParallelism <= 0) {
+          continue;
+        }
+
+        // The tuples of a source instance are spread over the target instances,
+        // unless each of them receives all the tuples
+        double instanceTraffic =
+            emitRateMap.getOrDefault(source, DEFAULT_EMIT_RATE) / sourceParallelism;
+        if (inputStream.getGtype() != TopologyAPI.Grouping.ALL) {
+          instanceTraffic /= targetParallelism;
+        }
+
+        traffic.computeIfAbsent(source, k -> new HashMap<>())
+            .merge(target, instanceTraffic, Double::sum);
+        if (!source.equals(target)) {
+          traffic.computeIfAbsent(target, k -> new HashMap<>())
+              .merge(source, instanceTraffic, Double::sum);
+        }
+      }
+    }
+
+    double maxTraffic = 0;
+    for (Map<String, Double> componentTraffic : traffic.values()) {
+      for (double instanceTraffic : componentTraffic.values()) {
+        maxTraffic = Math.max(maxTraffic, instanceTraffic);
+      }
+    }
+    if (maxTraffic > 0) {
+      for (Map<String, Double> componentTraffic : traffic.values()) {
+        for (Map.Entry<String, Double> entry : componentTraffic.entrySet()) {
+          entry.setValue(entry.getValue() / maxTraffic);
+        }
+      }
+    }
+    return traffic;
+  }
+
+  /**
+   * Place the instances in new containers, filling the containers one at a time
+   *
+   * @param planBuilder packing plan to add the containers to
+   * @param parallelismMap component parallelism
+   * @param traffic the traffic between the instances of each pair of components
+   */
+  private void fillContainers(PackingPlanBuilder planBuilder,
+                              Map<String, Integer> parallelismMap,
+                              Map<String, Map<String, Double>> traffic)
+      throws ResourceExceededException {
+    // Sorted by name, so that the plan only depends on the topology
+    Map<String, Integer> remainingInstances = new TreeMap<>();
+    Map<String, double[]> requirements = new HashMap<>();
+    for (Map.Entry<String, Integer> entry : parallelismMap.entrySet()) {
+      if (entry.getValue() > 0) {
+        remainingInstances.put(entry.getKey(), entry.getValue());
+        requirements.put(entry.getKey(), getRequirement(entry.getKey()));
+      }
+    }
+
+    while (!remainingInstances.isEmpty()) {
+      int containerId = ++numContainers;
+      planBuilder.updateNumContainers(numContainers);
+
+      // The instances of each component in the container, and the resources they use
+      Map<String, Integer> containerInstances = new HashMap<>();
+      double[] usedResources = new double[3];
+
+      String added;
+      do {
+        added = null;
+        List<String> candidates = getCandidates(remainingInstances.keySet(), requirements,
+            traffic, containerInstances, usedResources, parallelismMap);
+        for (String componentName : candidates) {
+          try {
+            planBuilder.addInstance(containerId, componentName);
+          } catch (ResourceExceededException e) {
+            // try the next candidate
+            continue;
+          }
+          added = componentName;
+          break;
+        }
+
+        if (added != null) {
+          containerInstances.merge(added, 1, Integer::sum);
+          double[] requirement = requirements.get(added);
+          for (int i = 0; i < usedResources.length; i++) {
+            usedResources[i] += requirement[i];
+          }
+          if (remainingInstances.merge(added, -1, Integer::sum) == 0) {
+            remainingInstances.remove(added);
+          }
+        }
+      } while (added != null && !remainingInstances.isEmpty());
+
+      if (containerInstances.isEmpty()) {
+        throw new ResourceExceededException(String.format(
+            "Insufficient resources to add an instance of any of %s to an empty container.",
+            remainingInstances.keySet()));
+      }
+    }
+  }
+
+  /**
+   * Sort the components with instances left to place in the order they should be tried in a
+   * container: the most traffic to the instances in the container first, then the best
+   * alignment with the resources left in the container, then the most traffic overall.
+   */
+  private List<String> getCandidates(Iterable<String> componentNames,
+                                     Map<String, double[]> requirements,
+                                     Map<String, Map<String, Double>> traffic,
+                                     Map<String, Integer> containerInstances,
+                                     double[] usedResources,
+                                     Map<String, Integer> parallelismMap) {
+    double[] freeResources = new double[usedResources.length];
+    for (int i = 0; i < usedResources.length; i++) {
+      freeResources[i] = Math.max(0, 1 - PackingUtils.increaseBy(usedResources[i],
+          paddingPercentage));
+    }
+
+    Map<String, Double> containerTraffic = new HashMap<>();
+    Map<String, Double> alignment = new HashMap<>();
+    Map<String, Double> totalTraffic = new HashMap<>();
+    List<String> candidates = new ArrayList<>();
+    for (String componentName : componentNames) {
+      Map<String, Double> componentTraffic =
+          traffic.getOrDefault(componentName, Collections.emptyMap());
+      containerTraffic.put(componentName,
+          sumTraffic(componentTraffic, containerInstances));
+      alignment.put(componentName,
+          dotProduct(requirements.get(componentName), freeResources));
+      totalTraffic.put(componentName, sumTraffic(componentTraffic, parallelismMap));
+      candidates.add(componentName);
+    }
+
+    Comparator<String> byContainerTraffic = Comparator.comparing(containerTraffic::get);
+    Comparator<String> byAlignment = Comparator.comparing(alignment::get);
+    Comparator<String> byTotalTraffic = Comparator.comparing(totalTraffic::get);
+    candidates.sort(byContainerTraffic.reversed()
+        .thenComparing(byAlignment.reversed())
+        .thenComparing(byTotalTraffic.reversed()));
+    return candidates;
+  }
+
+  /**
+   * Assigns instances to containers, where they have the most traffic
+   *
+   * @param planBuilder existing packing plan
+   * @param componentsToScaleUp scale up factor for the components
+   * @param traffic the traffic between the instances of each pair of components
+   */
+  private void assignInstancesToContainers(PackingPlanBuilder planBuilder,
+                                           Map<String, Integer> componentsToScaleUp,
+                                           Map<String, Map<String, Double>> traffic)
+      throws ResourceExceededException {
+    for (String componentName : sortByRequirement(componentsToScaleUp.keySet())) {
+      List<Scorer<Container>> scorers = new ArrayList<>();
+      scorers.add(new TrafficScorer(
+          traffic.getOrDefault(componentName, Collections.emptyMap())));
+      scorers.add(new ContainerIdScorer());
+
+      for (int j = 0; j < componentsToScaleUp.get(componentName); j++) {
+        placeInstance(planBuilder, scorers, componentName);
+      }
+    }
+  }
+
+  /**
+   * Removes instances from containers during scaling down
+   *
+   * @param planBuilder existing packing plan
+   * @param componentsToScaleDown scale down factor for the components
+   * @param traffic the traffic between the instances of each pair of components
+   */
+  private void removeInstancesFromContainers(PackingPlanBuilder planBuilder,
+                                             Map<String, Integer> componentsToScaleDown,
+                                             Map<String, Map<String, Double>> traffic) {
+    InstanceCountScorer instanceCountScorer = new InstanceCountScorer();
+    ContainerIdScorer containerIdScorer = new ContainerIdScorer(false);
+
+    for (String componentName : sortByRequirement(componentsToScaleDown.keySet())) {
+      int numInstancesToRemove = -componentsToScaleDown.get(componentName);
+      List<Scorer<Container>> scorers = new ArrayList<>();
+
+      scorers.add(new HomogeneityScorer(componentName, true));  // all-same-component containers
+      scorers.add(new TrafficScorer(                            // then least traffic
+          traffic.getOrDefault(componentName, Collections.emptyMap()), true));
+      scorers.add(instanceCountScorer);                         // then fewest instances
+      scorers.add(new HomogeneityScorer(componentName, false)); // then most homogeneous
+      scorers.add(containerIdScorer);                           // then highest container id
+
+      for (int j = 0; j < numInstancesToRemove; j++) {
+        planBuilder.removeInstance(scorers, componentName);
+      }
+    }
+  }
+
+  /**
+   * Assign an instance to the first existing container ranked by the scorers where it fits,
+   * or to a new container
+   */
+  private void placeInstance(PackingPlanBuilder planBuilder, List<Scorer<Container>> scorers,
+                             String componentName) throws ResourceExceededException {
+    if (this.numContainers == 0) {
+      planBuilder.updateNumContainers(++numContainers);
+    }
+
+    try {
+      planBuilder.addInstance(scorers, componentName);
+    } catch (ResourceExceededException e) {
+      planBuilder.updateNumContainers(++numContainers);
+      planBuilder.addInstance(numContainers, componentName);
+    }
+  }
+
+  /**
+   * Sort the components in decreasing order of the resources required by their instances,
+   * relative to the container size
+   */
+  private List<String> sortByRequirement(Iterable<String> componentNames) {
+    Map<String, Double> sizes = new TreeMap<>();
+    for (String componentName : componentNames) {
+      double size = 0;
+      for (double resource : getRequirement(componentName)) {
+        size += resource;
+      }
+      sizes.put(componentName, size);
+    }
+    List<String> sorted = new ArrayList<>(sizes.keySet());
+    sorted.sort(Comparator.comparing(sizes::get, Comparator.reverseOrder()));
+    return sorted;
+  }
+
+  /**
+   * The CPU, RAM and disk required by an instance of a component, relative to the container size
+   */
+  private double[] getRequirement(String componentName) {
+    Resource resource = PackingUtils.getResourceRequirement(componentName,
+        componentCpuMap, componentRamMap, componentDiskMap,
+        defaultInstanceResources, maxContainerResources, paddingPercentage);
+    return new double[] {
+        resource.getCpu() / maxContainerResources.getCpu(),
+        (double) resource.getRam().asBytes() / maxContainerResources.getRam().asBytes(),
+        (double) resource.getDisk().asBytes() / maxContainerResources.getDisk().asBytes()
+    };
+  }
+
+  private static double sumTraffic(Map<String, Double> componentTraffic,
+                                   Map<String, Integer> instances) {
+    double sum = 0;
+    for (Map.Entry<String, Double> entry : componentTraffic.entrySet()) {
+      sum += entry.getValue() * instances.getOrDefault(entry.getKey(), 0);
+    }
+    return sum;
+  }
+
+  private static double dotProduct(double[] a, double[] b) {
+    double product = 0;
+    for (int i = 0; i < a.length; i++) {
+      product += a[i] * b[i];
+    }
+    return product;
+  }
+}
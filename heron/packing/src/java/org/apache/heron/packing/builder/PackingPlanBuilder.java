@@ -55,7 +55,9 @@ public class PackingPlanBuilder {
   private final PackingPlan existingPacking;
   private Resource defaultInstanceResource;
   private Resource maxContainerResource;
+  private Map<String, Double> componentCpuMap;
   private Map<String, ByteAmount> componentRamMap;
+  private Map<String, ByteAmount> componentDiskMap;
   private int requestedContainerPadding;
   private int numContainers;
 
@@ -72,7 +74,9 @@ public class PackingPlanBuilder {
     this.existingPacking = existingPacking;
     this.numContainers = 0;
     this.requestedContainerPadding = 0;
+    this.componentCpuMap = new HashMap<>();
     this.componentRamMap = new HashMap<>();
+    this.componentDiskMap = new HashMap<>();
   }
 
   // set resource settings
@@ -86,11 +90,21 @@ public class PackingPlanBuilder {
     return this;
   }
 
+  public PackingPlanBuilder setRequestedComponentCpu(Map<String, Double> cpuMap) {
+    this.componentCpuMap = cpuMap;
+    return this;
+  }
+
   public PackingPlanBuilder setRequestedComponentRam(Map<String, ByteAmount> ramMap) {
     this.componentRamMap = ramMap;
     return this;
   }
 
+  public PackingPlanBuilder setRequestedComponentDisk(Map<String, ByteAmount> diskMap) {
+    this.componentDiskMap = diskMap;
+    return this;
+  }
+
   public PackingPlanBuilder setRequestedContainerPadding(int percent) {
     this.requestedContainerPadding = percent;
     return this;
@@ -116,9 +130,9 @@ public class PackingPlanBuilder {
 
     InstanceId instanceId = new InstanceId(componentName, taskId, componentIndex);
 
-    Resource instanceResource = PackingUtils.getResourceRequirement(
-        componentName, this.componentRamMap, this.defaultInstanceResource,
-        this.maxContainerResource, this.requestedContainerPadding);
+    Resource instanceResource = PackingUtils.getResourceRequirement(componentName,
+        this.componentCpuMap, this.componentRamMap, this.componentDiskMap,
+        this.defaultInstanceResource, this.maxContainerResource, this.requestedContainerPadding);
 
     try {
       addToContainer(containers.get(containerId),
@@ -154,7 +168,7 @@ public class PackingPlanBuilder {
    * @return containerId of the container the instance was added to
    * @throws org.apache.heron.packing.ResourceExceededException if the instance could not be added
    */
-  private int addInstance(List<Scorer<Container>> scorers, String componentName)
+  public int addInstance(List<Scorer<Container>> scorers, String componentName)
       throws ResourceExceededException {
     initContainers();
     for (Container container : sortContainers(scorers, this.containers.values())) {
@@ -229,7 +243,7 @@ public class PackingPlanBuilder {
   public PackingPlan build() {
     assertResourceSettings();
     Set<PackingPlan.ContainerPlan> containerPlans = buildContainerPlans(
-        this.containers, this.componentRamMap,
+        this.containers, this.componentCpuMap, this.componentRamMap, this.componentDiskMap,
         this.defaultInstanceResource, this.requestedContainerPadding);
 
     return new PackingPlan(topologyId, containerPlans);
@@ -309,14 +323,16 @@ public class PackingPlanBuilder {
   }
 
   /**
-   * Estimate the per instance and topology resources for the packing plan based on the ramMap,
-   * instance defaults and paddingPercentage.
+   * Estimate the per instance and topology resources for the packing plan based on the cpuMap,
+   * ramMap, diskMap, instance defaults and paddingPercentage.
    *
    * @return container plans
    */
   private static Set<PackingPlan.ContainerPlan> buildContainerPlans(
       Map<Integer, Container> containerInstances,
+      Map<String, Double> cpuMap,
       Map<String, ByteAmount> ramMap,
+      Map<String, ByteAmount> diskMap,
       Resource instanceDefaults,
       int paddingPercentage) {
     Set<PackingPlan.ContainerPlan> containerPlans = new LinkedHashSet<>();
@@ -345,12 +361,12 @@ public class PackingPlanBuilder {
         }
         containerRam = containerRam.plus(instanceRam);
 
-        // Currently not yet support disk or CPU config for different components,
-        // so just use the default value.
-        ByteAmount instanceDisk = instanceDefaults.getDisk();
+        ByteAmount instanceDisk =
+            diskMap.getOrDefault(instanceId.getComponentName(), instanceDefaults.getDisk());
         containerDiskInBytes = containerDiskInBytes.plus(instanceDisk);
 
-        double instanceCpu = instanceDefaults.getCpu();
+        double instanceCpu =
+            cpuMap.getOrDefault(instanceId.getComponentName(), instanceDefaults.getCpu());
         containerCpu += instanceCpu;
 
         // Insert it into the map
@@ -0,0 +1,61 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.heron.packing.builder;
+
+import java.util.Map;
+
+import org.apache.heron.spi.packing.PackingPlan;
+
+/**
+ * Scores a container by the traffic between an instance of a component and the instances
+ * already in the container, i.e. the traffic the container would keep local if the instance
+ * was placed in it. Sorts from the most traffic to the least by default.
+ */
+public class TrafficScorer implements Scorer<Container> {
+  private final Map<String, Double> componentTraffic;
+  private final boolean sortAscending;
+
+  /**
+   * @param componentTraffic the traffic between an instance of the component to score for and
+   * an instance of each other component, components without traffic can be left out
+   */
+  public TrafficScorer(Map<String, Double> componentTraffic) {
+    this(componentTraffic, false);
+  }
+
+  public TrafficScorer(Map<String, Double> componentTraffic, boolean sortAscending) {
+    this.componentTraffic = componentTraffic;
+    this.sortAscending = sortAscending;
+  }
+
+  @Override
+  public boolean sortAscending() {
+    return sortAscending;
+  }
+
+  @Override
+  public double getScore(Container container) {
+    double traffic = 0;
+    for (PackingPlan.InstancePlan instancePlan : container.getInstances()) {
+      traffic += componentTraffic.getOrDefault(instancePlan.getComponentName(), 0.0);
+    }
+    return traffic;
+  }
+}
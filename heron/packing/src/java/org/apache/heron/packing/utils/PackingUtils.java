@@ -87,13 +87,28 @@ public final class PackingUtils {
                                                 Resource defaultInstanceResource,
                                                 Resource maxContainerResource,
                                                 int paddingPercentage) {
-    ByteAmount instanceRam = defaultInstanceResource.getRam();
-    if (componentRamMap.containsKey(component)) {
-      instanceRam = componentRamMap.get(component);
-    }
-    assertIsValidInstance(defaultInstanceResource.cloneWithRam(instanceRam),
+    return getResourceRequirement(component, new HashMap<>(), componentRamMap, new HashMap<>(),
+        defaultInstanceResource, maxContainerResource, paddingPercentage);
+  }
+
+  /**
+   * The resources required by an instance of a component, where the component CPU, RAM and disk
+   * maps override the default instance resources.
+   */
+  public static Resource getResourceRequirement(String component,
+                                                Map<String, Double> componentCpuMap,
+                                                Map<String, ByteAmount> componentRamMap,
+                                                Map<String, ByteAmount> componentDiskMap,
+                                                Resource defaultInstanceResource,
+                                                Resource maxContainerResource,
+                                                int paddingPercentage) {
+    Resource instanceResource = new Resource(
+        componentCpuMap.getOrDefault(component, defaultInstanceResource.getCpu()),
+        componentRamMap.getOrDefault(component, defaultInstanceResource.getRam()),
+        componentDiskMap.getOrDefault(component, defaultInstanceResource.getDisk()));
+    assertIsValidInstance(instanceResource,
         MIN_RAM_PER_INSTANCE, maxContainerResource, paddingPercentage);
-    return defaultInstanceResource.cloneWithRam(instanceRam);
+    return instanceResource;
   }
 
   public static long increaseBy(long value, int paddingPercentage) {
@@ -0,0 +1,196 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.heron.packing.binpacking;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import org.apache.heron.api.generated.TopologyAPI;
+import org.apache.heron.common.basics.ByteAmount;
+import org.apache.heron.common.basics.Pair;
+import org.apache.heron.common.utils.topology.TopologyTests;
+import org.apache.heron.packing.AssertPacking;
+import org.apache.heron.packing.CommonPackingTests;
+import org.apache.heron.packing.PackingTestHelper;
+import org.apache.heron.spi.packing.IPacking;
+import org.apache.heron.spi.packing.IRepacking;
+import org.apache.heron.spi.packing.PackingException;
+import org.apache.heron.spi.packing.PackingPlan;
+import org.apache.heron.spi.utils.PackingTestUtils;
+
+public class TrafficAwarePackingTest extends CommonPackingTests {
+
+  @Override
+  protected IPacking getPackingImpl() {
+    return new TrafficAwarePacking();
+  }
+
+  @Override
+  protected IRepacking getRepackingImpl() {
+    return new TrafficAwarePacking();
+  }
+
+  @Test (expected = PackingException.class)
+  public void testFailureInsufficientContainerRamHint() throws Exception {
+    topologyConfig.setContainerMaxRamHint(ByteAmount.ZERO);
+    pack(getTopology(spoutParallelism, boltParallelism, topologyConfig));
+  }
+
+  /**
+   * Test the scenario where the max container size is the default
+   */
+  @Test
+  public void testDefaultContainerSize() throws Exception {
+    int defaultNumInstancesperContainer = 4;
+    PackingPlan packingPlan = pack(topology);
+
+    Assert.assertEquals(2, packingPlan.getContainers().size());
+    Assert.assertEquals(totalInstances, packingPlan.getInstanceCount());
+    ByteAmount defaultRam = instanceDefaultResources.getRam()
+        .multiply(defaultNumInstancesperContainer).increaseBy(DEFAULT_CONTAINER_PADDING);
+
+    AssertPacking.assertContainerRam(packingPlan.getContainers(), defaultRam);
+    AssertPacking.assertNumInstances(packingPlan.getContainers(), BOLT_NAME, 3);
+    AssertPacking.assertNumInstances(packingPlan.getContainers(), SPOUT_NAME, 4);
+  }
+
+  /**
+   * Test the scenario where the component CPU map is set, the containers are then
+   * limited by their CPU rather than by their RAM
+   */
+  @Test
+  public void testComponentCpuMap() throws Exception {
+    double boltCpu = 2;
+    topologyConfig.setComponentCpu(BOLT_NAME, boltCpu);
+
+    TopologyAPI.Topology topologyExplicitCpuMap =
+        getTopology(spoutParallelism, boltParallelism, topologyConfig);
+    PackingPlan packingPlan = pack(topologyExplicitCpuMap);
+
+    Assert.assertEquals(3, packingPlan.getContainers().size());
+    Assert.assertEquals(totalInstances, packingPlan.getInstanceCount());
+    AssertPacking.assertNumInstances(packingPlan.getContainers(), BOLT_NAME, 3);
+    AssertPacking.assertNumInstances(packingPlan.getContainers(), SPOUT_NAME, 4);
+
+    double maxContainerCpu = packingPlan.getMaxContainerResources().getCpu();
+    for (PackingPlan.ContainerPlan containerPlan : packingPlan.getContainers()) {
+      Assert.assertTrue(containerPlan.getRequiredResource().getCpu() <= maxContainerCpu);
+      for (PackingPlan.InstancePlan instancePlan : containerPlan.getInstances()) {
+        double expectedCpu = instancePlan.getComponentName().equals(BOLT_NAME)
+            ? boltCpu : instanceDefaultResources.getCpu();
+        Assert.assertEquals(expectedCpu, instancePlan.getResource().getCpu(), 0.001);
+      }
+    }
+  }
+
+  /**
+   * Test the scenario where the instances of a chain of components fit two by two in the
+   * containers. The instances exchanging the most tuples are placed in the same containers.
+   */
+  @Test
+  public void testCoLocateCommunicatingInstances() throws Exception {
+    Map<String, Integer> spouts = new HashMap<>();
+    spouts.put(SPOUT_NAME, 2);
+    Map<String, Integer> bolts = new HashMap<>();
+    bolts.put("a", 2);
+    bolts.put("b", 2);
+    Map<String, String> connections = new HashMap<>();
+    connections.put("a", SPOUT_NAME);
+    connections.put("b", "a");
+
+    topologyConfig.setContainerMaxRamHint(
+        instanceDefaultResources.getRam().multiply(2).increaseBy(DEFAULT_CONTAINER_PADDING));
+    topologyConfig.setComponentEmitRate(SPOUT_NAME, 1000);
+    topologyConfig.setComponentEmitRate("a", 1);
+
+    TopologyAPI.Topology chainTopology = TopologyTests.createTopologyWithConnection(
+        "testTopology", topologyConfig, spouts, bolts, connections);
+    PackingPlan packingPlan = pack(chainTopology);
+
+    Assert.assertEquals(3, packingPlan.getContainers().size());
+    Assert.assertEquals(6, (int) packingPlan.getInstanceCount());
+    for (PackingPlan.ContainerPlan containerPlan : packingPlan.getContainers()) {
+      int spoutInstances = 0;
+      int boltInstances = 0;
+      for (PackingPlan.InstancePlan instancePlan : containerPlan.getInstances()) {
+        if (instancePlan.getComponentName().equals(SPOUT_NAME)) {
+          spoutInstances++;
+        } else if (instancePlan.getComponentName().equals("a")) {
+          boltInstances++;
+        }
+      }
+      Assert.assertEquals(spoutInstances, boltInstances);
+    }
+  }
+
+  /**
+   * Test the scenario where scaling up adds an instance to the container of the instances it
+   * exchanges tuples with, rather than to the first container with enough room
+   */
+  @Test
+  public void testScaleUpNextToCommunicatingInstances() throws Exception {
+    Map<String, Integer> spouts = new HashMap<>();
+    spouts.put(SPOUT_NAME, 1);
+    Map<String, Integer> bolts = new HashMap<>();
+    bolts.put("a", 1);
+    bolts.put("b", 3);
+    Map<String, String> connections = new HashMap<>();
+    connections.put("a", SPOUT_NAME);
+
+    // The new instance has to fit in the containers of the test packing plan
+    topologyConfig.setComponentRam("a", ByteAmount.fromMegabytes(192));
+    topologyConfig.setComponentDisk("a", ByteAmount.fromMegabytes(1));
+    TopologyAPI.Topology topologyToScale = TopologyTests.createTopologyWithConnection(
+        "testTopology", topologyConfig, spouts, bolts, connections);
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    Pair<Integer, String>[] initialComponentInstances = new Pair[] {
+        new Pair<>(1, "b"),
+        new Pair<>(1, "b"),
+        new Pair<>(1, "b"),
+        new Pair<>(2, SPOUT_NAME),
+        new Pair<>(2, "a")
+    };
+    PackingPlan initialPackingPlan = PackingTestHelper.createTestPackingPlan(
+        topologyToScale.getId(), initialComponentInstances, DEFAULT_CONTAINER_PADDING);
+
+    // Both containers have room for one more instance once a "b" instance is removed
+    Map<String, Integer> componentChanges = new HashMap<>();
+    componentChanges.put("b", -1);
+    componentChanges.put("a", 1);
+    IRepacking repacking = getRepackingImpl();
+    repacking.initialize(PackingTestUtils.newTestConfig(topologyToScale), topologyToScale);
+    PackingPlan newPackingPlan = repacking.repack(initialPackingPlan, componentChanges);
+
+    Assert.assertEquals(2, newPackingPlan.getContainers().size());
+    for (PackingPlan.ContainerPlan containerPlan : newPackingPlan.getContainers()) {
+      int boltInstances = 0;
+      for (PackingPlan.InstancePlan instancePlan : containerPlan.getInstances()) {
+        if (instancePlan.getComponentName().equals("a")) {
+          boltInstances++;
+        }
+      }
+      Assert.assertEquals(containerPlan.getId() == 2 ? 2 : 0, boltInstances);
+    }
+  }
+}
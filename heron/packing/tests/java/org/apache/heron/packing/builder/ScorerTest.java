@@ -19,6 +19,9 @@
 
 package org.apache.heron.packing.builder;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import org.junit.Before;
 import org.junit.Test;
 
@@ -86,6 +89,19 @@ public class ScorerTest {
     assertScores(new double[] {4, 3, 2}, true, new InstanceCountScorer(), testContainers);
   }
 
+  @Test
+  public void testTrafficScorer() {
+    Map<String, Double> componentTraffic = new HashMap<>();
+    componentTraffic.put("A", 1.0);
+    componentTraffic.put("B", 0.5);
+    assertScores(new double[] {3, 2, 2}, false, new TrafficScorer(componentTraffic),
+        testContainers);
+    assertScores(new double[] {3, 2, 2}, true, new TrafficScorer(componentTraffic, true),
+        testContainers);
+    assertScores(new double[] {0, 0, 0}, false, new TrafficScorer(new HashMap<>()),
+        testContainers);
+  }
+
   private static void addInstance(Container container,
                                   String componentName,
                                   int taskId) throws ResourceExceededException {
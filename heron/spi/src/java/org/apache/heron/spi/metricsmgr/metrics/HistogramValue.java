@@ -0,0 +1,155 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.apache.heron.spi.metricsmgr.metrics;
+
+import java.util.Arrays;
+
+/**
+ * An immutable histogram of the values of a metric, as its non-empty buckets in increasing
+ * order. Each bucket is its inclusive upper bound and the # of values in it, so the quantiles
+ * are estimated as the upper bound of the bucket they fall in. Histograms of the same metric
+ * use the same bucket bounds, and could be merged by adding up their counts.
+ */
+public class HistogramValue {
+  private final double[] bucketBounds;
+  private final long[] bucketCounts;
+  private final long count;
+  private final double sum;
+  private final double min;
+  private final double max;
+
+  /**
+   * @param bucketBounds the inclusive upper bounds of the non-empty buckets, increasing
+   * @param bucketCounts the # of values in each of these buckets
+   * @param sum the sum of the values
+   * @param min the smallest value
+   * @param max the largest value
+   */
+  public HistogramValue(double[] bucketBounds, long[] bucketCounts,
+                        double sum, double min, double max) {
+    if (bucketBounds.length != bucketCounts.length) {
+      throw new IllegalArgumentException("Got " + bucketBounds.length + " bucket bounds and "
+          + bucketCounts.length + " bucket counts");
+    }
+    this.bucketBounds = bucketBounds.clone();
+    this.bucketCounts = bucketCounts.clone();
+    long total = 0;
+    for (long bucketCount : bucketCounts) {
+      total += bucketCount;
+    }
+    this.count = total;
+    this.sum = sum;
+    this.min = min;
+    this.max = max;
+  }
+
+  /**
+   * Merge two histograms of the same metric
+   */
+  public static HistogramValue merge(HistogramValue first, HistogramValue second) {
+    if (first.count == 0) {
+      return second;
+    }
+    if (second.count == 0) {
+      return first;
+    }
+    int size = first.bucketBounds.length + second.bucketBounds.length;
+    double[] bounds = new double[size];
+    long[] counts = new long[size];
+    int i = 0;
+    int j = 0;
+    int k = 0;
+    while (i < first.bucketBounds.length || j < second.bucketBounds.length) {
+      if (j == second.bucketBounds.length
+          || (i < first.bucketBounds.length && first.bucketBounds[i] < second.bucketBounds[j])) {
+        bounds[k] = first.bucketBounds[i];
+        counts[k++] = first.bucketCounts[i++];
+      } else if (i == first.bucketBounds.length
+          || second.bucketBounds[j] < first.bucketBounds[i]) {
+        bounds[k] = second.bucketBounds[j];
+        counts[k++] = second.bucketCounts[j++];
+      } else {
+        bounds[k] = first.bucketBounds[i];
+        counts[k++] = first.bucketCounts[i++] + second.bucketCounts[j++];
+      }
+    }
+    return new HistogramValue(Arrays.copyOf(bounds, k), Arrays.copyOf(counts, k),
+        first.sum + second.sum, Math.min(first.min, second.min),
+        Math.max(first.max, second.max));
+  }
+
+  /**
+   * Estimate the value at the given quantile, the upper bound of the bucket it falls in,
+   * capped by the largest value
+   *
+   * @param quantile the quantile, between 0 and 1
+   * @return the estimated value, or 0 if the histogram is empty
+   */
+  public double getQuantile(double quantile) {
+    if (count == 0) {
+      return 0;
+    }
+    // The rank of the value at the quantile, from 1 to count
+    long rank = Math.max(1, (long) Math.ceil(quantile * count));
+    long seen = 0;
+    for (int i = 0; i < bucketCounts.length; i++) {
+      seen += bucketCounts[i];
+      if (seen >= rank) {
+        return Math.min(bucketBounds[i], max);
+      }
+    }
+    return max;
+  }
+
+  public double[] getBucketBounds() {
+    return bucketBounds.clone();
+  }
+
+  public long[] getBucketCounts() {
+    return bucketCounts.clone();
+  }
+
+  public long getCount() {
+    return count;
+  }
+
+  public double getSum() {
+    return sum;
+  }
+
+  public double getMin() {
+    return min;
+  }
+
+  public double getMax() {
+    return max;
+  }
+
+  public double getMean() {
+    return count == 0 ? 0 : sum / count;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("{count=%d, sum=%s, min=%s, max=%s, p50=%s, p99=%s, p999=%s}",
+        count, sum, min, max, getQuantile(0.5), getQuantile(0.99), getQuantile(0.999));
+  }
+}
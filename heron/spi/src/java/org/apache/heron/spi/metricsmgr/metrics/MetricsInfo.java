@@ -21,14 +21,54 @@ package org.apache.heron.spi.metricsmgr.metrics;
 
 /**
  * An immutable class providing a view of MetricsInfo
- * The value is in type String, and IMetricsSink would determine how to parse it.
+ * The value is typed: a long or a double for the numeric metrics of the java instances,
+ * a histogram, or a String for the metrics reported as text, e.g. by the stream manager.
+ * IMetricsSink could read it through getType() and the matching getter, or still read it as
+ * a String through getValue() and determine how to parse it.
  */
 public class MetricsInfo {
+  /**
+   * The type of the value of a metric
+   */
+  public enum Type {
+    STRING,
+    LONG,
+    DOUBLE,
+    HISTOGRAM
+  }
+
   private final String name;
-  private final String value;
+  private final Type type;
+  private final long longValue;
+  private final double doubleValue;
+  private final HistogramValue histogramValue;
+  // Formatted on the first call to getValue() for typed values. Formatting it more than once
+  // from different sinks is harmless, so it is not synchronized.
+  private String value;
 
   public MetricsInfo(String name, String value) {
+    this(name, Type.STRING, 0, 0, null, value);
+  }
+
+  public MetricsInfo(String name, long value) {
+    this(name, Type.LONG, value, 0, null, null);
+  }
+
+  public MetricsInfo(String name, double value) {
+    this(name, Type.DOUBLE, 0, value, null, null);
+  }
+
+  public MetricsInfo(String name, HistogramValue value) {
+    this(name, Type.HISTOGRAM, 0, 0, value, null);
+  }
+
+  private MetricsInfo(String name, Type type, long longValue, double doubleValue,
+                      HistogramValue histogramValue, String value) {
     this.name = name;
+    this.type = type;
+    this.longValue = longValue;
+    this.doubleValue = doubleValue;
+    this.histogramValue = histogramValue;
     this.value = value;
   }
 
@@ -42,14 +82,91 @@ public class MetricsInfo {
   }
 
   /**
-   * Get the value of the metric
+   * Get the type of the value of the metric
+   *
+   * @return the type of the value
+   */
+  public Type getType() {
+    return type;
+  }
+
+  /**
+   * Whether the value of the metric is a long or a double
+   *
+   * @return true if the value is numeric
+   */
+  public boolean isNumeric() {
+    return type == Type.LONG || type == Type.DOUBLE;
+  }
+
+  /**
+   * Get the value of the metric as a String, formatting the typed values
    *
    * @return the value of the metric
    */
   public String getValue() {
+    if (value == null) {
+      switch (type) {
+        case LONG:
+          value = Long.toString(longValue);
+          break;
+        case DOUBLE:
+          value = Double.toString(doubleValue);
+          break;
+        default:
+          value = String.valueOf(histogramValue);
+      }
+    }
     return value;
   }
 
+  /**
+   * Get the value of the metric as a long, parsing it if it is a String
+   *
+   * @return the value of the metric
+   * @throws NumberFormatException if the value is not a long
+   */
+  public long getLongValue() {
+    switch (type) {
+      case LONG:
+        return longValue;
+      case DOUBLE:
+        return (long) doubleValue;
+      case STRING:
+        return Long.parseLong(value);
+      default:
+        throw new NumberFormatException("Metric " + name + " is a histogram");
+    }
+  }
+
+  /**
+   * Get the value of the metric as a double, parsing it if it is a String
+   *
+   * @return the value of the metric
+   * @throws NumberFormatException if the value is not a number
+   */
+  public double getDoubleValue() {
+    switch (type) {
+      case LONG:
+        return longValue;
+      case DOUBLE:
+        return doubleValue;
+      case STRING:
+        return Double.parseDouble(value);
+      default:
+        throw new NumberFormatException("Metric " + name + " is a histogram");
+    }
+  }
+
+  /**
+   * Get the value of the metric as a histogram
+   *
+   * @return the histogram, or null if the value is not a histogram
+   */
+  public HistogramValue getHistogramValue() {
+    return histogramValue;
+  }
+
   @Override
   public String toString() {
     return String.format("%s = %s", getName(), getValue());
@@ -19,8 +19,10 @@
 
 package org.apache.heron.spi.metricsmgr.sink;
 
+import java.util.List;
 import java.util.Map;
 
+import org.apache.heron.spi.metricsmgr.metrics.MetricsInfo;
 import org.apache.heron.spi.metricsmgr.metrics.MetricsRecord;
 
 /**
@@ -28,7 +30,10 @@ import org.apache.heron.spi.metricsmgr.metrics.MetricsRecord;
  * Implementations of this interface consume the {@link MetricsRecord} gathered
  * by Metrics Manager. The Metrics Manager pushes the {@link MetricsRecord} to the sink using
  * {@link #processRecord(MetricsRecord)} method.
- * And {@link #flush()} is called at an interval according to the configuration
+ * And {@link #flush()} is called at an interval according to the configuration <p>
+ * The values of the metrics are typed, see {@link MetricsInfo}. Sinks exporting numbers
+ * should read them with getDoubleValue() rather than parse getValue(), which formats them
+ * for the sinks written against the String values.
  */
 public interface IMetricsSink extends AutoCloseable {
   /**
@@ -48,6 +53,29 @@ public interface IMetricsSink extends AutoCloseable {
    */
   void processRecord(MetricsRecord record);
 
+  /**
+   * Process a batch of metrics records, in the order they were received.
+   * Sinks could override it to write the whole batch at once.
+   *
+   * @param records the records to put
+   */
+  default void processRecords(List<MetricsRecord> records) {
+    for (MetricsRecord record : records) {
+      processRecord(record);
+    }
+  }
+
+  /**
+   * Whether processRecords() could be called by several threads at once. If so, and the sink
+   * is configured with more than one worker thread, a batch of records is split between the
+   * workers, so that the records of a batch could be processed in any order.
+   *
+   * @return true if the sink is thread-safe, false by default
+   */
+  default boolean isThreadSafe() {
+    return false;
+  }
+
   /**
    * Flush any buffered metrics
    * It would be called at an interval according to the configuration
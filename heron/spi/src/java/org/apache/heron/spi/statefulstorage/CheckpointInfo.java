@@ -40,6 +40,19 @@ public class CheckpointInfo {
     this.instanceId = instance.getInfo().getComponentIndex();
   }
 
+  private CheckpointInfo(String checkpointId, String componentName, int instanceId) {
+    this.checkpointId = checkpointId;
+    this.componentName = componentName;
+    this.instanceId = instanceId;
+  }
+
+  /**
+   * Get the information of another checkpoint of the same instance
+   */
+  public CheckpointInfo withCheckpointId(String otherCheckpointId) {
+    return new CheckpointInfo(otherCheckpointId, componentName, instanceId);
+  }
+
   public String getCheckpointId() {
     return checkpointId;
   }
@@ -19,8 +19,14 @@
 
 package org.apache.heron.spi.statefulstorage;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.Map;
 
+import com.google.protobuf.ByteString;
+
+import org.apache.heron.proto.ckptmgr.CheckpointManager;
+
 /**
  * The interface of all storage classes for checkpoints.
  * For each checkpoint, two types of data are stored:
@@ -58,6 +64,41 @@ public interface IStatefulStorage {
   Checkpoint restoreCheckpoint(final CheckpointInfo info)
         throws StatefulStorageException;
 
+  /**
+   * Retrieve instance checkpoint, resolving delta checkpoints. If the checkpoint only holds
+   * the changes since a base checkpoint, the bases are retrieved until a full snapshot is met.
+   * The result then holds that snapshot as its state and the changes as its deltas, oldest
+   * first.
+   * @param info The information (reference key) for the checkpoint partition.
+   * @return The checkpoint data, with the chain of deltas to apply to its state if any.
+   */
+  default Checkpoint restoreCheckpointChain(final CheckpointInfo info)
+      throws StatefulStorageException {
+    Checkpoint checkpoint = restoreCheckpoint(info);
+    CheckpointManager.InstanceStateCheckpoint state = checkpoint.getCheckpoint();
+    if (!state.hasBaseCheckpointId()) {
+      return checkpoint;
+    }
+
+    Deque<ByteString> deltas = new ArrayDeque<>();
+    while (state.hasBaseCheckpointId()) {
+      String baseCheckpointId = state.getBaseCheckpointId();
+      // Checkpoint ids grow over time, so this also guards against cycles
+      if (baseCheckpointId.compareTo(state.getCheckpointId()) >= 0) {
+        throw new StatefulStorageException(String.format(
+            "Checkpoint %s has an invalid base %s", state.getCheckpointId(), baseCheckpointId));
+      }
+      deltas.addFirst(state.getState());
+      state = restoreCheckpoint(info.withCheckpointId(baseCheckpointId)).getCheckpoint();
+    }
+
+    return new Checkpoint(CheckpointManager.InstanceStateCheckpoint.newBuilder()
+        .setCheckpointId(info.getCheckpointId())
+        .setState(state.getState())
+        .addAllDeltas(deltas)
+        .build());
+  }
+
   /**
    * Store medata data for component. Ideally in distributed storages this function should only
    * be called once for each component. In local storages, the function should be called by
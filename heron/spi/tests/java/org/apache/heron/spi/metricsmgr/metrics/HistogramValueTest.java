@@ -0,0 +1,77 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.apache.heron.spi.metricsmgr.metrics;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class HistogramValueTest {
+  private static final double DELTA = 1e-9;
+
+  /**
+   * Method: getQuantile()
+   */
+  @Test
+  public void testGetQuantile() throws Exception {
+    // 90 values up to 10, 9 up to 100 and 1 up to 1000
+    HistogramValue histogram = new HistogramValue(
+        new double[] {10, 100, 1000}, new long[] {90, 9, 1}, 2000, 1, 800);
+    Assert.assertEquals(100, histogram.getCount());
+    Assert.assertEquals(20, histogram.getMean(), DELTA);
+    Assert.assertEquals(10, histogram.getQuantile(0.5), DELTA);
+    Assert.assertEquals(10, histogram.getQuantile(0.9), DELTA);
+    Assert.assertEquals(100, histogram.getQuantile(0.99), DELTA);
+    // Capped by the largest value
+    Assert.assertEquals(800, histogram.getQuantile(0.999), DELTA);
+    Assert.assertEquals(800, histogram.getQuantile(1), DELTA);
+  }
+
+  @Test
+  public void testEmpty() throws Exception {
+    HistogramValue histogram = new HistogramValue(new double[0], new long[0], 0, 0, 0);
+    Assert.assertEquals(0, histogram.getCount());
+    Assert.assertEquals(0, histogram.getQuantile(0.99), DELTA);
+    Assert.assertEquals(0, histogram.getMean(), DELTA);
+  }
+
+  /**
+   * Method: merge()
+   */
+  @Test
+  public void testMerge() throws Exception {
+    HistogramValue first = new HistogramValue(
+        new double[] {1, 4, 16}, new long[] {1, 2, 3}, 50, 1, 16);
+    HistogramValue second = new HistogramValue(
+        new double[] {2, 4, 32}, new long[] {4, 5, 6}, 150, 2, 30);
+    HistogramValue merged = HistogramValue.merge(first, second);
+
+    Assert.assertArrayEquals(new double[] {1, 2, 4, 16, 32}, merged.getBucketBounds(), DELTA);
+    Assert.assertArrayEquals(new long[] {1, 4, 7, 3, 6}, merged.getBucketCounts());
+    Assert.assertEquals(21, merged.getCount());
+    Assert.assertEquals(200, merged.getSum(), DELTA);
+    Assert.assertEquals(1, merged.getMin(), DELTA);
+    Assert.assertEquals(30, merged.getMax(), DELTA);
+
+    HistogramValue empty = new HistogramValue(new double[0], new long[0], 0, 0, 0);
+    Assert.assertSame(first, HistogramValue.merge(empty, first));
+    Assert.assertSame(first, HistogramValue.merge(first, empty));
+  }
+}
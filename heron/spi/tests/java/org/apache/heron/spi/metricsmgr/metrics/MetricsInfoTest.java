@@ -66,4 +66,41 @@ public class MetricsInfoTest {
       Assert.assertTrue(metricsInfos.get(i).getValue().equals(VALUE + i));
     }
   }
+
+  /**
+   * Method: getType(), getLongValue(), getDoubleValue(), getValue() of typed values
+   */
+  @Test
+  public void testTypedValues() throws Exception {
+    MetricsInfo longInfo = new MetricsInfo(NAME, 42L);
+    Assert.assertEquals(MetricsInfo.Type.LONG, longInfo.getType());
+    Assert.assertTrue(longInfo.isNumeric());
+    Assert.assertEquals(42L, longInfo.getLongValue());
+    Assert.assertEquals(42.0, longInfo.getDoubleValue(), 0);
+    Assert.assertEquals("42", longInfo.getValue());
+
+    MetricsInfo doubleInfo = new MetricsInfo(NAME, 1.5);
+    Assert.assertEquals(MetricsInfo.Type.DOUBLE, doubleInfo.getType());
+    Assert.assertTrue(doubleInfo.isNumeric());
+    Assert.assertEquals(1.5, doubleInfo.getDoubleValue(), 0);
+    Assert.assertEquals("1.5", doubleInfo.getValue());
+
+    MetricsInfo stringInfo = new MetricsInfo(NAME, "2.5");
+    Assert.assertEquals(MetricsInfo.Type.STRING, stringInfo.getType());
+    Assert.assertFalse(stringInfo.isNumeric());
+    Assert.assertEquals(2.5, stringInfo.getDoubleValue(), 0);
+
+    HistogramValue histogram =
+        new HistogramValue(new double[] {1, 2}, new long[] {3, 1}, 5, 1, 2);
+    MetricsInfo histogramInfo = new MetricsInfo(NAME, histogram);
+    Assert.assertEquals(MetricsInfo.Type.HISTOGRAM, histogramInfo.getType());
+    Assert.assertFalse(histogramInfo.isNumeric());
+    Assert.assertSame(histogram, histogramInfo.getHistogramValue());
+    Assert.assertEquals(histogram.toString(), histogramInfo.getValue());
+  }
+
+  @Test(expected = NumberFormatException.class)
+  public void testNotNumeric() throws Exception {
+    new MetricsInfo(NAME, VALUE).getDoubleValue();
+  }
 }
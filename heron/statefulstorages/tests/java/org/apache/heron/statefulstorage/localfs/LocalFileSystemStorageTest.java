@@ -23,6 +23,8 @@ import java.io.File;
 import java.util.HashMap;
 import java.util.Map;
 
+import com.google.protobuf.ByteString;
+
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -42,6 +44,7 @@ import static org.junit.Assert.assertEquals;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyBoolean;
 import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.contains;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
@@ -129,6 +132,41 @@ public class LocalFileSystemStorageTest {
     assertEquals(checkpoint, ckpt.getCheckpoint());
   }
 
+  @Test
+  public void testRestoreCheckpointChain() throws Exception {
+    InstanceStateCheckpoint full = InstanceStateCheckpoint.newBuilder()
+        .setCheckpointId("ckpt-1")
+        .setState(ByteString.copyFromUtf8("full"))
+        .build();
+    InstanceStateCheckpoint delta2 = InstanceStateCheckpoint.newBuilder()
+        .setCheckpointId("ckpt-2")
+        .setBaseCheckpointId("ckpt-1")
+        .setState(ByteString.copyFromUtf8("delta2"))
+        .build();
+    InstanceStateCheckpoint delta3 = InstanceStateCheckpoint.newBuilder()
+        .setCheckpointId("ckpt-3")
+        .setBaseCheckpointId("ckpt-2")
+        .setState(ByteString.copyFromUtf8("delta3"))
+        .build();
+
+    PowerMockito.spy(FileUtils.class);
+    PowerMockito.doReturn(full.toByteArray())
+        .when(FileUtils.class, "readFromFile", contains("/ckpt-1/"));
+    PowerMockito.doReturn(delta2.toByteArray())
+        .when(FileUtils.class, "readFromFile", contains("/ckpt-2/"));
+    PowerMockito.doReturn(delta3.toByteArray())
+        .when(FileUtils.class, "readFromFile", contains("/ckpt-3/"));
+
+    Checkpoint ckpt = localFileSystemStorage.restoreCheckpointChain(
+        new CheckpointInfo("ckpt-3", instance));
+
+    assertEquals("ckpt-3", ckpt.getCheckpoint().getCheckpointId());
+    assertEquals(full.getState(), ckpt.getCheckpoint().getState());
+    assertEquals(2, ckpt.getCheckpoint().getDeltasCount());
+    assertEquals(delta2.getState(), ckpt.getCheckpoint().getDeltas(0));
+    assertEquals(delta3.getState(), ckpt.getCheckpoint().getDeltas(1));
+  }
+
   @Test
   public void testDispose() throws Exception {
     PowerMockito.spy(FileUtils.class);
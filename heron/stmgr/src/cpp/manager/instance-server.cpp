@@ -739,6 +739,21 @@ void InstanceServer::SendStartInstanceStatefulProcessing(const std::string& _ckp
   }
 }
 
+void InstanceServer::SendInstanceStateCheckpointSaved(sp_int32 _task_id,
+                                                      const std::string& _ckpt_id) {
+  auto iter = instance_info_.find(_task_id);
+  if (iter == instance_info_.end() || !iter->second->conn_) {
+    LOG(WARNING) << "Cannot send InstanceStateCheckpointSaved to task "
+                 << _task_id << " because it is not connected to us";
+    return;
+  }
+  proto::ckptmgr::InstanceStateCheckpointSaved* message = nullptr;
+  message = __global_protobuf_pool_acquire__(message);
+  message->set_checkpoint_id(_ckpt_id);
+  SendMessage(iter->second->conn_, *message);
+  __global_protobuf_pool_release__(message);
+}
+
 void InstanceServer::ClearCache() {
   stateful_gateway_->Clear();
 }
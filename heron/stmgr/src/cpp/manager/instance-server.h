@@ -86,6 +86,8 @@ class InstanceServer : public Server {
   // Send StartInstanceStatefulProcessing message to all instances so that they can start
   // processing
   void SendStartInstanceStatefulProcessing(const std::string& _ckpt_id);
+  // Tell _task_id that its state was saved for _ckpt_id, so that it can take deltas of it
+  void SendInstanceStateCheckpointSaved(sp_int32 _task_id, const std::string& _ckpt_id);
   // Clears all buffered state in stateful-gateway
   virtual void ClearCache();
 
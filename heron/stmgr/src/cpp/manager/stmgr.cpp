@@ -1047,6 +1047,7 @@ void StMgr::HandleSavedInstanceState(const proto::system::Instance& _instance,
             << _instance.info().task_id() << " for checkpoint "
             << _checkpoint_id;
   tmaster_client_->SavedInstanceState(_instance, _checkpoint_id);
+  instance_server_->SendInstanceStateCheckpointSaved(_instance.info().task_id(), _checkpoint_id);
 }
 
 // Invoked by CheckpointMgr Client when it retreives the state of an instance
@@ -46,6 +46,7 @@ const sp_string METRIC_GLOBAL_CONSISTENT_CKPT = "__globally_consistent_ckpt";
 
 
 // TODO(nlu): make this number from config
+// Keep in sync with Config.MAX_STATEFUL_FULL_CHECKPOINT_INTERVAL of the java api
 const int32_t MOST_CHECKPOINTS_NUMBER = 5;
 
 StatefulController::StatefulController(const std::string& _topology_name,
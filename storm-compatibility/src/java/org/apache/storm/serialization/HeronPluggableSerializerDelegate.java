@@ -18,16 +18,20 @@
 
 package org.apache.storm.serialization;
 
+import java.io.OutputStream;
 import java.util.Map;
 
 import com.esotericsoftware.kryo.Kryo;
 import com.esotericsoftware.kryo.io.Input;
 import com.esotericsoftware.kryo.io.Output;
 
+import org.apache.heron.api.serializer.KryoStreamWriter;
+
 public class HeronPluggableSerializerDelegate implements
     org.apache.heron.api.serializer.IPluggableSerializer {
   private Kryo kryo;
   private Output kryoOut;
+  private KryoStreamWriter kryoStreamWriter;
   private Input kryoIn;
 
   public HeronPluggableSerializerDelegate() {
@@ -38,6 +42,7 @@ public class HeronPluggableSerializerDelegate implements
   public void initialize(Map config) {
     kryo = SerializationFactory.getKryo(config);
     kryoOut = new Output(2000, 2000000000);
+    kryoStreamWriter = new KryoStreamWriter();
     kryoIn = new Input(1);
   }
 
@@ -48,6 +53,11 @@ public class HeronPluggableSerializerDelegate implements
     return kryoOut.toBytes();
   }
 
+  @Override
+  public void serialize(Object object, OutputStream output) {
+    kryoStreamWriter.writeClassAndObject(kryo, object, output);
+  }
+
   @Override
   public Object deserialize(byte[] input) {
     kryoIn.setBuffer(input);
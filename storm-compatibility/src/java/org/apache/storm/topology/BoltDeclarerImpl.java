@@ -87,6 +87,17 @@ public class BoltDeclarerImpl implements BoltDeclarer {
     return this;
   }
 
+  @Override
+  public BoltDeclarer partialKeyGrouping(String componentId, Fields fields) {
+    return partialKeyGrouping(componentId, Utils.DEFAULT_STREAM_ID, fields);
+  }
+
+  @Override
+  public BoltDeclarer partialKeyGrouping(String componentId, String streamId, Fields fields) {
+    delegate.partialKeyGrouping(componentId, streamId, fields.getDelegate());
+    return this;
+  }
+
   @Override
   public BoltDeclarer globalGrouping(String componentId) {
     return globalGrouping(componentId, Utils.DEFAULT_STREAM_ID);
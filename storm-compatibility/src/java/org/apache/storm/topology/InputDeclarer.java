@@ -29,6 +29,10 @@ public interface InputDeclarer<T extends InputDeclarer> {
 
   T fieldsGrouping(String componentId, String streamId, Fields fields);
 
+  T partialKeyGrouping(String componentId, Fields fields);
+
+  T partialKeyGrouping(String componentId, String streamId, Fields fields);
+
   T globalGrouping(String componentId);
 
   T globalGrouping(String componentId, String streamId);